@@ -11,6 +11,9 @@ plugins {
     application
 
     id("org.openjfx.javafxplugin") version "0.1.0"
+
+    // Microbenchmarks in src/jmh/java
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 repositories {
@@ -35,6 +38,10 @@ dependencies {
     // Bring in all the JPA interfaces
     implementation("org.hibernate:hibernate-core:5.6.15.Final")
 
+    // Second-level cache for Hibernate (JCache API + Ehcache as the provider)
+    implementation("org.hibernate:hibernate-jcache:5.6.15.Final")
+    implementation("org.ehcache:ehcache:3.10.8")
+
     // --- Security ---
     // For hashing passwords (BCrypt)
     implementation("org.springframework.security:spring-security-crypto:6.1.5")
@@ -48,6 +55,9 @@ dependencies {
     testImplementation(platform("org.junit:junit-bom:5.9.1"))
     testImplementation("org.junit.jupiter:junit-jupiter")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+
+    // Embedded database for the JPA repository tests (runs in MySQL mode)
+    testRuntimeOnly("com.h2database:h2:2.2.224")
 }
 
 application {
@@ -57,3 +67,31 @@ application {
 tasks.test {
     useJUnitPlatform()
 }
+
+// Benchmarks: ./gradlew :app:jmh
+// Optional overrides (comma-separated lists run every combination):
+//   -Pjmh.includes=RepositoryLookup    only benchmarks whose name matches
+//   -Pjmh.threads=8                    concurrent benchmark threads
+//   -Pjmh.datasetSize=1000,1000000     customers/accounts in the dataset
+//   -Pjmh.historyLength=10,10000       transactions per account
+//   -Pjmh.backend=mock                 repository backends ("mock", "file")
+// Results (throughput, average time, and the gc profiler's allocation rate)
+// go to app/build/results/jmh/results.json.
+fun jmhProperty(name: String): String? = findProperty("jmh.$name") as String?
+
+jmh {
+    jmhVersion.set("1.37")
+    benchmarkMode.set(listOf("thrpt", "avgt"))
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    threads.set(jmhProperty("threads")?.toInt() ?: 1)
+    profilers.set(listOf("gc"))
+    resultFormat.set("JSON")
+    jmhProperty("includes")?.let { includes.set(listOf(it)) }
+    for (param in listOf("datasetSize", "historyLength", "backend")) {
+        jmhProperty(param)?.let {
+            benchmarkParameters.put(param, objects.listProperty<String>().value(it.split(",")))
+        }
+    }
+}
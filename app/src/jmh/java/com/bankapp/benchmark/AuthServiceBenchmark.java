@@ -0,0 +1,82 @@
+package com.bankapp.benchmark;
+
+import com.bankapp.model.Customer;
+import com.bankapp.repository_impl.filter.BloomFilteredCustomerRepository;
+import com.bankapp.service.AuthService;
+import com.bankapp.service.exception.AuthException;
+import com.bankapp.service.impl.AuthServiceImpl;
+import com.bankapp.service.impl.LoginRateLimiter;
+import com.bankapp.service.impl.PasswordHasher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Login and registration. Both are dominated by BCrypt, so times are in
+ * milliseconds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AuthServiceBenchmark {
+
+  @Param({ "mock", "file" })
+  public String backend;
+
+  @Param({ "1000", "100000" })
+  public int datasetSize;
+
+  private BenchmarkDataset dataset;
+  private AuthService authService;
+
+  // Every registration needs a fresh username and email
+  private final AtomicLong registrations = new AtomicLong();
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    dataset = BenchmarkDataset.create(backend, datasetSize, 0);
+    // Limits high enough never to throttle: this measures the hashing, not the rate limiter
+    LoginRateLimiter unlimited = new LoginRateLimiter(1_000_000, Duration.ofNanos(1), 1024);
+    authService = new AuthServiceImpl(new BloomFilteredCustomerRepository(dataset.customerRepository),
+        new PasswordHasher(), unlimited, unlimited);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    dataset.close();
+  }
+
+  @Benchmark
+  public Customer login() throws Exception {
+    return authService.login(dataset.usernames[dataset.randomIndex()], BenchmarkDataset.PASSWORD);
+  }
+
+  @Benchmark
+  public boolean loginUnknownUser() {
+    // Should cost the same as a failed login for a real user
+    try {
+      authService.login("nobody" + dataset.randomIndex(), BenchmarkDataset.PASSWORD);
+      return true;
+    } catch (AuthException e) {
+      return false;
+    }
+  }
+
+  @Benchmark
+  public Customer register() throws Exception {
+    long n = registrations.incrementAndGet();
+    return authService.register("new" + n, BenchmarkDataset.PASSWORD, "New", "User", "new" + n + "@bench.example");
+  }
+}
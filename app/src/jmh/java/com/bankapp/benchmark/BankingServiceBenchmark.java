@@ -0,0 +1,86 @@
+package com.bankapp.benchmark;
+
+import com.bankapp.model.Transaction;
+import com.bankapp.service.BankingService;
+import com.bankapp.service.impl.AtomicBalances;
+import com.bankapp.service.impl.BankingServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The BankingService operations, against random accounts of a pre-loaded
+ * dataset. Each benchmark method gets a fresh dataset, so the history that
+ * deposit() writes doesn't leak into getTransactionsForAccount().
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BankingServiceBenchmark {
+
+  private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+  @Param({ "mock", "file" })
+  public String backend;
+
+  @Param({ "1000", "100000" })
+  public int datasetSize;
+
+  @Param({ "100" })
+  public int historyLength;
+
+  // "locks" (striped account locks) or "lockFree" (the AtomicBalances engine)
+  @Param({ "locks", "lockFree" })
+  public String engine;
+
+  private BenchmarkDataset dataset;
+  private BankingService bankingService;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    dataset = BenchmarkDataset.create(backend, datasetSize, historyLength);
+    bankingService = "lockFree".equals(engine)
+        ? new BankingServiceImpl(dataset.accountRepository, dataset.transactionRepository, new AtomicBalances(),
+            dataset.unitOfWork)
+        : new BankingServiceImpl(dataset.accountRepository, dataset.transactionRepository, dataset.unitOfWork);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    dataset.close();
+  }
+
+  @Benchmark
+  public Transaction deposit() throws Exception {
+    return bankingService.deposit(dataset.accountNumbers[dataset.randomIndex()], AMOUNT);
+  }
+
+  @Benchmark
+  public Transaction withdraw() throws Exception {
+    return bankingService.withdraw(dataset.accountNumbers[dataset.randomIndex()], AMOUNT);
+  }
+
+  @Benchmark
+  public List<Transaction> transfer() throws Exception {
+    int from = dataset.randomIndex();
+    int to = dataset.randomIndexOtherThan(from);
+    return bankingService.transfer(dataset.accountNumbers[from], dataset.accountNumbers[to], AMOUNT);
+  }
+
+  @Benchmark
+  public List<Transaction> getTransactionsForAccount() throws Exception {
+    return bankingService.getTransactionsForAccount(dataset.accountNumbers[dataset.randomIndex()]);
+  }
+}
@@ -0,0 +1,185 @@
+package com.bankapp.benchmark;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.AccountType;
+import com.bankapp.model.Customer;
+import com.bankapp.model.Transaction;
+import com.bankapp.model.TransactionType;
+import com.bankapp.repository.AccountRepository;
+import com.bankapp.repository.CustomerRepository;
+import com.bankapp.repository.TransactionRepository;
+import com.bankapp.repository.UnitOfWork;
+import com.bankapp.repository_impl.file.FileStore;
+import com.bankapp.repository_impl.mock.MockAccountRepository;
+import com.bankapp.repository_impl.mock.MockCustomerRepository;
+import com.bankapp.repository_impl.mock.MockTransactionRepository;
+import com.bankapp.repository_impl.mock.MockUnitOfWork;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+/**
+ * A pre-loaded set of repositories for the benchmarks.
+ * <p>
+ * Each customer gets one account, and each account gets a history of
+ * {@code historyLength} transactions. Every customer's password is
+ * {@link #PASSWORD}, hashed once up front (BCrypt is deliberately slow, so
+ * hashing per customer would make large datasets take minutes to build).
+ */
+final class BenchmarkDataset implements Closeable {
+
+  static final String PASSWORD = "benchmark-password";
+
+  // Large enough that benchmarked withdrawals and transfers never run dry
+  private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000000.00");
+
+  private static final int LOAD_CHUNK = 1_000;
+
+  final CustomerRepository customerRepository;
+  final AccountRepository accountRepository;
+  final TransactionRepository transactionRepository;
+  final UnitOfWork unitOfWork;
+
+  final List<Customer> customers;
+  final List<Account> accounts;
+
+  // Precomputed keys, so the benchmarks don't measure string formatting
+  final String[] accountNumbers;
+  final String[] usernames;
+  final String[] emails;
+
+  private final FileStore fileStore;
+  private final Path directory;
+
+  private BenchmarkDataset(String backend, int size, int historyLength) throws IOException {
+    // 1. --- Repositories for the chosen backend ---
+    switch (backend) {
+      case "mock":
+        customerRepository = new MockCustomerRepository();
+        accountRepository = new MockAccountRepository(size);
+        transactionRepository = new MockTransactionRepository();
+        unitOfWork = new MockUnitOfWork();
+        fileStore = null;
+        directory = null;
+        break;
+      case "file":
+        directory = Files.createTempDirectory("bankapp-benchmark");
+        fileStore = FileStore.open(directory);
+        customerRepository = fileStore.getCustomerRepository();
+        accountRepository = fileStore.getAccountRepository();
+        transactionRepository = fileStore.getTransactionRepository();
+        unitOfWork = fileStore.getUnitOfWork();
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown backend: " + backend);
+    }
+
+    // 2. --- Customers and accounts ---
+    // Loaded in chunks, each one unit of work, so a durable backend commits
+    // (and fsyncs) once per chunk rather than once per row
+    String passwordHash = new BCryptPasswordEncoder().encode(PASSWORD);
+    customers = new ArrayList<>(size);
+    accounts = new ArrayList<>(size);
+    for (int from = 0; from < size; from += LOAD_CHUNK) {
+      int to = Math.min(size, from + LOAD_CHUNK);
+      List<Account> chunk = new ArrayList<>(to - from);
+      for (int i = from; i < to; i++) {
+        Customer customer = new Customer(username(i), passwordHash, "First" + i, "Last" + i, email(i));
+        Account account = new Account(customer, AccountType.CHECKING, accountNumber(i));
+        account.setBalance(OPENING_BALANCE);
+        customers.add(customer);
+        chunk.add(account);
+      }
+      unitOfWork.execute(() -> {
+        chunk.forEach(account -> customerRepository.save(account.getCustomer()));
+        return accountRepository.saveAll(chunk);
+      });
+      accounts.addAll(chunk);
+    }
+
+    // 3. --- History: oldest entry first ---
+    LocalDateTime start = LocalDateTime.now().minusDays(historyLength);
+    for (int from = 0; from < size; from += LOAD_CHUNK) {
+      List<Transaction> history = new ArrayList<>();
+      for (Account account : accounts.subList(from, Math.min(size, from + LOAD_CHUNK))) {
+        for (int i = 0; i < historyLength; i++) {
+          Transaction tx = new Transaction(account, TransactionType.DEPOSIT, BigDecimal.ONE, "Seed");
+          tx.setTimestamp(start.plusDays(i));
+          history.add(tx);
+        }
+      }
+      unitOfWork.execute(() -> transactionRepository.saveAll(history));
+    }
+
+    accountNumbers = new String[size];
+    usernames = new String[size];
+    emails = new String[size];
+    for (int i = 0; i < size; i++) {
+      accountNumbers[i] = accountNumber(i);
+      usernames[i] = username(i);
+      emails[i] = email(i);
+    }
+  }
+
+  /**
+   * Builds a dataset.
+   *
+   * @param backend       "mock" or "file" (a store in a temporary directory).
+   * @param size          The number of customers (and accounts).
+   * @param historyLength The number of transactions per account.
+   */
+  static BenchmarkDataset create(String backend, int size, int historyLength) throws IOException {
+    if (size < 2) {
+      throw new IllegalArgumentException("Transfers need at least two accounts");
+    }
+    return new BenchmarkDataset(backend, size, historyLength);
+  }
+
+  static String username(int index) {
+    return "user" + index;
+  }
+
+  static String email(int index) {
+    return "user" + index + "@bench.example";
+  }
+
+  static String accountNumber(int index) {
+    return String.format("ACC%010d", index);
+  }
+
+  /**
+   * @return A random index into the dataset, from the calling thread's random.
+   */
+  int randomIndex() {
+    return ThreadLocalRandom.current().nextInt(accounts.size());
+  }
+
+  /**
+   * @return A random index different from {@code other}.
+   */
+  int randomIndexOtherThan(int other) {
+    int index = ThreadLocalRandom.current().nextInt(accounts.size() - 1);
+    return index >= other ? index + 1 : index;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (fileStore == null) {
+      return;
+    }
+    fileStore.close();
+    try (Stream<Path> files = Files.walk(directory)) {
+      files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package com.bankapp.benchmark;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.Transaction;
+import com.bankapp.repository_impl.metrics.InstrumentedAccountRepository;
+import com.bankapp.repository_impl.metrics.InstrumentedTransactionRepository;
+import com.bankapp.service.BankingService;
+import com.bankapp.service.impl.BankingServiceImpl;
+import com.bankapp.service.metrics.InstrumentedBankingService;
+import com.bankapp.service.metrics.MetricsRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of the metrics decorators: the same operations with the service
+ * and repositories bare, instrumented, and instrumented without counting
+ * allocations. getAccount() is the cheapest call there is, so it shows the
+ * overhead most plainly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InstrumentationBenchmark {
+
+  private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+  @Param({ "off", "on", "noAllocations" })
+  public String metrics;
+
+  @Param({ "100000" })
+  public int datasetSize;
+
+  private BenchmarkDataset dataset;
+  private BankingService bankingService;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    dataset = BenchmarkDataset.create("mock", datasetSize, 10);
+    if ("off".equals(metrics)) {
+      bankingService = new BankingServiceImpl(dataset.accountRepository, dataset.transactionRepository,
+          dataset.unitOfWork);
+    } else {
+      MetricsRegistry registry = new MetricsRegistry(!"noAllocations".equals(metrics));
+      bankingService = new InstrumentedBankingService(new BankingServiceImpl(
+          new InstrumentedAccountRepository(dataset.accountRepository, registry),
+          new InstrumentedTransactionRepository(dataset.transactionRepository, registry),
+          dataset.unitOfWork), registry);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    dataset.close();
+  }
+
+  @Benchmark
+  public Account getAccount() throws Exception {
+    return bankingService.getAccount(dataset.accountNumbers[dataset.randomIndex()]);
+  }
+
+  @Benchmark
+  public Transaction deposit() throws Exception {
+    return bankingService.deposit(dataset.accountNumbers[dataset.randomIndex()], AMOUNT);
+  }
+}
@@ -0,0 +1,109 @@
+package com.bankapp.benchmark;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.Customer;
+import com.bankapp.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every read method of the three repositories, against random keys of a
+ * pre-loaded dataset. Nothing here writes, so all methods see the same data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RepositoryLookupBenchmark {
+
+  @Param({ "mock", "file" })
+  public String backend;
+
+  @Param({ "1000", "100000" })
+  public int datasetSize;
+
+  @Param({ "100" })
+  public int historyLength;
+
+  private BenchmarkDataset dataset;
+  private LocalDateTime weekAgo;
+  private LocalDateTime now;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    dataset = BenchmarkDataset.create(backend, datasetSize, historyLength);
+    now = LocalDateTime.now();
+    weekAgo = now.minusDays(7);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    dataset.close();
+  }
+
+  // --- AccountRepository ---
+
+  @Benchmark
+  public Optional<Account> accountFindById() {
+    return dataset.accountRepository.findById(dataset.accounts.get(dataset.randomIndex()).getId());
+  }
+
+  @Benchmark
+  public Optional<Account> accountFindByAccountNumber() {
+    return dataset.accountRepository.findByAccountNumber(dataset.accountNumbers[dataset.randomIndex()]);
+  }
+
+  @Benchmark
+  public Set<Account> accountFindAllByCustomer() {
+    return dataset.accountRepository.findAllByCustomer(dataset.customers.get(dataset.randomIndex()));
+  }
+
+  // --- CustomerRepository ---
+
+  @Benchmark
+  public Optional<Customer> customerFindById() {
+    return dataset.customerRepository.findById(dataset.customers.get(dataset.randomIndex()).getId());
+  }
+
+  @Benchmark
+  public Optional<Customer> customerFindByUsername() {
+    return dataset.customerRepository.findByUsername(dataset.usernames[dataset.randomIndex()]);
+  }
+
+  @Benchmark
+  public Optional<Customer> customerFindByEmail() {
+    return dataset.customerRepository.findByEmail(dataset.emails[dataset.randomIndex()]);
+  }
+
+  @Benchmark
+  public List<Customer> customerFindAll() {
+    return dataset.customerRepository.findAll();
+  }
+
+  // --- TransactionRepository ---
+
+  @Benchmark
+  public List<Transaction> transactionFindAllByAccount() {
+    return dataset.transactionRepository.findAllByAccount(dataset.accounts.get(dataset.randomIndex()));
+  }
+
+  @Benchmark
+  public List<Transaction> transactionFindAllByAccountAndTimestampBetween() {
+    return dataset.transactionRepository.findAllByAccountAndTimestampBetween(
+        dataset.accounts.get(dataset.randomIndex()), weekAgo, now);
+  }
+}
@@ -8,6 +8,9 @@ public class MainApp extends Application {
 
   @Override
   public void start(Stage primaryStage) {
+    // 0. Parse every view in the background; the login view is first in line
+    ViewFactory.preloadAll();
+
     // 1. Create the ViewFactory, passing the main "Stage" (window)
     ViewFactory viewFactory = new ViewFactory(primaryStage);
 
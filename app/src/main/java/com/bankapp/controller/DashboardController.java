@@ -5,18 +5,20 @@ import com.bankapp.model.AccountType;
 import com.bankapp.model.Customer;
 import com.bankapp.service.BankingService;
 import com.bankapp.util.AlertUtils;
+import com.bankapp.util.BackgroundTasks;
 import com.bankapp.util.UserSession;
+import com.bankapp.util.ViewController;
 import com.bankapp.util.ViewFactory;
 import com.bankapp.util.DependencyFactory;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.stage.Stage;
 
-import java.math.BigDecimal;
 import java.util.Set;
 
-public class DashboardController {
+public class DashboardController implements ViewController {
 
   @FXML
   private Label welcomeLabel;
@@ -32,9 +34,19 @@ public class DashboardController {
   private Button transactionsButton;
   @FXML
   private Button addAccountButton;
+  @FXML
+  private ProgressIndicator loadingIndicator;
 
   private final BankingService bankingService;
 
+  // The user the dashboard is showing
+  private Customer user;
+
+  // Account loading runs in the background. Refreshes asked for while a load is
+  // running are folded into one more load once it finishes.
+  private boolean loading;
+  private boolean reloadRequested;
+
   public DashboardController() {
     // ⚠️ WARNING: For now, we are creating NEW mock repositories.
     // This means data created here won't be seen by other screens yet.
@@ -44,13 +56,6 @@ public class DashboardController {
 
   @FXML
   public void initialize() {
-    Customer currentUser = UserSession.getInstance().getCustomer();
-
-    if (currentUser != null) {
-      welcomeLabel.setText("Welcome, " + currentUser.getFirstName());
-      updateAccountInfo(currentUser);
-    }
-
     // Setup Buttons
     logoutButton.setOnAction(e -> handleLogout());
     addAccountButton.setOnAction(e -> handleCreateAccount());
@@ -60,16 +65,70 @@ public class DashboardController {
     transactionsButton.setOnAction(e -> AlertUtils.showInformation("Coming Soon", "Transaction history is next!"));
   }
 
-  private void updateAccountInfo(Customer user) {
+  @Override
+  public void onShow() {
+    user = UserSession.getInstance().getCustomer();
+
+    if (user != null) {
+      welcomeLabel.setText("Welcome, " + user.getFirstName());
+
+      // Placeholders until the accounts have loaded
+      balanceLabel.setText("$ ...");
+      accountNumLabel.setText("Loading accounts...");
+      transferButton.setDisable(true);
+      transactionsButton.setDisable(true);
+      addAccountButton.setDisable(true);
+      refreshAccounts();
+    }
+  }
+
+  /**
+   * Reloads the user's accounts in the background. If a load is already running,
+   * one more load follows it instead of a second one running alongside.
+   */
+  private void refreshAccounts() {
+    if (loading) {
+      reloadRequested = true;
+      return;
+    }
+    loading = true;
+    loadingIndicator.setVisible(true);
+
     // Fetch accounts for the user
-    Set<Account> accounts = bankingService.getAccountsForCustomer(user.getId());
+    Customer loadingFor = user;
+    Long customerId = loadingFor.getId();
+    BackgroundTasks.run(() -> bankingService.getAccountsForCustomer(customerId), accounts -> {
+      // The view is reused, so a different user may have logged in since the load started
+      if (loadingFor == user) {
+        updateAccountInfo(accounts);
+      } else {
+        reloadRequested = true;
+      }
+      loadFinished();
+    }, error -> {
+      accountNumLabel.setText("Could not load accounts");
+      addAccountButton.setDisable(false);
+      loadFinished();
+    });
+  }
 
+  private void loadFinished() {
+    loading = false;
+    loadingIndicator.setVisible(false);
+    if (reloadRequested && user != null) {
+      reloadRequested = false;
+      refreshAccounts();
+    }
+  }
+
+  private void updateAccountInfo(Set<Account> accounts) {
     if (accounts.isEmpty()) {
       balanceLabel.setText("$ 0.00");
       accountNumLabel.setText("No Active Accounts");
       // Disable buttons if no account
       transferButton.setDisable(true);
       transactionsButton.setDisable(true);
+      addAccountButton.setDisable(false);
     } else {
       // For simplicity, just grab the first account found
       Account primaryAccount = accounts.iterator().next();
@@ -83,20 +142,19 @@ public class DashboardController {
   }
 
   private void handleCreateAccount() {
-    try {
-      // Create a default checking account for the current user
-      Customer user = UserSession.getInstance().getCustomer();
-      // We generate a random account number for now
-      String randomAccNum = "CH-" + (int) (Math.random() * 10000);
-
-      bankingService.createAccount(user, AccountType.CHECKING, randomAccNum);
+    // Create a default checking account for the current user
+    // We generate a random account number for now
+    String randomAccNum = "CH-" + (int) (Math.random() * 10000);
 
+    Customer owner = user;
+    addAccountButton.setDisable(true); // One account at a time
+    BackgroundTasks.run(() -> bankingService.createAccount(owner, AccountType.CHECKING, randomAccNum), account -> {
       AlertUtils.showInformation("Success", "New Checking Account Opened!");
-      updateAccountInfo(user); // Refresh the UI
-
-    } catch (Exception e) {
-      AlertUtils.showError("Error", "Could not create account: " + e.getMessage());
-    }
+      refreshAccounts(); // Refresh the UI
+    }, error -> {
+      addAccountButton.setDisable(false);
+      AlertUtils.showError("Error", "Could not create account: " + error.getMessage());
+    });
   }
 
   private void handleLogout() {
@@ -3,17 +3,31 @@ package com.bankapp.controller;
 import com.bankapp.model.Customer;
 import com.bankapp.service.AuthService;
 import com.bankapp.service.exception.AuthException;
+import com.bankapp.service.exception.ServiceBusyException;
+import com.bankapp.util.BackgroundTasks;
 import com.bankapp.util.UserSession;
 import com.bankapp.util.DependencyFactory;
+import com.bankapp.util.ViewController;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.PasswordField;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
 import com.bankapp.util.ViewFactory;
 
-public class LoginController {
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class LoginController implements ViewController {
+
+  private static final Logger LOGGER = Logger.getLogger(LoginController.class.getName());
+
+  // Identifies this running copy of the app to the login throttle, so all the
+  // attempts made from it share one budget whichever usernames they try
+  private static final String CLIENT_ID = "desktop-" + UUID.randomUUID();
 
   // These fields link to the fx:id in your FXML file
   @FXML
@@ -26,6 +40,8 @@ public class LoginController {
   private Button registerButton;
   @FXML
   private Label errorLabel;
+  @FXML
+  private ProgressIndicator loginProgress;
 
   private final AuthService authService;
 
@@ -47,31 +63,61 @@ public class LoginController {
     });
   }
 
+  @Override
+  public void onShow() {
+    // A fresh form on every visit (e.g. after logging out)
+    usernameField.setText("");
+    passwordField.setText("");
+    setSigningIn(false);
+    errorLabel.setVisible(false);
+  }
+
   private void handleLogin() {
     String username = usernameField.getText();
     String password = passwordField.getText();
 
-    try {
-      // 1. Attempt to login
-      Customer customer = authService.login(username, password);
+    // 1. Attempt to login in the background (checking the password takes a while).
+    // The form is locked meanwhile, so a second click can't start a second attempt.
+    setSigningIn(true);
+    BackgroundTasks.run(() -> authService.login(username, password, CLIENT_ID), this::onLoginSucceeded, this::onLoginFailed);
+  }
 
-      // 2. Store the user in the session
-      UserSession.getInstance().login(customer);
+  private void onLoginSucceeded(Customer customer) {
+    // 2. Store the user in the session
+    UserSession.getInstance().login(customer);
 
-      System.out.println("Login Successful for: " + customer.getUsername());
+    System.out.println("Login Successful for: " + customer.getUsername());
 
-      // 3. --- NAVIGATION LOGIC ---
-      // Get the current window (Stage) from the login button
-      Stage stage = (Stage) loginButton.getScene().getWindow();
+    // 3. --- NAVIGATION LOGIC ---
+    // Get the current window (Stage) from the login button
+    Stage stage = (Stage) loginButton.getScene().getWindow();
 
-      // Create the ViewFactory and show the Dashboard
-      ViewFactory vf = new ViewFactory(stage);
-      vf.show(ViewFactory.ViewType.DASHBOARD);
+    // Create the ViewFactory and show the Dashboard
+    ViewFactory vf = new ViewFactory(stage);
+    vf.show(ViewFactory.ViewType.DASHBOARD);
+  }
+
+  private void onLoginFailed(Throwable error) {
+    setSigningIn(false);
+
+    // 4. Failure - Show error in the label
+    if (error instanceof AuthException || error instanceof ServiceBusyException) {
+      errorLabel.setText(error.getMessage());
+    } else {
+      errorLabel.setText("Could not sign in. Please try again.");
+      LOGGER.log(Level.WARNING, "Sign-in failed unexpectedly", error);
+    }
+    errorLabel.setVisible(true);
+  }
 
-    } catch (AuthException e) {
-      // 4. Failure - Show error in the label
-      errorLabel.setText(e.getMessage());
-      errorLabel.setVisible(true);
+  private void setSigningIn(boolean signingIn) {
+    loginButton.setDisable(signingIn);
+    registerButton.setDisable(signingIn);
+    usernameField.setDisable(signingIn);
+    passwordField.setDisable(signingIn);
+    loginProgress.setVisible(signingIn);
+    if (signingIn) {
+      errorLabel.setVisible(false);
     }
   }
 }
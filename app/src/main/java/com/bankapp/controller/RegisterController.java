@@ -1,18 +1,28 @@
 package com.bankapp.controller;
 
+import com.bankapp.model.Customer;
 import com.bankapp.service.AuthService;
+import com.bankapp.service.exception.ServiceBusyException;
 import com.bankapp.service.exception.UserAlreadyExistsException;
 import com.bankapp.util.AlertUtils;
+import com.bankapp.util.BackgroundTasks;
 import com.bankapp.util.ViewFactory;
 import com.bankapp.util.DependencyFactory;
+import com.bankapp.util.ViewController;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.PasswordField;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
 
-public class RegisterController {
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class RegisterController implements ViewController {
+
+  private static final Logger LOGGER = Logger.getLogger(RegisterController.class.getName());
 
   @FXML
   private TextField firstNameField;
@@ -30,6 +40,8 @@ public class RegisterController {
   private Button backButton;
   @FXML
   private Label errorLabel;
+  @FXML
+  private ProgressIndicator registerProgress;
 
   private final AuthService authService;
 
@@ -47,24 +59,61 @@ public class RegisterController {
     backButton.setOnAction(event -> goBackToLogin());
   }
 
+  @Override
+  public void onShow() {
+    // A fresh form on every visit
+    firstNameField.setText("");
+    lastNameField.setText("");
+    emailField.setText("");
+    usernameField.setText("");
+    passwordField.setText("");
+    setRegistering(false);
+    errorLabel.setVisible(false);
+  }
+
   private void handleRegister() {
-    try {
-      authService.register(
-          usernameField.getText(),
-          passwordField.getText(),
-          firstNameField.getText(),
-          lastNameField.getText(),
-          emailField.getText());
-
-      AlertUtils.showInformation("Success", "Account created! Please log in.");
-      goBackToLogin();
-
-    } catch (UserAlreadyExistsException e) {
-      errorLabel.setText(e.getMessage());
-      errorLabel.setVisible(true);
-    } catch (Exception e) {
-      errorLabel.setText("Error: " + e.getMessage());
-      errorLabel.setVisible(true);
+    String username = usernameField.getText();
+    String password = passwordField.getText();
+    String firstName = firstNameField.getText();
+    String lastName = lastNameField.getText();
+    String email = emailField.getText();
+
+    // Register in the background (hashing the password takes a while).
+    // The form is locked meanwhile, so a second click can't register twice.
+    setRegistering(true);
+    BackgroundTasks.run(() -> authService.register(username, password, firstName, lastName, email),
+        this::onRegisterSucceeded, this::onRegisterFailed);
+  }
+
+  private void onRegisterSucceeded(Customer customer) {
+    AlertUtils.showInformation("Success", "Account created! Please log in.");
+    goBackToLogin();
+  }
+
+  private void onRegisterFailed(Throwable error) {
+    setRegistering(false);
+    if (error instanceof UserAlreadyExistsException || error instanceof ServiceBusyException) {
+      errorLabel.setText(error.getMessage());
+    } else if (error instanceof IllegalArgumentException) {
+      errorLabel.setText("Error: " + error.getMessage()); // A field the form didn't check
+    } else {
+      errorLabel.setText("Could not create the account. Please try again.");
+      LOGGER.log(Level.WARNING, "Registration failed unexpectedly", error);
+    }
+    errorLabel.setVisible(true);
+  }
+
+  private void setRegistering(boolean registering) {
+    registerButton.setDisable(registering);
+    backButton.setDisable(registering);
+    firstNameField.setDisable(registering);
+    lastNameField.setDisable(registering);
+    emailField.setDisable(registering);
+    usernameField.setDisable(registering);
+    passwordField.setDisable(registering);
+    registerProgress.setVisible(registering);
+    if (registering) {
+      errorLabel.setVisible(false);
     }
   }
 
@@ -5,6 +5,7 @@ import java.math.BigDecimal;
 
 import java.util.Objects;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
@@ -16,15 +17,25 @@ import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 @Entity // Tells JPA this class is a database entity
 @Table(name = "accounts") // Maps this class to the 'accounts' table in MySQL
+@Cacheable // Keep accounts in Hibernate's second-level cache
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache // Lookups by account number can be served from the cache too
 public class Account {
 
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
 
+  @NaturalId // The business key; never changes once the account is opened
   @Column(unique = true, nullable = false)
   private String accountNumber;
 
@@ -35,6 +46,12 @@ public class Account {
   @Column(nullable = false)
   private BigDecimal balance; // Always BigDecimal for money
 
+  // Optimistic locking: saving a copy older than the stored row fails instead of overwriting it.
+  // A primitive, so an account with an ID but no version yet still counts as saved.
+  @Version
+  @Column(nullable = false)
+  private long version;
+
   @Column(name = "opened_date", nullable = false)
   private LocalDate openedDate;
 
@@ -86,6 +103,14 @@ public class Account {
     this.balance = balance;
   }
 
+  public long getVersion() {
+    return version;
+  }
+
+  public void setVersion(long version) {
+    this.version = version;
+  }
+
   public LocalDate getOpenedDate() {
     return openedDate;
   }
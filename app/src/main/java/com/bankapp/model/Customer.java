@@ -5,6 +5,7 @@ import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Embedded;
@@ -16,8 +17,13 @@ import javax.persistence.Id;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 @Entity // 1. Tells JPA this class is a database entity
 @Table(name = "customers") // 2. Maps this class to the 'customers' table in MySQL
+@Cacheable // Keep customers in Hibernate's second-level cache
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Customer {
 
     @Id // 3. Marks this as the Primary Key
@@ -13,16 +13,24 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
+import javax.persistence.TableGenerator;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+    // Serves "WHERE account_id = ? ORDER BY timestamp" and the date-range queries
+    @Index(name = "idx_transactions_account_time", columnList = "account_id, timestamp")
+})
 public class Transaction {
 
+  // Not IDENTITY: Hibernate can't batch inserts when the database assigns the ID.
+  // A pooled table generator hands out IDs in blocks, so inserts can be batched.
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.TABLE, generator = "transaction_ids")
+  @TableGenerator(name = "transaction_ids", table = "id_generators", pkColumnValue = "transactions", allocationSize = 50)
   private Long id;
 
   @Column(nullable = false)
@@ -41,6 +49,11 @@ public class Transaction {
   @Column(name = "correlation_id")
   private UUID correlationId; // Links two transactions to a transfer
 
+  // Sum of the account's ledger amounts up to and including this entry, in
+  // (timestamp, id) order. Maintained by the repositories, for balance-at-time queries.
+  @Column(name = "running_total")
+  private BigDecimal runningTotal;
+
   @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "account_id", nullable = false)
   private Account account;
@@ -105,6 +118,14 @@ public class Transaction {
     this.correlationId = correlationId;
   }
 
+  public BigDecimal getRunningTotal() {
+    return runningTotal;
+  }
+
+  public void setRunningTotal(BigDecimal runningTotal) {
+    this.runningTotal = runningTotal;
+  }
+
   public Account getAccount() {
     return account;
   }
@@ -2,6 +2,7 @@ package com.bankapp.repository;
 
 import com.bankapp.model.Account;
 import com.bankapp.model.Customer;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -18,6 +19,14 @@ public interface AccountRepository {
    */
   Account save(Account account);
 
+  /**
+   * Saves several accounts in one go (e.g. all accounts touched by a batch).
+   *
+   * @param accounts The account objects to save.
+   * @return The saved accounts, in the same order.
+   */
+  List<Account> saveAll(List<Account> accounts);
+
   /**
    * Finds an account by its unique database ID.
    *
@@ -44,4 +53,12 @@ public interface AccountRepository {
    */
   Set<Account> findAllByCustomer(Customer customer);
 
+  /**
+   * Lists every account, by number only, so that all accounts can be visited
+   * (e.g. to rebuild their balances) without loading them all at once.
+   *
+   * @return The account numbers, in no particular order.
+   */
+  List<String> findAllAccountNumbers();
+
 }
@@ -19,6 +19,17 @@ public interface CustomerRepository {
    */
   Customer save(Customer customer);
 
+  /**
+   * Inserts a new customer only if neither its username nor its email is
+   * already taken. The check and the insert happen as one atomic step, so two
+   * concurrent registrations can't both claim the same username or email.
+   *
+   * @param customer The new (unsaved) customer object.
+   * @return An Optional containing the saved customer, or an empty Optional if
+   *         the username or email is already in use.
+   */
+  Optional<Customer> insertIfAbsent(Customer customer);
+
   /**
    * Finds a customer by their unique database ID.
    *
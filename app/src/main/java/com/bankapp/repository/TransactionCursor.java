@@ -0,0 +1,79 @@
+package com.bankapp.repository;
+
+import com.bankapp.model.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * A position in an account's history, used to fetch the next page.
+ * <p>
+ * History is ordered newest first by (timestamp, id), so a cursor is simply
+ * the key of the last transaction already seen: the next page starts with the
+ * first transaction ordered after it. Unlike an offset, a cursor stays correct
+ * while new transactions are being added, and the lookup is an index seek no
+ * matter how deep into the history it points.
+ */
+public final class TransactionCursor {
+
+  private final LocalDateTime timestamp;
+  private final long id;
+
+  public TransactionCursor(LocalDateTime timestamp, long id) {
+    this.timestamp = Objects.requireNonNull(timestamp, "Cursor timestamp cannot be null");
+    this.id = id;
+  }
+
+  /**
+   * @param transaction A saved transaction.
+   * @return The cursor pointing just past the transaction.
+   */
+  public static TransactionCursor after(Transaction transaction) {
+    if (transaction.getId() == null) {
+      throw new IllegalArgumentException("Only saved transactions have a position");
+    }
+    return new TransactionCursor(transaction.getTimestamp(), transaction.getId());
+  }
+
+  public LocalDateTime getTimestamp() {
+    return timestamp;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  /**
+   * @return Whether a transaction comes after this cursor in newest-first order,
+   *         i.e. is older than the transaction the cursor was taken from.
+   */
+  public boolean isBefore(Transaction transaction) {
+    int byTime = transaction.getTimestamp().compareTo(timestamp);
+    return byTime < 0 || (byTime == 0 && transaction.getId() < id);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    TransactionCursor that = (TransactionCursor) o;
+    return id == that.id && timestamp.equals(that.timestamp);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(timestamp, id);
+  }
+
+  @Override
+  public String toString() {
+    return "TransactionCursor{" +
+        "timestamp=" + timestamp +
+        ", id=" + id +
+        '}';
+  }
+}
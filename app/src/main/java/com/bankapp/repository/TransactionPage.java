@@ -0,0 +1,111 @@
+package com.bankapp.repository;
+
+import com.bankapp.model.Transaction;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * One page of an account's history, newest first, with the cursor for the
+ * next page (if there is one).
+ */
+public final class TransactionPage {
+
+  private final List<Transaction> transactions;
+  private final TransactionCursor nextCursor;
+
+  private TransactionPage(List<Transaction> transactions, TransactionCursor nextCursor) {
+    this.transactions = Collections.unmodifiableList(transactions);
+    this.nextCursor = nextCursor;
+  }
+
+  /**
+   * Builds a page from a query that fetched up to {@code pageSize + 1} rows. The
+   * extra row is only there to tell whether another page follows; it is not
+   * part of this page.
+   *
+   * @param fetched  The rows fetched, newest first.
+   * @param pageSize The requested page size.
+   */
+  public static TransactionPage of(List<Transaction> fetched, int pageSize) {
+    if (fetched.size() <= pageSize) {
+      return new TransactionPage(fetched, null);
+    }
+    List<Transaction> page = fetched.subList(0, pageSize);
+    return new TransactionPage(page, TransactionCursor.after(page.get(pageSize - 1)));
+  }
+
+  /**
+   * Checks a page size argument.
+   *
+   * @throws IllegalArgumentException if the page size is not positive.
+   */
+  public static void checkPageSize(int pageSize) {
+    if (pageSize < 1) {
+      throw new IllegalArgumentException("Page size must be positive");
+    }
+  }
+
+  /**
+   * Walks a history page by page, fetching each page only when the previous
+   * one has been consumed.
+   *
+   * @param fetchPage Fetches the page after a cursor ({@code null} for the
+   *                  first page).
+   * @return The history as a lazy, sequential stream.
+   */
+  public static Stream<Transaction> stream(Function<TransactionCursor, TransactionPage> fetchPage) {
+    Iterator<Transaction> iterator = new Iterator<>() {
+      private Iterator<Transaction> current;
+      private TransactionCursor next;
+      private boolean lastPage;
+
+      @Override
+      public boolean hasNext() {
+        while (current == null || !current.hasNext()) {
+          if (lastPage) {
+            return false;
+          }
+          TransactionPage page = fetchPage.apply(next);
+          current = page.transactions.iterator();
+          next = page.nextCursor;
+          lastPage = next == null;
+        }
+        return true;
+      }
+
+      @Override
+      public Transaction next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return current.next();
+      }
+    };
+    return StreamSupport.stream(
+        Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+  }
+
+  public List<Transaction> getTransactions() {
+    return transactions;
+  }
+
+  /**
+   * @return The cursor to pass to fetch the next page, or empty on the last page.
+   */
+  public Optional<TransactionCursor> getNextCursor() {
+    return Optional.ofNullable(nextCursor);
+  }
+
+  public boolean hasNext() {
+    return nextCursor != null;
+  }
+}
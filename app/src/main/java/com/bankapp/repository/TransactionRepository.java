@@ -2,8 +2,10 @@ package com.bankapp.repository;
 
 import com.bankapp.model.Account;
 import com.bankapp.model.Transaction;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Interface (contract) for data access operations related to Transactions.
@@ -18,6 +20,14 @@ public interface TransactionRepository {
    */
   Transaction save(Transaction transaction);
 
+  /**
+   * Appends several new Transactions as one bulk write.
+   *
+   * @param transactions The transaction objects to save.
+   * @return The saved transactions with their new IDs, in the same order.
+   */
+  List<Transaction> saveAll(List<Transaction> transactions);
+
   /**
    * Finds all transactions for a specific account.
    *
@@ -37,4 +47,63 @@ public interface TransactionRepository {
   List<Transaction> findAllByAccountAndTimestampBetween(Account account, LocalDateTime startDate,
       LocalDateTime endDate);
 
+  /**
+   * Every saved transaction carries its account's running total (see
+   * {@link Transaction#getRunningTotal()}), so this is a single lookup of the
+   * latest entry at or before the given time, however long the history.
+   *
+   * @param account The account.
+   * @param time    The point in time (inclusive).
+   * @return The sum of the amounts of the account's transactions up to that
+   *         time, or zero if there are none.
+   */
+  BigDecimal runningTotalAsOf(Account account, LocalDateTime time);
+
+  /**
+   * @param account The account.
+   * @return The sum of the amounts of all the account's transactions, or zero
+   *         if there are none.
+   */
+  BigDecimal runningTotal(Account account);
+
+  /**
+   * Finds one page of an account's history, newest first.
+   *
+   * @param account  The account to get history for.
+   * @param after    The cursor of the previous page, or null for the first page.
+   * @param pageSize The maximum number of transactions to return.
+   * @return The page, with the cursor for the next one.
+   */
+  TransactionPage findPageByAccount(Account account, TransactionCursor after, int pageSize);
+
+  /**
+   * @return The highest ID of any saved transaction, or 0 if there are none.
+   */
+  long findMaxId();
+
+  /**
+   * Finds the entries of all accounts whose IDs fall in a range, in ascending
+   * ID order, e.g. to scan the whole ledger in slices. IDs are handed out in
+   * order, so the legs of a transfer sit next to each other.
+   *
+   * @param afterId The lower bound of the range (exclusive).
+   * @param upToId  The upper bound of the range (inclusive).
+   * @param limit   The maximum number of entries to return.
+   * @return The entries, each with its account.
+   */
+  List<Transaction> findByIdRange(long afterId, long upToId, int limit);
+
+  /**
+   * Streams an account's history, newest first, fetching it lazily one page at
+   * a time. Only the page being consumed is held in memory.
+   *
+   * @param account  The account to get history for.
+   * @param pageSize The number of transactions fetched per page.
+   * @return A sequential stream over the whole history.
+   */
+  default Stream<Transaction> streamByAccount(Account account, int pageSize) {
+    TransactionPage.checkPageSize(pageSize);
+    return TransactionPage.stream(after -> findPageByAccount(account, after, pageSize));
+  }
+
 }
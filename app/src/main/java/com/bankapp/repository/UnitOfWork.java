@@ -0,0 +1,32 @@
+package com.bankapp.repository;
+
+import java.util.function.Supplier;
+
+/**
+ * Interface (contract) for grouping several repository writes into one atomic
+ * unit: either all of them are committed, or none of them are.
+ * <p>
+ * Repositories from the same backend join the unit of work that is active on
+ * the calling thread. A nested call joins the outer unit of work instead of
+ * starting a new one.
+ */
+public interface UnitOfWork {
+
+  /**
+   * Runs the work as one unit: the repository writes it makes are committed
+   * together when it returns, and discarded if it throws.
+   *
+   * @param work The work to run (typically a few repository saves).
+   * @return Whatever the work returns.
+   */
+  <T> T execute(Supplier<T> work);
+
+  /**
+   * A "unit of work" that doesn't group anything: every save commits on its own.
+   *
+   * @return A pass-through UnitOfWork.
+   */
+  static UnitOfWork direct() {
+    return Supplier::get;
+  }
+}
@@ -0,0 +1,227 @@
+package com.bankapp.repository_impl.cache;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.Customer;
+import com.bankapp.repository.AccountRepository;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An AccountRepository decorator that keeps recently used accounts in memory.
+ * <p>
+ * Accounts are cached by account number, and each customer's list of account
+ * numbers is cached separately, both with LRU eviction. Saves write through:
+ * the saved account replaces the cached one, and a new account is added to its
+ * customer's cached list. So after the first load, {@code getAccount} and
+ * {@code getAccountsForCustomer} (and the dashboard built on them) are
+ * answered from memory.
+ * <p>
+ * Cached accounts are shared objects, as they are with the in-memory
+ * backends: callers that change an account save it (or put the old values back
+ * if the save fails), under the account's lock. Writes should go through this
+ * repository; if the data is changed elsewhere, call
+ * {@link #invalidateCustomer(Customer)}. A cached copy that missed a write
+ * made elsewhere can't overwrite it: the backend checks the account's version
+ * (see {@link Account#getVersion()}), and a save that fails drops the cached
+ * copy, so the retry loads the current one.
+ */
+public class CachingAccountRepository implements AccountRepository {
+
+  public static final int DEFAULT_MAX_ACCOUNTS = 10_000;
+
+  private static final int SEGMENTS = 16;
+
+  private final AccountRepository delegate;
+  private final LruCache<String, Account> accounts;
+  private final LruCache<Long, Set<String>> accountNumbersByCustomer;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public CachingAccountRepository(AccountRepository delegate) {
+    this(delegate, DEFAULT_MAX_ACCOUNTS);
+  }
+
+  /**
+   * @param delegate    The repository that holds the accounts.
+   * @param maxAccounts The most accounts to keep in memory. The same number of
+   *                    customers' account lists are kept too.
+   */
+  public CachingAccountRepository(AccountRepository delegate, int maxAccounts) {
+    this.delegate = delegate;
+    this.accounts = new LruCache<>(maxAccounts, SEGMENTS);
+    this.accountNumbersByCustomer = new LruCache<>(maxAccounts, SEGMENTS);
+  }
+
+  @Override
+  public Account save(Account account) {
+    Account saved;
+    try {
+      saved = delegate.save(account);
+    } catch (RuntimeException e) {
+      evict(account);
+      throw e;
+    }
+    writeThrough(saved);
+    return saved;
+  }
+
+  @Override
+  public List<Account> saveAll(List<Account> accounts) {
+    List<Account> saved;
+    try {
+      saved = delegate.saveAll(accounts);
+    } catch (RuntimeException e) {
+      accounts.forEach(this::evict);
+      throw e;
+    }
+    saved.forEach(this::writeThrough);
+    return saved;
+  }
+
+  @Override
+  public Optional<Account> findById(Long id) {
+    // Not cached by ID, but hand out the cached object if there is one
+    return delegate.findById(id).map(this::cachedOrLoaded);
+  }
+
+  @Override
+  public Optional<Account> findByAccountNumber(String accountNumber) {
+    if (accountNumber == null) {
+      return Optional.empty();
+    }
+    Account cached = accounts.get(accountNumber);
+    if (cached != null) {
+      hits.increment();
+      return Optional.of(cached);
+    }
+
+    misses.increment();
+    long stamp = accounts.stamp(accountNumber);
+    Optional<Account> loaded = delegate.findByAccountNumber(accountNumber);
+    loaded.ifPresent(account -> accounts.putIfUnchanged(accountNumber, account, stamp));
+    return loaded;
+  }
+
+  @Override
+  public Set<Account> findAllByCustomer(Customer customer) {
+    if (customer == null || customer.getId() == null) {
+      return delegate.findAllByCustomer(customer);
+    }
+    Long customerId = customer.getId();
+
+    // 1. Served from memory if the list and every account on it are cached
+    Set<String> accountNumbers = accountNumbersByCustomer.get(customerId);
+    if (accountNumbers != null) {
+      Set<Account> found = new HashSet<>();
+      for (String accountNumber : accountNumbers) {
+        Account account = accounts.get(accountNumber);
+        if (account == null) {
+          break; // Evicted: load the customer's accounts again below
+        }
+        found.add(account);
+      }
+      if (found.size() == accountNumbers.size()) {
+        hits.increment();
+        return found;
+      }
+    }
+
+    // 2. Load them all in one query
+    misses.increment();
+    long stamp = accountNumbersByCustomer.stamp(customerId);
+    Set<Account> found = new HashSet<>();
+    Set<String> loadedNumbers = new HashSet<>();
+    for (Account account : delegate.findAllByCustomer(customer)) {
+      found.add(cachedOrLoaded(account));
+      loadedNumbers.add(account.getAccountNumber());
+    }
+    accountNumbersByCustomer.putIfUnchanged(customerId, Set.copyOf(loadedNumbers), stamp);
+    return found;
+  }
+
+  @Override
+  public List<String> findAllAccountNumbers() {
+    // A full listing is never cached
+    return delegate.findAllAccountNumbers();
+  }
+
+  /**
+   * Drops a customer's accounts from the cache, so they are loaded again on
+   * next use.
+   */
+  public void invalidateCustomer(Customer customer) {
+    if (customer == null || customer.getId() == null) {
+      return;
+    }
+    Set<String> accountNumbers = accountNumbersByCustomer.get(customer.getId());
+    accountNumbersByCustomer.invalidate(customer.getId());
+    if (accountNumbers != null) {
+      accountNumbers.forEach(accounts::invalidate);
+    }
+  }
+
+  /**
+   * @return Lookups answered from memory.
+   */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * @return Lookups that had to go to the underlying repository.
+   */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * @return Accounts and account lists evicted to stay within the size bound.
+   */
+  public long getEvictionCount() {
+    return accounts.getEvictionCount() + accountNumbersByCustomer.getEvictionCount();
+  }
+
+  // --- Private Helper Methods ---
+
+  private void writeThrough(Account account) {
+    String accountNumber = account.getAccountNumber();
+    accounts.put(accountNumber, account);
+
+    Customer customer = account.getCustomer();
+    if (customer != null && customer.getId() != null) {
+      // A new account joins its customer's list (if that list is cached)
+      accountNumbersByCustomer.update(customer.getId(), numbers -> {
+        if (numbers.contains(accountNumber)) {
+          return numbers;
+        }
+        Set<String> updated = new HashSet<>(numbers);
+        updated.add(accountNumber);
+        return Set.copyOf(updated);
+      });
+    }
+  }
+
+  /**
+   * Drops an account whose save failed (e.g. because the cached copy was
+   * stale), so that it is loaded again on next use.
+   */
+  private void evict(Account account) {
+    if (account != null && account.getAccountNumber() != null) {
+      accounts.invalidate(account.getAccountNumber());
+    }
+  }
+
+  /**
+   * Caches a freshly loaded account, unless the account is already cached, in
+   * which case the cached object is used (it may hold a newer write).
+   */
+  private Account cachedOrLoaded(Account loaded) {
+    Account cached = accounts.putIfAbsent(loaded.getAccountNumber(), loaded);
+    return cached != null ? cached : loaded;
+  }
+}
@@ -0,0 +1,158 @@
+package com.bankapp.repository_impl.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * A size-bounded, thread-safe LRU map.
+ * <p>
+ * Keys are spread over segments, each an access-ordered LinkedHashMap behind
+ * its own lock, so threads working on different keys rarely wait for each
+ * other. Each segment evicts its least recently used entry when it is full.
+ * <p>
+ * Loading a missing value is left to the caller, outside any lock. To keep a
+ * slow load from putting back a value that was overwritten or invalidated while
+ * it ran, take a {@link #stamp(Object)} before loading and insert with
+ * {@link #putIfUnchanged(Object, Object, long)}.
+ */
+final class LruCache<K, V> {
+
+  private final Segment<K, V>[] segments;
+
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * @param maxEntries   The most entries to keep (rounded up to a multiple of
+   *                     the segment count).
+   * @param segmentCount How many independently locked segments to use.
+   */
+  @SuppressWarnings("unchecked")
+  LruCache(int maxEntries, int segmentCount) {
+    if (maxEntries < 1) {
+      throw new IllegalArgumentException("Cache size must be positive");
+    }
+    int perSegment = Math.max(1, (maxEntries + segmentCount - 1) / segmentCount);
+    this.segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      segments[i] = new Segment<>(perSegment, evictions);
+    }
+  }
+
+  /**
+   * @return The cached value, or {@code null} on a miss.
+   */
+  V get(K key) {
+    Segment<K, V> segment = segmentFor(key);
+    synchronized (segment) {
+      return segment.get(key);
+    }
+  }
+
+  /**
+   * @return A stamp that changes whenever this key's segment is written to.
+   */
+  long stamp(K key) {
+    Segment<K, V> segment = segmentFor(key);
+    synchronized (segment) {
+      return segment.version;
+    }
+  }
+
+  /**
+   * Inserts a loaded value, unless the key's segment has been written to since
+   * the stamp was taken (in which case the value may be stale).
+   */
+  void putIfUnchanged(K key, V value, long stamp) {
+    Segment<K, V> segment = segmentFor(key);
+    synchronized (segment) {
+      if (segment.version == stamp) {
+        segment.put(key, value);
+      }
+    }
+  }
+
+  void put(K key, V value) {
+    Segment<K, V> segment = segmentFor(key);
+    synchronized (segment) {
+      segment.version++;
+      segment.put(key, value);
+    }
+  }
+
+  /**
+   * Inserts a loaded value unless the key is already cached.
+   *
+   * @return The value already cached, or {@code null} if the loaded one was
+   *         inserted.
+   */
+  V putIfAbsent(K key, V value) {
+    Segment<K, V> segment = segmentFor(key);
+    synchronized (segment) {
+      return segment.putIfAbsent(key, value);
+    }
+  }
+
+  /**
+   * Changes a value only if it is cached.
+   */
+  void update(K key, UnaryOperator<V> change) {
+    Segment<K, V> segment = segmentFor(key);
+    synchronized (segment) {
+      segment.version++;
+      segment.computeIfPresent(key, (k, value) -> change.apply(value));
+    }
+  }
+
+  void invalidate(K key) {
+    Segment<K, V> segment = segmentFor(key);
+    synchronized (segment) {
+      segment.version++;
+      segment.remove(key);
+    }
+  }
+
+  long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  int size() {
+    int size = 0;
+    for (Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        size += segment.size();
+      }
+    }
+    return size;
+  }
+
+  // --- Private Helper Methods ---
+
+  private Segment<K, V> segmentFor(K key) {
+    int h = key.hashCode();
+    h ^= h >>> 16; // Spread the high bits, like HashMap does
+    return segments[Math.floorMod(h, segments.length)];
+  }
+
+  private static final class Segment<K, V> extends LinkedHashMap<K, V> {
+    private final int capacity;
+    private final LongAdder evictions;
+    private long version;
+
+    private Segment(int capacity, LongAdder evictions) {
+      super(16, 0.75f, true); // Access order: the eldest entry is the least recently used
+      this.capacity = capacity;
+      this.evictions = evictions;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+      if (size() <= capacity) {
+        return false;
+      }
+      evictions.increment();
+      return true;
+    }
+  }
+}
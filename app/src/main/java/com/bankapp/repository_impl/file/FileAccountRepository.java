@@ -0,0 +1,56 @@
+package com.bankapp.repository_impl.file;
+
+import com.bankapp.model.Account;
+import com.bankapp.repository_impl.mock.MockAccountRepository;
+
+import java.util.List;
+
+/**
+ * The file-backed AccountRepository.
+ * <p>
+ * Lookups are served from the in-memory store and indexes it inherits; every
+ * save is also logged to the {@link FileStore}'s write-ahead log, and only
+ * becomes visible once it is durable.
+ */
+public class FileAccountRepository extends MockAccountRepository {
+
+  private final FileUnitOfWork unitOfWork;
+
+  FileAccountRepository(FileUnitOfWork unitOfWork) {
+    this.unitOfWork = unitOfWork;
+  }
+
+  @Override
+  public Account save(Account account) {
+    return unitOfWork.execute(() -> {
+      Account saved = super.save(account);
+      unitOfWork.log(RecordCodec.saveAccount(saved));
+      return saved;
+    });
+  }
+
+  @Override
+  public List<Account> saveAll(List<Account> accounts) {
+    // One unit for the whole batch: one log frame and one fsync
+    return unitOfWork.execute(() -> super.saveAll(accounts));
+  }
+
+  /**
+   * Applies a logged save during recovery, without logging it again.
+   */
+  void reload(Account account) {
+    Account existing = findById(account.getId()).orElse(null);
+    if (existing == null) {
+      super.save(account);
+      return;
+    }
+
+    // Update in place: loaded transactions keep pointing at this instance
+    existing.setAccountNumber(account.getAccountNumber());
+    existing.setAccountType(account.getAccountType());
+    existing.setBalance(account.getBalance());
+    existing.setOpenedDate(account.getOpenedDate());
+    existing.setCustomer(account.getCustomer());
+    super.save(existing);
+  }
+}
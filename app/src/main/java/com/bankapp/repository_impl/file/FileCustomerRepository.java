@@ -0,0 +1,85 @@
+package com.bankapp.repository_impl.file;
+
+import com.bankapp.model.Customer;
+import com.bankapp.repository_impl.mock.MockCustomerRepository;
+
+import java.util.Optional;
+
+/**
+ * The file-backed CustomerRepository.
+ * <p>
+ * Lookups are served from the in-memory store and indexes it inherits; every
+ * change is also logged to the {@link FileStore}'s write-ahead log.
+ */
+public class FileCustomerRepository extends MockCustomerRepository {
+
+  private final FileUnitOfWork unitOfWork;
+
+  FileCustomerRepository(FileUnitOfWork unitOfWork) {
+    this.unitOfWork = unitOfWork;
+  }
+
+  @Override
+  public Customer save(Customer customer) {
+    return unitOfWork.execute(() -> {
+      Customer saved = super.save(customer);
+      unitOfWork.log(RecordCodec.saveCustomer(saved));
+      return saved;
+    });
+  }
+
+  @Override
+  public Optional<Customer> insertIfAbsent(Customer customer) {
+    return unitOfWork.execute(() -> {
+      // The insert is applied in memory straight away (the uniqueness check and
+      // the insert must be atomic), so it needs an undo if the log write fails
+      Optional<Customer> inserted = super.insertIfAbsent(customer);
+      inserted.ifPresent(saved -> unitOfWork.log(RecordCodec.saveCustomer(saved), () -> {
+        super.delete(saved);
+        saved.setId(null);
+      }));
+      return inserted;
+    });
+  }
+
+  @Override
+  public void delete(Customer customer) {
+    if (customer == null || customer.getId() == null) {
+      return;
+    }
+    unitOfWork.execute(() -> {
+      super.delete(customer);
+      unitOfWork.log(RecordCodec.deleteCustomer(customer.getId()));
+      return null;
+    });
+  }
+
+  /**
+   * Applies a logged save during recovery, without logging it again.
+   */
+  void reload(Customer customer) {
+    Customer existing = findById(customer.getId()).orElse(null);
+    if (existing == null) {
+      super.save(customer);
+      return;
+    }
+
+    // Update in place: loaded accounts keep pointing at this instance
+    existing.setUsername(customer.getUsername());
+    existing.setPasswordHash(customer.getPasswordHash());
+    existing.setFirstName(customer.getFirstName());
+    existing.setLastName(customer.getLastName());
+    existing.setEmail(customer.getEmail());
+    existing.setPhoneNumber(customer.getPhoneNumber());
+    existing.setDateJoined(customer.getDateJoined());
+    existing.setAddress(customer.getAddress());
+    super.save(existing);
+  }
+
+  /**
+   * Applies a logged delete during recovery, without logging it again.
+   */
+  void reloadDelete(Long customerId) {
+    findById(customerId).ifPresent(super::delete);
+  }
+}
@@ -0,0 +1,451 @@
+package com.bankapp.repository_impl.file;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.Customer;
+import com.bankapp.model.Transaction;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * An embedded, file-backed store for single-node deployments without MySQL.
+ * <p>
+ * All data is served from memory by the file repositories; the directory holds
+ * what is needed to rebuild it:
+ * <ul>
+ * <li>{@code wal-<n>.log}: the write-ahead log. Every unit of work is appended
+ * as one checksummed frame, and concurrent commits share an fsync (see
+ * {@link WriteAheadLog}).</li>
+ * <li>{@code snapshot.dat}: the latest state of every customer and account as
+ * of a WAL generation.</li>
+ * <li>{@code ledger.dat}: every transaction older than that generation. The
+ * ledger is append-only, so it is never rewritten, only extended.</li>
+ * </ul>
+ * A snapshot is taken every {@code snapshotInterval} commits. It seals the
+ * current WAL file and starts a new one (the only moment commits wait), then,
+ * in the background, folds the sealed files into a new snapshot and moves their
+ * transactions to the ledger. On startup the store loads the snapshot and the
+ * ledger, then replays the WAL files written since.
+ * <p>
+ * A background snapshot that fails loses nothing (the WAL files stay until a
+ * later one succeeds), but the log keeps growing and recovery gets slower, so
+ * the failure is logged and kept for health checks:
+ * {@link #getLastSnapshotFailure()}.
+ */
+public class FileStore implements Closeable {
+
+  /**
+   * Commits between two snapshots, by default.
+   */
+  public static final int DEFAULT_SNAPSHOT_INTERVAL = 10_000;
+
+  private static final String SNAPSHOT_FILE = "snapshot.dat";
+  private static final String LEDGER_FILE = "ledger.dat";
+  private static final String WAL_PREFIX = "wal-";
+  private static final String WAL_SUFFIX = ".log";
+
+  private static final int SNAPSHOT_MAGIC = 0x42414e4b; // "BANK"
+  private static final int SNAPSHOT_VERSION = 1;
+
+  private static final Logger LOGGER = Logger.getLogger(FileStore.class.getName());
+
+  private final Path directory;
+  private final boolean sync;
+  private final int snapshotInterval;
+
+  private final FileUnitOfWork unitOfWork = new FileUnitOfWork(this);
+  private final FileCustomerRepository customerRepository = new FileCustomerRepository(unitOfWork);
+  private final FileAccountRepository accountRepository = new FileAccountRepository(unitOfWork);
+  private final FileTransactionRepository transactionRepository = new FileTransactionRepository(unitOfWork);
+
+  // Commits share the read lock; sealing a WAL file takes the write lock
+  private final ReadWriteLock walLock = new ReentrantReadWriteLock();
+  private WriteAheadLog wal;
+  private long walGeneration;
+
+  // Only touched by the one snapshot running at a time
+  private final Object snapshotMonitor = new Object();
+  private long snapshotGeneration;
+  private long ledgerLength;
+
+  private final AtomicLong commits = new AtomicLong();
+  private final AtomicBoolean snapshotPending = new AtomicBoolean();
+  private volatile Exception lastSnapshotFailure; // Null once a snapshot succeeds
+  private final ExecutorService snapshotter = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "file-store-snapshot");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private FileStore(Path directory, int snapshotInterval, boolean sync) {
+    if (snapshotInterval < 1) {
+      throw new IllegalArgumentException("Snapshot interval must be positive");
+    }
+    this.directory = directory;
+    this.snapshotInterval = snapshotInterval;
+    this.sync = sync;
+  }
+
+  /**
+   * Opens (or creates) a store with the default settings: a snapshot every
+   * {@link #DEFAULT_SNAPSHOT_INTERVAL} commits, and an fsync per commit group.
+   *
+   * @param directory The directory holding the store's files.
+   * @return The store, with everything on disk loaded.
+   */
+  public static FileStore open(Path directory) throws IOException {
+    return open(directory, DEFAULT_SNAPSHOT_INTERVAL, true);
+  }
+
+  /**
+   * Opens (or creates) a store.
+   *
+   * @param directory        The directory holding the store's files.
+   * @param snapshotInterval The number of commits between snapshots.
+   * @param sync             Whether commits wait for an fsync. Without it, commits
+   *                         survive a process crash but not a power loss.
+   * @return The store, with everything on disk loaded.
+   */
+  public static FileStore open(Path directory, int snapshotInterval, boolean sync) throws IOException {
+    Files.createDirectories(directory);
+    FileStore store = new FileStore(directory, snapshotInterval, sync);
+    store.recover();
+    return store;
+  }
+
+  public FileCustomerRepository getCustomerRepository() {
+    return customerRepository;
+  }
+
+  public FileAccountRepository getAccountRepository() {
+    return accountRepository;
+  }
+
+  public FileTransactionRepository getTransactionRepository() {
+    return transactionRepository;
+  }
+
+  public FileUnitOfWork getUnitOfWork() {
+    return unitOfWork;
+  }
+
+  /**
+   * @return Why the latest snapshot failed, or empty if it succeeded (or none
+   *         has been taken yet).
+   */
+  public Optional<Exception> getLastSnapshotFailure() {
+    return Optional.ofNullable(lastSnapshotFailure);
+  }
+
+  /**
+   * Takes a snapshot now: seals the current WAL file, folds every sealed file
+   * into the snapshot and the ledger, and deletes them. Commits only wait for
+   * the seal, not for the rest.
+   */
+  public void snapshot() throws IOException {
+    synchronized (snapshotMonitor) {
+      // 1. --- Seal the current WAL file; new commits go to the next one ---
+      long sealed;
+      walLock.writeLock().lock();
+      try {
+        sealed = walGeneration;
+        WriteAheadLog previous = wal;
+        wal = new WriteAheadLog(walFile(sealed + 1), sync);
+        walGeneration = sealed + 1;
+        previous.close();
+      } finally {
+        walLock.writeLock().unlock();
+      }
+
+      // 2. --- Fold the old snapshot and the sealed files into the latest state ---
+      Map<Long, byte[]> customers = new LinkedHashMap<>();
+      Map<Long, byte[]> accounts = new LinkedHashMap<>();
+      readSnapshot(record -> fold(record, customers, accounts, null));
+
+      long newLedgerLength;
+      try (FileChannel ledger = FileChannel.open(directory.resolve(LEDGER_FILE), StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE)) {
+        // Drop anything a failed snapshot left past the recorded end
+        ledger.truncate(ledgerLength);
+        ledger.position(ledgerLength);
+        for (long generation : walGenerations()) {
+          if (generation >= snapshotGeneration && generation <= sealed) {
+            WriteAheadLog.read(walFile(generation), Long.MAX_VALUE, frame -> {
+              for (byte[] record : RecordCodec.unbatch(frame)) {
+                fold(record, customers, accounts, ledger);
+              }
+            });
+          }
+        }
+        ledger.force(false);
+        newLedgerLength = ledger.position();
+      }
+
+      // 3. --- Write the new snapshot beside the old one, then swap it in ---
+      Path temporary = directory.resolve(SNAPSHOT_FILE + ".tmp");
+      try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+          StandardOpenOption.TRUNCATE_EXISTING);
+          DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel),
+              1 << 16))) {
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeInt(SNAPSHOT_VERSION);
+        out.writeLong(sealed + 1);
+        out.writeLong(newLedgerLength);
+        writeRecords(out, customers);
+        writeRecords(out, accounts);
+        out.flush();
+        channel.force(true);
+      }
+      Files.move(temporary, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      syncDirectory();
+      snapshotGeneration = sealed + 1;
+      ledgerLength = newLedgerLength;
+
+      // 4. --- The sealed files are now covered by the snapshot ---
+      deleteWalFilesBefore(snapshotGeneration);
+      lastSnapshotFailure = null;
+    }
+  }
+
+  /**
+   * Waits for commits in flight and a running snapshot, then closes the log.
+   */
+  @Override
+  public void close() throws IOException {
+    snapshotter.shutdown();
+    try {
+      snapshotter.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    walLock.writeLock().lock();
+    try {
+      wal.close();
+    } finally {
+      walLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Makes a unit of work's records durable as one WAL frame. Called by
+   * {@link FileUnitOfWork} before it applies the unit in memory.
+   */
+  void commit(List<byte[]> records) {
+    if (records.isEmpty()) {
+      return;
+    }
+
+    byte[] frame = RecordCodec.batch(records);
+    walLock.readLock().lock();
+    try {
+      wal.append(frame);
+    } finally {
+      walLock.readLock().unlock();
+    }
+
+    if (commits.incrementAndGet() % snapshotInterval == 0 && snapshotPending.compareAndSet(false, true)) {
+      snapshotter.execute(() -> {
+        try {
+          snapshot();
+        } catch (IOException | RuntimeException e) {
+          // Nothing is lost: the WAL files stay until a later snapshot succeeds
+          lastSnapshotFailure = e;
+          LOGGER.log(Level.WARNING, "Snapshot of " + directory + " failed", e);
+        } finally {
+          snapshotPending.set(false);
+        }
+      });
+    }
+  }
+
+  // --- Private Helper Methods ---
+
+  private void recover() throws IOException {
+    // 1. --- Snapshot: customers and accounts ---
+    readSnapshot(this::apply);
+
+    // 2. --- Ledger: transactions moved out of the WAL by earlier snapshots ---
+    Path ledger = directory.resolve(LEDGER_FILE);
+    long ledgerRead = Files.exists(ledger) ? WriteAheadLog.read(ledger, ledgerLength, this::apply) : 0;
+    if (ledgerRead < ledgerLength) {
+      throw new IOException("Ledger file " + ledger + " is shorter than the snapshot says (" + ledgerRead + " < "
+          + ledgerLength + ")");
+    }
+
+    // 3. --- WAL: every unit committed since the snapshot, in order ---
+    deleteWalFilesBefore(snapshotGeneration);
+    long lastGeneration = snapshotGeneration - 1;
+    for (long generation : walGenerations()) {
+      WriteAheadLog.read(walFile(generation), Long.MAX_VALUE, frame -> {
+        for (byte[] record : RecordCodec.unbatch(frame)) {
+          apply(record);
+        }
+      });
+      lastGeneration = generation;
+    }
+
+    // 4. --- Start a fresh file rather than append after a possibly torn tail ---
+    walGeneration = lastGeneration + 1;
+    wal = new WriteAheadLog(walFile(walGeneration), sync);
+  }
+
+  /**
+   * Reads the snapshot's header into this store and passes each record on.
+   */
+  private void readSnapshot(WriteAheadLog.FrameConsumer consumer) throws IOException {
+    Path snapshot = directory.resolve(SNAPSHOT_FILE);
+    if (!Files.exists(snapshot)) {
+      return;
+    }
+
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot), 1 << 16))) {
+      if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+        throw new IOException("Not a snapshot file: " + snapshot);
+      }
+      snapshotGeneration = in.readLong();
+      ledgerLength = in.readLong();
+      for (int section = 0; section < 2; section++) {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+          byte[] record = new byte[in.readInt()];
+          in.readFully(record);
+          consumer.accept(record);
+        }
+      }
+    }
+  }
+
+  /**
+   * Applies one record to the in-memory repositories (during recovery).
+   */
+  private void apply(byte[] record) throws IOException {
+    long id = RecordCodec.idOf(record);
+    DataInputStream in = RecordCodec.body(record);
+    Long[] reference = new Long[1];
+    switch (RecordCodec.typeOf(record)) {
+      case RecordCodec.SAVE_CUSTOMER:
+        customerRepository.reload(RecordCodec.readCustomer(id, in));
+        break;
+      case RecordCodec.DELETE_CUSTOMER:
+        customerRepository.reloadDelete(id);
+        break;
+      case RecordCodec.SAVE_ACCOUNT:
+        Account account = RecordCodec.readAccount(id, in, reference);
+        Customer customer = reference[0] == null ? null : customerRepository.findById(reference[0]).orElse(null);
+        account.setCustomer(customer);
+        accountRepository.reload(account);
+        break;
+      case RecordCodec.SAVE_TRANSACTION:
+        Transaction transaction = RecordCodec.readTransaction(id, in, reference);
+        transaction.setAccount(accountRepository.findById(reference[0])
+            .orElseThrow(() -> new IOException("Transaction " + id + " refers to unknown account " + reference[0])));
+        transactionRepository.reload(transaction);
+        break;
+      default:
+        throw new IOException("Unknown record type " + RecordCodec.typeOf(record));
+    }
+  }
+
+  /**
+   * Folds one record into a snapshot being built: keeps the latest record per
+   * customer and account, and appends transactions to the ledger.
+   */
+  private static void fold(byte[] record, Map<Long, byte[]> customers, Map<Long, byte[]> accounts,
+      FileChannel ledger) throws IOException {
+    long id = RecordCodec.idOf(record);
+    switch (RecordCodec.typeOf(record)) {
+      case RecordCodec.SAVE_CUSTOMER:
+        customers.put(id, record);
+        break;
+      case RecordCodec.DELETE_CUSTOMER:
+        customers.remove(id);
+        break;
+      case RecordCodec.SAVE_ACCOUNT:
+        accounts.put(id, record);
+        break;
+      case RecordCodec.SAVE_TRANSACTION:
+        ByteBuffer frame = WriteAheadLog.frame(record);
+        while (frame.hasRemaining()) {
+          ledger.write(frame);
+        }
+        break;
+      default:
+        throw new IOException("Unknown record type " + RecordCodec.typeOf(record));
+    }
+  }
+
+  private static void writeRecords(DataOutputStream out, Map<Long, byte[]> records) throws IOException {
+    out.writeInt(records.size());
+    for (byte[] record : records.values()) {
+      out.writeInt(record.length);
+      out.write(record);
+    }
+  }
+
+  private Path walFile(long generation) {
+    return directory.resolve(WAL_PREFIX + generation + WAL_SUFFIX);
+  }
+
+  /**
+   * @return The generations of the WAL files in the directory, oldest first.
+   */
+  private List<Long> walGenerations() throws IOException {
+    List<Long> generations = new ArrayList<>();
+    try (Stream<Path> files = Files.list(directory)) {
+      files.map(file -> file.getFileName().toString())
+          .filter(name -> name.startsWith(WAL_PREFIX) && name.endsWith(WAL_SUFFIX))
+          .forEach(name -> generations.add(
+              Long.parseLong(name.substring(WAL_PREFIX.length(), name.length() - WAL_SUFFIX.length()))));
+    }
+    generations.sort(null);
+    return generations;
+  }
+
+  private void deleteWalFilesBefore(long generation) throws IOException {
+    for (long existing : walGenerations()) {
+      if (existing < generation) {
+        Files.deleteIfExists(walFile(existing));
+      }
+    }
+  }
+
+  /**
+   * Makes the snapshot rename durable. Not every platform can open a directory
+   * (Windows can't), and there the rename is as durable as it gets.
+   */
+  private void syncDirectory() {
+    try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+      channel.force(true);
+    } catch (IOException e) {
+      // Best effort
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package com.bankapp.repository_impl.file;
+
+import com.bankapp.model.Transaction;
+import com.bankapp.repository_impl.mock.MockTransactionRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The file-backed TransactionRepository.
+ * <p>
+ * Queries are served from the in-memory ledger partitions it inherits; every
+ * new entry is also logged to the {@link FileStore}'s write-ahead log, and
+ * only becomes visible once it is durable.
+ */
+public class FileTransactionRepository extends MockTransactionRepository {
+
+  private final FileUnitOfWork unitOfWork;
+
+  FileTransactionRepository(FileUnitOfWork unitOfWork) {
+    this.unitOfWork = unitOfWork;
+  }
+
+  @Override
+  public Transaction save(Transaction transaction) {
+    return unitOfWork.execute(() -> {
+      // Transactions are append-only: only new entries are logged
+      boolean isNew = transaction != null && transaction.getId() == null;
+      Transaction saved = super.save(transaction);
+      if (isNew) {
+        unitOfWork.log(RecordCodec.saveTransaction(saved));
+      }
+      return saved;
+    });
+  }
+
+  @Override
+  public List<Transaction> saveAll(List<Transaction> transactions) {
+    return unitOfWork.execute(() -> {
+      List<Transaction> newEntries = new ArrayList<>();
+      if (transactions != null) {
+        for (Transaction transaction : transactions) {
+          if (transaction != null && transaction.getId() == null) {
+            newEntries.add(transaction);
+          }
+        }
+      }
+
+      List<Transaction> saved = super.saveAll(transactions);
+      for (Transaction transaction : newEntries) {
+        unitOfWork.log(RecordCodec.saveTransaction(transaction));
+      }
+      return saved;
+    });
+  }
+
+  /**
+   * Applies a logged entry during recovery, without logging it again.
+   */
+  void reload(Transaction transaction) {
+    restore(transaction);
+  }
+}
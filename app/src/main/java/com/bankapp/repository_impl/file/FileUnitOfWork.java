@@ -0,0 +1,87 @@
+package com.bankapp.repository_impl.file;
+
+import com.bankapp.repository.UnitOfWork;
+import com.bankapp.repository_impl.mock.MockUnitOfWork;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The UnitOfWork used with the file repositories.
+ * <p>
+ * While a unit of work is active, the file repositories collect a log record
+ * for every change, and the in-memory stores buffer their updates (as with
+ * {@link MockUnitOfWork}). When the work returns, all the records are written
+ * to the write-ahead log as one frame. Only once that frame is on disk are the
+ * in-memory updates applied, so a unit is either fully durable and visible or
+ * not there at all.
+ */
+public class FileUnitOfWork implements UnitOfWork {
+
+  private final ThreadLocal<PendingUnit> pendingUnit = new ThreadLocal<>();
+  private final MockUnitOfWork memory = new MockUnitOfWork();
+  private final FileStore store;
+
+  FileUnitOfWork(FileStore store) {
+    this.store = store;
+  }
+
+  @Override
+  public <T> T execute(Supplier<T> work) {
+    if (pendingUnit.get() != null) {
+      // Already inside a unit of work: join it
+      return work.get();
+    }
+
+    PendingUnit unit = new PendingUnit();
+    pendingUnit.set(unit);
+    try {
+      return memory.execute(() -> {
+        T result = work.get();
+        // Durable before any buffered in-memory update is applied
+        store.commit(unit.records);
+        return result;
+      });
+    } catch (RuntimeException | Error e) {
+      for (int i = unit.undos.size() - 1; i >= 0; i--) {
+        unit.undos.get(i).run();
+      }
+      throw e;
+    } finally {
+      pendingUnit.remove();
+    }
+  }
+
+  /**
+   * Adds a record to the current unit of work.
+   */
+  void log(byte[] record) {
+    current().records.add(record);
+  }
+
+  /**
+   * Adds a record for a change that was applied in memory straight away, with
+   * the action that reverts it if the unit fails.
+   */
+  void log(byte[] record, Runnable undo) {
+    PendingUnit unit = current();
+    unit.records.add(record);
+    unit.undos.add(undo);
+  }
+
+  // --- Private Helper Methods ---
+
+  private PendingUnit current() {
+    PendingUnit unit = pendingUnit.get();
+    if (unit == null) {
+      throw new IllegalStateException("No unit of work is active");
+    }
+    return unit;
+  }
+
+  private static final class PendingUnit {
+    private final List<byte[]> records = new ArrayList<>();
+    private final List<Runnable> undos = new ArrayList<>();
+  }
+}
@@ -0,0 +1,270 @@
+package com.bankapp.repository_impl.file;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.AccountType;
+import com.bankapp.model.Address;
+import com.bankapp.model.Customer;
+import com.bankapp.model.Transaction;
+import com.bankapp.model.TransactionType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The binary format of the file store's log records.
+ * <p>
+ * Every record starts with a one-byte type and the entity's ID, followed by
+ * the entity's fields. References to other entities (an account's customer, a
+ * transaction's account) are stored as IDs and resolved when the record is
+ * read back.
+ */
+final class RecordCodec {
+
+  static final byte SAVE_CUSTOMER = 1;
+  static final byte DELETE_CUSTOMER = 2;
+  static final byte SAVE_ACCOUNT = 3;
+  static final byte SAVE_TRANSACTION = 4;
+
+  private RecordCodec() {
+  }
+
+  // --- Encoding ---
+
+  static byte[] saveCustomer(Customer customer) {
+    return encode(SAVE_CUSTOMER, customer.getId(), out -> {
+      writeString(out, customer.getUsername());
+      writeString(out, customer.getPasswordHash());
+      writeString(out, customer.getFirstName());
+      writeString(out, customer.getLastName());
+      writeString(out, customer.getEmail());
+      writeString(out, customer.getPhoneNumber());
+      writeDate(out, customer.getDateJoined());
+      Address address = customer.getAddress();
+      out.writeBoolean(address != null);
+      if (address != null) {
+        writeString(out, address.getStreet());
+        writeString(out, address.getCity());
+        writeString(out, address.getState());
+        writeString(out, address.getZipCode());
+        writeString(out, address.getCountry());
+      }
+    });
+  }
+
+  static byte[] deleteCustomer(Long customerId) {
+    return encode(DELETE_CUSTOMER, customerId, out -> {
+    });
+  }
+
+  static byte[] saveAccount(Account account) {
+    return encode(SAVE_ACCOUNT, account.getId(), out -> {
+      writeString(out, account.getAccountNumber());
+      writeString(out, account.getAccountType() == null ? null : account.getAccountType().name());
+      writeString(out, account.getBalance() == null ? null : account.getBalance().toPlainString());
+      writeDate(out, account.getOpenedDate());
+      writeId(out, account.getCustomer() == null ? null : account.getCustomer().getId());
+    });
+  }
+
+  static byte[] saveTransaction(Transaction transaction) {
+    return encode(SAVE_TRANSACTION, transaction.getId(), out -> {
+      out.writeLong(transaction.getAccount().getId());
+      writeString(out, transaction.getType() == null ? null : transaction.getType().name());
+      writeString(out, transaction.getAmount() == null ? null : transaction.getAmount().toPlainString());
+      writeDateTime(out, transaction.getTimestamp());
+      writeString(out, transaction.getDescription());
+      UUID correlationId = transaction.getCorrelationId();
+      out.writeBoolean(correlationId != null);
+      if (correlationId != null) {
+        out.writeLong(correlationId.getMostSignificantBits());
+        out.writeLong(correlationId.getLeastSignificantBits());
+      }
+    });
+  }
+
+  /**
+   * Packs the records of one unit of work into a single log frame.
+   */
+  static byte[] batch(List<byte[]> records) {
+    int size = Integer.BYTES;
+    for (byte[] record : records) {
+      size += Integer.BYTES + record.length;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    buffer.putInt(records.size());
+    for (byte[] record : records) {
+      buffer.putInt(record.length);
+      buffer.put(record);
+    }
+    return buffer.array();
+  }
+
+  // --- Decoding ---
+
+  static List<byte[]> unbatch(byte[] frame) {
+    ByteBuffer buffer = ByteBuffer.wrap(frame);
+    int count = buffer.getInt();
+    List<byte[]> records = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      byte[] record = new byte[buffer.getInt()];
+      buffer.get(record);
+      records.add(record);
+    }
+    return records;
+  }
+
+  static byte typeOf(byte[] record) {
+    return record[0];
+  }
+
+  static long idOf(byte[] record) {
+    return ByteBuffer.wrap(record, 1, Long.BYTES).getLong();
+  }
+
+  /**
+   * @return A reader positioned just after the record's type and ID.
+   */
+  static DataInputStream body(byte[] record) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+    in.skipBytes(1 + Long.BYTES);
+    return in;
+  }
+
+  static Customer readCustomer(long id, DataInput in) throws IOException {
+    Customer customer = new Customer();
+    customer.setId(id);
+    customer.setUsername(readString(in));
+    customer.setPasswordHash(readString(in));
+    customer.setFirstName(readString(in));
+    customer.setLastName(readString(in));
+    customer.setEmail(readString(in));
+    customer.setPhoneNumber(readString(in));
+    customer.setDateJoined(readDate(in));
+    if (in.readBoolean()) {
+      customer.setAddress(new Address(readString(in), readString(in), readString(in), readString(in),
+          readString(in)));
+    }
+    return customer;
+  }
+
+  /**
+   * @return The account, and the ID of its customer in {@code customerId[0]}.
+   */
+  static Account readAccount(long id, DataInput in, Long[] customerId) throws IOException {
+    Account account = new Account();
+    account.setId(id);
+    account.setAccountNumber(readString(in));
+    String type = readString(in);
+    account.setAccountType(type == null ? null : AccountType.valueOf(type));
+    String balance = readString(in);
+    account.setBalance(balance == null ? null : new BigDecimal(balance));
+    account.setOpenedDate(readDate(in));
+    customerId[0] = readId(in);
+    return account;
+  }
+
+  /**
+   * @return The transaction, and the ID of its account in {@code accountId[0]}.
+   */
+  static Transaction readTransaction(long id, DataInput in, Long[] accountId) throws IOException {
+    Transaction transaction = new Transaction();
+    transaction.setId(id);
+    accountId[0] = in.readLong();
+    String type = readString(in);
+    transaction.setType(type == null ? null : TransactionType.valueOf(type));
+    String amount = readString(in);
+    transaction.setAmount(amount == null ? null : new BigDecimal(amount));
+    transaction.setTimestamp(readDateTime(in));
+    transaction.setDescription(readString(in));
+    if (in.readBoolean()) {
+      transaction.setCorrelationId(new UUID(in.readLong(), in.readLong()));
+    }
+    return transaction;
+  }
+
+  // --- Private Helper Methods ---
+
+  private static byte[] encode(byte type, Long id, FieldWriter fields) {
+    if (id == null) {
+      throw new IllegalArgumentException("Only saved entities can be logged");
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(type);
+      out.writeLong(id);
+      fields.write(out);
+    } catch (IOException e) {
+      // Can't happen when writing to a byte array
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static void writeString(DataOutput out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readString(DataInput in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  private static void writeId(DataOutput out, Long id) throws IOException {
+    out.writeBoolean(id != null);
+    if (id != null) {
+      out.writeLong(id);
+    }
+  }
+
+  private static Long readId(DataInput in) throws IOException {
+    return in.readBoolean() ? in.readLong() : null;
+  }
+
+  private static void writeDate(DataOutput out, LocalDate date) throws IOException {
+    out.writeBoolean(date != null);
+    if (date != null) {
+      out.writeLong(date.toEpochDay());
+    }
+  }
+
+  private static LocalDate readDate(DataInput in) throws IOException {
+    return in.readBoolean() ? LocalDate.ofEpochDay(in.readLong()) : null;
+  }
+
+  private static void writeDateTime(DataOutput out, LocalDateTime dateTime) throws IOException {
+    out.writeBoolean(dateTime != null);
+    if (dateTime != null) {
+      out.writeLong(dateTime.toLocalDate().toEpochDay());
+      out.writeLong(dateTime.toLocalTime().toNanoOfDay());
+    }
+  }
+
+  private static LocalDateTime readDateTime(DataInput in) throws IOException {
+    if (!in.readBoolean()) {
+      return null;
+    }
+    LocalDate date = LocalDate.ofEpochDay(in.readLong());
+    return LocalDateTime.of(date, LocalTime.ofNanoOfDay(in.readLong()));
+  }
+
+  @FunctionalInterface
+  private interface FieldWriter {
+    void write(DataOutput out) throws IOException;
+  }
+}
@@ -0,0 +1,251 @@
+package com.bankapp.repository_impl.file;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log file with group commit.
+ * <p>
+ * Callers hand a frame to {@link #append(byte[])} and block until it is on
+ * disk. A single writer thread takes every frame queued since its last write,
+ * writes them with one gathering write and forces them with one fsync, so many
+ * concurrent commits share a single fsync instead of paying for one each.
+ * <p>
+ * Each frame is stored as [length][CRC32][payload]. Reading stops at the first
+ * frame that is cut short or fails its checksum, which is what a crash in the
+ * middle of a write leaves behind.
+ */
+final class WriteAheadLog implements Closeable {
+
+  static final int HEADER_BYTES = 8;
+
+  // Upper bound on frames per fsync, so one group can't grow without limit
+  private static final int MAX_GROUP = 4096;
+
+  private static final PendingWrite END_OF_LOG = new PendingWrite(null);
+
+  private final FileChannel channel;
+  private final boolean sync;
+  private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+  private final Thread writer;
+
+  // Guarded by "this": nothing may be queued behind END_OF_LOG
+  private boolean closed;
+
+  // Set by the writer thread after a failed write. The file may end in a partial
+  // frame, so nothing written after it could be read back: every later append fails.
+  private volatile IOException failure;
+
+  /**
+   * Opens (or creates) a log file for appending.
+   *
+   * @param file The log file.
+   * @param sync Whether to fsync each group. Without it, commits survive a
+   *             process crash but not an OS crash or power loss.
+   */
+  WriteAheadLog(Path file, boolean sync) throws IOException {
+    this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND);
+    this.sync = sync;
+    this.writer = new Thread(this::writeLoop, "wal-writer-" + file.getFileName());
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  /**
+   * Appends one frame and waits until it is durable.
+   *
+   * @param payload The frame's contents.
+   * @throws UncheckedIOException if the log could not be written.
+   */
+  void append(byte[] payload) {
+    PendingWrite write = new PendingWrite(frame(payload));
+    synchronized (this) {
+      if (closed) {
+        throw new IllegalStateException("Write-ahead log is closed");
+      }
+      queue.add(write);
+    }
+
+    try {
+      write.done.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      throw cause instanceof IOException
+          ? new UncheckedIOException("Write-ahead log append failed", (IOException) cause)
+          : e;
+    }
+  }
+
+  /**
+   * Waits for every frame already appended to be written, then closes the file.
+   */
+  @Override
+  public void close() throws IOException {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      queue.add(END_OF_LOG);
+    }
+
+    boolean interrupted = false;
+    while (writer.isAlive()) {
+      try {
+        writer.join();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    channel.close();
+  }
+
+  /**
+   * Builds the on-disk form of a frame: its header followed by the payload.
+   */
+  static ByteBuffer frame(byte[] payload) {
+    CRC32 crc = new CRC32();
+    crc.update(payload);
+    ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+    frame.putInt(payload.length);
+    frame.putInt((int) crc.getValue());
+    frame.put(payload);
+    frame.flip();
+    return frame;
+  }
+
+  /**
+   * Reads the frames of a log file in order.
+   *
+   * @param file     The log file.
+   * @param limit    Stop after this many bytes (e.g. the length a snapshot
+   *                 recorded), or {@code Long.MAX_VALUE} to read it all.
+   * @param consumer Called with each frame's payload.
+   * @return The length of the valid prefix that was read.
+   */
+  static long read(Path file, long limit, FrameConsumer consumer) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16))) {
+      long end = Math.min(limit, channel.size());
+      long position = 0;
+      CRC32 crc = new CRC32();
+      while (position + HEADER_BYTES <= end) {
+        int length = in.readInt();
+        int checksum = in.readInt();
+        if (length < 0 || position + HEADER_BYTES + length > end) {
+          break; // Torn tail: the header made it to disk but the payload didn't
+        }
+
+        byte[] payload = new byte[length];
+        try {
+          in.readFully(payload);
+        } catch (EOFException e) {
+          break;
+        }
+        crc.reset();
+        crc.update(payload);
+        if ((int) crc.getValue() != checksum) {
+          break;
+        }
+
+        consumer.accept(payload);
+        position += HEADER_BYTES + length;
+      }
+      return position;
+    }
+  }
+
+  // --- Private Helper Methods ---
+
+  private void writeLoop() {
+    List<PendingWrite> group = new ArrayList<>();
+    boolean open = true;
+    while (open) {
+      try {
+        group.add(queue.take());
+      } catch (InterruptedException e) {
+        continue; // Only close() stops the writer
+      }
+      queue.drainTo(group, MAX_GROUP - 1);
+
+      // END_OF_LOG is always the last thing queued
+      if (group.get(group.size() - 1) == END_OF_LOG) {
+        group.remove(group.size() - 1);
+        open = false;
+      }
+      writeGroup(group);
+      group.clear();
+    }
+  }
+
+  private void writeGroup(List<PendingWrite> group) {
+    if (group.isEmpty()) {
+      return;
+    }
+
+    try {
+      if (failure != null) {
+        throw failure;
+      }
+
+      ByteBuffer[] frames = new ByteBuffer[group.size()];
+      long remaining = 0;
+      for (int i = 0; i < frames.length; i++) {
+        frames[i] = group.get(i).frame;
+        remaining += frames[i].remaining();
+      }
+      while (remaining > 0) {
+        remaining -= channel.write(frames);
+      }
+      if (sync) {
+        channel.force(false);
+      }
+
+      for (PendingWrite write : group) {
+        write.done.complete(null);
+      }
+    } catch (IOException e) {
+      failure = e;
+      for (PendingWrite write : group) {
+        write.done.completeExceptionally(e);
+      }
+    }
+  }
+
+  /**
+   * Receives frame payloads while a log is read.
+   */
+  @FunctionalInterface
+  interface FrameConsumer {
+    void accept(byte[] payload) throws IOException;
+  }
+
+  private static final class PendingWrite {
+    private final ByteBuffer frame;
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    private PendingWrite(ByteBuffer frame) {
+      this.frame = frame;
+    }
+  }
+}
@@ -0,0 +1,185 @@
+package com.bankapp.repository_impl.filter;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe, growable Bloom filter over strings.
+ * <p>
+ * {@link #mightContain(String)} never returns {@code false} for a key that was
+ * {@link #put(String) put}; it returns {@code true} for a key that was not put
+ * with roughly the configured false-positive rate. Keys cannot be removed.
+ * <p>
+ * Putting a key the filter already reports as present changes nothing and
+ * doesn't count towards its size, so keys can be put again on every save.
+ * When more keys are put than the filter was sized for, a new layer twice the
+ * size is added for the keys that follow, rather than rebuilding (which would
+ * race with concurrent puts). The first layer gets half the configured
+ * false-positive rate and each new layer half the rate of the one before, so
+ * the rate of the whole filter stays under the configured rate however far it
+ * grows. Reads and puts are lock-free.
+ */
+public class BloomFilter {
+
+  private final double falsePositiveRate;
+  private volatile Layer[] layers;
+
+  /**
+   * @param expectedInsertions How many keys the first layer is sized for.
+   * @param falsePositiveRate  The target false-positive rate, e.g. 0.01.
+   */
+  public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+    if (expectedInsertions < 1) {
+      throw new IllegalArgumentException("Expected insertions must be positive");
+    }
+    if (falsePositiveRate <= 0.0 || falsePositiveRate >= 1.0) {
+      throw new IllegalArgumentException("False-positive rate must be between 0 and 1");
+    }
+    this.falsePositiveRate = falsePositiveRate;
+    this.layers = new Layer[] { new Layer(expectedInsertions, falsePositiveRate / 2) };
+  }
+
+  public void put(String key) {
+    long h1 = hash(key);
+    long h2 = mix(h1 + 0x9E3779B97F4A7C15L) | 1L; // Odd (so never zero), so the k probes differ
+    Layer[] current = layers;
+    if (mightContain(current, h1, h2)) {
+      return; // Already answered "maybe": re-puts must not fill the filter up
+    }
+    Layer last = current[current.length - 1];
+    if (last.put(h1, h2) && last.isFull()) {
+      grow(current);
+    }
+  }
+
+  public boolean mightContain(String key) {
+    long h1 = hash(key);
+    long h2 = mix(h1 + 0x9E3779B97F4A7C15L) | 1L;
+    return mightContain(layers, h1, h2);
+  }
+
+  /**
+   * @return The memory taken by the bit arrays, in bytes.
+   */
+  public long getSizeInBytes() {
+    long bytes = 0;
+    for (Layer layer : layers) {
+      bytes += layer.words.length() * (long) Long.BYTES;
+    }
+    return bytes;
+  }
+
+  public int getLayerCount() {
+    return layers.length;
+  }
+
+  // --- Private Helper Methods ---
+
+  private static boolean mightContain(Layer[] layers, long h1, long h2) {
+    for (Layer layer : layers) {
+      if (layer.mightContain(h1, h2)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private synchronized void grow(Layer[] seen) {
+    if (layers != seen) {
+      return; // Another put already added a layer
+    }
+    Layer last = seen[seen.length - 1];
+    Layer[] grown = Arrays.copyOf(seen, seen.length + 1);
+    grown[seen.length] = new Layer(last.capacity * 2, falsePositiveRate / (2L << seen.length));
+    layers = grown;
+  }
+
+  /**
+   * FNV-1a over the key's characters, finished with a strong mix so the bits
+   * used for probing are well distributed.
+   */
+  private static long hash(String key) {
+    long h = 0xcbf29ce484222325L;
+    for (int i = 0; i < key.length(); i++) {
+      h = (h ^ key.charAt(i)) * 0x100000001b3L;
+    }
+    return mix(h);
+  }
+
+  // The 64-bit finalizer from MurmurHash3
+  private static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  /**
+   * A fixed-size filter. Probe positions come from double hashing:
+   * {@code h1 + i * h2} for the i-th of k probes.
+   */
+  private static final class Layer {
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final long capacity;
+    private final LongAdder insertions = new LongAdder();
+
+    private Layer(long capacity, double falsePositiveRate) {
+      // The optimal sizes: m = -n ln p / (ln 2)^2 bits and k = (m / n) ln 2 probes
+      double ln2 = Math.log(2);
+      long bits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2));
+      int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) / 64));
+      this.words = new AtomicLongArray(wordCount);
+      this.bitCount = wordCount * 64L;
+      this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * ln2));
+      this.capacity = capacity;
+    }
+
+    /**
+     * @return Whether this put set a bit that wasn't set yet. Only those puts
+     *         count towards the layer's capacity.
+     */
+    private boolean put(long h1, long h2) {
+      boolean changed = false;
+      long combined = h1;
+      for (int i = 0; i < hashCount; i++) {
+        long bit = Math.floorMod(combined, bitCount);
+        long mask = 1L << bit;
+        int word = (int) (bit >>> 6);
+        long current = words.get(word);
+        while ((current & mask) == 0) {
+          if (words.compareAndSet(word, current, current | mask)) {
+            changed = true;
+            break;
+          }
+          current = words.get(word);
+        }
+        combined += h2;
+      }
+      if (changed) {
+        insertions.increment();
+      }
+      return changed;
+    }
+
+    private boolean mightContain(long h1, long h2) {
+      long combined = h1;
+      for (int i = 0; i < hashCount; i++) {
+        long bit = Math.floorMod(combined, bitCount);
+        if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+          return false;
+        }
+        combined += h2;
+      }
+      return true;
+    }
+
+    private boolean isFull() {
+      return insertions.sum() > capacity;
+    }
+  }
+}
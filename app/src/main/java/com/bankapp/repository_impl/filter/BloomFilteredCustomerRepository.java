@@ -0,0 +1,168 @@
+package com.bankapp.repository_impl.filter;
+
+import com.bankapp.model.Customer;
+import com.bankapp.repository.CustomerRepository;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A CustomerRepository decorator that answers most lookups of unknown
+ * usernames and emails from memory.
+ * <p>
+ * Every username and email ever saved through this repository (or present
+ * when it was created) is put in a {@link BloomFilter}. A lookup whose key
+ * the filter has never seen returns empty without touching the underlying
+ * store; this is what credential-stuffing traffic and registration checks
+ * for new names mostly are. A key the filter might have seen goes to the
+ * store as usual.
+ * <p>
+ * Keys are added to the filter before the store is written, so a key can be
+ * in the filter without being in the store (a false positive, which only
+ * costs the lookup) but never the other way round. For the same reason
+ * deleted or renamed customers are left in the filter until the application
+ * restarts. All writes must go through this repository: a customer another
+ * process adds to a shared database is invisible to the filter, so don't use
+ * it over a store other processes write to.
+ */
+public class BloomFilteredCustomerRepository implements CustomerRepository {
+
+  /**
+   * The share of lookups for unknown keys that still reach the store.
+   */
+  public static final double FALSE_POSITIVE_RATE = 0.01;
+
+  private static final long MIN_EXPECTED_CUSTOMERS = 10_000;
+
+  private final CustomerRepository delegate;
+  private final BloomFilter filter;
+
+  private final LongAdder filteredLookups = new LongAdder();
+  private final LongAdder falsePositives = new LongAdder();
+
+  /**
+   * Wraps a repository, loading the usernames and emails already in it.
+   *
+   * @param delegate The repository that holds the customers.
+   */
+  public BloomFilteredCustomerRepository(CustomerRepository delegate) {
+    this.delegate = delegate;
+    List<Customer> existing = delegate.findAll();
+    // Leave room to double before the filter has to add a layer. Each customer has two keys.
+    long expectedCustomers = Math.max(MIN_EXPECTED_CUSTOMERS, existing.size() * 2L);
+    this.filter = new BloomFilter(expectedCustomers * 2, FALSE_POSITIVE_RATE);
+    existing.forEach(this::remember);
+  }
+
+  @Override
+  public Customer save(Customer customer) {
+    if (customer != null) {
+      remember(customer);
+    }
+    return delegate.save(customer);
+  }
+
+  @Override
+  public Optional<Customer> insertIfAbsent(Customer customer) {
+    if (customer != null) {
+      remember(customer);
+    }
+    return delegate.insertIfAbsent(customer);
+  }
+
+  @Override
+  public Optional<Customer> findById(Long id) {
+    return delegate.findById(id);
+  }
+
+  @Override
+  public Optional<Customer> findByUsername(String username) {
+    String key = usernameKey(username);
+    if (key == null || !filter.mightContain(key)) {
+      filteredLookups.increment();
+      return Optional.empty();
+    }
+    return countFalsePositive(delegate.findByUsername(username));
+  }
+
+  @Override
+  public List<Customer> findAll() {
+    return delegate.findAll();
+  }
+
+  @Override
+  public void delete(Customer customer) {
+    // The filter can't forget a key; a lookup for it just goes to the store
+    delegate.delete(customer);
+  }
+
+  @Override
+  public Optional<Customer> findByEmail(String email) {
+    String key = emailKey(email);
+    if (key == null || !filter.mightContain(key)) {
+      filteredLookups.increment();
+      return Optional.empty();
+    }
+    return countFalsePositive(delegate.findByEmail(email));
+  }
+
+  /**
+   * @return Lookups answered from the filter without reaching the store.
+   */
+  public long getFilteredLookupCount() {
+    return filteredLookups.sum();
+  }
+
+  /**
+   * @return Lookups the filter let through that the store then found nothing
+   *         for.
+   */
+  public long getFalsePositiveCount() {
+    return falsePositives.sum();
+  }
+
+  /**
+   * @return The memory taken by the filter, in bytes.
+   */
+  public long getFilterSizeInBytes() {
+    return filter.getSizeInBytes();
+  }
+
+  // --- Private Helper Methods ---
+
+  private void remember(Customer customer) {
+    String username = usernameKey(customer.getUsername());
+    if (username != null) {
+      filter.put(username);
+    }
+    String email = emailKey(customer.getEmail());
+    if (email != null) {
+      filter.put(email);
+    }
+  }
+
+  private Optional<Customer> countFalsePositive(Optional<Customer> found) {
+    if (found.isEmpty()) {
+      falsePositives.increment();
+    }
+    return found;
+  }
+
+  // Usernames and emails share one filter, so each kind of key gets its own prefix.
+  // They are normalized the way the store compares them (case-insensitively); a
+  // case-sensitive store only gets more false positives.
+
+  private static String usernameKey(String username) {
+    return username == null ? null : "u:" + normalize(username);
+  }
+
+  private static String emailKey(String email) {
+    return email == null ? null : "e:" + normalize(email);
+  }
+
+  private static String normalize(String key) {
+    return key.trim().toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,129 @@
+package com.bankapp.repository_impl.jpa;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.Customer;
+import com.bankapp.repository.AccountRepository;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+
+import javax.persistence.EntityManager;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The JPA (Hibernate) implementation of the AccountRepository.
+ * <p>
+ * Accounts are in the second-level cache and are looked up by their natural ID
+ * (the account number), so repeated lookups of the same account don't go to
+ * the database. The owning customer is always loaded too, because the service
+ * layer reads it after the EntityManager is closed.
+ */
+public class JpaAccountRepository implements AccountRepository {
+
+  private final JpaTransactions transactions;
+
+  public JpaAccountRepository(JpaTransactions transactions) {
+    this.transactions = transactions;
+  }
+
+  @Override
+  public Account save(Account account) {
+    if (account == null) {
+      throw new IllegalArgumentException("Account cannot be null");
+    }
+    return transactions.inTransaction(entityManager -> write(entityManager, account));
+  }
+
+  @Override
+  public List<Account> saveAll(List<Account> accounts) {
+    if (accounts == null) {
+      throw new IllegalArgumentException("Accounts cannot be null");
+    }
+    return transactions.inTransaction(entityManager -> {
+      int count = 0;
+      for (Account account : accounts) {
+        write(entityManager, account);
+        if (++count % JpaTransactionRepository.BATCH_SIZE == 0) {
+          // Send this batch and keep the persistence context small
+          entityManager.flush();
+          entityManager.clear();
+        }
+      }
+      return accounts;
+    });
+  }
+
+  @Override
+  public Optional<Account> findById(Long id) {
+    if (id == null) {
+      return Optional.empty();
+    }
+    return transactions.read(entityManager -> {
+      Account account = entityManager.find(Account.class, id);
+      return Optional.ofNullable(withCustomer(account));
+    });
+  }
+
+  @Override
+  public Optional<Account> findByAccountNumber(String accountNumber) {
+    if (accountNumber == null) {
+      return Optional.empty();
+    }
+    return transactions.read(entityManager -> {
+      // Natural-ID lookup: served from the second-level cache when possible
+      Account account = entityManager.unwrap(Session.class)
+          .bySimpleNaturalId(Account.class)
+          .load(accountNumber);
+      return Optional.ofNullable(withCustomer(account));
+    });
+  }
+
+  @Override
+  public Set<Account> findAllByCustomer(Customer customer) {
+    if (customer == null || customer.getId() == null) {
+      return Set.of(); // Return an empty, immutable set
+    }
+    return transactions.read(entityManager -> new HashSet<>(entityManager
+        .createQuery("SELECT a FROM Account a JOIN FETCH a.customer WHERE a.customer.id = :customerId",
+            Account.class)
+        .setParameter("customerId", customer.getId())
+        .getResultList()));
+  }
+
+  @Override
+  public List<String> findAllAccountNumbers() {
+    return transactions.read(entityManager -> entityManager
+        .createQuery("SELECT a.accountNumber FROM Account a", String.class)
+        .getResultList());
+  }
+
+  // --- Private Helper Methods ---
+
+  /**
+   * INSERT for new accounts, UPDATE for existing ones. The caller's object is
+   * returned either way (with its new ID after an insert), like the mock does.
+   * <p>
+   * An update is checked against the account's version: a caller holding an
+   * older copy (e.g. a cached one) gets an OptimisticLockException instead of
+   * overwriting a concurrent update. Once the update commits, the caller's
+   * copy gets the new version, so it can be saved again.
+   */
+  private Account write(EntityManager entityManager, Account account) {
+    if (account.getId() == null) {
+      entityManager.persist(account);
+    } else {
+      Account managed = entityManager.merge(account);
+      transactions.afterCommit(() -> account.setVersion(managed.getVersion()));
+    }
+    return account;
+  }
+
+  private static Account withCustomer(Account account) {
+    if (account != null) {
+      Hibernate.initialize(account.getCustomer());
+    }
+    return account;
+  }
+}
@@ -0,0 +1,136 @@
+package com.bankapp.repository_impl.jpa;
+
+import com.bankapp.model.Customer;
+import com.bankapp.repository.CustomerRepository;
+import org.hibernate.exception.ConstraintViolationException;
+
+import javax.persistence.PersistenceException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The JPA (Hibernate) implementation of the CustomerRepository.
+ * <p>
+ * Username and email lookups use the unique indexes on those columns. They are
+ * case-insensitive because MySQL's default collations are (the H2 tests use
+ * IGNORECASE=TRUE for the same effect), matching the mock repository.
+ */
+public class JpaCustomerRepository implements CustomerRepository {
+
+  private final JpaTransactions transactions;
+
+  public JpaCustomerRepository(JpaTransactions transactions) {
+    this.transactions = transactions;
+  }
+
+  @Override
+  public Customer save(Customer customer) {
+    if (customer == null) {
+      throw new IllegalArgumentException("Customer cannot be null");
+    }
+    return transactions.inTransaction(entityManager -> {
+      if (customer.getId() == null) {
+        entityManager.persist(customer); // INSERT
+      } else {
+        entityManager.merge(customer); // UPDATE
+      }
+      return customer;
+    });
+  }
+
+  @Override
+  public Optional<Customer> insertIfAbsent(Customer customer) {
+    if (customer == null) {
+      throw new IllegalArgumentException("Customer cannot be null");
+    }
+    if (customer.getId() != null) {
+      throw new IllegalArgumentException("Customer is already saved: " + customer.getId());
+    }
+
+    try {
+      return transactions.inTransaction(entityManager -> {
+        Long taken = entityManager
+            .createQuery("SELECT COUNT(c) FROM Customer c WHERE c.username = :username OR c.email = :email",
+                Long.class)
+            .setParameter("username", customer.getUsername())
+            .setParameter("email", customer.getEmail())
+            .getSingleResult();
+        if (taken > 0) {
+          return Optional.<Customer>empty();
+        }
+        entityManager.persist(customer);
+        entityManager.flush();
+        return Optional.of(customer);
+      });
+    } catch (PersistenceException e) {
+      // A concurrent registration won the race; the unique constraints caught it
+      if (isConstraintViolation(e)) {
+        customer.setId(null);
+        return Optional.empty();
+      }
+      throw e;
+    }
+  }
+
+  @Override
+  public Optional<Customer> findById(Long id) {
+    if (id == null) {
+      return Optional.empty();
+    }
+    return transactions.read(entityManager -> Optional.ofNullable(entityManager.find(Customer.class, id)));
+  }
+
+  @Override
+  public Optional<Customer> findByUsername(String username) {
+    return findOneBy("username", username);
+  }
+
+  @Override
+  public List<Customer> findAll() {
+    return transactions.read(entityManager -> entityManager
+        .createQuery("SELECT c FROM Customer c", Customer.class)
+        .getResultList());
+  }
+
+  @Override
+  public void delete(Customer customer) {
+    if (customer != null && customer.getId() != null) {
+      transactions.inTransaction(entityManager -> {
+        Customer managed = entityManager.find(Customer.class, customer.getId());
+        if (managed != null) {
+          entityManager.remove(managed);
+        }
+        return null;
+      });
+    }
+  }
+
+  @Override
+  public Optional<Customer> findByEmail(String email) {
+    return findOneBy("email", email);
+  }
+
+  // --- Private Helper Methods ---
+
+  private Optional<Customer> findOneBy(String column, String value) {
+    if (value == null) {
+      return Optional.empty();
+    }
+    return transactions.read(entityManager -> entityManager
+        .createQuery("SELECT c FROM Customer c WHERE c." + column + " = :value", Customer.class)
+        .setParameter("value", value)
+        .setMaxResults(1)
+        .getResultList()
+        .stream()
+        .findFirst());
+  }
+
+  private static boolean isConstraintViolation(Throwable e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ConstraintViolationException) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,381 @@
+package com.bankapp.repository_impl.jpa;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.Transaction;
+import com.bankapp.repository.TransactionCursor;
+import com.bankapp.repository.TransactionPage;
+import com.bankapp.repository.TransactionRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.TypedQuery;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * The JPA (Hibernate) implementation of the TransactionRepository.
+ * <p>
+ * Transactions get their IDs from a pooled table generator, so bulk appends
+ * go to the database as JDBC batches of {@link #BATCH_SIZE} inserts.
+ * <p>
+ * Each new row's running_total is chained from the account's latest row. The
+ * account row is locked (SELECT ... FOR UPDATE) first, so concurrent appends
+ * to one account, even from other application nodes, can't both chain from
+ * the same row. Rows are ordered by (timestamp, id), but IDs come from blocks
+ * handed out per node, so a new row doesn't necessarily get the highest ID:
+ * a row that doesn't sort last is treated as back-dated.
+ * <p>
+ * Rows written before the running_total column existed have it NULL. The
+ * first time the totals are needed, every account with such rows has its
+ * totals recomputed and saved (see {@link #backfillRunningTotals()}); until
+ * every node runs this version, start it once by hand after a migration.
+ */
+public class JpaTransactionRepository implements TransactionRepository {
+
+  /**
+   * Must match "hibernate.jdbc.batch_size" in persistence.xml.
+   */
+  static final int BATCH_SIZE = 50;
+
+  private static final Logger LOGGER = Logger.getLogger(JpaTransactionRepository.class.getName());
+
+  private final JpaTransactions transactions;
+
+  // Set once no row is missing its running total; new rows always get one
+  private volatile boolean runningTotalsComplete;
+
+  public JpaTransactionRepository(JpaTransactions transactions) {
+    this.transactions = transactions;
+  }
+
+  @Override
+  public Transaction save(Transaction transaction) {
+    if (transaction == null) {
+      throw new IllegalArgumentException("Transaction cannot be null");
+    }
+
+    // Transactions are append-only; we don't edit them.
+    if (transaction.getId() != null) {
+      return transaction;
+    }
+    saveAll(List.of(transaction));
+    return transaction;
+  }
+
+  @Override
+  public List<Transaction> saveAll(List<Transaction> newTransactions) {
+    if (newTransactions == null) {
+      throw new IllegalArgumentException("Transactions cannot be null");
+    }
+    ensureRunningTotals();
+    return transactions.inTransaction(entityManager -> {
+      // Group by account, locking the accounts in ID order so two batches can't deadlock
+      Map<Long, List<Transaction>> byAccount = new TreeMap<>();
+      for (Transaction transaction : newTransactions) {
+        if (transaction.getId() == null) {
+          byAccount.computeIfAbsent(transaction.getAccount().getId(), accountId -> new ArrayList<>())
+              .add(transaction);
+        }
+      }
+
+      int count = 0;
+      for (Map.Entry<Long, List<Transaction>> entry : byAccount.entrySet()) {
+        Long accountId = entry.getKey();
+        entityManager.find(Account.class, accountId, LockModeType.PESSIMISTIC_WRITE);
+        BigDecimal total = latestRunningTotal(entityManager, accountId, null);
+        TransactionCursor latest = latestKey(entityManager, accountId);
+
+        for (Transaction transaction : entry.getValue()) {
+          // The table generator assigns the ID here; the row is inserted at the next flush
+          entityManager.persist(transaction);
+          if (latest == null || sortsAfter(transaction, latest)) {
+            // The common case: appended after the newest row
+            total = total.add(transaction.getAmount());
+            transaction.setRunningTotal(total);
+            latest = TransactionCursor.after(transaction);
+          } else {
+            // Back-dated (e.g. imported history, or a lower ID from another node's block):
+            // chain from the row before it, then shift every later row by its amount
+            total = insertBackDated(entityManager, accountId, transaction);
+          }
+
+          if (++count % BATCH_SIZE == 0) {
+            // Send this batch and keep the persistence context small
+            entityManager.flush();
+            entityManager.clear();
+          }
+        }
+      }
+      return newTransactions;
+    });
+  }
+
+  @Override
+  public List<Transaction> findAllByAccount(Account account) {
+    if (account == null || account.getId() == null) {
+      return List.of(); // Return an empty, immutable list
+    }
+    return withAccount(account, transactions.read(entityManager -> entityManager
+        .createQuery("SELECT t FROM Transaction t WHERE t.account.id = :accountId"
+            + " ORDER BY t.timestamp DESC, t.id DESC", Transaction.class)
+        .setParameter("accountId", account.getId())
+        .getResultList()));
+  }
+
+  @Override
+  public List<Transaction> findAllByAccountAndTimestampBetween(Account account, LocalDateTime startDate,
+      LocalDateTime endDate) {
+    if (account == null || account.getId() == null) {
+      return List.of();
+    }
+    return withAccount(account, transactions.read(entityManager -> entityManager
+        .createQuery("SELECT t FROM Transaction t WHERE t.account.id = :accountId"
+            + " AND t.timestamp BETWEEN :startDate AND :endDate"
+            + " ORDER BY t.timestamp DESC, t.id DESC", Transaction.class)
+        .setParameter("accountId", account.getId())
+        .setParameter("startDate", startDate)
+        .setParameter("endDate", endDate)
+        .getResultList()));
+  }
+
+  @Override
+  public BigDecimal runningTotalAsOf(Account account, LocalDateTime time) {
+    if (account == null || account.getId() == null || time == null) {
+      return BigDecimal.ZERO;
+    }
+    ensureRunningTotals();
+    return transactions.read(entityManager -> latestRunningTotal(entityManager, account.getId(), time));
+  }
+
+  @Override
+  public BigDecimal runningTotal(Account account) {
+    if (account == null || account.getId() == null) {
+      return BigDecimal.ZERO;
+    }
+    ensureRunningTotals();
+    return transactions.read(entityManager -> latestRunningTotal(entityManager, account.getId(), null));
+  }
+
+  /**
+   * Computes and saves the running total of every row that doesn't have one
+   * yet (rows written before the running_total column was added), and
+   * recomputes the rest of those accounts' rows, which were chained from them.
+   * Each account is fixed in its own transaction, holding its row lock.
+   * <p>
+   * Runs on its own the first time running totals are needed; call it
+   * directly to do the work at a time of your choosing (e.g. right after the
+   * migration).
+   *
+   * @return The number of accounts whose running totals were recomputed.
+   */
+  public synchronized int backfillRunningTotals() {
+    List<Long> accountIds = transactions.read(entityManager -> entityManager
+        .createQuery("SELECT DISTINCT t.account.id FROM Transaction t WHERE t.runningTotal IS NULL", Long.class)
+        .getResultList());
+    for (Long accountId : accountIds) {
+      transactions.inTransaction(entityManager -> {
+        entityManager.find(Account.class, accountId, LockModeType.PESSIMISTIC_WRITE);
+        recomputeRunningTotals(entityManager, accountId);
+        return null;
+      });
+    }
+    if (!accountIds.isEmpty()) {
+      LOGGER.info("Backfilled the running totals of " + accountIds.size() + " accounts");
+    }
+    runningTotalsComplete = true;
+    return accountIds.size();
+  }
+
+  @Override
+  public TransactionPage findPageByAccount(Account account, TransactionCursor after, int pageSize) {
+    TransactionPage.checkPageSize(pageSize);
+    if (account == null || account.getId() == null) {
+      return TransactionPage.of(List.of(), pageSize);
+    }
+
+    // Keyset pagination: a seek on idx_transactions_account_time, however deep the page.
+    // One extra row tells us whether another page follows.
+    return TransactionPage.of(withAccount(account, transactions.read(entityManager -> {
+      TypedQuery<Transaction> query = after == null
+          ? entityManager.createQuery("SELECT t FROM Transaction t WHERE t.account.id = :accountId"
+              + " ORDER BY t.timestamp DESC, t.id DESC", Transaction.class)
+          : entityManager.createQuery("SELECT t FROM Transaction t WHERE t.account.id = :accountId"
+              + " AND (t.timestamp < :timestamp OR (t.timestamp = :timestamp AND t.id < :id))"
+              + " ORDER BY t.timestamp DESC, t.id DESC", Transaction.class)
+              .setParameter("timestamp", after.getTimestamp())
+              .setParameter("id", after.getId());
+      return query.setParameter("accountId", account.getId())
+          .setMaxResults(pageSize + 1)
+          .getResultList();
+    })), pageSize);
+  }
+
+  @Override
+  public long findMaxId() {
+    Long maxId = transactions.read(entityManager -> entityManager
+        .createQuery("SELECT MAX(t.id) FROM Transaction t", Long.class)
+        .getSingleResult());
+    return maxId == null ? 0L : maxId;
+  }
+
+  @Override
+  public List<Transaction> findByIdRange(long afterId, long upToId, int limit) {
+    if (limit < 1) {
+      throw new IllegalArgumentException("Limit must be positive");
+    }
+    if (afterId >= upToId) {
+      return List.of();
+    }
+
+    // A primary key range scan; the accounts are fetched in the same query
+    return transactions.read(entityManager -> entityManager
+        .createQuery("SELECT t FROM Transaction t JOIN FETCH t.account"
+            + " WHERE t.id > :afterId AND t.id <= :upToId ORDER BY t.id", Transaction.class)
+        .setParameter("afterId", afterId)
+        .setParameter("upToId", upToId)
+        .setMaxResults(limit)
+        .getResultList());
+  }
+
+  // --- Private Helper Methods ---
+
+  /**
+   * @param upTo Only consider rows at or before this time, or null for all rows.
+   * @return The running total of the account's latest row, or zero if there is none.
+   */
+  private static BigDecimal latestRunningTotal(EntityManager entityManager, Long accountId, LocalDateTime upTo) {
+    TypedQuery<BigDecimal> query = upTo == null
+        ? entityManager.createQuery("SELECT t.runningTotal FROM Transaction t WHERE t.account.id = :accountId"
+            + " ORDER BY t.timestamp DESC, t.id DESC", BigDecimal.class)
+        : entityManager.createQuery("SELECT t.runningTotal FROM Transaction t WHERE t.account.id = :accountId"
+            + " AND t.timestamp <= :upTo ORDER BY t.timestamp DESC, t.id DESC", BigDecimal.class)
+            .setParameter("upTo", upTo);
+    List<BigDecimal> totals = query.setParameter("accountId", accountId)
+        .setMaxResults(1)
+        .getResultList();
+    if (totals.isEmpty()) {
+      return BigDecimal.ZERO;
+    }
+    if (totals.get(0) == null) {
+      throw new IllegalStateException("Running totals of account " + accountId + " have not been backfilled");
+    }
+    return totals.get(0);
+  }
+
+  /**
+   * @return The (timestamp, id) of the account's newest row, or null if it has none.
+   */
+  private static TransactionCursor latestKey(EntityManager entityManager, Long accountId) {
+    List<Object[]> keys = entityManager
+        .createQuery("SELECT t.timestamp, t.id FROM Transaction t WHERE t.account.id = :accountId"
+            + " ORDER BY t.timestamp DESC, t.id DESC", Object[].class)
+        .setParameter("accountId", accountId)
+        .setMaxResults(1)
+        .getResultList();
+    return keys.isEmpty() ? null : new TransactionCursor((LocalDateTime) keys.get(0)[0], (Long) keys.get(0)[1]);
+  }
+
+  private static boolean sortsAfter(Transaction transaction, TransactionCursor key) {
+    int byTime = transaction.getTimestamp().compareTo(key.getTimestamp());
+    return byTime > 0 || (byTime == 0 && transaction.getId() > key.getId());
+  }
+
+  /**
+   * Inserts a (persisted, not yet flushed) row that sorts before the account's
+   * newest one.
+   *
+   * @return The account's running total afterwards (its newest row's).
+   */
+  private static BigDecimal insertBackDated(EntityManager entityManager, Long accountId, Transaction transaction) {
+    // Ties on the timestamp are broken by ID, whatever order the IDs were handed out in
+    List<BigDecimal> previous = entityManager
+        .createQuery("SELECT t.runningTotal FROM Transaction t WHERE t.account.id = :accountId"
+            + " AND (t.timestamp < :timestamp OR (t.timestamp = :timestamp AND t.id < :id))"
+            + " ORDER BY t.timestamp DESC, t.id DESC", BigDecimal.class)
+        .setParameter("accountId", accountId)
+        .setParameter("timestamp", transaction.getTimestamp())
+        .setParameter("id", transaction.getId())
+        .setMaxResults(1)
+        .getResultList();
+    BigDecimal before = previous.isEmpty() ? BigDecimal.ZERO : previous.get(0);
+    transaction.setRunningTotal(before.add(transaction.getAmount()));
+    entityManager.flush();
+
+    entityManager.createQuery("UPDATE Transaction t SET t.runningTotal = t.runningTotal + :amount"
+            + " WHERE t.account.id = :accountId"
+            + " AND (t.timestamp > :timestamp OR (t.timestamp = :timestamp AND t.id > :id))")
+        .setParameter("amount", transaction.getAmount())
+        .setParameter("accountId", accountId)
+        .setParameter("timestamp", transaction.getTimestamp())
+        .setParameter("id", transaction.getId())
+        .executeUpdate();
+    // A bulk update bypasses the persistence context: drop any copies it made stale
+    entityManager.clear();
+    return latestRunningTotal(entityManager, accountId, null);
+  }
+
+  /**
+   * Backfills the running totals the first time they are needed (see
+   * {@link #backfillRunningTotals()}); after that, a volatile read.
+   */
+  private void ensureRunningTotals() {
+    if (!runningTotalsComplete) {
+      synchronized (this) {
+        if (!runningTotalsComplete) {
+          backfillRunningTotals();
+        }
+      }
+    }
+  }
+
+  /**
+   * Recomputes every running total of one account, oldest row first, a page
+   * at a time. Must be called while holding the account's row lock.
+   */
+  private static void recomputeRunningTotals(EntityManager entityManager, Long accountId) {
+    BigDecimal total = BigDecimal.ZERO;
+    TransactionCursor last = null;
+    while (true) {
+      TypedQuery<Transaction> query = last == null
+          ? entityManager.createQuery("SELECT t FROM Transaction t WHERE t.account.id = :accountId"
+              + " ORDER BY t.timestamp, t.id", Transaction.class)
+          : entityManager.createQuery("SELECT t FROM Transaction t WHERE t.account.id = :accountId"
+              + " AND (t.timestamp > :timestamp OR (t.timestamp = :timestamp AND t.id > :id))"
+              + " ORDER BY t.timestamp, t.id", Transaction.class)
+              .setParameter("timestamp", last.getTimestamp())
+              .setParameter("id", last.getId());
+      List<Transaction> page = query.setParameter("accountId", accountId)
+          .setMaxResults(BATCH_SIZE)
+          .getResultList();
+      for (Transaction transaction : page) {
+        total = total.add(transaction.getAmount());
+        if (transaction.getRunningTotal() == null || transaction.getRunningTotal().compareTo(total) != 0) {
+          transaction.setRunningTotal(total);
+        }
+        last = TransactionCursor.after(transaction);
+      }
+      // Send this page's updates and keep the persistence context small
+      entityManager.flush();
+      entityManager.clear();
+      if (page.size() < BATCH_SIZE) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Replaces the lazy account proxy (unusable once the EntityManager is closed)
+   * with the account the caller asked about.
+   */
+  private static List<Transaction> withAccount(Account account, List<Transaction> results) {
+    for (Transaction transaction : results) {
+      transaction.setAccount(account);
+    }
+    return results;
+  }
+}
@@ -0,0 +1,136 @@
+package com.bankapp.repository_impl.jpa;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Runs repository work against a JPA EntityManager.
+ * It opens an EntityManager per call, wraps writes in a database transaction,
+ * and always closes the EntityManager afterwards.
+ * <p>
+ * If a {@link JpaUnitOfWork} is active on the calling thread, the work joins
+ * its EntityManager and transaction instead, and is committed with the rest of
+ * the unit of work.
+ */
+public class JpaTransactions {
+
+  private final EntityManagerFactory entityManagerFactory;
+
+  // The EntityManager of the unit of work active on this thread, if any
+  private final ThreadLocal<EntityManager> unitOfWorkEntityManager = new ThreadLocal<>();
+
+  // What to do once the transaction running on this thread commits, if one is
+  private final ThreadLocal<List<Runnable>> afterCommit = new ThreadLocal<>();
+
+  public JpaTransactions(EntityManagerFactory entityManagerFactory) {
+    this.entityManagerFactory = entityManagerFactory;
+  }
+
+  /**
+   * Runs work that changes data inside a database transaction.
+   * The transaction is committed if the work returns normally and rolled back
+   * if it throws.
+   *
+   * @param work The work to run.
+   * @return Whatever the work returns.
+   */
+  public <T> T inTransaction(Function<EntityManager, T> work) {
+    EntityManager joined = unitOfWorkEntityManager.get();
+    if (joined != null) {
+      return work.apply(joined);
+    }
+
+    EntityManager entityManager = entityManagerFactory.createEntityManager();
+    EntityTransaction transaction = entityManager.getTransaction();
+    List<Runnable> outer = afterCommit.get(); // Set if this runs inside another (separate) transaction
+    List<Runnable> committed = new ArrayList<>();
+    afterCommit.set(committed);
+    try {
+      transaction.begin();
+      T result = work.apply(entityManager);
+      transaction.commit();
+      committed.forEach(Runnable::run);
+      return result;
+    } catch (RuntimeException e) {
+      if (transaction.isActive()) {
+        transaction.rollback();
+      }
+      throw e;
+    } finally {
+      if (outer == null) {
+        afterCommit.remove();
+      } else {
+        afterCommit.set(outer);
+      }
+      entityManager.close();
+    }
+  }
+
+  /**
+   * Runs an action once the transaction running on this thread (including the
+   * unit of work it joined) has committed; it is dropped on rollback. Used to
+   * copy what the database assigned at commit back to the caller's objects.
+   * Outside a transaction the action runs at once.
+   *
+   * @param action What to do after the commit.
+   */
+  void afterCommit(Runnable action) {
+    List<Runnable> committed = afterCommit.get();
+    if (committed == null) {
+      action.run();
+    } else {
+      committed.add(action);
+    }
+  }
+
+  /**
+   * Runs read-only work. No transaction is started, so nothing is flushed.
+   *
+   * @param work The work to run.
+   * @return Whatever the work returns.
+   */
+  public <T> T read(Function<EntityManager, T> work) {
+    EntityManager joined = unitOfWorkEntityManager.get();
+    if (joined != null) {
+      // Reads inside a unit of work see its own (not yet committed) writes
+      return work.apply(joined);
+    }
+
+    EntityManager entityManager = entityManagerFactory.createEntityManager();
+    try {
+      return work.apply(entityManager);
+    } finally {
+      entityManager.close();
+    }
+  }
+
+  /**
+   * Runs work with one EntityManager and one database transaction that every
+   * repository call on this thread joins. Used by {@link JpaUnitOfWork}.
+   */
+  <T> T inUnitOfWork(Function<EntityManager, T> work) {
+    if (unitOfWorkEntityManager.get() != null) {
+      return work.apply(unitOfWorkEntityManager.get());
+    }
+
+    return inTransaction(entityManager -> {
+      unitOfWorkEntityManager.set(entityManager);
+      try {
+        T result = work.apply(entityManager);
+        // Send all the unit's statements now (as JDBC batches), before the single commit
+        entityManager.flush();
+        return result;
+      } finally {
+        unitOfWorkEntityManager.remove();
+      }
+    });
+  }
+
+  public EntityManagerFactory getEntityManagerFactory() {
+    return entityManagerFactory;
+  }
+}
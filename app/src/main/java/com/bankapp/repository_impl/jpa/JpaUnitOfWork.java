@@ -0,0 +1,31 @@
+package com.bankapp.repository_impl.jpa;
+
+import com.bankapp.repository.UnitOfWork;
+
+import java.util.function.Supplier;
+
+/**
+ * The JPA UnitOfWork: one EntityManager and one database transaction for
+ * everything the work does through the JPA repositories.
+ * <p>
+ * With JDBC batching enabled (see persistence.xml) a transfer's two account
+ * updates and two ledger inserts are flushed as batched statements and
+ * committed once, instead of four separate commits.
+ */
+public class JpaUnitOfWork implements UnitOfWork {
+
+  private final JpaTransactions transactions;
+
+  /**
+   * @param transactions The same JpaTransactions the repositories use, so they
+   *                     can join this unit of work.
+   */
+  public JpaUnitOfWork(JpaTransactions transactions) {
+    this.transactions = transactions;
+  }
+
+  @Override
+  public <T> T execute(Supplier<T> work) {
+    return transactions.inUnitOfWork(entityManager -> work.get());
+  }
+}
@@ -0,0 +1,123 @@
+package com.bankapp.repository_impl.metrics;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.Customer;
+import com.bankapp.repository.AccountRepository;
+import com.bankapp.service.metrics.MethodMetrics;
+import com.bankapp.service.metrics.MetricsRegistry;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * An AccountRepository decorator that records the latency, errors, calls in
+ * flight and allocations of every method (see {@link MethodMetrics}). Wrap the
+ * outermost repository, so that the times include any caching in front of the
+ * store.
+ */
+public class InstrumentedAccountRepository implements AccountRepository {
+
+  private static final String COMPONENT = "AccountRepository";
+
+  private final AccountRepository delegate;
+
+  private final MethodMetrics save;
+  private final MethodMetrics saveAll;
+  private final MethodMetrics findById;
+  private final MethodMetrics findByAccountNumber;
+  private final MethodMetrics findAllByCustomer;
+  private final MethodMetrics findAllAccountNumbers;
+
+  /**
+   * @param delegate The repository that does the work.
+   * @param registry Where the metrics are kept.
+   */
+  public InstrumentedAccountRepository(AccountRepository delegate, MetricsRegistry registry) {
+    this.delegate = delegate;
+    this.save = registry.method(COMPONENT, "save");
+    this.saveAll = registry.method(COMPONENT, "saveAll");
+    this.findById = registry.method(COMPONENT, "findById");
+    this.findByAccountNumber = registry.method(COMPONENT, "findByAccountNumber");
+    this.findAllByCustomer = registry.method(COMPONENT, "findAllByCustomer");
+    this.findAllAccountNumbers = registry.method(COMPONENT, "findAllAccountNumbers");
+  }
+
+  @Override
+  public Account save(Account account) {
+    MethodMetrics.Call call = save.start();
+    try {
+      return delegate.save(account);
+    } catch (RuntimeException e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public List<Account> saveAll(List<Account> accounts) {
+    MethodMetrics.Call call = saveAll.start();
+    try {
+      return delegate.saveAll(accounts);
+    } catch (RuntimeException e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public Optional<Account> findById(Long id) {
+    MethodMetrics.Call call = findById.start();
+    try {
+      return delegate.findById(id);
+    } catch (RuntimeException e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public Optional<Account> findByAccountNumber(String accountNumber) {
+    MethodMetrics.Call call = findByAccountNumber.start();
+    try {
+      return delegate.findByAccountNumber(accountNumber);
+    } catch (RuntimeException e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public Set<Account> findAllByCustomer(Customer customer) {
+    MethodMetrics.Call call = findAllByCustomer.start();
+    try {
+      return delegate.findAllByCustomer(customer);
+    } catch (RuntimeException e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public List<String> findAllAccountNumbers() {
+    MethodMetrics.Call call = findAllAccountNumbers.start();
+    try {
+      return delegate.findAllAccountNumbers();
+    } catch (RuntimeException e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+}
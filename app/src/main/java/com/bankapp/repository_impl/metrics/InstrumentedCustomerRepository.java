@@ -0,0 +1,136 @@
+package com.bankapp.repository_impl.metrics;
+
+import com.bankapp.model.Customer;
+import com.bankapp.repository.CustomerRepository;
+import com.bankapp.service.metrics.MethodMetrics;
+import com.bankapp.service.metrics.MetricsRegistry;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A CustomerRepository decorator that records the latency, errors, calls in
+ * flight and allocations of every method (see {@link MethodMetrics}). Wrap the
+ * outermost repository, so that lookups the Bloom filter answers show up as
+ * the fast ones they are.
+ */
+public class InstrumentedCustomerRepository implements CustomerRepository {
+
+  private static final String COMPONENT = "CustomerRepository";
+
+  private final CustomerRepository delegate;
+
+  private final MethodMetrics save;
+  private final MethodMetrics insertIfAbsent;
+  private final MethodMetrics findById;
+  private final MethodMetrics findByUsername;
+  private final MethodMetrics findAll;
+  private final MethodMetrics delete;
+  private final MethodMetrics findByEmail;
+
+  /**
+   * @param delegate The repository that does the work.
+   * @param registry Where the metrics are kept.
+   */
+  public InstrumentedCustomerRepository(CustomerRepository delegate, MetricsRegistry registry) {
+    this.delegate = delegate;
+    this.save = registry.method(COMPONENT, "save");
+    this.insertIfAbsent = registry.method(COMPONENT, "insertIfAbsent");
+    this.findById = registry.method(COMPONENT, "findById");
+    this.findByUsername = registry.method(COMPONENT, "findByUsername");
+    this.findAll = registry.method(COMPONENT, "findAll");
+    this.delete = registry.method(COMPONENT, "delete");
+    this.findByEmail = registry.method(COMPONENT, "findByEmail");
+  }
+
+  @Override
+  public Customer save(Customer customer) {
+    MethodMetrics.Call call = save.start();
+    try {
+      return delegate.save(customer);
+    } catch (RuntimeException e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public Optional<Customer> insertIfAbsent(Customer customer) {
+    MethodMetrics.Call call = insertIfAbsent.start();
+    try {
+      return delegate.insertIfAbsent(customer);
+    } catch (RuntimeException e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public Optional<Customer> findById(Long id) {
+    MethodMetrics.Call call = findById.start();
+    try {
+      return delegate.findById(id);
+    } catch (RuntimeException e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public Optional<Customer> findByUsername(String username) {
+    MethodMetrics.Call call = findByUsername.start();
+    try {
+      return delegate.findByUsername(username);
+    } catch (RuntimeException e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public List<Customer> findAll() {
+    MethodMetrics.Call call = findAll.start();
+    try {
+      return delegate.findAll();
+    } catch (RuntimeException e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public void delete(Customer customer) {
+    MethodMetrics.Call call = delete.start();
+    try {
+      delegate.delete(customer);
+    } catch (RuntimeException e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public Optional<Customer> findByEmail(String email) {
+    MethodMetrics.Call call = findByEmail.start();
+    try {
+      return delegate.findByEmail(email);
+    } catch (RuntimeException e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+}
@@ -0,0 +1,172 @@
+package com.bankapp.repository_impl.metrics;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.Transaction;
+import com.bankapp.repository.TransactionCursor;
+import com.bankapp.repository.TransactionPage;
+import com.bankapp.repository.TransactionRepository;
+import com.bankapp.service.metrics.MethodMetrics;
+import com.bankapp.service.metrics.MetricsRegistry;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A TransactionRepository decorator that records the latency, errors, calls
+ * in flight and allocations of every method (see {@link MethodMetrics}).
+ * <p>
+ * {@code streamByAccount} isn't timed itself: it reads through
+ * {@code findPageByAccount}, so each page it loads is.
+ */
+public class InstrumentedTransactionRepository implements TransactionRepository {
+
+  private static final String COMPONENT = "TransactionRepository";
+
+  private final TransactionRepository delegate;
+
+  private final MethodMetrics save;
+  private final MethodMetrics saveAll;
+  private final MethodMetrics findAllByAccount;
+  private final MethodMetrics findAllByAccountAndTimestampBetween;
+  private final MethodMetrics runningTotalAsOf;
+  private final MethodMetrics runningTotal;
+  private final MethodMetrics findPageByAccount;
+  private final MethodMetrics findMaxId;
+  private final MethodMetrics findByIdRange;
+
+  /**
+   * @param delegate The repository that does the work.
+   * @param registry Where the metrics are kept.
+   */
+  public InstrumentedTransactionRepository(TransactionRepository delegate, MetricsRegistry registry) {
+    this.delegate = delegate;
+    this.save = registry.method(COMPONENT, "save");
+    this.saveAll = registry.method(COMPONENT, "saveAll");
+    this.findAllByAccount = registry.method(COMPONENT, "findAllByAccount");
+    this.findAllByAccountAndTimestampBetween = registry.method(COMPONENT, "findAllByAccountAndTimestampBetween");
+    this.runningTotalAsOf = registry.method(COMPONENT, "runningTotalAsOf");
+    this.runningTotal = registry.method(COMPONENT, "runningTotal");
+    this.findPageByAccount = registry.method(COMPONENT, "findPageByAccount");
+    this.findMaxId = registry.method(COMPONENT, "findMaxId");
+    this.findByIdRange = registry.method(COMPONENT, "findByIdRange");
+  }
+
+  @Override
+  public Transaction save(Transaction transaction) {
+    MethodMetrics.Call call = save.start();
+    try {
+      return delegate.save(transaction);
+    } catch (RuntimeException e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public List<Transaction> saveAll(List<Transaction> transactions) {
+    MethodMetrics.Call call = saveAll.start();
+    try {
+      return delegate.saveAll(transactions);
+    } catch (RuntimeException e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public List<Transaction> findAllByAccount(Account account) {
+    MethodMetrics.Call call = findAllByAccount.start();
+    try {
+      return delegate.findAllByAccount(account);
+    } catch (RuntimeException e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public List<Transaction> findAllByAccountAndTimestampBetween(Account account, LocalDateTime startDate,
+      LocalDateTime endDate) {
+    MethodMetrics.Call call = findAllByAccountAndTimestampBetween.start();
+    try {
+      return delegate.findAllByAccountAndTimestampBetween(account, startDate, endDate);
+    } catch (RuntimeException e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public BigDecimal runningTotalAsOf(Account account, LocalDateTime time) {
+    MethodMetrics.Call call = runningTotalAsOf.start();
+    try {
+      return delegate.runningTotalAsOf(account, time);
+    } catch (RuntimeException e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public BigDecimal runningTotal(Account account) {
+    MethodMetrics.Call call = runningTotal.start();
+    try {
+      return delegate.runningTotal(account);
+    } catch (RuntimeException e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public TransactionPage findPageByAccount(Account account, TransactionCursor after, int pageSize) {
+    MethodMetrics.Call call = findPageByAccount.start();
+    try {
+      return delegate.findPageByAccount(account, after, pageSize);
+    } catch (RuntimeException e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public long findMaxId() {
+    MethodMetrics.Call call = findMaxId.start();
+    try {
+      return delegate.findMaxId();
+    } catch (RuntimeException e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public List<Transaction> findByIdRange(long afterId, long upToId, int limit) {
+    MethodMetrics.Call call = findByIdRange.start();
+    try {
+      return delegate.findByIdRange(afterId, upToId, limit);
+    } catch (RuntimeException e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+}
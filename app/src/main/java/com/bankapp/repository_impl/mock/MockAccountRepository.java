@@ -4,43 +4,128 @@ import com.bankapp.model.Account;
 import com.bankapp.model.Customer;
 import com.bankapp.repository.AccountRepository;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
 
 /**
  * A "mock" implementation of the AccountRepository for development and testing.
  * It stores data in memory in a HashMap and simulates database behavior.
+ * <p>
+ * Like a real database, it keeps secondary indexes next to the primary store:
+ * a unique index on the account number and a non-unique index on the owning
+ * customer's ID. Both lookups are O(1) regardless of how many accounts exist.
  */
 public class MockAccountRepository implements AccountRepository {
 
-  private final Map<Long, Account> accountStore = new ConcurrentHashMap<>();
+  private static final int DEFAULT_EXPECTED_ACCOUNTS = 16;
+
+  // Primary store: id -> account
+  private final Map<Long, Account> accountStore;
+
+  // Unique index: accountNumber -> id (like "UNIQUE (account_number)")
+  private final Map<String, Long> accountNumberIndex;
+
+  // Account numbers saved in a unit of work that hasn't committed yet -> id.
+  // Like a row lock on the index entry: a second insert of the number fails at once.
+  private final Map<String, Long> reservedAccountNumbers;
+
+  // Multi-map index: customer id -> ids of their accounts (like "INDEX (customer_id)")
+  private final Map<Long, Set<Long>> customerIndex;
+
+  // The keys each account was indexed under when it was last saved.
+  // Accounts are mutable, so we can't trust the object itself to tell us its old keys.
+  private final Map<Long, IndexKeys> indexedKeys;
+
   private final AtomicLong idGenerator = new AtomicLong(0L);
 
+  public MockAccountRepository() {
+    this(DEFAULT_EXPECTED_ACCOUNTS);
+  }
+
+  /**
+   * Pre-sizes the store and its indexes so that bulk-loading a large number of
+   * accounts doesn't pay for repeated rehashing.
+   *
+   * @param expectedAccounts The number of accounts the store is expected to hold.
+   */
+  public MockAccountRepository(int expectedAccounts) {
+    if (expectedAccounts < 0) {
+      throw new IllegalArgumentException("Expected accounts cannot be negative");
+    }
+    this.accountStore = new ConcurrentHashMap<>(expectedAccounts);
+    this.accountNumberIndex = new ConcurrentHashMap<>(expectedAccounts);
+    this.reservedAccountNumbers = new ConcurrentHashMap<>();
+    this.customerIndex = new ConcurrentHashMap<>();
+    this.indexedKeys = new ConcurrentHashMap<>(expectedAccounts);
+  }
+
   @Override
   public Account save(Account account) {
     if (account == null) {
       throw new IllegalArgumentException("Account cannot be null");
     }
+    if (account.getAccountNumber() == null) {
+      throw new IllegalArgumentException("Account number cannot be null");
+    }
 
-    if (account.getId() == null) {
-      // New account (INSERT)
-      long newId = idGenerator.incrementAndGet();
-      account.setId(newId);
-      accountStore.put(newId, account);
-      return account;
-    } else {
-      // Existing account (UPDATE)
-      accountStore.put(account.getId(), account);
+    // Writers are serialized so the store and its indexes always change together.
+    // Readers never take this lock.
+    synchronized (this) {
+      String accountNumber = account.getAccountNumber();
+      Long existingId = accountNumberIndex.get(accountNumber);
+      Long reservedId = reservedAccountNumbers.get(accountNumber);
+      if ((existingId != null && !existingId.equals(account.getId()))
+          || (reservedId != null && !reservedId.equals(account.getId()))) {
+        // Simulates the UNIQUE constraint on account_number, including uncommitted inserts
+        throw new IllegalArgumentException("Account number already exists: " + accountNumber);
+      }
+
+      if (account.getId() == null) {
+        // New account (INSERT)
+        long newId = idGenerator.incrementAndGet();
+        account.setId(newId);
+      } else {
+        // Like MySQL's AUTO_INCREMENT, an explicit ID moves the generator past it
+        idGenerator.accumulateAndGet(account.getId(), Math::max);
+      }
+
+      // New or existing account (INSERT / UPDATE).
+      // Inside a unit of work this is applied at commit, but the number is reserved now.
+      Long id = account.getId();
+      reservedAccountNumbers.put(accountNumber, id);
+      MockUnitOfWork.write(
+          () -> store(id, account, accountNumber),
+          () -> release(id, accountNumber));
       return account;
     }
   }
 
+  @Override
+  public List<Account> saveAll(List<Account> accounts) {
+    if (accounts == null) {
+      throw new IllegalArgumentException("Accounts cannot be null");
+    }
+
+    // Take the writer lock once for the whole batch (it is reentrant for save)
+    synchronized (this) {
+      for (Account account : accounts) {
+        save(account);
+      }
+    }
+    return accounts;
+  }
+
   @Override
   public Optional<Account> findById(Long id) {
+    if (id == null) {
+      return Optional.empty();
+    }
     return Optional.ofNullable(accountStore.get(id));
   }
 
@@ -50,10 +135,9 @@ public class MockAccountRepository implements AccountRepository {
       return Optional.empty();
     }
 
-    // Simulate a database query by looping through the map values
-    return accountStore.values().stream()
-        .filter(account -> accountNumber.equals(account.getAccountNumber()))
-        .findFirst();
+    // Simulate an index seek on the account_number column
+    Long id = accountNumberIndex.get(accountNumber);
+    return id == null ? Optional.empty() : Optional.ofNullable(accountStore.get(id));
   }
 
   @Override
@@ -62,9 +146,81 @@ public class MockAccountRepository implements AccountRepository {
       return Set.of(); // Return an empty, immutable set
     }
 
-    // Simulate the "WHERE customer_id = ?" query
-    return accountStore.values().stream()
-        .filter(account -> customer.equals(account.getCustomer()))
-        .collect(Collectors.toSet());
+    // Simulate the "WHERE customer_id = ?" query using the customer index
+    Set<Long> ids = customerIndex.get(customer.getId());
+    if (ids == null) {
+      return Set.of();
+    }
+
+    Set<Account> accounts = new HashSet<>();
+    for (Long id : ids) {
+      Account account = accountStore.get(id);
+      if (account != null) {
+        accounts.add(account);
+      }
+    }
+    return accounts;
+  }
+
+  @Override
+  public List<String> findAllAccountNumbers() {
+    // Simulate "SELECT account_number FROM accounts", an index-only scan
+    return new ArrayList<>(accountNumberIndex.keySet());
+  }
+
+  // --- Private Helper Methods ---
+
+  private synchronized void store(Long id, Account account, String reservedAccountNumber) {
+    accountStore.put(id, account);
+    reindex(id, account);
+    reservedAccountNumbers.remove(reservedAccountNumber, id);
+  }
+
+  private synchronized void release(Long id, String reservedAccountNumber) {
+    reservedAccountNumbers.remove(reservedAccountNumber, id);
+  }
+
+  /**
+   * Moves an account's index entries from the keys it was last saved under to
+   * its current keys. Must be called while holding the writer lock.
+   */
+  private void reindex(Long id, Account account) {
+    IndexKeys newKeys = IndexKeys.of(account);
+    IndexKeys oldKeys = indexedKeys.put(id, newKeys);
+
+    if (oldKeys != null) {
+      if (!oldKeys.accountNumber.equals(newKeys.accountNumber)) {
+        accountNumberIndex.remove(oldKeys.accountNumber, id);
+      }
+      if (oldKeys.customerId != null && !oldKeys.customerId.equals(newKeys.customerId)) {
+        customerIndex.computeIfPresent(oldKeys.customerId, (customerId, ids) -> {
+          ids.remove(id);
+          return ids.isEmpty() ? null : ids;
+        });
+      }
+    }
+
+    accountNumberIndex.put(newKeys.accountNumber, id);
+    if (newKeys.customerId != null) {
+      customerIndex.computeIfAbsent(newKeys.customerId, customerId -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+  }
+
+  /**
+   * A snapshot of the values an account is indexed under.
+   */
+  private static final class IndexKeys {
+    private final String accountNumber;
+    private final Long customerId;
+
+    private IndexKeys(String accountNumber, Long customerId) {
+      this.accountNumber = accountNumber;
+      this.customerId = customerId;
+    }
+
+    private static IndexKeys of(Account account) {
+      Customer customer = account.getCustomer();
+      return new IndexKeys(account.getAccountNumber(), customer == null ? null : customer.getId());
+    }
   }
 }
@@ -5,7 +5,9 @@ import com.bankapp.repository.CustomerRepository;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
@@ -14,13 +16,24 @@ import java.util.concurrent.atomic.AtomicLong;
  * A "mock" implementation of the CustomerRepository for development and
  * testing.
  * It stores data in memory in a HashMap and simulates database behavior.
+ * <p>
+ * Usernames and emails are kept in unique, case-insensitive indexes, so
+ * "JohnDoe" and "johndoe" are the same user and lookups are O(1).
  */
 public class MockCustomerRepository implements CustomerRepository {
 
   // 1. Use ConcurrentHashMap for thread-safety, a good practice.
   private final Map<Long, Customer> customerStore = new ConcurrentHashMap<>();
 
-  // 2. Use AtomicLong to safely generate new, unique IDs, just like a database.
+  // 2. Unique indexes: normalized username / email -> customer id
+  private final Map<String, Long> usernameIndex = new ConcurrentHashMap<>();
+  private final Map<String, Long> emailIndex = new ConcurrentHashMap<>();
+
+  // 3. The keys each customer was indexed under when it was last saved.
+  // Customers are mutable, so we can't trust the object itself to tell us its old keys.
+  private final Map<Long, IndexKeys> indexedKeys = new ConcurrentHashMap<>();
+
+  // 4. Use AtomicLong to safely generate new, unique IDs, just like a database.
   private final AtomicLong idGenerator = new AtomicLong(0L);
 
   @Override
@@ -29,21 +42,64 @@ public class MockCustomerRepository implements CustomerRepository {
       throw new IllegalArgumentException("Customer cannot be null");
     }
 
-    if (customer.getId() == null) {
-      // This is a new customer (an INSERT)
+    // Writers are serialized so the store and its indexes always change together.
+    // Readers never take this lock.
+    synchronized (this) {
+      IndexKeys keys = IndexKeys.of(customer);
+      // Simulates the UNIQUE constraints on username and email
+      if (isTakenByOther(usernameIndex, keys.username, customer.getId())) {
+        throw new IllegalArgumentException("Username already exists: " + customer.getUsername());
+      }
+      if (isTakenByOther(emailIndex, keys.email, customer.getId())) {
+        throw new IllegalArgumentException("Email already exists: " + customer.getEmail());
+      }
+
+      if (customer.getId() == null) {
+        // This is a new customer (an INSERT)
+        long newId = idGenerator.incrementAndGet();
+        customer.setId(newId);
+      } else {
+        // Like MySQL's AUTO_INCREMENT, an explicit ID moves the generator past it
+        idGenerator.accumulateAndGet(customer.getId(), Math::max);
+      }
+
+      // New or existing customer (INSERT / UPDATE).
+      // Inside a unit of work this is applied at commit.
+      Long id = customer.getId();
+      MockUnitOfWork.write(() -> store(id, customer, keys));
+      return customer;
+    }
+  }
+
+  @Override
+  public Optional<Customer> insertIfAbsent(Customer customer) {
+    if (customer == null) {
+      throw new IllegalArgumentException("Customer cannot be null");
+    }
+    if (customer.getId() != null) {
+      throw new IllegalArgumentException("Customer is already saved: " + customer.getId());
+    }
+
+    synchronized (this) {
+      IndexKeys keys = IndexKeys.of(customer);
+      if (isTakenByOther(usernameIndex, keys.username, null) || isTakenByOther(emailIndex, keys.email, null)) {
+        return Optional.empty();
+      }
+
+      // Applied right away, even inside a unit of work: the check and the insert
+      // must happen under the same lock to be atomic
       long newId = idGenerator.incrementAndGet();
       customer.setId(newId);
-      customerStore.put(newId, customer);
-      return customer;
-    } else {
-      // This is an existing customer (an UPDATE)
-      customerStore.put(customer.getId(), customer);
-      return customer;
+      store(newId, customer, keys);
+      return Optional.of(customer);
     }
   }
 
   @Override
   public Optional<Customer> findById(Long id) {
+    if (id == null) {
+      return Optional.empty();
+    }
     // Optional.ofNullable handles the case where the customer is not found (returns
     // Optional.empty())
     return Optional.ofNullable(customerStore.get(id));
@@ -51,14 +107,8 @@ public class MockCustomerRepository implements CustomerRepository {
 
   @Override
   public Optional<Customer> findByUsername(String username) {
-    if (username == null) {
-      return Optional.empty();
-    }
-
-    // This simulates a database query by looping through the map values
-    return customerStore.values().stream()
-        .filter(customer -> username.equals(customer.getUsername()))
-        .findFirst();
+    // This simulates an index seek on the username column
+    return findByIndex(usernameIndex, username);
   }
 
   @Override
@@ -70,18 +120,102 @@ public class MockCustomerRepository implements CustomerRepository {
   @Override
   public void delete(Customer customer) {
     if (customer != null && customer.getId() != null) {
-      customerStore.remove(customer.getId());
+      // Inside a unit of work this is applied at commit
+      Long id = customer.getId();
+      MockUnitOfWork.write(() -> remove(id));
     }
   }
 
   @Override
   public Optional<Customer> findByEmail(String email) {
-    if (email == null) {
+    // This simulates an index seek on the email column
+    return findByIndex(emailIndex, email);
+  }
+
+  // --- Private Helper Methods ---
+
+  private Optional<Customer> findByIndex(Map<String, Long> index, String key) {
+    String normalized = normalize(key);
+    if (normalized == null) {
       return Optional.empty();
     }
-    // This simulates a database query by looping through the map values
-    return customerStore.values().stream()
-        .filter(customer -> email.equals(customer.getEmail()))
-        .findFirst();
+    Long id = index.get(normalized);
+    return id == null ? Optional.empty() : Optional.ofNullable(customerStore.get(id));
+  }
+
+  private synchronized void store(Long id, Customer customer, IndexKeys keys) {
+    customerStore.put(id, customer);
+    reindex(id, keys);
+  }
+
+  private synchronized void remove(Long id) {
+    customerStore.remove(id);
+    IndexKeys oldKeys = indexedKeys.remove(id);
+    if (oldKeys != null) {
+      removeEntry(usernameIndex, oldKeys.username, id);
+      removeEntry(emailIndex, oldKeys.email, id);
+    }
+  }
+
+  private static boolean isTakenByOther(Map<String, Long> index, String key, Long id) {
+    if (key == null) {
+      return false;
+    }
+    Long existingId = index.get(key);
+    return existingId != null && !existingId.equals(id);
+  }
+
+  /**
+   * Moves a customer's index entries from the keys it was last saved under to
+   * its current keys. Must be called while holding the writer lock.
+   */
+  private void reindex(Long id, IndexKeys newKeys) {
+    IndexKeys oldKeys = indexedKeys.put(id, newKeys);
+
+    // Add the new entries before dropping the old ones so readers never see a gap
+    if (newKeys.username != null) {
+      usernameIndex.put(newKeys.username, id);
+    }
+    if (newKeys.email != null) {
+      emailIndex.put(newKeys.email, id);
+    }
+    if (oldKeys != null) {
+      if (!Objects.equals(oldKeys.username, newKeys.username)) {
+        removeEntry(usernameIndex, oldKeys.username, id);
+      }
+      if (!Objects.equals(oldKeys.email, newKeys.email)) {
+        removeEntry(emailIndex, oldKeys.email, id);
+      }
+    }
+  }
+
+  private static void removeEntry(Map<String, Long> index, String key, Long id) {
+    if (key != null) {
+      index.remove(key, id);
+    }
+  }
+
+  /**
+   * Usernames and emails are compared case-insensitively.
+   */
+  private static String normalize(String key) {
+    return key == null ? null : key.trim().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * A snapshot of the normalized values a customer is indexed under.
+   */
+  private static final class IndexKeys {
+    private final String username;
+    private final String email;
+
+    private IndexKeys(String username, String email) {
+      this.username = username;
+      this.email = email;
+    }
+
+    private static IndexKeys of(Customer customer) {
+      return new IndexKeys(normalize(customer.getUsername()), normalize(customer.getEmail()));
+    }
   }
 }
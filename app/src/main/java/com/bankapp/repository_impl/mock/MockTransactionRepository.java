@@ -2,42 +2,113 @@ package com.bankapp.repository_impl.mock;
 
 import com.bankapp.model.Account;
 import com.bankapp.model.Transaction;
+import com.bankapp.repository.TransactionCursor;
+import com.bankapp.repository.TransactionPage;
 import com.bankapp.repository.TransactionRepository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * A "mock" implementation of the TransactionRepository for development and
  * testing.
- * It stores data in memory in a List and simulates database behavior.
+ * It stores data in memory and simulates database behavior.
+ * <p>
+ * The ledger is partitioned by account: each account has its own list of
+ * entries kept in ascending (timestamp, id) order. Appending never copies the
+ * history, reads walk a partition backwards to return newest-first without
+ * sorting, and range queries and page cursors binary-search their bounds.
+ * Each entry's running total is kept up to date as entries are added, so a
+ * balance-at-time lookup is one binary search. An ID index alongside the
+ * partitions serves scans of the whole ledger in ID order.
  */
 public class MockTransactionRepository implements TransactionRepository {
 
-  // 1. Use CopyOnWriteArrayList, which is thread-safe for reading and writing.
-  private final List<Transaction> transactionStore = new CopyOnWriteArrayList<>();
+  // 1. One ledger partition per account id (like a clustered index on (account_id, timestamp)).
+  private final Map<Long, LedgerPartition> partitions = new ConcurrentHashMap<>();
 
   // 2. Use AtomicLong to safely generate new, unique IDs.
   private final AtomicLong idGenerator = new AtomicLong(0L);
 
+  // 3. Every entry by ID (like the primary key index), for scans across accounts
+  private final ConcurrentSkipListMap<Long, Transaction> idIndex = new ConcurrentSkipListMap<>();
+
   @Override
   public Transaction save(Transaction transaction) {
-    if (transaction == null) {
-      throw new IllegalArgumentException("Transaction cannot be null");
-    }
+    validate(transaction);
 
     // Transactions are append-only; we don't edit them.
     if (transaction.getId() == null) {
       long newId = idGenerator.incrementAndGet();
       transaction.setId(newId);
-      transactionStore.add(transaction);
+      // Inside a unit of work this is applied at commit
+      MockUnitOfWork.write(() -> {
+        partitionFor(transaction).append(transaction);
+        idIndex.put(newId, transaction);
+      });
     }
     return transaction;
   }
 
+  @Override
+  public List<Transaction> saveAll(List<Transaction> transactions) {
+    if (transactions == null) {
+      throw new IllegalArgumentException("Transactions cannot be null");
+    }
+
+    // 1. Validate everything first, so a bad entry doesn't leave half a batch behind
+    for (Transaction transaction : transactions) {
+      validate(transaction);
+    }
+
+    // 2. Assign IDs and group the new entries by account, keeping their order
+    Map<Long, List<Transaction>> byAccount = new LinkedHashMap<>();
+    for (Transaction transaction : transactions) {
+      if (transaction.getId() == null) {
+        transaction.setId(idGenerator.incrementAndGet());
+        byAccount.computeIfAbsent(transaction.getAccount().getId(), accountId -> new ArrayList<>()).add(transaction);
+      }
+    }
+
+    // 3. Append, taking each partition's lock only once.
+    // Inside a unit of work this is applied at commit.
+    MockUnitOfWork.write(() -> {
+      for (Map.Entry<Long, List<Transaction>> entry : byAccount.entrySet()) {
+        partitions.computeIfAbsent(entry.getKey(), accountId -> new LedgerPartition()).appendAll(entry.getValue());
+        for (Transaction transaction : entry.getValue()) {
+          idIndex.put(transaction.getId(), transaction);
+        }
+      }
+    });
+    return transactions;
+  }
+
+  /**
+   * Puts back a transaction that already has its ID (e.g. one reloaded from
+   * disk). It is stored right away, outside any unit of work.
+   *
+   * @param transaction The previously saved transaction.
+   */
+  protected void restore(Transaction transaction) {
+    validate(transaction);
+    if (transaction.getId() == null) {
+      throw new IllegalArgumentException("Only saved transactions can be restored");
+    }
+    idGenerator.accumulateAndGet(transaction.getId(), Math::max);
+    partitionFor(transaction).append(transaction);
+    idIndex.put(transaction.getId(), transaction);
+  }
+
   @Override
   public List<Transaction> findAllByAccount(Account account) {
     if (account == null || account.getId() == null) {
@@ -45,10 +116,8 @@ public class MockTransactionRepository implements TransactionRepository {
     }
 
     // Simulate "WHERE account_id = ?" and order by date
-    return transactionStore.stream()
-        .filter(tx -> account.equals(tx.getAccount()))
-        .sorted((t1, t2) -> t2.getTimestamp().compareTo(t1.getTimestamp())) // Newest first
-        .collect(Collectors.toList());
+    LedgerPartition partition = partitions.get(account.getId());
+    return partition == null ? List.of() : partition.newestFirst();
   }
 
   @Override
@@ -57,13 +126,269 @@ public class MockTransactionRepository implements TransactionRepository {
     if (account == null || account.getId() == null) {
       return List.of();
     }
+    if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+      return List.of();
+    }
 
     // Simulate the "WHERE account_id = ? AND timestamp BETWEEN ? AND ?" query
-    return transactionStore.stream()
-        .filter(tx -> account.equals(tx.getAccount()))
-        .filter(tx -> !tx.getTimestamp().isBefore(startDate))
-        .filter(tx -> !tx.getTimestamp().isAfter(endDate))
-        .sorted((t1, t2) -> t2.getTimestamp().compareTo(t1.getTimestamp())) // Newest first
-        .collect(Collectors.toList());
+    LedgerPartition partition = partitions.get(account.getId());
+    return partition == null ? List.of() : partition.newestFirstBetween(startDate, endDate);
+  }
+
+  @Override
+  public BigDecimal runningTotalAsOf(Account account, LocalDateTime time) {
+    if (account == null || account.getId() == null || time == null) {
+      return BigDecimal.ZERO;
+    }
+    LedgerPartition partition = partitions.get(account.getId());
+    return partition == null ? BigDecimal.ZERO : partition.runningTotalAsOf(time);
+  }
+
+  @Override
+  public BigDecimal runningTotal(Account account) {
+    if (account == null || account.getId() == null) {
+      return BigDecimal.ZERO;
+    }
+    LedgerPartition partition = partitions.get(account.getId());
+    return partition == null ? BigDecimal.ZERO : partition.runningTotal();
+  }
+
+  @Override
+  public TransactionPage findPageByAccount(Account account, TransactionCursor after, int pageSize) {
+    TransactionPage.checkPageSize(pageSize);
+    if (account == null || account.getId() == null) {
+      return TransactionPage.of(List.of(), pageSize);
+    }
+
+    // Simulate "WHERE account_id = ? AND (timestamp, id) < (?, ?) ORDER BY ... DESC LIMIT ?"
+    LedgerPartition partition = partitions.get(account.getId());
+    return TransactionPage.of(partition == null ? List.of() : partition.newestFirstBefore(after, pageSize + 1),
+        pageSize);
+  }
+
+  @Override
+  public long findMaxId() {
+    Map.Entry<Long, Transaction> last = idIndex.lastEntry();
+    return last == null ? 0L : last.getKey();
+  }
+
+  @Override
+  public List<Transaction> findByIdRange(long afterId, long upToId, int limit) {
+    if (limit < 1) {
+      throw new IllegalArgumentException("Limit must be positive");
+    }
+    if (afterId >= upToId) {
+      return List.of();
+    }
+
+    // Simulate "WHERE id > ? AND id <= ? ORDER BY id LIMIT ?", a primary key range scan
+    List<Transaction> result = new ArrayList<>(Math.min(limit, 1_024));
+    for (Transaction transaction : idIndex.subMap(afterId, false, upToId, true).values()) {
+      result.add(transaction);
+      if (result.size() == limit) {
+        break;
+      }
+    }
+    return result;
+  }
+
+  // --- Private Helper Methods ---
+
+  private static void validate(Transaction transaction) {
+    if (transaction == null) {
+      throw new IllegalArgumentException("Transaction cannot be null");
+    }
+    if (transaction.getAccount() == null || transaction.getAccount().getId() == null) {
+      throw new IllegalArgumentException("Transaction must belong to a saved account");
+    }
+    if (transaction.getTimestamp() == null) {
+      throw new IllegalArgumentException("Transaction timestamp cannot be null");
+    }
+  }
+
+  private LedgerPartition partitionFor(Transaction transaction) {
+    return partitions.computeIfAbsent(transaction.getAccount().getId(), accountId -> new LedgerPartition());
+  }
+
+  /**
+   * The ledger of a single account, kept in ascending (timestamp, id) order:
+   * the reverse of the newest-first order pages are served in.
+   */
+  private static final class LedgerPartition {
+
+    private static final Comparator<Transaction> KEY_ORDER = Comparator.comparing(Transaction::getTimestamp)
+        .thenComparing(Transaction::getId);
+
+    private final List<Transaction> entries = new ArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    void append(Transaction transaction) {
+      lock.writeLock().lock();
+      try {
+        insertInOrder(transaction);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    void appendAll(List<Transaction> transactions) {
+      lock.writeLock().lock();
+      try {
+        for (Transaction transaction : transactions) {
+          insertInOrder(transaction);
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    List<Transaction> newestFirst() {
+      lock.readLock().lock();
+      try {
+        return reversedCopy(0, entries.size());
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    List<Transaction> newestFirstBetween(LocalDateTime startDate, LocalDateTime endDate) {
+      lock.readLock().lock();
+      try {
+        // Both bounds are inclusive
+        return reversedCopy(indexOfFirstNotBefore(startDate), indexAfter(endDate));
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    /**
+     * @param after The cursor to start after, or null to start at the newest entry.
+     * @param limit The maximum number of entries to return.
+     */
+    List<Transaction> newestFirstBefore(TransactionCursor after, int limit) {
+      lock.readLock().lock();
+      try {
+        int end = after == null ? entries.size() : indexOfFirstNotBefore(after);
+        return reversedCopy(Math.max(0, end - limit), end);
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    BigDecimal runningTotalAsOf(LocalDateTime time) {
+      lock.readLock().lock();
+      try {
+        int index = indexAfter(time);
+        return index == 0 ? BigDecimal.ZERO : entries.get(index - 1).getRunningTotal();
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    BigDecimal runningTotal() {
+      lock.readLock().lock();
+      try {
+        return entries.isEmpty() ? BigDecimal.ZERO : entries.get(entries.size() - 1).getRunningTotal();
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    private void insertInOrder(Transaction transaction) {
+      int size = entries.size();
+      BigDecimal amount = transaction.getAmount() == null ? BigDecimal.ZERO : transaction.getAmount();
+      if (size == 0 || KEY_ORDER.compare(transaction, entries.get(size - 1)) >= 0) {
+        // The common case: the new entry is the newest one
+        BigDecimal previous = size == 0 ? BigDecimal.ZERO : entries.get(size - 1).getRunningTotal();
+        transaction.setRunningTotal(previous.add(amount));
+        entries.add(transaction);
+      } else {
+        // Back-dated entry (e.g. imported history): binary-search its place
+        int low = 0;
+        int high = size;
+        while (low < high) {
+          int mid = (low + high) >>> 1;
+          if (KEY_ORDER.compare(entries.get(mid), transaction) > 0) {
+            high = mid;
+          } else {
+            low = mid + 1;
+          }
+        }
+        entries.add(low, transaction);
+
+        // Every later entry's running total now includes this amount
+        BigDecimal previous = low == 0 ? BigDecimal.ZERO : entries.get(low - 1).getRunningTotal();
+        transaction.setRunningTotal(previous.add(amount));
+        for (int i = low + 1; i <= size; i++) {
+          Transaction later = entries.get(i);
+          later.setRunningTotal(later.getRunningTotal().add(amount));
+        }
+      }
+    }
+
+    /**
+     * @return The index of the first entry not ordered before the cursor's
+     *         position (every entry below it is older than the cursor).
+     */
+    private int indexOfFirstNotBefore(TransactionCursor cursor) {
+      int low = 0;
+      int high = entries.size();
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (cursor.isBefore(entries.get(mid))) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+
+    /**
+     * @return The index of the first entry whose timestamp is not before the given
+     *         time (the lower bound).
+     */
+    private int indexOfFirstNotBefore(LocalDateTime time) {
+      int low = 0;
+      int high = entries.size();
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (entries.get(mid).getTimestamp().isBefore(time)) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+
+    /**
+     * @return The index of the first entry whose timestamp is after the given time
+     *         (the upper bound).
+     */
+    private int indexAfter(LocalDateTime time) {
+      int low = 0;
+      int high = entries.size();
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (entries.get(mid).getTimestamp().isAfter(time)) {
+          high = mid;
+        } else {
+          low = mid + 1;
+        }
+      }
+      return low;
+    }
+
+    private List<Transaction> reversedCopy(int fromIndex, int toIndex) {
+      if (fromIndex >= toIndex) {
+        return List.of();
+      }
+      List<Transaction> result = new ArrayList<>(toIndex - fromIndex);
+      for (int i = toIndex - 1; i >= fromIndex; i--) {
+        result.add(entries.get(i));
+      }
+      return result;
+    }
   }
 }
@@ -0,0 +1,75 @@
+package com.bankapp.repository_impl.mock;
+
+import com.bankapp.repository.UnitOfWork;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The in-memory UnitOfWork used with the mock repositories.
+ * <p>
+ * While a unit of work is active on a thread, the mock repositories still
+ * validate each save and hand out IDs straight away, but they buffer the actual
+ * store updates here. The buffered writes are applied together when the work
+ * returns, and thrown away if it throws, so a failing save never leaves half a
+ * transfer in the stores. A repository can also register a discard action, to
+ * release whatever it reserved for a write (e.g. a unique key) on rollback.
+ */
+public class MockUnitOfWork implements UnitOfWork {
+
+  private static final ThreadLocal<List<Runnable>> PENDING_WRITES = new ThreadLocal<>();
+  private static final ThreadLocal<List<Runnable>> PENDING_DISCARDS = new ThreadLocal<>();
+
+  @Override
+  public <T> T execute(Supplier<T> work) {
+    if (PENDING_WRITES.get() != null) {
+      // Already inside a unit of work: join it
+      return work.get();
+    }
+
+    List<Runnable> pendingWrites = new ArrayList<>();
+    List<Runnable> pendingDiscards = new ArrayList<>();
+    PENDING_WRITES.set(pendingWrites);
+    PENDING_DISCARDS.set(pendingDiscards);
+    T result;
+    try {
+      result = work.get();
+    } catch (RuntimeException | Error e) {
+      // "Rollback": nothing is applied, and reservations are released
+      pendingDiscards.forEach(Runnable::run);
+      throw e;
+    } finally {
+      PENDING_WRITES.remove();
+      PENDING_DISCARDS.remove();
+    }
+
+    // "Commit": apply everything that was buffered
+    for (Runnable write : pendingWrites) {
+      write.run();
+    }
+    return result;
+  }
+
+  /**
+   * Called by the mock repositories for every store update. Runs the update now,
+   * or buffers it until commit if a unit of work is active on this thread.
+   */
+  static void write(Runnable write) {
+    write(write, () -> { });
+  }
+
+  /**
+   * Like {@link #write(Runnable)}, but if the unit of work is rolled back, the
+   * discard action runs instead of the update.
+   */
+  static void write(Runnable write, Runnable discard) {
+    List<Runnable> pendingWrites = PENDING_WRITES.get();
+    if (pendingWrites == null) {
+      write.run();
+    } else {
+      pendingWrites.add(write);
+      PENDING_DISCARDS.get().add(discard);
+    }
+  }
+}
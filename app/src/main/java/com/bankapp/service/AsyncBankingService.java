@@ -0,0 +1,107 @@
+package com.bankapp.service;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.AccountType;
+import com.bankapp.model.Customer;
+import com.bankapp.model.Transaction;
+import com.bankapp.repository.TransactionCursor;
+import com.bankapp.repository.TransactionPage;
+import com.bankapp.service.batch.BatchItemResult;
+import com.bankapp.service.batch.DepositInstruction;
+import com.bankapp.service.batch.TransferInstruction;
+import com.bankapp.service.ledger.ReconciliationCheckpoint;
+import com.bankapp.service.ledger.ReconciliationReport;
+import com.bankapp.service.ledger.ReplayReport;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The non-blocking counterpart of {@link BankingService}.
+ * <p>
+ * Every operation returns straight away with a CompletableFuture, so neither
+ * a UI thread nor a request thread waits on the repositories. The futures fail
+ * with the same exceptions the synchronous methods throw (e.g.
+ * AccountNotFoundException, InsufficientFundsException), wrapped in a
+ * CompletionException where the CompletableFuture API does that.
+ * <p>
+ * There is no streaming variant of the history: read it page by page with
+ * {@link #getTransactionsPage(String, TransactionCursor, int)}.
+ */
+public interface AsyncBankingService {
+
+  /**
+   * @see BankingService#deposit(String, BigDecimal)
+   */
+  CompletableFuture<Transaction> deposit(String toAccountNumber, BigDecimal amount);
+
+  /**
+   * @see BankingService#withdraw(String, BigDecimal)
+   */
+  CompletableFuture<Transaction> withdraw(String fromAccountNumber, BigDecimal amount);
+
+  /**
+   * @see BankingService#transfer(String, String, BigDecimal)
+   */
+  CompletableFuture<List<Transaction>> transfer(String fromAccountNumber, String toAccountNumber,
+      BigDecimal amount);
+
+  /**
+   * @see BankingService#transferBatch(List)
+   */
+  CompletableFuture<List<BatchItemResult>> transferBatch(List<TransferInstruction> instructions);
+
+  /**
+   * @see BankingService#depositBatch(List)
+   */
+  CompletableFuture<List<BatchItemResult>> depositBatch(List<DepositInstruction> instructions);
+
+  /**
+   * @see BankingService#getTransactionsForAccount(String)
+   */
+  CompletableFuture<List<Transaction>> getTransactionsForAccount(String accountNumber);
+
+  /**
+   * @see BankingService#getTransactionsPage(String, TransactionCursor, int)
+   */
+  CompletableFuture<TransactionPage> getTransactionsPage(String accountNumber, TransactionCursor after,
+      int pageSize);
+
+  /**
+   * @see BankingService#balanceAsOf(String, LocalDateTime)
+   */
+  CompletableFuture<BigDecimal> balanceAsOf(String accountNumber, LocalDateTime time);
+
+  /**
+   * @see BankingService#rebuildBalances()
+   */
+  CompletableFuture<ReplayReport> rebuildBalances();
+
+  /**
+   * @see BankingService#reconcile()
+   */
+  CompletableFuture<ReconciliationReport> reconcile();
+
+  /**
+   * @see BankingService#reconcile(ReconciliationCheckpoint)
+   */
+  CompletableFuture<ReconciliationReport> reconcile(ReconciliationCheckpoint since);
+
+  /**
+   * @see BankingService#getAccount(String)
+   */
+  CompletableFuture<Account> getAccount(String accountNumber);
+
+  /**
+   * @see BankingService#createAccount(Customer, AccountType, String)
+   */
+  CompletableFuture<Account> createAccount(Customer customer, AccountType type, String accountNumber);
+
+  /**
+   * @see BankingService#getAccountsForCustomer(Long)
+   */
+  CompletableFuture<Set<Account>> getAccountsForCustomer(Long customerId);
+}
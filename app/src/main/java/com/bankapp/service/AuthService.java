@@ -4,6 +4,8 @@ import com.bankapp.model.Customer;
 import com.bankapp.service.exception.AuthException;
 import com.bankapp.service.exception.UserAlreadyExistsException;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Interface (contract) for the Authentication Service.
  * This defines the business logic for logging in and registering users.
@@ -35,4 +37,49 @@ public interface AuthService {
   Customer register(String username, String password, String firstName, String lastName, String email)
       throws UserAlreadyExistsException;
 
+  /**
+   * Authenticates a user making the attempt from a known client. Attempts are
+   * rate limited both per username and per client.
+   *
+   * @param username The user's username.
+   * @param password The user's plain-text password.
+   * @param clientId Identifies where the attempt comes from (e.g. a device or
+   *                 network address), or {@code null} if unknown.
+   * @return The authenticated Customer object if successful.
+   * @throws AuthException if the credentials are wrong, or a
+   *                       LoginThrottledException if there have been too many
+   *                       recent attempts (the password is then not checked).
+   */
+  Customer login(String username, String password, String clientId) throws AuthException;
+
+  /**
+   * Like {@link #login(String, String, String)}, but the password check runs on
+   * the password-hashing pool and the caller's thread is never blocked.
+   */
+  CompletableFuture<Customer> loginAsync(String username, String password, String clientId);
+
+  /**
+   * Like {@link #login(String, String)}, but the password check runs on the
+   * password-hashing pool and the caller's thread is never blocked.
+   *
+   * @param username The user's username.
+   * @param password The user's plain-text password.
+   * @return The authenticated Customer. Fails with an AuthException if the
+   *         credentials are wrong, or a ServiceBusyException if too many checks
+   *         are already queued.
+   */
+  CompletableFuture<Customer> loginAsync(String username, String password);
+
+  /**
+   * Like {@link #register(String, String, String, String, String)}, but the
+   * password is hashed on the password-hashing pool and the caller's thread is
+   * never blocked.
+   *
+   * @return The newly created Customer. Fails with a UserAlreadyExistsException
+   *         if the username or email is taken, or a ServiceBusyException if too
+   *         many hashes are already queued.
+   */
+  CompletableFuture<Customer> registerAsync(String username, String password, String firstName, String lastName,
+      String email);
+
 }
@@ -4,13 +4,23 @@ import com.bankapp.model.Account;
 import com.bankapp.model.AccountType;
 import com.bankapp.model.Customer;
 import com.bankapp.model.Transaction;
+import com.bankapp.repository.TransactionCursor;
+import com.bankapp.repository.TransactionPage;
+import com.bankapp.service.batch.BatchItemResult;
+import com.bankapp.service.batch.DepositInstruction;
+import com.bankapp.service.batch.TransferInstruction;
 import com.bankapp.service.exception.AccountNotFoundException;
 import com.bankapp.service.exception.InsufficientFundsException;
 import com.bankapp.service.exception.InvalidAmountException;
+import com.bankapp.service.ledger.ReconciliationCheckpoint;
+import com.bankapp.service.ledger.ReconciliationReport;
+import com.bankapp.service.ledger.ReplayReport;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Interface (contract) for the Banking Service.
@@ -60,6 +70,31 @@ public interface BankingService {
   List<Transaction> transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount)
       throws AccountNotFoundException, InsufficientFundsException, InvalidAmountException;
 
+  /**
+   * Applies a whole batch of transfers (e.g. a payroll or settlement file).
+   * <p>
+   * Items are applied in order, so an earlier item can fund a later one. An item
+   * that fails (unknown account, invalid amount, insufficient funds, or a null
+   * item) is reported in its result and skipped; it doesn't abort the rest of
+   * the batch. Each touched account is saved once and all ledger entries are
+   * written in one bulk append.
+   *
+   * @param instructions The transfers to apply.
+   * @return One result per instruction, in the same order.
+   * @throws IllegalArgumentException if the list itself is null.
+   */
+  List<BatchItemResult> transferBatch(List<TransferInstruction> instructions);
+
+  /**
+   * Applies a whole batch of deposits. Works like
+   * {@link #transferBatch(List)}: failed items are reported, not thrown.
+   *
+   * @param instructions The deposits to apply.
+   * @return One result per instruction, in the same order.
+   * @throws IllegalArgumentException if the list itself is null.
+   */
+  List<BatchItemResult> depositBatch(List<DepositInstruction> instructions);
+
   /**
    * Retrieves the list of transactions for a specific account.
    *
@@ -70,6 +105,88 @@ public interface BankingService {
   List<Transaction> getTransactionsForAccount(String accountNumber)
       throws AccountNotFoundException;
 
+  /**
+   * Retrieves one page of an account's history.
+   *
+   * @param accountNumber The account to get history for.
+   * @param after         The cursor returned with the previous page, or null for
+   *                      the first (newest) page.
+   * @param pageSize      The maximum number of transactions to return.
+   * @return The page, newest first, with the cursor for the next one.
+   * @throws AccountNotFoundException if the account does not exist.
+   */
+  TransactionPage getTransactionsPage(String accountNumber, TransactionCursor after, int pageSize)
+      throws AccountNotFoundException;
+
+  /**
+   * Streams an account's history, newest first. Pages of {@code pageSize} are
+   * fetched only as the stream is consumed, so callers can start on the first
+   * page without the whole history being loaded.
+   *
+   * @param accountNumber The account to get history for.
+   * @param pageSize      The number of transactions fetched per page.
+   * @return A lazy, sequential stream of the account's transactions.
+   * @throws AccountNotFoundException if the account does not exist.
+   */
+  Stream<Transaction> streamTransactionsForAccount(String accountNumber, int pageSize)
+      throws AccountNotFoundException;
+
+  /**
+   * Works out what an account's balance was at a past point in time.
+   * <p>
+   * The answer comes from the ledger's running totals, so it costs the same
+   * however long the account's history is. Any part of the balance the ledger
+   * doesn't explain (e.g. an opening balance set without a transaction) counts
+   * as having been there from the start.
+   *
+   * @param accountNumber The account.
+   * @param time          The point in time (inclusive).
+   * @return The balance at that time.
+   * @throws AccountNotFoundException if the account does not exist.
+   */
+  BigDecimal balanceAsOf(String accountNumber, LocalDateTime time)
+      throws AccountNotFoundException;
+
+  /**
+   * Rebuilds every account's balance from the ledger, which is taken as the
+   * source of truth: each balance becomes the sum of its account's
+   * transactions, and is saved if that differs from what was stored.
+   * <p>
+   * The first time an account is replayed, the part of its balance the ledger
+   * doesn't explain (e.g. an opening balance set without a transaction) is
+   * recorded as an "Opening balance" entry, dated before its first
+   * transaction, instead of being overwritten. So the balance is kept,
+   * {@link #balanceAsOf} is unchanged, and later replays have a complete
+   * ledger to correct drift against.
+   * <p>
+   * Accounts are replayed in parallel, each under its own lock, so this can
+   * run at startup or on demand.
+   *
+   * @return How many accounts and entries were replayed, how many opening
+   *         balances were recorded and how many balances were corrected.
+   */
+  ReplayReport rebuildBalances();
+
+  /**
+   * Checks the whole ledger: that every balance equals the sum of its
+   * account's transactions, and that every transfer has exactly one debit and
+   * one credit leg that sum to zero. Nothing is changed.
+   *
+   * @return The mismatches found, and a checkpoint for incremental runs.
+   */
+  ReconciliationReport reconcile();
+
+  /**
+   * Like {@link #reconcile()}, but checks only the entries added since an
+   * earlier run (and the balances of the accounts they touched), so it can run
+   * every few minutes.
+   *
+   * @param since The checkpoint of an earlier run, or
+   *              {@link ReconciliationCheckpoint#start()}.
+   * @return The mismatches found, and the checkpoint for the next run.
+   */
+  ReconciliationReport reconcile(ReconciliationCheckpoint since);
+
   /**
    * Retrieves a single Account by its account number.
    *
@@ -0,0 +1,87 @@
+package com.bankapp.service.batch;
+
+import com.bankapp.model.Transaction;
+
+import java.util.List;
+
+/**
+ * The outcome of one item in a batch. A failed item doesn't abort the rest of
+ * the batch; it is simply reported here.
+ */
+public class BatchItemResult {
+
+  public enum Status {
+    SUCCESS,
+    ACCOUNT_NOT_FOUND,
+    INSUFFICIENT_FUNDS,
+    INVALID_AMOUNT,
+    MISSING_INSTRUCTION // A null item in the batch
+  }
+
+  private final int index;
+  private final Status status;
+  private final List<Transaction> transactions;
+  private final String message;
+
+  private BatchItemResult(int index, Status status, List<Transaction> transactions, String message) {
+    this.index = index;
+    this.status = status;
+    this.transactions = transactions;
+    this.message = message;
+  }
+
+  /**
+   * @param index        The position of the item in the batch.
+   * @param transactions The ledger entries written for the item.
+   */
+  public static BatchItemResult success(int index, List<Transaction> transactions) {
+    return new BatchItemResult(index, Status.SUCCESS, List.copyOf(transactions), null);
+  }
+
+  /**
+   * @param index   The position of the item in the batch.
+   * @param status  Why the item failed.
+   * @param message A human-readable explanation.
+   */
+  public static BatchItemResult failure(int index, Status status, String message) {
+    if (status == Status.SUCCESS) {
+      throw new IllegalArgumentException("A failure needs a failure status");
+    }
+    return new BatchItemResult(index, status, List.of(), message);
+  }
+
+  public int getIndex() {
+    return index;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public boolean isSuccess() {
+    return status == Status.SUCCESS;
+  }
+
+  /**
+   * @return The ledger entries written for this item (empty if it failed).
+   */
+  public List<Transaction> getTransactions() {
+    return transactions;
+  }
+
+  /**
+   * @return Why the item failed, or null if it succeeded.
+   */
+  public String getMessage() {
+    return message;
+  }
+
+  @Override
+  public String toString() {
+    return "BatchItemResult{" +
+        "index=" + index +
+        ", status=" + status +
+        (message == null ? "" : ", message='" + message + '\'') +
+        '}';
+  }
+}
@@ -0,0 +1,33 @@
+package com.bankapp.service.batch;
+
+import java.math.BigDecimal;
+
+/**
+ * One line of a deposit batch.
+ */
+public class DepositInstruction {
+
+  private final String toAccountNumber;
+  private final BigDecimal amount;
+
+  public DepositInstruction(String toAccountNumber, BigDecimal amount) {
+    this.toAccountNumber = toAccountNumber;
+    this.amount = amount;
+  }
+
+  public String getToAccountNumber() {
+    return toAccountNumber;
+  }
+
+  public BigDecimal getAmount() {
+    return amount;
+  }
+
+  @Override
+  public String toString() {
+    return "DepositInstruction{" +
+        "to=" + toAccountNumber +
+        ", amount=" + amount +
+        '}';
+  }
+}
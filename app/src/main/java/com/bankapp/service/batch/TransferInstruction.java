@@ -0,0 +1,40 @@
+package com.bankapp.service.batch;
+
+import java.math.BigDecimal;
+
+/**
+ * One line of a transfer batch (e.g. a payroll or settlement file).
+ */
+public class TransferInstruction {
+
+  private final String fromAccountNumber;
+  private final String toAccountNumber;
+  private final BigDecimal amount;
+
+  public TransferInstruction(String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
+    this.fromAccountNumber = fromAccountNumber;
+    this.toAccountNumber = toAccountNumber;
+    this.amount = amount;
+  }
+
+  public String getFromAccountNumber() {
+    return fromAccountNumber;
+  }
+
+  public String getToAccountNumber() {
+    return toAccountNumber;
+  }
+
+  public BigDecimal getAmount() {
+    return amount;
+  }
+
+  @Override
+  public String toString() {
+    return "TransferInstruction{" +
+        "from=" + fromAccountNumber +
+        ", to=" + toAccountNumber +
+        ", amount=" + amount +
+        '}';
+  }
+}
@@ -0,0 +1,20 @@
+package com.bankapp.service.exception;
+
+/**
+ * Thrown when a failed operation's balance change could not be undone,
+ * because a concurrent operation already spent the money it credited. The
+ * operation's own failure is attached as a suppressed exception.
+ * <p>
+ * The in-memory balance then no longer matches the ledger, so the account
+ * should be reconciled (see BankingService#reconcile()).
+ */
+public class BalanceRollbackException extends RuntimeException {
+
+  public BalanceRollbackException(String message) {
+    super(message);
+  }
+
+  public BalanceRollbackException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
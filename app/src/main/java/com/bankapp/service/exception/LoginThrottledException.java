@@ -0,0 +1,25 @@
+package com.bankapp.service.exception;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a login attempt is refused because there have been too many
+ * recent attempts for the same username or from the same client. The
+ * password is not checked.
+ */
+public class LoginThrottledException extends AuthException {
+
+  private final Duration retryAfter;
+
+  public LoginThrottledException(String message, Duration retryAfter) {
+    super(message);
+    this.retryAfter = retryAfter;
+  }
+
+  /**
+   * @return How long until another attempt would be allowed.
+   */
+  public Duration getRetryAfter() {
+    return retryAfter;
+  }
+}
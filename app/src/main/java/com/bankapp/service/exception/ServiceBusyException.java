@@ -0,0 +1,20 @@
+package com.bankapp.service.exception;
+
+/**
+ * Thrown when a request is turned away because the service is already at
+ * capacity (e.g. too many password checks queued). The request itself was fine
+ * and can be retried later.
+ * <p>
+ * Unchecked, like the RejectedExecutionException it usually wraps: any call
+ * can run into it, whatever it was asked to do.
+ */
+public class ServiceBusyException extends RuntimeException {
+
+  public ServiceBusyException(String message) {
+    super(message);
+  }
+
+  public ServiceBusyException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,14 @@
+package com.bankapp.service.exception;
+
+/**
+ * Thrown when an account's ledger for a statement period changed while the
+ * statement was being written (e.g. a back-dated entry was committed), so the
+ * rows already written don't add up to the balances in its header. Exporting
+ * the statement again gives a consistent one.
+ */
+public class StatementChangedException extends RuntimeException {
+
+  public StatementChangedException(String message) {
+    super(message);
+  }
+}
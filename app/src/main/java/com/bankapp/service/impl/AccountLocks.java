@@ -0,0 +1,149 @@
+package com.bankapp.service.impl;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks keyed by account number.
+ * <p>
+ * Every account number maps to one of a fixed number of locks, so memory use
+ * doesn't grow with the number of accounts, and operations on accounts that
+ * land on different stripes run fully in parallel. Two-account operations
+ * always acquire their stripes in ascending stripe order, which gives every
+ * thread the same lock order and rules out deadlocks.
+ */
+public class AccountLocks {
+
+  private final ReentrantLock[] stripes;
+  private final int mask;
+
+  /**
+   * Creates a lock table sized for the machine: a few stripes per core, so
+   * unrelated accounts rarely share a lock.
+   */
+  public AccountLocks() {
+    this(Runtime.getRuntime().availableProcessors() * 16);
+  }
+
+  /**
+   * @param minStripes The minimum number of stripes. Rounded up to a power of two.
+   */
+  public AccountLocks(int minStripes) {
+    if (minStripes < 1) {
+      throw new IllegalArgumentException("Stripe count must be positive");
+    }
+    int size = Integer.highestOneBit(minStripes);
+    if (size < minStripes) {
+      size <<= 1;
+    }
+    this.stripes = new ReentrantLock[size];
+    for (int i = 0; i < size; i++) {
+      stripes[i] = new ReentrantLock();
+    }
+    this.mask = size - 1;
+  }
+
+  /**
+   * Locks a single account until the returned handle is closed.
+   *
+   * @param accountNumber The account to lock.
+   * @return A handle that releases the lock when closed.
+   */
+  public Held acquire(String accountNumber) {
+    ReentrantLock lock = stripes[stripeOf(accountNumber)];
+    lock.lock();
+    return lock::unlock;
+  }
+
+  /**
+   * Locks two accounts (e.g. both sides of a transfer) until the returned handle
+   * is closed. The locks are always taken in the same global order, so two
+   * opposite transfers (A to B and B to A) can't deadlock.
+   *
+   * @param firstAccountNumber  One of the accounts to lock.
+   * @param secondAccountNumber The other account to lock.
+   * @return A handle that releases both locks when closed.
+   */
+  public Held acquire(String firstAccountNumber, String secondAccountNumber) {
+    int first = stripeOf(firstAccountNumber);
+    int second = stripeOf(secondAccountNumber);
+    if (first == second) {
+      // Both accounts share a stripe: one lock covers both
+      ReentrantLock lock = stripes[first];
+      lock.lock();
+      return lock::unlock;
+    }
+
+    ReentrantLock lower = stripes[Math.min(first, second)];
+    ReentrantLock upper = stripes[Math.max(first, second)];
+    lower.lock();
+    try {
+      upper.lock();
+    } catch (RuntimeException | Error e) {
+      lower.unlock();
+      throw e;
+    }
+    return () -> {
+      upper.unlock();
+      lower.unlock();
+    };
+  }
+
+  /**
+   * Locks any number of accounts (e.g. every account in a batch) until the
+   * returned handle is closed. Stripes are taken in ascending order, the same
+   * order {@link #acquire(String, String)} uses.
+   *
+   * @param accountNumbers The accounts to lock.
+   * @return A handle that releases all the locks when closed.
+   */
+  public Held acquireAll(Collection<String> accountNumbers) {
+    // A BitSet gives us the distinct stripes already sorted
+    BitSet needed = new BitSet(stripes.length);
+    for (String accountNumber : accountNumbers) {
+      needed.set(stripeOf(accountNumber));
+    }
+
+    int[] order = needed.stream().toArray();
+    int held = 0;
+    try {
+      for (int stripe : order) {
+        stripes[stripe].lock();
+        held++;
+      }
+    } catch (RuntimeException | Error e) {
+      unlock(order, held);
+      throw e;
+    }
+    return () -> unlock(order, order.length);
+  }
+
+  /**
+   * @return The number of stripes in the lock table.
+   */
+  public int stripeCount() {
+    return stripes.length;
+  }
+
+  private void unlock(int[] order, int count) {
+    for (int i = count - 1; i >= 0; i--) {
+      stripes[order[i]].unlock();
+    }
+  }
+
+  private int stripeOf(String accountNumber) {
+    int h = accountNumber == null ? 0 : accountNumber.hashCode();
+    // Spread the high bits down, like HashMap does, before masking
+    return (h ^ (h >>> 16)) & mask;
+  }
+
+  /**
+   * A held lock (or pair of locks). Use with try-with-resources.
+   */
+  @FunctionalInterface
+  public interface Held extends AutoCloseable {
+    @Override
+    void close();
+  }
+}
@@ -0,0 +1,184 @@
+package com.bankapp.service.impl;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.AccountType;
+import com.bankapp.model.Customer;
+import com.bankapp.model.Transaction;
+import com.bankapp.repository.TransactionCursor;
+import com.bankapp.repository.TransactionPage;
+import com.bankapp.service.AsyncBankingService;
+import com.bankapp.service.BankingService;
+import com.bankapp.service.batch.BatchItemResult;
+import com.bankapp.service.batch.DepositInstruction;
+import com.bankapp.service.batch.TransferInstruction;
+import com.bankapp.service.exception.ServiceBusyException;
+import com.bankapp.service.ledger.ReconciliationCheckpoint;
+import com.bankapp.service.ledger.ReconciliationReport;
+import com.bankapp.service.ledger.ReplayReport;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs each BankingService operation on its own virtual thread.
+ * <p>
+ * The operations block on account locks, which are ReentrantLocks: a virtual
+ * thread waiting on one parks without pinning its carrier thread, so tens of
+ * thousands of operations can be in flight without tens of thousands of
+ * platform threads.
+ * <p>
+ * JDBC with the "jpa" backend is different: mysql-connector-java 8.0 does its
+ * socket I/O inside synchronized blocks, so a virtual thread waiting on the
+ * database pins its carrier thread on JDK 21. The number of operations
+ * running at once should then be capped at the size of the connection pool
+ * (DependencyFactory does); the others wait, parked, for a permit, instead of
+ * queueing inside the pool and pinning carriers.
+ */
+public class AsyncBankingServiceImpl implements AsyncBankingService, AutoCloseable {
+
+  private final BankingService bankingService;
+  private final ExecutorService executor;
+  private final Semaphore permits;
+
+  /**
+   * One virtual thread per operation, with no cap on how many run at once.
+   */
+  public AsyncBankingServiceImpl(BankingService bankingService) {
+    this(bankingService, Executors.newVirtualThreadPerTaskExecutor(), Integer.MAX_VALUE);
+  }
+
+  /**
+   * @param bankingService The service that does the work.
+   * @param executor       Runs the operations (normally one virtual thread per
+   *                       task). Shut down by {@link #close()}.
+   * @param maxConcurrent  How many operations may run at once (e.g. the size of
+   *                       the connection pool).
+   */
+  public AsyncBankingServiceImpl(BankingService bankingService, ExecutorService executor, int maxConcurrent) {
+    if (maxConcurrent < 1) {
+      throw new IllegalArgumentException("Max concurrent operations must be positive");
+    }
+    this.bankingService = bankingService;
+    this.executor = executor;
+    this.permits = new Semaphore(maxConcurrent, true); // Fair: first come, first served
+  }
+
+  @Override
+  public CompletableFuture<Transaction> deposit(String toAccountNumber, BigDecimal amount) {
+    return run(() -> bankingService.deposit(toAccountNumber, amount));
+  }
+
+  @Override
+  public CompletableFuture<Transaction> withdraw(String fromAccountNumber, BigDecimal amount) {
+    return run(() -> bankingService.withdraw(fromAccountNumber, amount));
+  }
+
+  @Override
+  public CompletableFuture<List<Transaction>> transfer(String fromAccountNumber, String toAccountNumber,
+      BigDecimal amount) {
+    return run(() -> bankingService.transfer(fromAccountNumber, toAccountNumber, amount));
+  }
+
+  @Override
+  public CompletableFuture<List<BatchItemResult>> transferBatch(List<TransferInstruction> instructions) {
+    return run(() -> bankingService.transferBatch(instructions));
+  }
+
+  @Override
+  public CompletableFuture<List<BatchItemResult>> depositBatch(List<DepositInstruction> instructions) {
+    return run(() -> bankingService.depositBatch(instructions));
+  }
+
+  @Override
+  public CompletableFuture<List<Transaction>> getTransactionsForAccount(String accountNumber) {
+    return run(() -> bankingService.getTransactionsForAccount(accountNumber));
+  }
+
+  @Override
+  public CompletableFuture<TransactionPage> getTransactionsPage(String accountNumber, TransactionCursor after,
+      int pageSize) {
+    return run(() -> bankingService.getTransactionsPage(accountNumber, after, pageSize));
+  }
+
+  @Override
+  public CompletableFuture<BigDecimal> balanceAsOf(String accountNumber, LocalDateTime time) {
+    return run(() -> bankingService.balanceAsOf(accountNumber, time));
+  }
+
+  @Override
+  public CompletableFuture<ReplayReport> rebuildBalances() {
+    return run(bankingService::rebuildBalances);
+  }
+
+  @Override
+  public CompletableFuture<ReconciliationReport> reconcile() {
+    return run(bankingService::reconcile);
+  }
+
+  @Override
+  public CompletableFuture<ReconciliationReport> reconcile(ReconciliationCheckpoint since) {
+    return run(() -> bankingService.reconcile(since));
+  }
+
+  @Override
+  public CompletableFuture<Account> getAccount(String accountNumber) {
+    return run(() -> bankingService.getAccount(accountNumber));
+  }
+
+  @Override
+  public CompletableFuture<Account> createAccount(Customer customer, AccountType type, String accountNumber) {
+    return run(() -> bankingService.createAccount(customer, type, accountNumber));
+  }
+
+  @Override
+  public CompletableFuture<Set<Account>> getAccountsForCustomer(Long customerId) {
+    return run(() -> bankingService.getAccountsForCustomer(customerId));
+  }
+
+  /**
+   * Stops accepting operations and waits for the running ones to finish.
+   */
+  @Override
+  public void close() {
+    executor.close();
+  }
+
+  // --- Private Helper Methods ---
+
+  /**
+   * Runs an operation on the executor. Its result or exception (checked ones
+   * included) completes the returned future.
+   */
+  private <T> CompletableFuture<T> run(Callable<T> operation) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    try {
+      executor.execute(() -> {
+        try {
+          permits.acquire();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          result.completeExceptionally(e);
+          return;
+        }
+        try {
+          result.complete(operation.call());
+        } catch (Throwable e) {
+          result.completeExceptionally(e);
+        } finally {
+          permits.release();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      result.completeExceptionally(new ServiceBusyException("The banking service is shutting down", e));
+    }
+    return result;
+  }
+}
@@ -0,0 +1,289 @@
+package com.bankapp.service.impl;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.Customer;
+import com.bankapp.repository.AccountRepository;
+import com.bankapp.repository.UnitOfWork;
+import com.bankapp.service.exception.InsufficientFundsException;
+import com.bankapp.service.exception.InvalidAmountException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A lock-free balance engine.
+ * <p>
+ * Each account's balance is held as a {@code long} number of minor units
+ * (cents) in an {@link AtomicLong}, keyed by account ID. Credits and debits
+ * are compare-and-set loops that allocate nothing, and the insufficient-funds
+ * check runs inside the loop, so a debit can never take a balance below zero.
+ * <p>
+ * The {@link Account#getBalance()} BigDecimal stays the public view of the
+ * balance (for the UI and the JPA mapping); {@link #publish(Account)} copies
+ * the current cell value into it.
+ * <p>
+ * A cell is seeded from the stored balance the first time its account is
+ * seen, so any balance written without going through the cells (an import, an
+ * admin fix) must {@link #invalidate(Account) invalidate} it, or the next
+ * credit would write the stale cell value back. {@link #watch(AccountRepository)}
+ * and {@link #watch(UnitOfWork)} do that for every save made through them.
+ */
+public class AtomicBalances {
+
+  /**
+   * Number of decimal places in a minor unit (2 = cents).
+   */
+  public static final int SCALE = 2;
+
+  private final Map<Long, AtomicLong> cells = new ConcurrentHashMap<>();
+
+  // Accounts saved inside the watched unit of work running on this thread, if any
+  private final ThreadLocal<List<Account>> savedInUnitOfWork = new ThreadLocal<>();
+
+  /**
+   * Converts an amount to minor units.
+   *
+   * @param amount The amount, e.g. 12.34.
+   * @return The amount in minor units, e.g. 1234.
+   * @throws InvalidAmountException if the amount has more than {@link #SCALE}
+   *                                decimal places or doesn't fit in a long.
+   */
+  public static long toMinorUnits(BigDecimal amount) throws InvalidAmountException {
+    try {
+      return amount.movePointRight(SCALE).longValueExact();
+    } catch (ArithmeticException e) {
+      throw new InvalidAmountException("Amount cannot have more than " + SCALE + " decimal places.", e);
+    }
+  }
+
+  /**
+   * @param minorUnits An amount in minor units, e.g. 1234.
+   * @return The same amount as a BigDecimal, e.g. 12.34.
+   */
+  public static BigDecimal toBigDecimal(long minorUnits) {
+    return BigDecimal.valueOf(minorUnits, SCALE);
+  }
+
+  /**
+   * @return The account's current balance in minor units.
+   */
+  public long balanceOf(Account account) {
+    return cellFor(account).get();
+  }
+
+  /**
+   * Adds to an account's balance.
+   *
+   * @param account    The account to credit.
+   * @param minorUnits The (positive) amount in minor units. To take a credit
+   *                   back, {@link #debit(Account, long) debit} it, so that the
+   *                   funds check still applies.
+   * @return The new balance in minor units.
+   */
+  public long credit(Account account, long minorUnits) {
+    if (minorUnits < 0) {
+      throw new IllegalArgumentException("Credit amount cannot be negative");
+    }
+    AtomicLong cell = cellFor(account);
+    while (true) {
+      long current = cell.get();
+      long updated = Math.addExact(current, minorUnits);
+      if (cell.compareAndSet(current, updated)) {
+        return updated;
+      }
+    }
+  }
+
+  /**
+   * Subtracts from an account's balance, but only if the balance covers it.
+   *
+   * @param account    The account to debit.
+   * @param minorUnits The (positive) amount in minor units.
+   * @return The new balance in minor units.
+   * @throws InsufficientFundsException if the balance is less than the amount.
+   */
+  public long debit(Account account, long minorUnits) throws InsufficientFundsException {
+    AtomicLong cell = cellFor(account);
+    while (true) {
+      long current = cell.get();
+      if (current < minorUnits) {
+        throw new InsufficientFundsException("Insufficient funds for this transaction.");
+      }
+      long updated = current - minorUnits;
+      if (cell.compareAndSet(current, updated)) {
+        return updated;
+      }
+    }
+  }
+
+  /**
+   * Overwrites an account's balance (e.g. with one rebuilt from the ledger) and
+   * publishes it. Credits and debits running at the same time may be lost, so
+   * only call this while the account is quiet.
+   *
+   * @param account    The account.
+   * @param minorUnits The new balance in minor units.
+   */
+  public void reset(Account account, long minorUnits) {
+    cellFor(account).set(minorUnits);
+    publish(account);
+  }
+
+  /**
+   * Drops an account's cell, so that it is seeded again from the stored
+   * balance the next time the account is loaded and used. Call this after
+   * writing a balance without going through the cells.
+   *
+   * @param account The account whose balance was written elsewhere.
+   */
+  public void invalidate(Account account) {
+    if (account.getId() != null) {
+      cells.remove(account.getId());
+    }
+  }
+
+  /**
+   * Wraps a repository so that every account saved through it has its cell
+   * invalidated. Hand this view to everything that writes balances on its own
+   * (e.g. the bulk importer), and the unwrapped repository to the
+   * BankingServiceImpl that uses these cells, whose saves are already in them.
+   * <p>
+   * Inside a unit of work from {@link #watch(UnitOfWork)}, the cells are
+   * invalidated once more when it ends, so that a cell re-seeded from the
+   * store before the commit doesn't keep the old balance.
+   *
+   * @param repository The repository to watch.
+   * @return A repository that invalidates the cells of the accounts it saves.
+   */
+  public AccountRepository watch(AccountRepository repository) {
+    return new WatchedAccountRepository(repository);
+  }
+
+  /**
+   * Wraps a unit of work so that the accounts saved in it through a
+   * {@link #watch(AccountRepository) watched repository} have their cells
+   * invalidated after it commits (or rolls back).
+   *
+   * @param unitOfWork The unit of work to watch.
+   * @return A unit of work that invalidates the cells of the accounts it saved.
+   */
+  public UnitOfWork watch(UnitOfWork unitOfWork) {
+    return new UnitOfWork() {
+      @Override
+      public <T> T execute(Supplier<T> work) {
+        if (savedInUnitOfWork.get() != null) {
+          return unitOfWork.execute(work); // Nested: the outer one invalidates
+        }
+        List<Account> saved = new ArrayList<>();
+        savedInUnitOfWork.set(saved);
+        try {
+          return unitOfWork.execute(work);
+        } finally {
+          savedInUnitOfWork.remove();
+          saved.forEach(AtomicBalances.this::invalidate);
+        }
+      }
+    };
+  }
+
+  /**
+   * Copies the account's current cell value into its BigDecimal balance.
+   * <p>
+   * Concurrent publishers may briefly write an older value, so each one
+   * re-checks the cell after writing and tries again if it moved. When the last
+   * publisher returns, the view matches the cell.
+   *
+   * @param account The account whose balance view to refresh.
+   */
+  public void publish(Account account) {
+    AtomicLong cell = cellFor(account);
+    long published;
+    do {
+      published = cell.get();
+      account.setBalance(toBigDecimal(published));
+    } while (cell.get() != published);
+  }
+
+  // --- Private Helper Methods ---
+
+  /**
+   * The first time an account is seen (or after its cell was invalidated), its
+   * cell is seeded from the account's current BigDecimal balance. Keying by ID
+   * rather than account number means every copy of the same row shares one
+   * cell, and a number that is reused by a new account starts afresh.
+   */
+  private AtomicLong cellFor(Account account) {
+    if (account.getId() == null) {
+      throw new IllegalArgumentException("Account " + account.getAccountNumber() + " has not been saved yet");
+    }
+    return cells.computeIfAbsent(account.getId(), id -> {
+      try {
+        return new AtomicLong(toMinorUnits(account.getBalance()));
+      } catch (InvalidAmountException e) {
+        throw new IllegalStateException("Balance of account " + account.getAccountNumber()
+            + " is not in minor units", e);
+      }
+    });
+  }
+
+  /**
+   * A repository view that invalidates the cell of every account saved
+   * through it (see {@link #watch(AccountRepository)}).
+   */
+  private final class WatchedAccountRepository implements AccountRepository {
+    private final AccountRepository delegate;
+
+    private WatchedAccountRepository(AccountRepository delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Account save(Account account) {
+      Account saved = delegate.save(account);
+      written(saved);
+      return saved;
+    }
+
+    @Override
+    public List<Account> saveAll(List<Account> accounts) {
+      List<Account> saved = delegate.saveAll(accounts);
+      saved.forEach(this::written);
+      return saved;
+    }
+
+    @Override
+    public Optional<Account> findById(Long id) {
+      return delegate.findById(id);
+    }
+
+    @Override
+    public Optional<Account> findByAccountNumber(String accountNumber) {
+      return delegate.findByAccountNumber(accountNumber);
+    }
+
+    @Override
+    public Set<Account> findAllByCustomer(Customer customer) {
+      return delegate.findAllByCustomer(customer);
+    }
+
+    @Override
+    public List<String> findAllAccountNumbers() {
+      return delegate.findAllAccountNumbers();
+    }
+
+    private void written(Account account) {
+      invalidate(account);
+      List<Account> pending = savedInUnitOfWork.get();
+      if (pending != null) {
+        pending.add(account);
+      }
+    }
+  }
+}
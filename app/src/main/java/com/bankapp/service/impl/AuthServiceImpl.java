@@ -4,14 +4,29 @@ import com.bankapp.model.Customer;
 import com.bankapp.repository.CustomerRepository;
 import com.bankapp.service.AuthService;
 import com.bankapp.service.exception.AuthException;
+import com.bankapp.service.exception.LoginThrottledException;
 import com.bankapp.service.exception.UserAlreadyExistsException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
 
 public class AuthServiceImpl implements AuthService {
 
   private final CustomerRepository customerRepository;
-  private final PasswordEncoder passwordEncoder;
+  private final PasswordHasher passwordHasher;
+  private final LoginRateLimiter usernameLimiter;
+  private final LoginRateLimiter clientLimiter;
+
+  // Checked against when there is no such user, so a failed login costs the same either way
+  private final String dummyPasswordHash;
+
+  // Password-hash upgrade metrics
+  private final LongAdder legacyLogins = new LongAdder();
+  private final LongAdder upgradedHashes = new LongAdder();
+  private final LongAdder failedUpgrades = new LongAdder();
 
   /**
    * This is Dependency Injection. We "inject" the repository
@@ -21,50 +36,229 @@ public class AuthServiceImpl implements AuthService {
    *                           MockCustomerRepository)
    */
   public AuthServiceImpl(CustomerRepository customerRepository) {
+    this(customerRepository, new PasswordHasher()); // Use the standard BCrypt hasher
+  }
+
+  /**
+   * @param customerRepository The data access repository.
+   * @param passwordHasher     The pool that does all password hashing.
+   */
+  public AuthServiceImpl(CustomerRepository customerRepository, PasswordHasher passwordHasher) {
+    this(customerRepository, passwordHasher,
+        new LoginRateLimiter(5, Duration.ofSeconds(12), 65_536), // 5 attempts, then one every 12 seconds
+        new LoginRateLimiter(30, Duration.ofSeconds(1), 65_536));
+  }
+
+  /**
+   * @param customerRepository The data access repository.
+   * @param passwordHasher     The pool that does all password hashing.
+   * @param usernameLimiter    Limits login attempts per username.
+   * @param clientLimiter      Limits login attempts per client.
+   */
+  public AuthServiceImpl(CustomerRepository customerRepository, PasswordHasher passwordHasher,
+      LoginRateLimiter usernameLimiter, LoginRateLimiter clientLimiter) {
     this.customerRepository = customerRepository;
-    this.passwordEncoder = new BCryptPasswordEncoder(); // Use the standard BCrypt hasher
+    this.passwordHasher = passwordHasher;
+    this.usernameLimiter = usernameLimiter;
+    this.clientLimiter = clientLimiter;
+    this.dummyPasswordHash = passwordHasher.getEncoder().encode("no-such-user");
   }
 
   @Override
   public Customer login(String username, String password) throws AuthException {
-    // 1. Find the user by their username
-    Customer customer = customerRepository.findByUsername(username)
-        .orElseThrow(() -> new AuthException("Invalid username or password"));
-
-    // 2. Check if the plain-text password matches the stored hash
-    if (passwordEncoder.matches(password, customer.getPasswordHash())) {
-      // 3. Success! Return the user.
-      return customer;
-    } else {
-      // 4. Fail. Throw the same error for security (don't say "wrong password").
-      throw new AuthException("Invalid username or password");
+    return login(username, password, null);
+  }
+
+  @Override
+  public Customer login(String username, String password, String clientId) throws AuthException {
+    try {
+      return loginAsync(username, password, clientId).join();
+    } catch (CompletionException e) {
+      throw unwrap(e, AuthException.class);
     }
   }
 
   @Override
   public Customer register(String username, String password, String firstName, String lastName, String email)
       throws UserAlreadyExistsException {
+    try {
+      return registerAsync(username, password, firstName, lastName, email).join();
+    } catch (CompletionException e) {
+      throw unwrap(e, UserAlreadyExistsException.class);
+    }
+  }
+
+  @Override
+  public CompletableFuture<Customer> loginAsync(String username, String password) {
+    return loginAsync(username, password, null);
+  }
+
+  @Override
+  public CompletableFuture<Customer> loginAsync(String username, String password, String clientId) {
+    // 0. Refuse throttled attempts before any lookup or hashing
+    Duration retryAfter = checkRateLimits(username, clientId);
+    if (!retryAfter.isZero()) {
+      long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+      return CompletableFuture.failedFuture(new LoginThrottledException(
+          "Too many login attempts. Please try again in " + seconds + " seconds.", retryAfter));
+    }
+
+    // 1. Find the user by their username
+    Customer customer = customerRepository.findByUsername(username).orElse(null);
+    if (customer == null) {
+      // Still spend a full password check, so response times don't reveal which usernames exist
+      return passwordHasher.matches(password, dummyPasswordHash).thenApply(ignored -> {
+        throw new CompletionException(new AuthException("Invalid username or password"));
+      });
+    }
+
+    // 2. Check if the plain-text password matches the stored hash (on the hashing pool)
+    return passwordHasher.matches(password, customer.getPasswordHash()).thenApply(matches -> {
+      if (matches) {
+        // 3. Success! Move a legacy hash to the current policy (in the background) and return the user.
+        if (passwordHasher.needsUpgrade(customer.getPasswordHash())) {
+          legacyLogins.increment();
+          upgradePasswordHash(customer.getId(), customer.getPasswordHash(), password);
+        }
+        return customer;
+      }
+      // 4. Fail. Throw the same error for security (don't say "wrong password").
+      throw new CompletionException(new AuthException("Invalid username or password"));
+    });
+  }
+
+  @Override
+  public CompletableFuture<Customer> registerAsync(String username, String password, String firstName,
+      String lastName, String email) {
 
     // 1. === YOUR DEFENSIVE CODE (Username) ===
     // Check if username is already taken
     if (customerRepository.findByUsername(username).isPresent()) {
-      throw new UserAlreadyExistsException("Username is already taken: " + username);
+      return CompletableFuture.failedFuture(
+          new UserAlreadyExistsException("Username is already taken: " + username));
     }
 
     // 2. === DEFENSIVE CODE (Email) ===
     // We also need to check if the email is taken.
     // This will require adding a 'findByEmail' method to our repository.
     if (customerRepository.findByEmail(email).isPresent()) {
-      throw new UserAlreadyExistsException("Email is already taken: " + email);
+      return CompletableFuture.failedFuture(new UserAlreadyExistsException("Email is already taken: " + email));
     }
 
-    // 3. Hash the password
-    String passwordHash = passwordEncoder.encode(password);
+    // 3. Hash the password (on the hashing pool)
+    return passwordHasher.encode(password).thenApply(passwordHash -> {
+      // 4. Create the new customer
+      Customer newCustomer = new Customer(username, passwordHash, firstName, lastName, email);
+
+      // 5. Save and return the new customer.
+      // The checks above give a friendly error message, but another registration could
+      // have claimed the username or email since then, so the insert re-checks atomically.
+      return customerRepository.insertIfAbsent(newCustomer)
+          .orElseThrow(() -> new CompletionException(customerRepository.findByUsername(username).isPresent()
+              ? new UserAlreadyExistsException("Username is already taken: " + username)
+              : new UserAlreadyExistsException("Email is already taken: " + email)));
+    });
+  }
+
+  /**
+   * Counts the customers whose password hash is not on the current policy. This
+   * reads every customer, so it is meant for an occasional metrics scrape, not
+   * a hot path.
+   */
+  public long countLegacyPasswordHashes() {
+    return customerRepository.findAll().stream()
+        .filter(customer -> passwordHasher.needsUpgrade(customer.getPasswordHash()))
+        .count();
+  }
+
+  /**
+   * @return Successful logins that were made with a legacy password hash.
+   */
+  public long getLegacyLoginCount() {
+    return legacyLogins.sum();
+  }
+
+  /**
+   * @return Legacy password hashes rewritten with the current policy.
+   */
+  public long getUpgradedHashCount() {
+    return upgradedHashes.sum();
+  }
 
-    // 4. Create the new customer
-    Customer newCustomer = new Customer(username, passwordHash, firstName, lastName, email);
+  /**
+   * @return Rehashes that were dropped (pool busy or save failed); they are
+   *         retried at the customer's next login.
+   */
+  public long getFailedUpgradeCount() {
+    return failedUpgrades.sum();
+  }
+
+  /**
+   * @return Login attempts refused by the per-username and per-client rate
+   *         limits.
+   */
+  public long getThrottledLoginCount() {
+    return usernameLimiter.getRefusedCount() + clientLimiter.getRefusedCount();
+  }
 
-    // 5. Save and return the new customer
-    return customerRepository.save(newCustomer);
+  // --- Private Helper Methods ---
+
+  /**
+   * Takes a login attempt from the client's and the username's buckets.
+   *
+   * @return Zero if the attempt may go ahead, otherwise how long until it could.
+   */
+  private Duration checkRateLimits(String username, String clientId) {
+    if (clientId != null) {
+      Duration clientWait = clientLimiter.tryAcquire(clientId);
+      if (!clientWait.isZero()) {
+        return clientWait; // Don't spend the username's attempts on a client that is already blocked
+      }
+    }
+    if (username == null) {
+      return Duration.ZERO;
+    }
+    // Usernames are case-insensitive, so "JohnDoe" and "johndoe" share a bucket
+    return usernameLimiter.tryAcquire(username.trim().toLowerCase(Locale.ROOT));
+  }
+
+  /**
+   * Rehashes a password with the current policy and saves it, without the
+   * login waiting for either step.
+   */
+  private void upgradePasswordHash(Long customerId, String legacyHash, String password) {
+    passwordHasher.encodeIfIdle(password).thenAccept(newHash -> {
+      // Only replace the hash the password was checked against; if it has changed since, leave it
+      Customer current = customerRepository.findById(customerId).orElse(null);
+      if (current == null || !legacyHash.equals(current.getPasswordHash())) {
+        return;
+      }
+      current.setPasswordHash(newHash);
+      customerRepository.save(current);
+      upgradedHashes.increment();
+    }).whenComplete((ignored, error) -> {
+      if (error != null) {
+        failedUpgrades.increment();
+      }
+    });
+  }
+
+  /**
+   * Turns a failed future's exception back into what the synchronous method
+   * throws: the expected checked exception, or any unchecked one as is (e.g. a
+   * ServiceBusyException).
+   */
+  private static <E extends Exception> E unwrap(CompletionException e, Class<E> expected) {
+    Throwable cause = e.getCause();
+    if (expected.isInstance(cause)) {
+      return expected.cast(cause);
+    }
+    if (cause instanceof RuntimeException) {
+      throw (RuntimeException) cause;
+    }
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    throw e;
   }
 }
@@ -6,21 +6,43 @@ import com.bankapp.model.Customer;
 import com.bankapp.model.Transaction;
 import com.bankapp.model.TransactionType;
 import com.bankapp.repository.AccountRepository;
+import com.bankapp.repository.TransactionCursor;
+import com.bankapp.repository.TransactionPage;
 import com.bankapp.repository.TransactionRepository;
+import com.bankapp.repository.UnitOfWork;
 import com.bankapp.service.BankingService;
+import com.bankapp.service.batch.BatchItemResult;
+import com.bankapp.service.batch.DepositInstruction;
+import com.bankapp.service.batch.TransferInstruction;
 import com.bankapp.service.exception.AccountNotFoundException;
+import com.bankapp.service.exception.BalanceRollbackException;
 import com.bankapp.service.exception.InsufficientFundsException;
 import com.bankapp.service.exception.InvalidAmountException;
+import com.bankapp.service.ledger.ReconciliationCheckpoint;
+import com.bankapp.service.ledger.ReconciliationReport;
+import com.bankapp.service.ledger.ReplayReport;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public class BankingServiceImpl implements BankingService {
 
   private final AccountRepository accountRepository;
   private final TransactionRepository transactionRepository;
+  private final AccountLocks accountLocks;
+  private final AtomicBalances atomicBalances; // null unless the lock-free engine is enabled
+  private final UnitOfWork unitOfWork;
 
   /**
    * Dependency Injection. This service needs both repositories to do its job.
@@ -29,8 +51,68 @@ public class BankingServiceImpl implements BankingService {
    * @param transactionRepository The repository for managing transactions.
    */
   public BankingServiceImpl(AccountRepository accountRepository, TransactionRepository transactionRepository) {
+    this(accountRepository, transactionRepository, new AccountLocks());
+  }
+
+  /**
+   * @param accountRepository     The repository for managing accounts.
+   * @param transactionRepository The repository for managing transactions.
+   * @param accountLocks          The per-account locks that serialize balance
+   *                              changes on the same account.
+   */
+  public BankingServiceImpl(AccountRepository accountRepository, TransactionRepository transactionRepository,
+      AccountLocks accountLocks) {
+    this(accountRepository, transactionRepository, accountLocks, null, UnitOfWork.direct());
+  }
+
+  /**
+   * @param accountRepository     The repository for managing accounts.
+   * @param transactionRepository The repository for managing transactions.
+   * @param unitOfWork            Groups each operation's saves into one atomic
+   *                              commit. Must come from the same backend as the
+   *                              repositories.
+   */
+  public BankingServiceImpl(AccountRepository accountRepository, TransactionRepository transactionRepository,
+      UnitOfWork unitOfWork) {
+    this(accountRepository, transactionRepository, new AccountLocks(), null, unitOfWork);
+  }
+
+  /**
+   * Creates a service that uses the lock-free balance engine: balances are
+   * updated with compare-and-set on {@code long} minor units instead of under
+   * per-account locks. Amounts must have at most {@link AtomicBalances#SCALE}
+   * decimal places.
+   *
+   * @param accountRepository     The repository for managing accounts.
+   * @param transactionRepository The repository for managing transactions.
+   * @param atomicBalances        The lock-free balance cells.
+   */
+  public BankingServiceImpl(AccountRepository accountRepository, TransactionRepository transactionRepository,
+      AtomicBalances atomicBalances) {
+    this(accountRepository, transactionRepository, atomicBalances, UnitOfWork.direct());
+  }
+
+  /**
+   * The lock-free balance engine together with a unit of work.
+   *
+   * @param accountRepository     The repository for managing accounts.
+   * @param transactionRepository The repository for managing transactions.
+   * @param atomicBalances        The lock-free balance cells.
+   * @param unitOfWork            Groups each operation's saves into one atomic
+   *                              commit.
+   */
+  public BankingServiceImpl(AccountRepository accountRepository, TransactionRepository transactionRepository,
+      AtomicBalances atomicBalances, UnitOfWork unitOfWork) {
+    this(accountRepository, transactionRepository, new AccountLocks(), atomicBalances, unitOfWork);
+  }
+
+  private BankingServiceImpl(AccountRepository accountRepository, TransactionRepository transactionRepository,
+      AccountLocks accountLocks, AtomicBalances atomicBalances, UnitOfWork unitOfWork) {
     this.accountRepository = accountRepository;
     this.transactionRepository = transactionRepository;
+    this.accountLocks = accountLocks;
+    this.atomicBalances = atomicBalances;
+    this.unitOfWork = unitOfWork;
   }
 
   @Override
@@ -39,21 +121,31 @@ public class BankingServiceImpl implements BankingService {
 
     // 1. --- Validation ---
     validateAmount(amount);
-    Account account = getAccount(toAccountNumber); // Re-uses our own method
+    if (atomicBalances != null) {
+      return depositLockFree(toAccountNumber, amount);
+    }
 
-    // 2. --- Business Logic ---
-    account.setBalance(account.getBalance().add(amount));
+    // Only one thread at a time may change this account's balance
+    try (AccountLocks.Held lock = accountLocks.acquire(toAccountNumber)) {
+      Account account = getAccount(toAccountNumber); // Re-uses our own method
 
-    // 3. --- Create Ledger Entry ---
-    Transaction tx = new Transaction(
-        account,
-        TransactionType.DEPOSIT,
-        amount,
-        "Deposit");
+      // 2. --- Business Logic ---
+      BigDecimal previousBalance = account.getBalance();
+      account.setBalance(previousBalance.add(amount));
 
-    // 4. --- Persist Changes ---
-    accountRepository.save(account);
-    return transactionRepository.save(tx);
+      // 3. --- Create Ledger Entry ---
+      Transaction tx = new Transaction(
+          account,
+          TransactionType.DEPOSIT,
+          amount,
+          "Deposit");
+
+      // 4. --- Persist Changes (one unit of work) ---
+      return commit(() -> {
+        accountRepository.save(account);
+        return transactionRepository.save(tx);
+      }, () -> account.setBalance(previousBalance));
+    }
   }
 
   @Override
@@ -62,22 +154,32 @@ public class BankingServiceImpl implements BankingService {
 
     // 1. --- Validation ---
     validateAmount(amount);
-    Account account = getAccount(fromAccountNumber);
-    validateFunds(account, amount); // Check for sufficient funds
+    if (atomicBalances != null) {
+      return withdrawLockFree(fromAccountNumber, amount);
+    }
 
-    // 2. --- Business Logic ---
-    account.setBalance(account.getBalance().subtract(amount));
+    // The funds check and the debit must happen under the same lock
+    try (AccountLocks.Held lock = accountLocks.acquire(fromAccountNumber)) {
+      Account account = getAccount(fromAccountNumber);
+      validateFunds(account, amount); // Check for sufficient funds
 
-    // 3. --- Create Ledger Entry ---
-    Transaction tx = new Transaction(
-        account,
-        TransactionType.WITHDRAWAL,
-        amount.negate(), // Store withdrawals as a negative number
-        "Withdrawal");
+      // 2. --- Business Logic ---
+      BigDecimal previousBalance = account.getBalance();
+      account.setBalance(previousBalance.subtract(amount));
+
+      // 3. --- Create Ledger Entry ---
+      Transaction tx = new Transaction(
+          account,
+          TransactionType.WITHDRAWAL,
+          amount.negate(), // Store withdrawals as a negative number
+          "Withdrawal");
 
-    // 4. --- Persist Changes ---
-    accountRepository.save(account);
-    return transactionRepository.save(tx);
+      // 4. --- Persist Changes (one unit of work) ---
+      return commit(() -> {
+        accountRepository.save(account);
+        return transactionRepository.save(tx);
+      }, () -> account.setBalance(previousBalance));
+    }
   }
 
   @Override
@@ -86,15 +188,263 @@ public class BankingServiceImpl implements BankingService {
 
     // 1. --- Validation ---
     validateAmount(amount);
+    if (atomicBalances != null) {
+      return transferLockFree(fromAccountNumber, toAccountNumber, amount);
+    }
+
+    // Lock both accounts (always in the same order, so opposite transfers can't deadlock)
+    try (AccountLocks.Held lock = accountLocks.acquire(fromAccountNumber, toAccountNumber)) {
+      Account fromAccount = getAccount(fromAccountNumber);
+      Account toAccount = getAccount(toAccountNumber);
+      validateFunds(fromAccount, amount);
+
+      // 2. --- Business Logic (The Transfer) ---
+      BigDecimal previousFromBalance = fromAccount.getBalance();
+      BigDecimal previousToBalance = toAccount.getBalance();
+      fromAccount.setBalance(previousFromBalance.subtract(amount));
+      toAccount.setBalance(toAccount.getBalance().add(amount));
+
+      // 3. & 4. --- Create and Persist Ledger Entries ---
+      return saveTransferLedger(fromAccount, toAccount, amount, () -> {
+        fromAccount.setBalance(previousFromBalance);
+        toAccount.setBalance(previousToBalance);
+      });
+    }
+  }
+
+  @Override
+  public List<BatchItemResult> transferBatch(List<TransferInstruction> instructions) {
+    if (instructions == null) {
+      throw new IllegalArgumentException("Instructions cannot be null");
+    }
+    List<BatchLine> lines = new ArrayList<>(instructions.size());
+    for (TransferInstruction instruction : instructions) {
+      // A null item stays a null line, and is reported as missing
+      lines.add(instruction == null ? null : new BatchLine(instruction.getFromAccountNumber(),
+          instruction.getToAccountNumber(), instruction.getAmount()));
+    }
+    return applyBatch(lines);
+  }
+
+  @Override
+  public List<BatchItemResult> depositBatch(List<DepositInstruction> instructions) {
+    if (instructions == null) {
+      throw new IllegalArgumentException("Instructions cannot be null");
+    }
+    List<BatchLine> lines = new ArrayList<>(instructions.size());
+    for (DepositInstruction instruction : instructions) {
+      // A deposit is a batch line with no source account
+      lines.add(instruction == null ? null : new BatchLine(null, instruction.getToAccountNumber(),
+          instruction.getAmount()));
+    }
+    return applyBatch(lines);
+  }
+
+  @Override
+  public List<Transaction> getTransactionsForAccount(String accountNumber) throws AccountNotFoundException {
+    Account account = getAccount(accountNumber);
+    return transactionRepository.findAllByAccount(account);
+  }
+
+  @Override
+  public TransactionPage getTransactionsPage(String accountNumber, TransactionCursor after, int pageSize)
+      throws AccountNotFoundException {
+    TransactionPage.checkPageSize(pageSize);
+    Account account = getAccount(accountNumber);
+    return transactionRepository.findPageByAccount(account, after, pageSize);
+  }
+
+  @Override
+  public Stream<Transaction> streamTransactionsForAccount(String accountNumber, int pageSize)
+      throws AccountNotFoundException {
+    TransactionPage.checkPageSize(pageSize);
+    // Look the account up now, so a bad account number fails here and not mid-stream
+    Account account = getAccount(accountNumber);
+    return transactionRepository.streamByAccount(account, pageSize);
+  }
+
+  @Override
+  public BigDecimal balanceAsOf(String accountNumber, LocalDateTime time) throws AccountNotFoundException {
+    if (time == null) {
+      throw new IllegalArgumentException("Time cannot be null");
+    }
+
+    // The balance and the ledger total must be read at the same moment.
+    // (The lock-free engine takes no locks, so there an operation still
+    // being committed may be missing from the ledger side.)
+    try (AccountLocks.Held lock = accountLocks.acquire(accountNumber)) {
+      Account account = getAccount(accountNumber);
+      BigDecimal balance = atomicBalances == null
+          ? account.getBalance()
+          : AtomicBalances.toBigDecimal(atomicBalances.balanceOf(account));
+
+      // balance now - (everything in the ledger) + (the ledger up to "time")
+      BigDecimal unexplained = balance.subtract(transactionRepository.runningTotal(account));
+      return unexplained.add(transactionRepository.runningTotalAsOf(account, time));
+    }
+  }
+
+  @Override
+  public ReplayReport rebuildBalances() {
+    return new LedgerReplay(accountRepository, transactionRepository, accountLocks, atomicBalances)
+        .replayAll(Runtime.getRuntime().availableProcessors());
+  }
+
+  @Override
+  public ReconciliationReport reconcile() {
+    return new LedgerReconciler(accountRepository, transactionRepository, accountLocks, atomicBalances)
+        .reconcile(null, Runtime.getRuntime().availableProcessors());
+  }
+
+  @Override
+  public ReconciliationReport reconcile(ReconciliationCheckpoint since) {
+    if (since == null) {
+      throw new IllegalArgumentException("Checkpoint cannot be null");
+    }
+    return new LedgerReconciler(accountRepository, transactionRepository, accountLocks, atomicBalances)
+        .reconcile(since, Runtime.getRuntime().availableProcessors());
+  }
+
+  @Override
+  public Account getAccount(String accountNumber) throws AccountNotFoundException {
+    return accountRepository.findByAccountNumber(accountNumber)
+        .orElseThrow(() -> new AccountNotFoundException("No account found with number: " + accountNumber));
+  }
+
+  // --- Private Helper Methods ---
+
+  /**
+   * Lock-free deposit: the balance cell is updated with a CAS loop.
+   */
+  private Transaction depositLockFree(String toAccountNumber, BigDecimal amount)
+      throws AccountNotFoundException, InvalidAmountException {
+    long minorUnits = AtomicBalances.toMinorUnits(amount);
+    Account account = getAccount(toAccountNumber);
+
+    atomicBalances.credit(account, minorUnits);
+    atomicBalances.publish(account);
+
+    Transaction tx = new Transaction(account, TransactionType.DEPOSIT, amount, "Deposit");
+    return commit(() -> {
+      accountRepository.save(account);
+      return transactionRepository.save(tx);
+    }, () -> {
+      try {
+        undoCredit(account, minorUnits);
+      } finally {
+        atomicBalances.publish(account);
+      }
+    });
+  }
+
+  /**
+   * Lock-free withdrawal: the funds check happens inside the CAS loop.
+   */
+  private Transaction withdrawLockFree(String fromAccountNumber, BigDecimal amount)
+      throws AccountNotFoundException, InsufficientFundsException, InvalidAmountException {
+    long minorUnits = AtomicBalances.toMinorUnits(amount);
+    Account account = getAccount(fromAccountNumber);
+
+    atomicBalances.debit(account, minorUnits);
+    atomicBalances.publish(account);
+
+    Transaction tx = new Transaction(account, TransactionType.WITHDRAWAL, amount.negate(), "Withdrawal");
+    return commit(() -> {
+      accountRepository.save(account);
+      return transactionRepository.save(tx);
+    }, () -> {
+      atomicBalances.credit(account, minorUnits);
+      atomicBalances.publish(account);
+    });
+  }
+
+  /**
+   * Lock-free transfer: debit first (which can fail), then credit (which can't).
+   * The money is briefly "in flight" between the two CAS operations, but it is
+   * never created or lost.
+   */
+  private List<Transaction> transferLockFree(String fromAccountNumber, String toAccountNumber, BigDecimal amount)
+      throws AccountNotFoundException, InsufficientFundsException, InvalidAmountException {
+    long minorUnits = AtomicBalances.toMinorUnits(amount);
     Account fromAccount = getAccount(fromAccountNumber);
     Account toAccount = getAccount(toAccountNumber);
-    validateFunds(fromAccount, amount);
 
-    // 2. --- Business Logic (The Transfer) ---
-    fromAccount.setBalance(fromAccount.getBalance().subtract(amount));
-    toAccount.setBalance(toAccount.getBalance().add(amount));
+    atomicBalances.debit(fromAccount, minorUnits);
+    atomicBalances.credit(toAccount, minorUnits);
+    atomicBalances.publish(fromAccount);
+    atomicBalances.publish(toAccount);
+
+    return saveTransferLedger(fromAccount, toAccount, amount, () -> {
+      try {
+        // If the credit can't be taken back, the debit stays too: no money is created
+        undoCredit(toAccount, minorUnits);
+        atomicBalances.credit(fromAccount, minorUnits);
+      } finally {
+        atomicBalances.publish(fromAccount);
+        atomicBalances.publish(toAccount);
+      }
+    });
+  }
+
+  /**
+   * Creates the two linked ledger entries of a transfer and saves them together
+   * with both (already updated) accounts.
+   */
+  private List<Transaction> saveTransferLedger(Account fromAccount, Account toAccount, BigDecimal amount,
+      Runnable undoBalances) {
+    List<Transaction> legs = transferLegs(fromAccount, toAccount, amount);
+
+    // --- Persist Changes ---
+    // All four saves are one unit of work: both balances and both ledger entries, or nothing
+    return commit(() -> {
+      accountRepository.save(fromAccount);
+      accountRepository.save(toAccount);
+      Transaction savedWithdrawal = transactionRepository.save(legs.get(0));
+      Transaction savedDeposit = transactionRepository.save(legs.get(1));
+      return List.of(savedWithdrawal, savedDeposit);
+    }, undoBalances);
+  }
+
+  /**
+   * Runs an operation's saves as one unit of work. If they fail, the in-memory
+   * balance changes are undone too, so the account objects match the store.
+   * If even that fails, the BalanceRollbackException is thrown instead, with
+   * the save failure attached.
+   */
+  private <T> T commit(Supplier<T> writes, Runnable undoBalances) {
+    try {
+      return unitOfWork.execute(writes);
+    } catch (RuntimeException e) {
+      try {
+        undoBalances.run();
+      } catch (BalanceRollbackException undoFailed) {
+        undoFailed.addSuppressed(e);
+        throw undoFailed;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Takes back a lock-free credit whose save failed. This is a checked debit:
+   * a concurrent withdrawal may already have spent the money, and an unchecked
+   * one would then take the balance below zero.
+   */
+  private void undoCredit(Account account, long minorUnits) {
+    try {
+      atomicBalances.debit(account, minorUnits);
+    } catch (InsufficientFundsException e) {
+      throw new BalanceRollbackException("Could not undo a credit of "
+          + AtomicBalances.toBigDecimal(minorUnits) + " to account " + account.getAccountNumber()
+          + ": it has already been spent", e);
+    }
+  }
 
-    // 3. --- Create Ledger Entries ---
+  /**
+   * Creates (but doesn't save) the two ledger entries of a transfer: the
+   * withdrawal from one account and the deposit into the other.
+   */
+  private List<Transaction> transferLegs(Account fromAccount, Account toAccount, BigDecimal amount) {
     // Use a Correlation ID to link these two transactions
     UUID correlationId = UUID.randomUUID();
     String descTo = "Transfer from " + fromAccount.getCustomer().getFirstName();
@@ -114,29 +464,217 @@ public class BankingServiceImpl implements BankingService {
         descTo);
     depositTx.setCorrelationId(correlationId);
 
-    // 4. --- Persist Changes ---
-    // In a real app, this would be one "atomic" database transaction
-    accountRepository.save(fromAccount);
-    accountRepository.save(toAccount);
-    Transaction savedWithdrawal = transactionRepository.save(withdrawalTx);
-    Transaction savedDeposit = transactionRepository.save(depositTx);
+    return List.of(withdrawalTx, depositTx);
+  }
+
+  /**
+   * Applies a batch of transfers and/or deposits.
+   * <p>
+   * 1. Amounts are validated without holding any lock.
+   * 2. Every account in the batch is looked up once and locked once.
+   * 3. Items are applied in order against a working copy of the balances.
+   * 4. Each touched account is saved once with its final balance, and all
+   *    ledger entries go to the repository in a single bulk append.
+   */
+  private List<BatchItemResult> applyBatch(List<BatchLine> lines) {
+    BatchItemResult[] results = new BatchItemResult[lines.size()];
+
+    // 1. --- Validation ---
+    Set<String> accountNumbers = new HashSet<>();
+    for (int i = 0; i < lines.size(); i++) {
+      BatchLine line = lines.get(i);
+      if (line == null) {
+        results[i] = BatchItemResult.failure(i, BatchItemResult.Status.MISSING_INSTRUCTION, "Instruction is missing");
+        continue;
+      }
+      try {
+        validateAmount(line.amount);
+        if (atomicBalances != null) {
+          line.minorUnits = AtomicBalances.toMinorUnits(line.amount);
+        }
+        if (line.fromAccountNumber != null) {
+          accountNumbers.add(line.fromAccountNumber);
+        }
+        accountNumbers.add(line.toAccountNumber);
+      } catch (InvalidAmountException e) {
+        results[i] = BatchItemResult.failure(i, BatchItemResult.Status.INVALID_AMOUNT, e.getMessage());
+      }
+    }
+
+    List<Transaction> ledger = new ArrayList<>();
+    Map<String, Account> touched = new LinkedHashMap<>();
+
+    if (atomicBalances != null) {
+      // Lock-free engine: each item is a debit and a credit on the balance cells
+      Map<String, Account> accounts = loadAccounts(accountNumbers);
+      for (int i = 0; i < lines.size(); i++) {
+        if (results[i] == null) {
+          results[i] = applyLineLockFree(i, lines.get(i), accounts, touched, ledger);
+        }
+      }
+      for (Account account : touched.values()) {
+        atomicBalances.publish(account);
+      }
+      persistBatch(touched, ledger, () -> undoLockFreeBatch(lines, results, accounts, touched));
+    } else {
+      // 2. --- Lock every account in the batch (in stripe order) ---
+      try (AccountLocks.Held lock = accountLocks.acquireAll(accountNumbers)) {
+        Map<String, Account> accounts = loadAccounts(accountNumbers);
 
-    return List.of(savedWithdrawal, savedDeposit);
+        // 3. --- Business Logic, against working balances ---
+        Map<String, BigDecimal> balances = new HashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+          if (results[i] == null) {
+            results[i] = applyLine(i, lines.get(i), accounts, balances, touched, ledger);
+          }
+        }
+
+        // 4. --- Apply the net result once per account, then persist ---
+        Map<Account, BigDecimal> previousBalances = new HashMap<>();
+        for (Account account : touched.values()) {
+          previousBalances.put(account, account.getBalance());
+          account.setBalance(balances.get(account.getAccountNumber()));
+        }
+        persistBatch(touched, ledger, () -> previousBalances.forEach(Account::setBalance));
+      }
+    }
+
+    return Arrays.asList(results);
   }
 
-  @Override
-  public List<Transaction> getTransactionsForAccount(String accountNumber) throws AccountNotFoundException {
-    Account account = getAccount(accountNumber);
-    return transactionRepository.findAllByAccount(account);
+  private BatchItemResult applyLine(int index, BatchLine line, Map<String, Account> accounts,
+      Map<String, BigDecimal> balances, Map<String, Account> touched, List<Transaction> ledger) {
+    Account toAccount = accounts.get(line.toAccountNumber);
+    Account fromAccount = line.fromAccountNumber == null ? null : accounts.get(line.fromAccountNumber);
+    BatchItemResult notFound = checkAccountsFound(index, line, fromAccount, toAccount);
+    if (notFound != null) {
+      return notFound;
+    }
+
+    List<Transaction> entries;
+    if (fromAccount == null) {
+      entries = List.of(new Transaction(toAccount, TransactionType.DEPOSIT, line.amount, "Deposit"));
+    } else {
+      BigDecimal fromBalance = balances.computeIfAbsent(fromAccount.getAccountNumber(), n -> fromAccount.getBalance());
+      if (fromBalance.compareTo(line.amount) < 0) {
+        return BatchItemResult.failure(index, BatchItemResult.Status.INSUFFICIENT_FUNDS,
+            "Insufficient funds for this transaction.");
+      }
+      balances.put(fromAccount.getAccountNumber(), fromBalance.subtract(line.amount));
+      touched.put(fromAccount.getAccountNumber(), fromAccount);
+      entries = transferLegs(fromAccount, toAccount, line.amount);
+    }
+
+    BigDecimal toBalance = balances.computeIfAbsent(toAccount.getAccountNumber(), n -> toAccount.getBalance());
+    balances.put(toAccount.getAccountNumber(), toBalance.add(line.amount));
+    touched.put(toAccount.getAccountNumber(), toAccount);
+
+    ledger.addAll(entries);
+    return BatchItemResult.success(index, entries);
   }
 
-  @Override
-  public Account getAccount(String accountNumber) throws AccountNotFoundException {
-    return accountRepository.findByAccountNumber(accountNumber)
-        .orElseThrow(() -> new AccountNotFoundException("No account found with number: " + accountNumber));
+  private BatchItemResult applyLineLockFree(int index, BatchLine line, Map<String, Account> accounts,
+      Map<String, Account> touched, List<Transaction> ledger) {
+    Account toAccount = accounts.get(line.toAccountNumber);
+    Account fromAccount = line.fromAccountNumber == null ? null : accounts.get(line.fromAccountNumber);
+    BatchItemResult notFound = checkAccountsFound(index, line, fromAccount, toAccount);
+    if (notFound != null) {
+      return notFound;
+    }
+
+    List<Transaction> entries;
+    if (fromAccount == null) {
+      entries = List.of(new Transaction(toAccount, TransactionType.DEPOSIT, line.amount, "Deposit"));
+    } else {
+      try {
+        atomicBalances.debit(fromAccount, line.minorUnits);
+      } catch (InsufficientFundsException e) {
+        return BatchItemResult.failure(index, BatchItemResult.Status.INSUFFICIENT_FUNDS, e.getMessage());
+      }
+      touched.put(fromAccount.getAccountNumber(), fromAccount);
+      entries = transferLegs(fromAccount, toAccount, line.amount);
+    }
+    atomicBalances.credit(toAccount, line.minorUnits);
+    touched.put(toAccount.getAccountNumber(), toAccount);
+
+    ledger.addAll(entries);
+    return BatchItemResult.success(index, entries);
   }
 
-  // --- Private Helper Methods ---
+  private static BatchItemResult checkAccountsFound(int index, BatchLine line, Account fromAccount,
+      Account toAccount) {
+    if (line.fromAccountNumber != null && fromAccount == null) {
+      return BatchItemResult.failure(index, BatchItemResult.Status.ACCOUNT_NOT_FOUND,
+          "No account found with number: " + line.fromAccountNumber);
+    }
+    if (toAccount == null) {
+      return BatchItemResult.failure(index, BatchItemResult.Status.ACCOUNT_NOT_FOUND,
+          "No account found with number: " + line.toAccountNumber);
+    }
+    return null;
+  }
+
+  /**
+   * Looks up every distinct account of a batch exactly once.
+   */
+  private Map<String, Account> loadAccounts(Set<String> accountNumbers) {
+    Map<String, Account> accounts = new HashMap<>();
+    for (String accountNumber : accountNumbers) {
+      accountRepository.findByAccountNumber(accountNumber)
+          .ifPresent(account -> accounts.put(accountNumber, account));
+    }
+    return accounts;
+  }
+
+  /**
+   * Saves a whole batch as one unit of work: one commit for every account and
+   * ledger entry in it.
+   */
+  private void persistBatch(Map<String, Account> touched, List<Transaction> ledger, Runnable undoBalances) {
+    commit(() -> {
+      if (!touched.isEmpty()) {
+        accountRepository.saveAll(new ArrayList<>(touched.values()));
+      }
+      if (!ledger.isEmpty()) {
+        transactionRepository.saveAll(ledger);
+      }
+      return null;
+    }, undoBalances);
+  }
+
+  /**
+   * Reverses the balance cell changes of every successful item in a lock-free
+   * batch.
+   */
+  private void undoLockFreeBatch(List<BatchLine> lines, BatchItemResult[] results, Map<String, Account> accounts,
+      Map<String, Account> touched) {
+    BalanceRollbackException undoFailed = null;
+    for (int i = 0; i < lines.size(); i++) {
+      if (results[i].isSuccess()) {
+        BatchLine line = lines.get(i);
+        try {
+          undoCredit(accounts.get(line.toAccountNumber), line.minorUnits);
+        } catch (BalanceRollbackException e) {
+          // This item's debit stays too (no money is created); the other items are still undone
+          if (undoFailed == null) {
+            undoFailed = e;
+          } else {
+            undoFailed.addSuppressed(e);
+          }
+          continue;
+        }
+        if (line.fromAccountNumber != null) {
+          atomicBalances.credit(accounts.get(line.fromAccountNumber), line.minorUnits);
+        }
+      }
+    }
+    for (Account account : touched.values()) {
+      atomicBalances.publish(account);
+    }
+    if (undoFailed != null) {
+      throw undoFailed;
+    }
+  }
 
   /**
    * A private helper to validate a transaction amount.
@@ -169,4 +707,21 @@ public class BankingServiceImpl implements BankingService {
     customer.setId(customerId);
     return accountRepository.findAllByCustomer(customer);
   }
+
+  /**
+   * One item of a batch: a transfer, or a deposit when there is no source
+   * account.
+   */
+  private static final class BatchLine {
+    private final String fromAccountNumber;
+    private final String toAccountNumber;
+    private final BigDecimal amount;
+    private long minorUnits; // Only used by the lock-free engine
+
+    private BatchLine(String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
+      this.fromAccountNumber = fromAccountNumber;
+      this.toAccountNumber = toAccountNumber;
+      this.amount = amount;
+    }
+  }
 }
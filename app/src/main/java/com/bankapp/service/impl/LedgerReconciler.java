@@ -0,0 +1,375 @@
+package com.bankapp.service.impl;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.Transaction;
+import com.bankapp.repository.AccountRepository;
+import com.bankapp.repository.TransactionRepository;
+import com.bankapp.service.ledger.ReconciliationCheckpoint;
+import com.bankapp.service.ledger.ReconciliationReport;
+import com.bankapp.service.ledger.ReconciliationReport.BalanceMismatch;
+import com.bankapp.service.ledger.ReconciliationReport.TransferMismatch;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+/**
+ * Checks the ledger against the stored balances and against itself:
+ * <ul>
+ * <li>every account's balance equals the sum of its transactions, and so
+ * does the running total of its newest entry;</li>
+ * <li>every transfer (correlation ID) has exactly one debit leg and one credit
+ * leg, and the two sum to zero.</li>
+ * </ul>
+ * Transfer legs are paired up by scanning the ledger in ID order, in slices
+ * that are scanned in parallel on a fork-join pool. The two legs of a transfer
+ * get adjacent IDs, so a slice only holds the few legs whose other leg it
+ * hasn't reached yet, and memory stays bounded however long the ledger is.
+ * Balances are then checked account by account on the same pool, each under
+ * its account lock.
+ * <p>
+ * A full run sums every account's whole ledger. An incremental run scans only
+ * the entries after a checkpoint's watermark, and checks only the accounts
+ * they touched, against their running totals, so it costs about as much as
+ * the number of entries added since the last run.
+ * <p>
+ * IDs aren't handed out in commit order: each JPA node draws its own block of
+ * IDs, and the mock and file stores number an entry when it is saved but only
+ * show it when its unit of work commits. So an incremental run also scans the
+ * {@link #LOOKBACK_IDS} IDs below the watermark again, skipping the entries the
+ * checkpoint lists as already checked, and picks up those committed late. (An
+ * entry committed later still, further below the watermark, is only seen by
+ * the next full run.)
+ */
+final class LedgerReconciler {
+
+  // Mismatches of each kind listed in a report (all of them are counted)
+  static final int MAX_REPORTED = 1_000;
+
+  // Entries fetched per page
+  private static final int PAGE_SIZE = 1_000;
+
+  // A slice spanning this many IDs or fewer is scanned by one task
+  private static final long IDS_PER_TASK = 50_000;
+
+  // A task with this many accounts or fewer checks them itself instead of splitting
+  private static final int ACCOUNTS_PER_TASK = 32;
+
+  // IDs below the watermark scanned again by an incremental run: 200 JPA
+  // allocation blocks (of 50), far more than the writers in flight at once
+  static final long LOOKBACK_IDS = 10_000;
+
+  private final AccountRepository accountRepository;
+  private final TransactionRepository transactionRepository;
+  private final AccountLocks accountLocks;
+  private final AtomicBalances atomicBalances; // null unless the lock-free engine is used
+
+  LedgerReconciler(AccountRepository accountRepository, TransactionRepository transactionRepository,
+      AccountLocks accountLocks, AtomicBalances atomicBalances) {
+    this.accountRepository = accountRepository;
+    this.transactionRepository = transactionRepository;
+    this.accountLocks = accountLocks;
+    this.atomicBalances = atomicBalances;
+  }
+
+  /**
+   * @param since       The checkpoint of the previous run, or null for a full run.
+   * @param parallelism The number of worker threads.
+   * @return The mismatches found, and the checkpoint for the next run.
+   */
+  ReconciliationReport reconcile(ReconciliationCheckpoint since, int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be positive");
+    }
+    long start = System.nanoTime();
+    boolean incremental = since != null;
+    long afterId = incremental ? Math.max(0L, since.getLastTransactionId() - LOOKBACK_IDS) : 0L;
+    long upToId = Math.max(incremental ? since.getLastTransactionId() : 0L, transactionRepository.findMaxId());
+    long recentAfterId = upToId - LOOKBACK_IDS;
+
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      // 1. Pair up the transfer legs of the entries up to the new watermark,
+      // including those committed late just below the old one
+      Pairing pairing = pool.invoke(new PairingTask(afterId, upToId, since, recentAfterId));
+
+      // 2. Legs carried over from the last run may pair with new ones. The legs
+      // still unpaired are reported, except those first seen in this incremental
+      // run: they get until the next run, in case their other leg isn't committed yet.
+      Set<Long> carried = new HashSet<>();
+      if (incremental) {
+        for (Transaction leg : since.getOpenLegs()) {
+          carried.add(leg.getId());
+          pairing.offer(leg);
+        }
+      }
+      for (Transaction leg : pairing.open.values()) {
+        if (!incremental || carried.contains(leg.getId())) {
+          pairing.transferMismatches.add(new TransferMismatch(leg.getCorrelationId(),
+              TransferMismatch.Reason.UNPAIRED, List.of(leg.getId())));
+        }
+      }
+
+      // 3. Check the balances of every account, or of those the new entries touched
+      List<String> accountNumbers = incremental
+          ? new ArrayList<>(pairing.touchedAccounts)
+          : accountRepository.findAllAccountNumbers();
+      Capped<BalanceMismatch> balanceMismatches =
+          pool.invoke(new BalanceTask(accountNumbers, 0, accountNumbers.size(), incremental));
+
+      // 4. Remember what was checked just below the new watermark
+      if (incremental) {
+        for (long id : since.getRecentlyCheckedIds()) {
+          if (id > recentAfterId) {
+            pairing.recentIds.add(id);
+          }
+        }
+      }
+      long[] recentlyCheckedIds = pairing.recentIds.stream().mapToLong(Long::longValue).toArray();
+
+      return new ReconciliationReport(incremental, accountNumbers.size(), pairing.entries,
+          balanceMismatches.items, balanceMismatches.count,
+          pairing.transferMismatches.items, pairing.transferMismatches.count,
+          new ReconciliationCheckpoint(upToId, new ArrayList<>(pairing.open.values()), recentlyCheckedIds),
+          Duration.ofNanos(System.nanoTime() - start));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  // --- Private Helper Methods ---
+
+  /**
+   * Scans the entries with IDs in (afterId, upToId], page by page.
+   */
+  private void scan(long afterId, long upToId, Pairing pairing) {
+    long after = afterId;
+    while (true) {
+      List<Transaction> page = transactionRepository.findByIdRange(after, upToId, PAGE_SIZE);
+      for (Transaction entry : page) {
+        pairing.add(entry);
+      }
+      if (page.size() < PAGE_SIZE) {
+        return;
+      }
+      after = page.get(page.size() - 1).getId();
+    }
+  }
+
+  /**
+   * Compares one account's balance with its ledger.
+   *
+   * @param sumLedger Whether to sum the whole ledger, or trust the running
+   *                  total of the newest entry.
+   */
+  private void check(String accountNumber, boolean sumLedger, Capped<BalanceMismatch> mismatches) {
+    try (AccountLocks.Held lock = accountLocks.acquire(accountNumber)) {
+      Account account = accountRepository.findByAccountNumber(accountNumber).orElse(null);
+      if (account == null) {
+        return;
+      }
+
+      BigDecimal balance = atomicBalances == null
+          ? account.getBalance()
+          : AtomicBalances.toBigDecimal(atomicBalances.balanceOf(account));
+      BigDecimal runningTotal = transactionRepository.runningTotal(account);
+      BigDecimal ledgerTotal = sumLedger ? sum(account) : runningTotal;
+
+      if (balance == null || balance.compareTo(ledgerTotal) != 0 || runningTotal.compareTo(ledgerTotal) != 0) {
+        mismatches.add(new BalanceMismatch(accountNumber, balance, ledgerTotal, runningTotal));
+      }
+    }
+  }
+
+  private BigDecimal sum(Account account) {
+    BigDecimal total = BigDecimal.ZERO;
+    try (Stream<Transaction> history = transactionRepository.streamByAccount(account, PAGE_SIZE)) {
+      Iterator<Transaction> iterator = history.iterator();
+      while (iterator.hasNext()) {
+        total = total.add(iterator.next().getAmount());
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Pairs up the transfer legs of an ID slice, splitting it while it is large.
+   */
+  private final class PairingTask extends RecursiveTask<Pairing> {
+    private final long afterId;
+    private final long upToId;
+    private final ReconciliationCheckpoint since; // null for a full run
+    private final long recentAfterId;
+
+    private PairingTask(long afterId, long upToId, ReconciliationCheckpoint since, long recentAfterId) {
+      this.afterId = afterId;
+      this.upToId = upToId;
+      this.since = since;
+      this.recentAfterId = recentAfterId;
+    }
+
+    @Override
+    protected Pairing compute() {
+      if (upToId - afterId <= IDS_PER_TASK) {
+        Pairing pairing = new Pairing(since, recentAfterId);
+        scan(afterId, upToId, pairing);
+        return pairing;
+      }
+
+      // Leave the older half to be stolen and scan the newer one
+      long middle = afterId + (upToId - afterId) / 2;
+      PairingTask older = new PairingTask(afterId, middle, since, recentAfterId);
+      older.fork();
+      Pairing newer = new PairingTask(middle, upToId, since, recentAfterId).compute();
+      return older.join().merge(newer);
+    }
+  }
+
+  /**
+   * Checks the balances of a slice of the account list, splitting it while it
+   * is large.
+   */
+  private final class BalanceTask extends RecursiveTask<Capped<BalanceMismatch>> {
+    private final List<String> accountNumbers;
+    private final int from;
+    private final int to;
+    private final boolean incremental;
+
+    private BalanceTask(List<String> accountNumbers, int from, int to, boolean incremental) {
+      this.accountNumbers = accountNumbers;
+      this.from = from;
+      this.to = to;
+      this.incremental = incremental;
+    }
+
+    @Override
+    protected Capped<BalanceMismatch> compute() {
+      if (to - from <= ACCOUNTS_PER_TASK) {
+        Capped<BalanceMismatch> mismatches = new Capped<>();
+        for (int i = from; i < to; i++) {
+          check(accountNumbers.get(i), !incremental, mismatches);
+        }
+        return mismatches;
+      }
+
+      int middle = (from + to) >>> 1;
+      BalanceTask left = new BalanceTask(accountNumbers, from, middle, incremental);
+      left.fork();
+      Capped<BalanceMismatch> right = new BalanceTask(accountNumbers, middle, to, incremental).compute();
+      return right.addAll(left.join());
+    }
+  }
+
+  /**
+   * The state of one slice's scan (only ever touched by one thread at a time).
+   */
+  private static final class Pairing {
+    // Legs whose other leg hasn't been seen yet, by correlation ID
+    private final Map<UUID, Transaction> open = new HashMap<>();
+    private final Capped<TransferMismatch> transferMismatches = new Capped<>();
+    private final Set<String> touchedAccounts; // null unless tracked
+    // Entries checked by the last run (null for a full run), which are skipped
+    private final ReconciliationCheckpoint since;
+    // The IDs checked above this one, for the next checkpoint
+    private final long recentAfterId;
+    private final List<Long> recentIds = new ArrayList<>();
+    private long entries;
+
+    private Pairing(ReconciliationCheckpoint since, long recentAfterId) {
+      this.since = since;
+      this.recentAfterId = recentAfterId;
+      this.touchedAccounts = since != null ? new HashSet<>() : null;
+    }
+
+    private void add(Transaction entry) {
+      if (since != null && since.isRecentlyChecked(entry.getId())) {
+        return;
+      }
+      entries++;
+      if (entry.getId() > recentAfterId) {
+        recentIds.add(entry.getId());
+      }
+      if (touchedAccounts != null) {
+        touchedAccounts.add(entry.getAccount().getAccountNumber());
+      }
+      if (entry.getCorrelationId() != null) {
+        offer(entry);
+      }
+    }
+
+    /**
+     * Pairs a leg with the open leg of the same transfer, or leaves it open.
+     * A third leg opens the transfer again, and is reported if nothing pairs
+     * with it.
+     */
+    private void offer(Transaction leg) {
+      Transaction other = open.remove(leg.getCorrelationId());
+      if (other == null) {
+        open.put(leg.getCorrelationId(), leg);
+        return;
+      }
+
+      TransferMismatch.Reason reason = null;
+      if (other.getAmount().signum() == leg.getAmount().signum()) {
+        reason = TransferMismatch.Reason.SAME_SIGN;
+      } else if (other.getAmount().add(leg.getAmount()).signum() != 0) {
+        reason = TransferMismatch.Reason.AMOUNTS_DO_NOT_CANCEL;
+      }
+      if (reason != null) {
+        transferMismatches.add(new TransferMismatch(leg.getCorrelationId(), reason,
+            List.of(other.getId(), leg.getId())));
+      }
+    }
+
+    /**
+     * Folds in the scan of the slice that follows this one.
+     */
+    private Pairing merge(Pairing newer) {
+      entries += newer.entries;
+      recentIds.addAll(newer.recentIds);
+      transferMismatches.addAll(newer.transferMismatches);
+      if (touchedAccounts != null) {
+        touchedAccounts.addAll(newer.touchedAccounts);
+      }
+      for (Transaction leg : newer.open.values()) {
+        offer(leg);
+      }
+      return this;
+    }
+  }
+
+  /**
+   * The first {@link #MAX_REPORTED} items of a kind, and how many there were.
+   */
+  private static final class Capped<T> {
+    private final List<T> items = new ArrayList<>();
+    private long count;
+
+    private void add(T item) {
+      if (items.size() < MAX_REPORTED) {
+        items.add(item);
+      }
+      count++;
+    }
+
+    private Capped<T> addAll(Capped<T> other) {
+      for (T item : other.items) {
+        if (items.size() < MAX_REPORTED) {
+          items.add(item);
+        }
+      }
+      count += other.count;
+      return this;
+    }
+  }
+}
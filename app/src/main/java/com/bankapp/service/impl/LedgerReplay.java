@@ -0,0 +1,251 @@
+package com.bankapp.service.impl;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.Transaction;
+import com.bankapp.model.TransactionType;
+import com.bankapp.repository.AccountRepository;
+import com.bankapp.repository.TransactionRepository;
+import com.bankapp.service.exception.InvalidAmountException;
+import com.bankapp.service.ledger.ReplayReport;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+/**
+ * Rebuilds account balances from the ledger. The ledger is the source of
+ * truth and each balance is a projection of it: the sum of the account's
+ * transaction amounts.
+ * <p>
+ * A balance can predate the ledger (an account migrated with money in it, or
+ * one opened before transactions were recorded), so the first replay of an
+ * account doesn't overwrite anything: it records whatever the ledger doesn't
+ * explain as an "Opening balance" entry, dated before the account's first
+ * transaction. From then on the ledger explains the whole balance, and a later
+ * replay that finds a difference corrects the balance to the ledger. Either
+ * way {@code balanceAsOf} gives the same answers as before.
+ * <p>
+ * Accounts don't depend on each other, so the replay is partitioned by
+ * account across a fork-join pool: the list of accounts is split in halves
+ * until the pieces are small, and idle workers steal pieces from busy ones, so
+ * a few accounts with very long histories don't hold up the rest. Each history
+ * is read page by page, so memory use doesn't depend on its length.
+ * <p>
+ * Every account is replayed under its account lock, so a replay can run while
+ * the service is in use. (The lock-free engine doesn't take those locks: with
+ * it, replay only while no operations are in flight, e.g. at startup.)
+ */
+final class LedgerReplay {
+
+  // History entries fetched per page
+  static final int PAGE_SIZE = 1_000;
+
+  // The description of the entry that records a balance from before the ledger
+  static final String OPENING_BALANCE = "Opening balance";
+
+  // A task with this many accounts or fewer replays them itself instead of splitting
+  private static final int ACCOUNTS_PER_TASK = 32;
+
+  private final AccountRepository accountRepository;
+  private final TransactionRepository transactionRepository;
+  private final AccountLocks accountLocks;
+  private final AtomicBalances atomicBalances; // null unless the lock-free engine is used
+
+  LedgerReplay(AccountRepository accountRepository, TransactionRepository transactionRepository,
+      AccountLocks accountLocks, AtomicBalances atomicBalances) {
+    this.accountRepository = accountRepository;
+    this.transactionRepository = transactionRepository;
+    this.accountLocks = accountLocks;
+    this.atomicBalances = atomicBalances;
+  }
+
+  /**
+   * Replays every account: records the opening balance of each account the
+   * ledger doesn't have one for yet, and corrects every other balance that
+   * doesn't match its ledger.
+   *
+   * @param parallelism The number of worker threads.
+   * @return What was replayed and corrected.
+   */
+  ReplayReport replayAll(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be positive");
+    }
+    long start = System.nanoTime();
+
+    // 1. Only the account numbers are listed up front; each worker loads its own accounts
+    List<String> accountNumbers = accountRepository.findAllAccountNumbers();
+
+    // 2. A pool of our own: the workers block on the repositories, which must not stall the common pool
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      Tally tally = pool.invoke(new ReplayTask(accountNumbers, 0, accountNumbers.size()));
+      return new ReplayReport(tally.accounts, tally.entries, tally.openings, tally.corrected,
+          Duration.ofNanos(System.nanoTime() - start));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  // --- Private Helper Methods ---
+
+  /**
+   * Sums one account's ledger, then records its opening balance or corrects
+   * its balance.
+   */
+  private void replay(String accountNumber, Tally tally) {
+    try (AccountLocks.Held lock = accountLocks.acquire(accountNumber)) {
+      Account account = accountRepository.findByAccountNumber(accountNumber).orElse(null);
+      if (account == null) {
+        return;
+      }
+
+      BigDecimal total = BigDecimal.ZERO;
+      long entries = 0;
+      boolean hasOpeningBalance = false;
+      LocalDateTime earliest = null;
+      try (Stream<Transaction> history = transactionRepository.streamByAccount(account, PAGE_SIZE)) {
+        Iterator<Transaction> iterator = history.iterator();
+        while (iterator.hasNext()) {
+          Transaction entry = iterator.next();
+          total = total.add(entry.getAmount());
+          entries++;
+          hasOpeningBalance |= OPENING_BALANCE.equals(entry.getDescription());
+          earliest = entry.getTimestamp(); // Newest first, so the last one is the earliest
+        }
+      }
+
+      tally.accounts++;
+      tally.entries += entries;
+      if (!hasOpeningBalance) {
+        // 1. Whatever the ledger doesn't explain yet predates it: record it, don't wipe it
+        recordOpeningBalance(account, total, earliest);
+        tally.openings++;
+      } else if (correct(account, total)) {
+        // 2. The ledger explains the whole balance, so a difference is drift
+        tally.corrected++;
+      }
+    }
+  }
+
+  /**
+   * Records the part of the balance the ledger doesn't explain (possibly zero)
+   * as an opening-balance entry, dated before the account's history so that
+   * every later running total includes it. The balance itself is left alone.
+   * Must be called while holding the account's lock.
+   */
+  private void recordOpeningBalance(Account account, BigDecimal ledgerTotal, LocalDateTime earliestEntry) {
+    BigDecimal balance = atomicBalances == null
+        ? account.getBalance()
+        : AtomicBalances.toBigDecimal(atomicBalances.balanceOf(account));
+    BigDecimal amount = (balance == null ? BigDecimal.ZERO : balance).subtract(ledgerTotal);
+
+    Transaction opening = new Transaction(account,
+        amount.signum() < 0 ? TransactionType.WITHDRAWAL : TransactionType.DEPOSIT, amount, OPENING_BALANCE);
+    LocalDateTime opened = account.getOpenedDate() == null ? null : account.getOpenedDate().atStartOfDay();
+    if (earliestEntry == null) {
+      opening.setTimestamp(opened != null ? opened : LocalDateTime.now());
+    } else {
+      opening.setTimestamp(opened != null && opened.isBefore(earliestEntry) ? opened : earliestEntry.minusSeconds(1));
+    }
+    transactionRepository.save(opening);
+  }
+
+  /**
+   * Overwrites the account's balance with its ledger total, if they differ.
+   * Must be called while holding the account's lock.
+   *
+   * @return Whether the balance was changed.
+   */
+  private boolean correct(Account account, BigDecimal ledgerTotal) {
+    if (atomicBalances == null) {
+      BigDecimal previous = account.getBalance();
+      if (previous != null && previous.compareTo(ledgerTotal) == 0) {
+        return false;
+      }
+      account.setBalance(ledgerTotal);
+      try {
+        accountRepository.save(account);
+      } catch (RuntimeException e) {
+        account.setBalance(previous);
+        throw e;
+      }
+      return true;
+    }
+
+    long minorUnits;
+    try {
+      minorUnits = AtomicBalances.toMinorUnits(ledgerTotal);
+    } catch (InvalidAmountException e) {
+      throw new IllegalStateException("Ledger of account " + account.getAccountNumber() + " is not in minor units", e);
+    }
+    long previous = atomicBalances.balanceOf(account);
+    if (previous == minorUnits) {
+      return false;
+    }
+    atomicBalances.reset(account, minorUnits);
+    try {
+      accountRepository.save(account);
+    } catch (RuntimeException e) {
+      atomicBalances.reset(account, previous);
+      throw e;
+    }
+    return true;
+  }
+
+  /**
+   * Replays a slice of the account list, splitting it while it is large.
+   */
+  private final class ReplayTask extends RecursiveTask<Tally> {
+    private final List<String> accountNumbers;
+    private final int from;
+    private final int to;
+
+    private ReplayTask(List<String> accountNumbers, int from, int to) {
+      this.accountNumbers = accountNumbers;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Tally compute() {
+      if (to - from <= ACCOUNTS_PER_TASK) {
+        Tally tally = new Tally();
+        for (int i = from; i < to; i++) {
+          replay(accountNumbers.get(i), tally);
+        }
+        return tally;
+      }
+
+      // Leave one half to be stolen and work on the other
+      int middle = (from + to) >>> 1;
+      ReplayTask left = new ReplayTask(accountNumbers, from, middle);
+      left.fork();
+      Tally right = new ReplayTask(accountNumbers, middle, to).compute();
+      return right.add(left.join());
+    }
+  }
+
+  /**
+   * Running counts of one task (only ever touched by one thread at a time).
+   */
+  private static final class Tally {
+    private long accounts;
+    private long entries;
+    private long openings;
+    private long corrected;
+
+    private Tally add(Tally other) {
+      accounts += other.accounts;
+      entries += other.entries;
+      openings += other.openings;
+      corrected += other.corrected;
+      return this;
+    }
+  }
+}
@@ -0,0 +1,195 @@
+package com.bankapp.service.impl;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token-bucket rate limiting for login attempts, keyed by any string (a
+ * username, a client id).
+ * <p>
+ * Each key gets a bucket of {@code burst} tokens that refills at one token per
+ * {@code refillInterval}; every attempt takes a token, and an attempt that
+ * finds the bucket empty is refused.
+ * <p>
+ * The buckets live in a fixed-size, 4-way set-associative table of primitive
+ * arrays: a key hashes to one set of 4 slots, and a new key takes the slot
+ * that was used least recently. Memory is fixed at construction (about 20
+ * bytes per slot, see {@link #getSizeInBytes()}) however many distinct keys
+ * arrive. A bucket that has been idle long enough to refill completely is the
+ * same as no bucket, so time does the eviction. A drained bucket is never
+ * evicted: if every slot of a key's set is still refilling, the new key is
+ * refused until the least recently used one has refilled (and that is
+ * counted), so cycling through other keys can't buy a drained key a fresh
+ * bucket. Keys are stored as 64-bit hashes, so the table holds no strings;
+ * the hash is seeded with a random value per process, so nobody outside can
+ * pick keys that land in the same set as someone else's.
+ */
+public class LoginRateLimiter {
+
+  private static final int WAYS = 4;
+  private static final int LOCK_STRIPES = 256;
+
+  private static final long SEED = new SecureRandom().nextLong();
+
+  private final int burst;
+  private final long refillNanos;
+  private final int sets;
+  private final long origin = System.nanoTime();
+
+  // Slot i of set s is at index s * WAYS + i. A key of 0 marks an empty slot.
+  private final long[] keys;
+  private final long[] updatedAt;
+  private final float[] tokens;
+  private final Object[] locks = new Object[LOCK_STRIPES];
+
+  private final LongAdder refused = new LongAdder();
+  private final LongAdder setsFull = new LongAdder();
+
+  /**
+   * @param burst          How many attempts a key may make in a row.
+   * @param refillInterval How long it takes to earn back one attempt.
+   * @param maxKeys        How many keys to track at once; this fixes the memory
+   *                       used.
+   */
+  public LoginRateLimiter(int burst, Duration refillInterval, int maxKeys) {
+    if (burst < 1) {
+      throw new IllegalArgumentException("Burst must be positive");
+    }
+    if (refillInterval.isNegative() || refillInterval.isZero()) {
+      throw new IllegalArgumentException("Refill interval must be positive");
+    }
+    if (maxKeys < WAYS) {
+      throw new IllegalArgumentException("Must track at least " + WAYS + " keys");
+    }
+    this.burst = burst;
+    this.refillNanos = refillInterval.toNanos();
+    this.sets = maxKeys / WAYS;
+    this.keys = new long[sets * WAYS];
+    this.updatedAt = new long[sets * WAYS];
+    this.tokens = new float[sets * WAYS];
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      locks[i] = new Object();
+    }
+  }
+
+  /**
+   * Takes one attempt from a key's bucket.
+   *
+   * @return {@link Duration#ZERO} if the attempt is allowed, otherwise how long
+   *         until it would be.
+   */
+  public Duration tryAcquire(String key) {
+    long hash = hash(key);
+    int set = (int) Math.floorMod(hash, (long) sets);
+    long now = System.nanoTime() - origin;
+
+    synchronized (locks[set & (LOCK_STRIPES - 1)]) {
+      int slot = findOrClaim(set, hash, now);
+      if (slot < 0) {
+        // Every slot is still refilling: wait until the least recently used one is free
+        setsFull.increment();
+        refused.increment();
+        return Duration.ofNanos(untilRefilled(leastRecentlyUsed(set), now));
+      }
+
+      // Refill for the time since the bucket was last touched
+      float available = Math.min(burst, tokens[slot] + (float) ((double) (now - updatedAt[slot]) / refillNanos));
+      updatedAt[slot] = now;
+      if (available >= 1.0f) {
+        tokens[slot] = available - 1.0f;
+        return Duration.ZERO;
+      }
+      tokens[slot] = available;
+      refused.increment();
+      return Duration.ofNanos((long) Math.ceil((1.0f - available) * refillNanos));
+    }
+  }
+
+  /**
+   * @return Attempts refused since the limiter was created.
+   */
+  public long getRefusedCount() {
+    return refused.sum();
+  }
+
+  /**
+   * @return Attempts refused because every slot of the key's set held a bucket
+   *         that was still refilling (also counted as refused). If this keeps
+   *         growing without an attack going on, raise {@code maxKeys}.
+   */
+  public long getSetFullCount() {
+    return setsFull.sum();
+  }
+
+  /**
+   * @return The memory taken by the table, in bytes.
+   */
+  public long getSizeInBytes() {
+    return (long) keys.length * (Long.BYTES + Long.BYTES + Float.BYTES);
+  }
+
+  // --- Private Helper Methods ---
+
+  /**
+   * Finds the key's slot in its set, or gives it an empty or fully refilled
+   * one. Must be called while holding the set's lock.
+   *
+   * @return The slot, or -1 if every slot holds a bucket still refilling.
+   */
+  private int findOrClaim(int set, long hash, long now) {
+    int first = set * WAYS;
+    int free = -1;
+    for (int slot = first; slot < first + WAYS; slot++) {
+      if (keys[slot] == hash) {
+        return slot;
+      }
+      if (free < 0 && (keys[slot] == 0L || untilRefilled(slot, now) == 0L)) {
+        free = slot; // An idle, full bucket is the same as none
+      }
+    }
+
+    if (free >= 0) {
+      keys[free] = hash;
+      tokens[free] = burst;
+      updatedAt[free] = now;
+    }
+    return free;
+  }
+
+  private int leastRecentlyUsed(int set) {
+    int first = set * WAYS;
+    int oldest = first;
+    for (int slot = first + 1; slot < first + WAYS; slot++) {
+      if (updatedAt[slot] < updatedAt[oldest]) {
+        oldest = slot;
+      }
+    }
+    return oldest;
+  }
+
+  /**
+   * @return How long until the slot's bucket is full again, in nanoseconds (0 if it is).
+   */
+  private long untilRefilled(int slot, long now) {
+    double missing = burst - tokens[slot] - (double) (now - updatedAt[slot]) / refillNanos;
+    return missing <= 0 ? 0L : (long) Math.ceil(missing * refillNanos);
+  }
+
+  /**
+   * A 64-bit hash of the key: FNV-1a from a per-process random seed, finished
+   * with the MurmurHash3 mix. Never 0, which marks an empty slot.
+   */
+  private static long hash(String key) {
+    long h = 0xcbf29ce484222325L ^ SEED;
+    for (int i = 0; i < key.length(); i++) {
+      h = (h ^ key.charAt(i)) * 0x100000001b3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h == 0L ? 1L : h;
+  }
+}
@@ -0,0 +1,204 @@
+package com.bankapp.service.impl;
+
+import com.bankapp.service.exception.ServiceBusyException;
+import com.bankapp.service.metrics.LatencyHistogram;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing on a small, bounded pool of worker threads.
+ * <p>
+ * BCrypt is deliberately expensive, so a burst of logins hashed on the
+ * callers' threads can take every core. Here at most {@code threads} hashes
+ * run at once, and at most {@code queueCapacity} more wait their turn; beyond
+ * that, requests fail straight away with a {@link ServiceBusyException}
+ * instead of piling up.
+ * <p>
+ * Two latencies are recorded for every hash: the time spent in the encoder
+ * (what the cost factor controls) and the time from submission to result (what
+ * the user waits for, queueing included). Tune the cost factor so the second
+ * stays within the login latency target at the expected load.
+ */
+public class PasswordHasher {
+
+  /**
+   * BCrypt's default cost factor (2^10 rounds).
+   */
+  public static final int DEFAULT_COST = 10;
+
+  private final PasswordEncoder encoder;
+  private final ThreadPoolExecutor executor;
+  private final int queueCapacity;
+
+  private final LatencyHistogram hashLatency = new LatencyHistogram();
+  private final LatencyHistogram totalLatency = new LatencyHistogram();
+  private final LongAdder rejected = new LongAdder();
+
+  /**
+   * A hasher with the default cost factor, using half the cores.
+   */
+  public PasswordHasher() {
+    this(DEFAULT_COST, defaultThreads(), defaultThreads() * 32);
+  }
+
+  /**
+   * @param cost          The BCrypt cost factor (log2 of the rounds), 4 to 31.
+   * @param threads       The number of hashing threads.
+   * @param queueCapacity How many hashes may wait for a thread before new ones
+   *                      are rejected.
+   */
+  public PasswordHasher(int cost, int threads, int queueCapacity) {
+    this(PasswordPolicy.of(PasswordPolicy.BCRYPT, cost), threads, queueCapacity);
+  }
+
+  /**
+   * @param encoder       The encoder that does the hashing.
+   * @param threads       The number of hashing threads.
+   * @param queueCapacity How many hashes may wait for a thread before new ones
+   *                      are rejected.
+   */
+  public PasswordHasher(PasswordEncoder encoder, int threads, int queueCapacity) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Thread count must be positive");
+    }
+    if (queueCapacity < 1) {
+      throw new IllegalArgumentException("Queue capacity must be positive");
+    }
+    this.encoder = encoder;
+    this.queueCapacity = queueCapacity;
+
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+          Thread thread = new Thread(runnable, "password-hasher-" + threadNumber.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  /**
+   * Hashes a password.
+   *
+   * @return The hash. Fails with a {@link ServiceBusyException} if the queue
+   *         is full.
+   */
+  public CompletableFuture<String> encode(CharSequence rawPassword) {
+    return submit(() -> encoder.encode(rawPassword));
+  }
+
+  /**
+   * Checks a password against a stored hash.
+   *
+   * @return Whether they match. Fails with a {@link ServiceBusyException} if
+   *         the queue is full.
+   */
+  public CompletableFuture<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+    return submit(() -> encoder.matches(rawPassword, encodedPassword));
+  }
+
+  /**
+   * Hashes a password, but only if the pool has room to spare: background
+   * work such as rehashing must never be the reason a sign-in is turned away.
+   *
+   * @return The hash. Fails with a {@link ServiceBusyException} if the queue
+   *         is more than half full.
+   */
+  public CompletableFuture<String> encodeIfIdle(CharSequence rawPassword) {
+    if (getQueueDepth() * 2 > queueCapacity) {
+      return CompletableFuture.failedFuture(new ServiceBusyException("Hashing pool is busy"));
+    }
+    return encode(rawPassword);
+  }
+
+  /**
+   * @return Whether a stored hash should be rewritten with the current encoder
+   *         (see {@link PasswordEncoder#upgradeEncoding(String)}).
+   */
+  public boolean needsUpgrade(String encodedPassword) {
+    return encoder.upgradeEncoding(encodedPassword);
+  }
+
+  /**
+   * @return The encoder this hasher runs.
+   */
+  public PasswordEncoder getEncoder() {
+    return encoder;
+  }
+
+  /**
+   * @return Time spent in the encoder, per hash.
+   */
+  public LatencyHistogram getHashLatency() {
+    return hashLatency;
+  }
+
+  /**
+   * @return Time from submission to result, per hash (queueing included).
+   */
+  public LatencyHistogram getTotalLatency() {
+    return totalLatency;
+  }
+
+  /**
+   * @return The number of hashes waiting for a thread.
+   */
+  public int getQueueDepth() {
+    return executor.getQueue().size();
+  }
+
+  public int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  /**
+   * @return The number of requests rejected because the queue was full.
+   */
+  public long getRejectedCount() {
+    return rejected.sum();
+  }
+
+  /**
+   * Stops the worker threads once the queued hashes are done.
+   */
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  // --- Private Helper Methods ---
+
+  private <T> CompletableFuture<T> submit(Supplier<T> hashing) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    long submitted = System.nanoTime();
+    try {
+      executor.execute(() -> {
+        long started = System.nanoTime();
+        try {
+          T value = hashing.get();
+          long finished = System.nanoTime();
+          hashLatency.record(finished - started);
+          totalLatency.record(finished - submitted);
+          result.complete(value);
+        } catch (RuntimeException | Error e) {
+          result.completeExceptionally(e);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      result.completeExceptionally(new ServiceBusyException("Too many sign-in requests right now. Please try again.", e));
+    }
+    return result;
+  }
+
+  private static int defaultThreads() {
+    // Leave the other half of the cores to the UI and the banking operations
+    return Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+  }
+}
@@ -0,0 +1,135 @@
+package com.bankapp.service.impl;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The password-hashing policy: which scheme new hashes use, and which older
+ * schemes can still be verified.
+ * <p>
+ * The scheme of a stored hash is read from the hash itself. BCrypt hashes are
+ * stored as they always have been ({@code $2a$10$...}); hashes from any other
+ * scheme carry their id in front ({@code {pbkdf2}...}). A hash counts as
+ * legacy when its scheme is not the current one or, for BCrypt, when its cost
+ * differs from the current cost (in either direction, so the cost can be
+ * tuned down as well as up). Legacy hashes keep working and are rewritten at
+ * the user's next successful login.
+ */
+public class PasswordPolicy implements PasswordEncoder {
+
+  public static final String BCRYPT = "bcrypt";
+  public static final String PBKDF2 = "pbkdf2";
+
+  private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
+  private final String currentScheme;
+  private final int bcryptCost;
+  private final Map<String, PasswordEncoder> encoders;
+
+  /**
+   * @param currentScheme The scheme new hashes use (a key of {@code encoders}).
+   * @param bcryptCost    The current BCrypt cost factor.
+   * @param encoders      The encoders of every scheme that can be verified, by
+   *                      id.
+   */
+  public PasswordPolicy(String currentScheme, int bcryptCost, Map<String, PasswordEncoder> encoders) {
+    if (!encoders.containsKey(currentScheme)) {
+      throw new IllegalArgumentException("No encoder for the current scheme: " + currentScheme);
+    }
+    this.currentScheme = currentScheme;
+    this.bcryptCost = bcryptCost;
+    this.encoders = Collections.unmodifiableMap(new HashMap<>(encoders));
+  }
+
+  /**
+   * The standard policy: every built-in scheme can be verified, new hashes use
+   * {@code currentScheme}.
+   *
+   * @param currentScheme {@link #BCRYPT} or {@link #PBKDF2}.
+   * @param bcryptCost    The BCrypt cost factor (log2 of the rounds), 4 to 31.
+   */
+  public static PasswordPolicy of(String currentScheme, int bcryptCost) {
+    Map<String, PasswordEncoder> encoders = new HashMap<>();
+    encoders.put(BCRYPT, new BCryptPasswordEncoder(bcryptCost));
+    encoders.put(PBKDF2, Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+    return new PasswordPolicy(currentScheme, bcryptCost, encoders);
+  }
+
+  /**
+   * @return The scheme new hashes use.
+   */
+  public String getCurrentScheme() {
+    return currentScheme;
+  }
+
+  /**
+   * @param encodedPassword A stored hash.
+   * @return The scheme id of the hash, or {@code null} if it is not recognized.
+   */
+  public String schemeOf(String encodedPassword) {
+    if (encodedPassword == null) {
+      return null;
+    }
+    if (encodedPassword.startsWith("{")) {
+      int end = encodedPassword.indexOf('}');
+      return end > 0 ? encodedPassword.substring(1, end) : null;
+    }
+    return BCRYPT_HASH.matcher(encodedPassword).find() ? BCRYPT : null;
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    String hash = encoders.get(currentScheme).encode(rawPassword);
+    return BCRYPT.equals(currentScheme) ? hash : "{" + currentScheme + "}" + hash;
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    String scheme = schemeOf(encodedPassword);
+    PasswordEncoder encoder = scheme == null ? null : encoders.get(scheme);
+    if (encoder == null) {
+      return false; // Unknown or corrupt hash: no password matches it
+    }
+    return encoder.matches(rawPassword, stripId(encodedPassword));
+  }
+
+  /**
+   * @return Whether the hash is in a scheme this policy can verify (e.g. a
+   *         pre-hashed password from another system).
+   */
+  public boolean canVerify(String encodedPassword) {
+    String scheme = schemeOf(encodedPassword);
+    return scheme != null && encoders.containsKey(scheme);
+  }
+
+  /**
+   * @return Whether the hash is a legacy hash that should be rewritten with the
+   *         current policy.
+   */
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    String scheme = schemeOf(encodedPassword);
+    if (!currentScheme.equals(scheme)) {
+      return true;
+    }
+    if (BCRYPT.equals(scheme)) {
+      Matcher matcher = BCRYPT_HASH.matcher(stripId(encodedPassword));
+      return !matcher.find() || Integer.parseInt(matcher.group(1)) != bcryptCost;
+    }
+    return encoders.get(scheme).upgradeEncoding(stripId(encodedPassword));
+  }
+
+  // --- Private Helper Methods ---
+
+  private static String stripId(String encodedPassword) {
+    return encodedPassword.startsWith("{") ? encodedPassword.substring(encodedPassword.indexOf('}') + 1)
+        : encodedPassword;
+  }
+}
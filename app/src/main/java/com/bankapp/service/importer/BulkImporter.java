@@ -0,0 +1,702 @@
+package com.bankapp.service.importer;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.AccountType;
+import com.bankapp.model.Customer;
+import com.bankapp.model.Transaction;
+import com.bankapp.model.TransactionType;
+import com.bankapp.repository.AccountRepository;
+import com.bankapp.repository.CustomerRepository;
+import com.bankapp.repository.TransactionRepository;
+import com.bankapp.repository.UnitOfWork;
+import com.bankapp.service.impl.PasswordPolicy;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Imports customers, accounts and historical transactions from CSV files, e.g.
+ * to onboard a migrated portfolio.
+ * <p>
+ * Each file is memory-mapped and split into chunks that are parsed and
+ * validated in parallel. The valid rows are handed over in batches to the
+ * calling thread, which writes each batch as one unit of work. The queue
+ * between the two is bounded, so parsing can't run far ahead of writing and
+ * memory use doesn't grow with the file.
+ * <p>
+ * Unlike registering customers one by one, passwords come in already hashed
+ * (so there is no BCrypt work), and uniqueness is checked with one indexed
+ * lookup per row. Keys that must be unique within the file (usernames,
+ * emails, account numbers) are collected first, in a quick parallel pass that
+ * records the first line each appears on, so which of two rows with the same
+ * key is imported doesn't depend on which parser gets to it first.
+ * <p>
+ * The files each start with a header line, and have these columns:
+ * <ul>
+ * <li>customers: username, password hash, first name, last name, email;</li>
+ * <li>accounts: account number, owner's username, type (CHECKING or SAVINGS)
+ * and, optionally, the date it was opened (e.g. 2020-01-31);</li>
+ * <li>transactions: account number, timestamp (e.g. 2020-01-31T09:30:00),
+ * type (DEPOSIT or WITHDRAWAL), amount (negative for withdrawals),
+ * description and, optionally, the correlation ID of the transfer it is a leg
+ * of.</li>
+ * </ul>
+ * Import them in that order. Imported transactions are added to their
+ * accounts' balances, so the accounts shouldn't be in use during the import.
+ */
+public class BulkImporter {
+
+  public static final int DEFAULT_BATCH_SIZE = 1_000;
+
+  // Rejected rows listed in a report (all of them are counted)
+  static final int MAX_REPORTED = 1_000;
+
+  private final CustomerRepository customerRepository;
+  private final AccountRepository accountRepository;
+  private final TransactionRepository transactionRepository;
+  private final UnitOfWork unitOfWork;
+  private final PasswordPolicy passwordPolicy;
+  private final int parallelism;
+  private final int batchSize;
+
+  /**
+   * One parser per core, writing {@link #DEFAULT_BATCH_SIZE} rows per batch.
+   */
+  public BulkImporter(CustomerRepository customerRepository, AccountRepository accountRepository,
+      TransactionRepository transactionRepository, UnitOfWork unitOfWork, PasswordPolicy passwordPolicy) {
+    this(customerRepository, accountRepository, transactionRepository, unitOfWork, passwordPolicy,
+        Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * @param unitOfWork     Groups each batch's writes into one commit. Must come
+   *                       from the same backend as the repositories.
+   * @param passwordPolicy Decides which password hashes are accepted.
+   * @param parallelism    The number of parser threads.
+   * @param batchSize      The number of rows written per unit of work.
+   */
+  public BulkImporter(CustomerRepository customerRepository, AccountRepository accountRepository,
+      TransactionRepository transactionRepository, UnitOfWork unitOfWork, PasswordPolicy passwordPolicy,
+      int parallelism, int batchSize) {
+    if (parallelism < 1 || batchSize < 1) {
+      throw new IllegalArgumentException("Parallelism and batch size must be positive");
+    }
+    this.customerRepository = customerRepository;
+    this.accountRepository = accountRepository;
+    this.transactionRepository = transactionRepository;
+    this.unitOfWork = unitOfWork;
+    this.passwordPolicy = passwordPolicy;
+    this.parallelism = parallelism;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Imports customers. A row is rejected if its username or email is taken by
+   * an existing customer or appears on an earlier line (even one that is
+   * itself rejected), or if its password isn't a hash this application can
+   * verify.
+   *
+   * @param file The customers CSV file.
+   * @return What was imported and rejected.
+   * @throws IOException if the file can't be read.
+   */
+  public ImportReport importCustomers(Path file) throws IOException {
+    Map<String, Long> usernames = new ConcurrentHashMap<>();
+    Map<String, Long> emails = new ConcurrentHashMap<>();
+    KeyCollector keys = (fields, position) -> {
+      if (fields.length >= 5) {
+        claim(usernames, fields[0].trim().toLowerCase(Locale.ROOT), position);
+        claim(emails, fields[4].trim().toLowerCase(Locale.ROOT), position);
+      }
+    };
+    return run(file, keys, (fields, position) -> parseCustomer(fields, position, usernames, emails),
+        this::writeCustomers);
+  }
+
+  /**
+   * Imports accounts, with zero balances. A row is rejected if its account
+   * number is taken or appears on an earlier line (even one that is itself
+   * rejected), or if its owner doesn't exist.
+   *
+   * @param file The accounts CSV file.
+   * @return What was imported and rejected.
+   * @throws IOException if the file can't be read.
+   */
+  public ImportReport importAccounts(Path file) throws IOException {
+    Map<String, Long> accountNumbers = new ConcurrentHashMap<>();
+    Map<String, Optional<Customer>> owners = new ConcurrentHashMap<>();
+    KeyCollector keys = (fields, position) -> claim(accountNumbers, fields[0].trim(), position);
+    return run(file, keys, (fields, position) -> parseAccount(fields, position, accountNumbers, owners),
+        this::writeAccounts);
+  }
+
+  /**
+   * Imports historical transactions, and adds them to their accounts'
+   * balances. A row is rejected if its account doesn't exist, or if its
+   * amount's sign doesn't match its type.
+   *
+   * @param file The transactions CSV file.
+   * @return What was imported and rejected.
+   * @throws IOException if the file can't be read.
+   */
+  public ImportReport importTransactions(Path file) throws IOException {
+    Map<String, Optional<Account>> accounts = new ConcurrentHashMap<>();
+    return run(file, null, (fields, position) -> parseTransaction(fields, accounts), this::writeTransactions);
+  }
+
+  // --- Private Helper Methods ---
+
+  /**
+   * Parses the file's chunks in parallel and writes the valid rows, batch by
+   * batch, on this thread.
+   *
+   * @param keys Collects the keys that must be unique within the file before
+   *             any row is parsed, or null if there are none.
+   */
+  private <T> ImportReport run(Path file, KeyCollector keys, RowParser<T> parser, BatchWriter<T> writer)
+      throws IOException {
+    long start = System.nanoTime();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      List<MappedCsvFile.Chunk> chunks = MappedCsvFile.split(channel, parallelism * 4);
+      Rejections rejections = new Rejections(chunks.size());
+      long[] lineCounts = new long[chunks.size()];
+      LongAdder rowsRead = new LongAdder();
+      ExecutorService parsers = Executors.newFixedThreadPool(parallelism, runnable -> {
+        Thread thread = new Thread(runnable, "bulk-import-parser");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+      // 1. Find the first line of every key, so the row imported doesn't depend on timing
+      if (keys != null) {
+        collectKeys(file, chunks, keys, parsers);
+      }
+
+      // 2. Parse every chunk in parallel. The last parser to finish signals the end.
+      List<Row<T>> end = new ArrayList<>(0);
+      BlockingQueue<List<Row<T>>> batches = new ArrayBlockingQueue<>(parallelism * 2);
+      AtomicInteger remaining = new AtomicInteger(chunks.size());
+      AtomicReference<Throwable> parseFailure = new AtomicReference<>();
+      if (chunks.isEmpty()) {
+        batches.add(end);
+      }
+      for (int i = 0; i < chunks.size(); i++) {
+        ChunkParser<T> chunkParser = new ChunkParser<>(i, parser, batches, rejections, rowsRead);
+        MappedCsvFile.Chunk chunk = chunks.get(i);
+        int index = i;
+        parsers.execute(() -> {
+          try {
+            lineCounts[index] = chunk.forEachRow(chunkParser);
+            chunkParser.flush();
+          } catch (Throwable e) {
+            parseFailure.compareAndSet(null, e);
+          } finally {
+            if (remaining.decrementAndGet() == 0) {
+              signalEnd(batches, end);
+            }
+          }
+        });
+      }
+
+      // 3. Write the batches as they come
+      long imported = 0;
+      try {
+        for (List<Row<T>> batch = batches.take(); batch != end; batch = batches.take()) {
+          imported += write(batch, writer, rejections);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Import of " + file + " was interrupted");
+      } finally {
+        parsers.shutdownNow(); // Unblocks the parsers if writing failed
+      }
+
+      Throwable failure = parseFailure.get();
+      if (failure instanceof IOException) {
+        throw (IOException) failure;
+      } else if (failure != null) {
+        throw new IllegalStateException("Failed to parse " + file, failure);
+      }
+      return new ImportReport(rowsRead.sum(), imported, rejections.first(lineCounts), rejections.count(),
+          Duration.ofNanos(System.nanoTime() - start));
+    }
+  }
+
+  /**
+   * Runs the key collector over every row, a chunk per task, and waits for it
+   * to finish. The parsers are shut down if it fails.
+   */
+  private static void collectKeys(Path file, List<MappedCsvFile.Chunk> chunks, KeyCollector keys,
+      ExecutorService parsers) throws IOException {
+    List<Future<Long>> scans = new ArrayList<>(chunks.size());
+    for (int i = 0; i < chunks.size(); i++) {
+      int chunk = i;
+      scans.add(parsers.submit(() -> chunks.get(chunk).forEachRow((fields, line) -> {
+        if (chunk != 0 || line != 1) { // Not the header
+          keys.collect(fields, position(chunk, line));
+        }
+      })));
+    }
+    try {
+      for (Future<Long> scan : scans) {
+        scan.get();
+      }
+    } catch (InterruptedException e) {
+      parsers.shutdownNow();
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Import of " + file + " was interrupted");
+    } catch (ExecutionException e) {
+      parsers.shutdownNow();
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IllegalStateException("Failed to parse " + file, e.getCause());
+    }
+  }
+
+  /**
+   * Records a row as the owner of a key, unless a row earlier in the file has it.
+   */
+  private static void claim(Map<String, Long> owners, String key, long position) {
+    if (!key.isEmpty()) {
+      owners.merge(key, position, Math::min);
+    }
+  }
+
+  /**
+   * @return Whether the row is the first in the file with the key.
+   */
+  private static boolean owns(Map<String, Long> owners, String key, long position) {
+    Long owner = owners.get(key);
+    return owner != null && owner == position;
+  }
+
+  /**
+   * A row's place in the file: rows compare in file order.
+   */
+  private static long position(int chunk, long line) {
+    return (long) chunk << 40 | line;
+  }
+
+  /**
+   * Queues the end marker behind the last batch. The queue may be full (the
+   * writer is usually the slower side), so this waits for room; it only gives
+   * up if the import is being torn down because writing failed.
+   */
+  private static <T> void signalEnd(BlockingQueue<List<Row<T>>> batches, List<Row<T>> end) {
+    try {
+      batches.put(end);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt(); // Nobody is taking any more
+    }
+  }
+
+  /**
+   * Writes a batch as one unit. If that fails, one bad row spoiled it: the rows
+   * are then written one at a time, and only those that fail are rejected.
+   */
+  private <T> long write(List<Row<T>> batch, BatchWriter<T> writer, Rejections rejections) {
+    List<Rejection> rejected = new ArrayList<>();
+    try {
+      long imported = writer.write(batch, rejected);
+      rejections.addAll(rejected);
+      return imported;
+    } catch (RuntimeException batchFailure) {
+      long imported = 0;
+      for (Row<T> row : batch) {
+        rejected.clear();
+        try {
+          imported += writer.write(List.of(row), rejected);
+          rejections.addAll(rejected);
+        } catch (RuntimeException e) {
+          rejections.add(row.chunk, row.line, "Could not be saved: " + e.getMessage());
+        }
+      }
+      return imported;
+    }
+  }
+
+  private Customer parseCustomer(String[] fields, long position, Map<String, Long> usernames,
+      Map<String, Long> emails) {
+    checkFieldCount(fields, 5);
+    String username = required(fields[0], "username");
+    String passwordHash = required(fields[1], "password hash");
+    String email = required(fields[4], "email");
+    if (email.indexOf('@') < 1) {
+      throw new IllegalArgumentException("Invalid email: " + email);
+    }
+    if (!passwordPolicy.canVerify(passwordHash)) {
+      throw new IllegalArgumentException("Password is not a supported hash (plain-text passwords are not accepted)");
+    }
+
+    // 1. Unique within the file (the first line with a key wins)
+    if (!owns(usernames, username.toLowerCase(Locale.ROOT), position)) {
+      throw new IllegalArgumentException("Username appears on an earlier line: " + username);
+    }
+    if (!owns(emails, email.toLowerCase(Locale.ROOT), position)) {
+      throw new IllegalArgumentException("Email appears on an earlier line: " + email);
+    }
+
+    // 2. Not taken by an existing customer (index lookups)
+    if (customerRepository.findByUsername(username).isPresent()) {
+      throw new IllegalArgumentException("Username already taken: " + username);
+    }
+    if (customerRepository.findByEmail(email).isPresent()) {
+      throw new IllegalArgumentException("Email already taken: " + email);
+    }
+    return new Customer(username, passwordHash, fields[2].trim(), fields[3].trim(), email);
+  }
+
+  private Account parseAccount(String[] fields, long position, Map<String, Long> accountNumbers,
+      Map<String, Optional<Customer>> owners) {
+    checkFieldCount(fields, 3);
+    String accountNumber = required(fields[0], "account number");
+    String username = required(fields[1], "username");
+    AccountType type = parseEnum(AccountType.class, fields[2], "account type");
+    LocalDate openedDate = fields.length > 3 && !fields[3].isBlank() ? parseDate(fields[3]) : null;
+
+    Customer owner = owners.computeIfAbsent(username, customerRepository::findByUsername).orElse(null);
+    if (owner == null) {
+      throw new IllegalArgumentException("No customer with username: " + username);
+    }
+    if (!owns(accountNumbers, accountNumber, position)) {
+      throw new IllegalArgumentException("Account number appears on an earlier line: " + accountNumber);
+    }
+    if (accountRepository.findByAccountNumber(accountNumber).isPresent()) {
+      throw new IllegalArgumentException("Account number already exists: " + accountNumber);
+    }
+
+    Account account = new Account(owner, type, accountNumber);
+    if (openedDate != null) {
+      account.setOpenedDate(openedDate);
+    }
+    return account;
+  }
+
+  private Transaction parseTransaction(String[] fields, Map<String, Optional<Account>> accounts) {
+    checkFieldCount(fields, 5);
+    String accountNumber = required(fields[0], "account number");
+    LocalDateTime timestamp = parseTimestamp(fields[1]);
+    TransactionType type = parseEnum(TransactionType.class, fields[2], "transaction type");
+    BigDecimal amount;
+    try {
+      amount = new BigDecimal(fields[3].trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid amount: " + fields[3]);
+    }
+    if (amount.signum() != (type == TransactionType.WITHDRAWAL ? -1 : 1)) {
+      throw new IllegalArgumentException("A " + type + " must have a " + (type == TransactionType.WITHDRAWAL
+          ? "negative" : "positive") + " amount: " + amount);
+    }
+
+    Account account = accounts.computeIfAbsent(accountNumber, accountRepository::findByAccountNumber).orElse(null);
+    if (account == null) {
+      throw new IllegalArgumentException("No account with number: " + accountNumber);
+    }
+
+    Transaction transaction = new Transaction(account, type, amount, fields[4]);
+    transaction.setTimestamp(timestamp);
+    if (fields.length > 5 && !fields[5].isBlank()) {
+      transaction.setCorrelationId(UUID.fromString(fields[5].trim()));
+    }
+    return transaction;
+  }
+
+  private long writeCustomers(List<Row<Customer>> rows, List<Rejection> rejected) {
+    try {
+      return unitOfWork.execute(() -> {
+        long imported = 0;
+        for (Row<Customer> row : rows) {
+          if (customerRepository.insertIfAbsent(row.value).isPresent()) {
+            imported++;
+          } else {
+            // Registered by someone else since the row was checked
+            rejected.add(new Rejection(row.chunk, row.line, "Username or email already taken"));
+          }
+        }
+        return imported;
+      });
+    } catch (RuntimeException e) {
+      rows.forEach(row -> row.value.setId(null)); // Nothing was saved: let them be written again
+      throw e;
+    }
+  }
+
+  private long writeAccounts(List<Row<Account>> rows, List<Rejection> rejected) {
+    List<Account> accounts = new ArrayList<>(rows.size());
+    for (Row<Account> row : rows) {
+      accounts.add(row.value);
+    }
+    try {
+      unitOfWork.execute(() -> accountRepository.saveAll(accounts));
+      return accounts.size();
+    } catch (RuntimeException e) {
+      accounts.forEach(account -> account.setId(null));
+      throw e;
+    }
+  }
+
+  private long writeTransactions(List<Row<Transaction>> rows, List<Rejection> rejected) {
+    // 1. Add the amounts to the balances, remembering the old ones in case the write fails
+    List<Transaction> transactions = new ArrayList<>(rows.size());
+    Map<Account, BigDecimal> previousBalances = new LinkedHashMap<>();
+    for (Row<Transaction> row : rows) {
+      Transaction transaction = row.value;
+      Account account = transaction.getAccount();
+      previousBalances.putIfAbsent(account, account.getBalance());
+      account.setBalance(account.getBalance().add(transaction.getAmount()));
+      transactions.add(transaction);
+    }
+
+    // 2. The entries and the new balances are committed together
+    try {
+      unitOfWork.execute(() -> {
+        transactionRepository.saveAll(transactions);
+        return accountRepository.saveAll(new ArrayList<>(previousBalances.keySet()));
+      });
+      return transactions.size();
+    } catch (RuntimeException e) {
+      previousBalances.forEach(Account::setBalance);
+      transactions.forEach(transaction -> transaction.setId(null));
+      throw e;
+    }
+  }
+
+  private static void checkFieldCount(String[] fields, int expected) {
+    if (fields.length < expected) {
+      throw new IllegalArgumentException("Expected at least " + expected + " fields, found " + fields.length);
+    }
+  }
+
+  private static String required(String value, String name) {
+    String trimmed = value.trim();
+    if (trimmed.isEmpty()) {
+      throw new IllegalArgumentException("Missing " + name);
+    }
+    return trimmed;
+  }
+
+  private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String name) {
+    try {
+      return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Unknown " + name + ": " + value);
+    }
+  }
+
+  private static LocalDate parseDate(String value) {
+    try {
+      return LocalDate.parse(value.trim());
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("Invalid date: " + value);
+    }
+  }
+
+  private static LocalDateTime parseTimestamp(String value) {
+    try {
+      return LocalDateTime.parse(value.trim());
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("Invalid timestamp: " + value);
+    }
+  }
+
+  /**
+   * Turns the fields of a row into an object, or throws an
+   * IllegalArgumentException saying why the row is rejected.
+   */
+  private interface RowParser<T> {
+    /**
+     * @param position The row's place in the file, as from position(chunk, line).
+     */
+    T parse(String[] fields, long position);
+  }
+
+  /**
+   * Records the keys of a row that must be unique within the file.
+   */
+  private interface KeyCollector {
+    void collect(String[] fields, long position);
+  }
+
+  /**
+   * Writes rows as one unit of work, all or nothing.
+   */
+  private interface BatchWriter<T> {
+    /**
+     * @param rejected Collects rows that were skipped without failing the unit.
+     * @return The number of rows written.
+     */
+    long write(List<Row<T>> rows, List<Rejection> rejected);
+  }
+
+  /**
+   * A parsed row and where it came from.
+   */
+  private static final class Row<T> {
+    private final int chunk;
+    private final long line;
+    private final T value;
+
+    private Row(int chunk, long line, T value) {
+      this.chunk = chunk;
+      this.line = line;
+      this.value = value;
+    }
+  }
+
+  /**
+   * A rejected row. Its line number is relative to its chunk until every
+   * chunk's length is known.
+   */
+  private static final class Rejection {
+    private final int chunk;
+    private final long line;
+    private final String reason;
+
+    private Rejection(int chunk, long line, String reason) {
+      this.chunk = chunk;
+      this.line = line;
+      this.reason = reason;
+    }
+  }
+
+  /**
+   * Parses one chunk, handing its valid rows to the writer in batches.
+   */
+  private final class ChunkParser<T> implements MappedCsvFile.RowHandler {
+    private final int chunk;
+    private final RowParser<T> parser;
+    private final BlockingQueue<List<Row<T>>> batches;
+    private final Rejections rejections;
+    private final LongAdder rowsRead;
+    private List<Row<T>> batch = new ArrayList<>();
+
+    private ChunkParser(int chunk, RowParser<T> parser, BlockingQueue<List<Row<T>>> batches,
+        Rejections rejections, LongAdder rowsRead) {
+      this.chunk = chunk;
+      this.parser = parser;
+      this.batches = batches;
+      this.rejections = rejections;
+      this.rowsRead = rowsRead;
+    }
+
+    @Override
+    public void handle(String[] fields, long line) {
+      if (chunk == 0 && line == 1) {
+        return; // The header
+      }
+      rowsRead.increment();
+      try {
+        batch.add(new Row<>(chunk, line, parser.parse(fields, position(chunk, line))));
+      } catch (IllegalArgumentException e) {
+        rejections.add(chunk, line, e.getMessage());
+        return;
+      }
+      if (batch.size() == batchSize) {
+        flush();
+      }
+    }
+
+    /**
+     * Hands over the rows parsed so far, waiting while the writer is behind.
+     */
+    void flush() {
+      if (batch.isEmpty()) {
+        return;
+      }
+      try {
+        batches.put(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new CancellationException("Import cancelled");
+      }
+      batch = new ArrayList<>();
+    }
+  }
+
+  /**
+   * The rejected rows of every chunk: the first {@link #MAX_REPORTED} of each,
+   * and how many there were in all.
+   */
+  private static final class Rejections {
+    private final List<List<Rejection>> byChunk = new ArrayList<>();
+    private final LongAdder count = new LongAdder();
+
+    private Rejections(int chunks) {
+      for (int i = 0; i < chunks; i++) {
+        byChunk.add(new ArrayList<>());
+      }
+    }
+
+    void add(int chunk, long line, String reason) {
+      add(new Rejection(chunk, line, reason));
+    }
+
+    void addAll(List<Rejection> rejections) {
+      rejections.forEach(this::add);
+    }
+
+    long count() {
+      return count.sum();
+    }
+
+    /**
+     * @param lineCounts The number of lines in each chunk.
+     * @return The first rejected rows in the file, with their line numbers.
+     */
+    List<ImportReport.RejectedRow> first(long[] lineCounts) {
+      long[] firstLine = new long[lineCounts.length];
+      for (int i = 1; i < lineCounts.length; i++) {
+        firstLine[i] = firstLine[i - 1] + lineCounts[i - 1];
+      }
+
+      List<ImportReport.RejectedRow> rows = new ArrayList<>();
+      for (List<Rejection> rejections : byChunk) {
+        synchronized (rejections) {
+          for (Rejection rejection : rejections) {
+            rows.add(new ImportReport.RejectedRow(firstLine[rejection.chunk] + rejection.line, rejection.reason));
+          }
+        }
+      }
+      rows.sort(Comparator.comparingLong(ImportReport.RejectedRow::getLine));
+      return rows.size() > MAX_REPORTED ? rows.subList(0, MAX_REPORTED) : rows;
+    }
+
+    private void add(Rejection rejection) {
+      List<Rejection> rejections = byChunk.get(rejection.chunk);
+      synchronized (rejections) {
+        if (rejections.size() < MAX_REPORTED) {
+          rejections.add(rejection);
+        }
+      }
+      count.increment();
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package com.bankapp.service.importer;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The outcome of importing one file: how many rows went in, how fast, and
+ * which rows were turned away and why.
+ * <p>
+ * Only the first rejected rows (by line number) are listed; the count covers
+ * all of them.
+ */
+public class ImportReport {
+
+  private final long rowsRead;
+  private final long rowsImported;
+  private final List<RejectedRow> rejectedRows;
+  private final long rejectedCount;
+  private final Duration elapsed;
+
+  /**
+   * @param rowsRead      The number of data rows in the file (the header and
+   *                      blank lines excluded).
+   * @param rowsImported  The number of rows written to the repositories.
+   * @param rejectedRows  The first rows turned away.
+   * @param rejectedCount The number of rows turned away.
+   * @param elapsed       How long the import took.
+   */
+  public ImportReport(long rowsRead, long rowsImported, List<RejectedRow> rejectedRows, long rejectedCount,
+      Duration elapsed) {
+    this.rowsRead = rowsRead;
+    this.rowsImported = rowsImported;
+    this.rejectedRows = List.copyOf(rejectedRows);
+    this.rejectedCount = rejectedCount;
+    this.elapsed = elapsed;
+  }
+
+  public long getRowsRead() {
+    return rowsRead;
+  }
+
+  public long getRowsImported() {
+    return rowsImported;
+  }
+
+  public List<RejectedRow> getRejectedRows() {
+    return rejectedRows;
+  }
+
+  public long getRejectedCount() {
+    return rejectedCount;
+  }
+
+  public Duration getElapsed() {
+    return elapsed;
+  }
+
+  /**
+   * @return The throughput: rows read per second.
+   */
+  public double getRowsPerSecond() {
+    long nanos = Math.max(1, elapsed.toNanos());
+    return rowsRead * 1_000_000_000.0 / nanos;
+  }
+
+  @Override
+  public String toString() {
+    return "ImportReport{" +
+        "rowsRead=" + rowsRead +
+        ", rowsImported=" + rowsImported +
+        ", rejected=" + rejectedCount +
+        ", elapsed=" + elapsed.toMillis() + "ms" +
+        ", rowsPerSecond=" + Math.round(getRowsPerSecond()) +
+        '}';
+  }
+
+  /**
+   * A row that wasn't imported.
+   */
+  public static final class RejectedRow {
+    private final long line;
+    private final String reason;
+
+    /**
+     * @param line   The row's line number in the file (the header is line 1).
+     * @param reason Why it was turned away.
+     */
+    public RejectedRow(long line, String reason) {
+      this.line = line;
+      this.reason = reason;
+    }
+
+    public long getLine() {
+      return line;
+    }
+
+    public String getReason() {
+      return reason;
+    }
+
+    @Override
+    public String toString() {
+      return "line " + line + ": " + reason;
+    }
+  }
+}
@@ -0,0 +1,160 @@
+package com.bankapp.service.importer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A CSV file read through memory-mapped I/O, split into chunks that can be
+ * parsed in parallel.
+ * <p>
+ * Chunks end on line boundaries, so every row lies in exactly one chunk.
+ * Fields may be quoted (with "" for a quote), but a row can't span lines.
+ * Parsing works on the mapped bytes directly: the file is never copied into
+ * the heap as a whole, only one field at a time.
+ */
+final class MappedCsvFile {
+
+  // Smaller files aren't split into chunks smaller than this
+  private static final long MIN_CHUNK_BYTES = 1 << 20;
+
+  // A single mapping can't exceed 2 GiB
+  private static final long MAX_CHUNK_BYTES = 1 << 30;
+
+  private MappedCsvFile() {
+  }
+
+  /**
+   * @param channel      The open file.
+   * @param targetChunks How many chunks to aim for (fewer for small files).
+   * @return The chunks, in file order.
+   */
+  static List<Chunk> split(FileChannel channel, int targetChunks) throws IOException {
+    long size = channel.size();
+    long count = Math.max(1, Math.min(targetChunks, size / MIN_CHUNK_BYTES));
+    count = Math.max(count, (size + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+
+    List<Chunk> chunks = new ArrayList<>();
+    long start = 0;
+    for (long i = 1; i <= count && start < size; i++) {
+      long end = i == count ? size : nextLineStart(channel, Math.max(start, size / count * i), size);
+      if (end > start) {
+        chunks.add(new Chunk(channel, start, end));
+        start = end;
+      }
+    }
+    return chunks;
+  }
+
+  /**
+   * @return The position just after the first line break at or after
+   *         {@code position}, or the end of the file.
+   */
+  private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+    long offset = position;
+    while (offset < size) {
+      buffer.clear();
+      int read = channel.read(buffer, offset);
+      if (read <= 0) {
+        break;
+      }
+      for (int i = 0; i < read; i++) {
+        if (buffer.get(i) == '\n') {
+          return offset + i + 1;
+        }
+      }
+      offset += read;
+    }
+    return size;
+  }
+
+  /**
+   * Receives the rows of a chunk.
+   */
+  interface RowHandler {
+    /**
+     * @param fields The row's fields, unquoted.
+     * @param line   The row's line number within its chunk (from 1).
+     */
+    void handle(String[] fields, long line);
+  }
+
+  /**
+   * A run of whole lines of the file.
+   */
+  static final class Chunk {
+    private final FileChannel channel;
+    private final long start;
+    private final long end;
+
+    private Chunk(FileChannel channel, long start, long end) {
+      this.channel = channel;
+      this.start = start;
+      this.end = end;
+    }
+
+    /**
+     * Maps the chunk and parses its rows. Blank lines are skipped (but counted).
+     *
+     * @return The number of lines in the chunk.
+     */
+    long forEachRow(RowHandler handler) throws IOException {
+      MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+      int limit = bytes.limit();
+      List<String> fields = new ArrayList<>();
+      byte[] field = new byte[256];
+      long line = 0;
+
+      int position = 0;
+      while (position < limit) {
+        line++;
+        fields.clear();
+        int length = 0;
+        boolean quoted = false;
+        boolean blank = true;
+
+        // 1. Read up to the end of the line, splitting on unquoted commas
+        while (position < limit) {
+          byte b = bytes.get(position++);
+          if (b == '\n') {
+            break;
+          }
+          if (b == '\r' && (position == limit || bytes.get(position) == '\n')) {
+            continue;
+          }
+          blank = false;
+          if (b == '"') {
+            if (quoted && position < limit && bytes.get(position) == '"') {
+              b = '"'; // An escaped quote
+              position++;
+            } else if (quoted || length == 0) {
+              quoted = !quoted;
+              continue;
+            }
+          } else if (b == ',' && !quoted) {
+            fields.add(new String(field, 0, length, StandardCharsets.UTF_8));
+            length = 0;
+            continue;
+          }
+          if (length == field.length) {
+            field = Arrays.copyOf(field, length * 2);
+          }
+          field[length++] = b;
+        }
+
+        // 2. Hand over the row
+        if (!blank) {
+          fields.add(new String(field, 0, length, StandardCharsets.UTF_8));
+          handler.handle(fields.toArray(new String[0]), line);
+        }
+      }
+      return line;
+    }
+  }
+}
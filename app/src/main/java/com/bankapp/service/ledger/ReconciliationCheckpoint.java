@@ -0,0 +1,90 @@
+package com.bankapp.service.ledger;
+
+import com.bankapp.model.Transaction;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Where a reconciliation run stopped, so the next run can check only what was
+ * added since (see {@code BankingService#reconcile(ReconciliationCheckpoint)}).
+ * <p>
+ * Besides the watermark (the highest transaction ID checked) it carries the
+ * transfer legs whose other leg hadn't been seen yet, so a transfer whose legs
+ * fall on both sides of the watermark still pairs up. It also carries the IDs
+ * already checked just below the watermark: IDs aren't handed out in commit
+ * order, so the next run scans that window again for entries committed late,
+ * and skips the ones listed here.
+ */
+public final class ReconciliationCheckpoint {
+
+  private static final ReconciliationCheckpoint START =
+      new ReconciliationCheckpoint(0L, List.of(), new long[0]);
+
+  private final long lastTransactionId;
+  private final List<Transaction> openLegs;
+  private final long[] recentlyCheckedIds; // Sorted
+
+  /**
+   * @param lastTransactionId  The highest transaction ID already checked.
+   * @param openLegs           Transfer legs still waiting for their other leg.
+   * @param recentlyCheckedIds The IDs already checked in the window just below
+   *                           the watermark, in any order.
+   */
+  public ReconciliationCheckpoint(long lastTransactionId, List<Transaction> openLegs, long[] recentlyCheckedIds) {
+    if (lastTransactionId < 0) {
+      throw new IllegalArgumentException("Transaction ID cannot be negative");
+    }
+    if (recentlyCheckedIds == null) {
+      throw new IllegalArgumentException("Checked IDs cannot be null");
+    }
+    this.lastTransactionId = lastTransactionId;
+    this.openLegs = List.copyOf(openLegs);
+    this.recentlyCheckedIds = recentlyCheckedIds.clone();
+    Arrays.sort(this.recentlyCheckedIds);
+  }
+
+  /**
+   * @return A checkpoint before the first entry: an incremental run from here
+   *         checks the whole ledger.
+   */
+  public static ReconciliationCheckpoint start() {
+    return START;
+  }
+
+  public long getLastTransactionId() {
+    return lastTransactionId;
+  }
+
+  /**
+   * @return The transfer legs whose other leg hadn't been seen yet.
+   */
+  public List<Transaction> getOpenLegs() {
+    return openLegs;
+  }
+
+  /**
+   * @return The IDs already checked in the window just below the watermark, in
+   *         ascending order.
+   */
+  public long[] getRecentlyCheckedIds() {
+    return recentlyCheckedIds.clone();
+  }
+
+  /**
+   * @return Whether the entry with this ID was checked, if it lies in the
+   *         window just below the watermark.
+   */
+  public boolean isRecentlyChecked(long transactionId) {
+    return Arrays.binarySearch(recentlyCheckedIds, transactionId) >= 0;
+  }
+
+  @Override
+  public String toString() {
+    return "ReconciliationCheckpoint{" +
+        "lastTransactionId=" + lastTransactionId +
+        ", openLegs=" + openLegs.size() +
+        ", recentlyCheckedIds=" + recentlyCheckedIds.length +
+        '}';
+  }
+}
@@ -0,0 +1,208 @@
+package com.bankapp.service.ledger;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The outcome of a reconciliation run: the balances that don't match their
+ * ledger, and the transfers whose legs don't pair up.
+ * <p>
+ * Only the first few mismatches of each kind are listed (so a badly broken
+ * ledger can't exhaust memory); the counts cover all of them.
+ */
+public class ReconciliationReport {
+
+  private final boolean incremental;
+  private final long accountsChecked;
+  private final long entriesChecked;
+  private final List<BalanceMismatch> balanceMismatches;
+  private final long balanceMismatchCount;
+  private final List<TransferMismatch> transferMismatches;
+  private final long transferMismatchCount;
+  private final ReconciliationCheckpoint checkpoint;
+  private final Duration elapsed;
+
+  /**
+   * @param incremental           Whether only entries after a checkpoint were checked.
+   * @param accountsChecked       The number of balances checked.
+   * @param entriesChecked        The number of ledger entries scanned.
+   * @param balanceMismatches     The first balance mismatches found.
+   * @param balanceMismatchCount  The number of balance mismatches found.
+   * @param transferMismatches    The first transfer mismatches found.
+   * @param transferMismatchCount The number of transfer mismatches found.
+   * @param checkpoint            Where the next incremental run should start.
+   * @param elapsed               How long the run took.
+   */
+  public ReconciliationReport(boolean incremental, long accountsChecked, long entriesChecked,
+      List<BalanceMismatch> balanceMismatches, long balanceMismatchCount,
+      List<TransferMismatch> transferMismatches, long transferMismatchCount,
+      ReconciliationCheckpoint checkpoint, Duration elapsed) {
+    this.incremental = incremental;
+    this.accountsChecked = accountsChecked;
+    this.entriesChecked = entriesChecked;
+    this.balanceMismatches = List.copyOf(balanceMismatches);
+    this.balanceMismatchCount = balanceMismatchCount;
+    this.transferMismatches = List.copyOf(transferMismatches);
+    this.transferMismatchCount = transferMismatchCount;
+    this.checkpoint = checkpoint;
+    this.elapsed = elapsed;
+  }
+
+  public boolean isIncremental() {
+    return incremental;
+  }
+
+  /**
+   * @return Whether no mismatches of either kind were found.
+   */
+  public boolean isClean() {
+    return balanceMismatchCount == 0 && transferMismatchCount == 0;
+  }
+
+  public long getAccountsChecked() {
+    return accountsChecked;
+  }
+
+  public long getEntriesChecked() {
+    return entriesChecked;
+  }
+
+  public List<BalanceMismatch> getBalanceMismatches() {
+    return balanceMismatches;
+  }
+
+  public long getBalanceMismatchCount() {
+    return balanceMismatchCount;
+  }
+
+  public List<TransferMismatch> getTransferMismatches() {
+    return transferMismatches;
+  }
+
+  public long getTransferMismatchCount() {
+    return transferMismatchCount;
+  }
+
+  /**
+   * @return The checkpoint to pass to the next incremental run.
+   */
+  public ReconciliationCheckpoint getCheckpoint() {
+    return checkpoint;
+  }
+
+  public Duration getElapsed() {
+    return elapsed;
+  }
+
+  @Override
+  public String toString() {
+    return "ReconciliationReport{" +
+        "incremental=" + incremental +
+        ", accountsChecked=" + accountsChecked +
+        ", entriesChecked=" + entriesChecked +
+        ", balanceMismatches=" + balanceMismatchCount +
+        ", transferMismatches=" + transferMismatchCount +
+        ", elapsed=" + elapsed.toMillis() + "ms" +
+        '}';
+  }
+
+  /**
+   * An account whose balance and ledger disagree.
+   */
+  public static final class BalanceMismatch {
+    private final String accountNumber;
+    private final BigDecimal balance;
+    private final BigDecimal ledgerTotal;
+    private final BigDecimal runningTotal;
+
+    /**
+     * @param accountNumber The account.
+     * @param balance       The stored balance.
+     * @param ledgerTotal   The sum of the account's transaction amounts.
+     * @param runningTotal  The running total of the account's newest entry.
+     */
+    public BalanceMismatch(String accountNumber, BigDecimal balance, BigDecimal ledgerTotal,
+        BigDecimal runningTotal) {
+      this.accountNumber = accountNumber;
+      this.balance = balance;
+      this.ledgerTotal = ledgerTotal;
+      this.runningTotal = runningTotal;
+    }
+
+    public String getAccountNumber() {
+      return accountNumber;
+    }
+
+    public BigDecimal getBalance() {
+      return balance;
+    }
+
+    public BigDecimal getLedgerTotal() {
+      return ledgerTotal;
+    }
+
+    public BigDecimal getRunningTotal() {
+      return runningTotal;
+    }
+
+    @Override
+    public String toString() {
+      return "BalanceMismatch{" +
+          "accountNumber='" + accountNumber + '\'' +
+          ", balance=" + balance +
+          ", ledgerTotal=" + ledgerTotal +
+          ", runningTotal=" + runningTotal +
+          '}';
+    }
+  }
+
+  /**
+   * A transfer whose legs don't form one debit and one matching credit.
+   */
+  public static final class TransferMismatch {
+
+    public enum Reason {
+      UNPAIRED,
+      SAME_SIGN,
+      AMOUNTS_DO_NOT_CANCEL
+    }
+
+    private final UUID correlationId;
+    private final Reason reason;
+    private final List<Long> transactionIds;
+
+    /**
+     * @param correlationId  The transfer.
+     * @param reason         What is wrong with it.
+     * @param transactionIds The legs involved.
+     */
+    public TransferMismatch(UUID correlationId, Reason reason, List<Long> transactionIds) {
+      this.correlationId = correlationId;
+      this.reason = reason;
+      this.transactionIds = List.copyOf(transactionIds);
+    }
+
+    public UUID getCorrelationId() {
+      return correlationId;
+    }
+
+    public Reason getReason() {
+      return reason;
+    }
+
+    public List<Long> getTransactionIds() {
+      return transactionIds;
+    }
+
+    @Override
+    public String toString() {
+      return "TransferMismatch{" +
+          "correlationId=" + correlationId +
+          ", reason=" + reason +
+          ", transactionIds=" + transactionIds +
+          '}';
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package com.bankapp.service.ledger;
+
+import java.time.Duration;
+
+/**
+ * The outcome of rebuilding every account's balance from the ledger.
+ */
+public class ReplayReport {
+
+  private final long accountsReplayed;
+  private final long entriesReplayed;
+  private final long openingBalancesRecorded;
+  private final long balancesCorrected;
+  private final Duration elapsed;
+
+  /**
+   * @param accountsReplayed  The number of accounts whose ledger was replayed.
+   * @param entriesReplayed         The number of ledger entries summed.
+   * @param openingBalancesRecorded The number of accounts whose ledger got an
+   *                                opening-balance entry.
+   * @param balancesCorrected       The number of stored balances that differed
+   *                                from their (complete) ledger and were
+   *                                overwritten.
+   * @param elapsed                 How long the whole replay took.
+   */
+  public ReplayReport(long accountsReplayed, long entriesReplayed, long openingBalancesRecorded,
+      long balancesCorrected, Duration elapsed) {
+    this.accountsReplayed = accountsReplayed;
+    this.entriesReplayed = entriesReplayed;
+    this.openingBalancesRecorded = openingBalancesRecorded;
+    this.balancesCorrected = balancesCorrected;
+    this.elapsed = elapsed;
+  }
+
+  public long getAccountsReplayed() {
+    return accountsReplayed;
+  }
+
+  public long getEntriesReplayed() {
+    return entriesReplayed;
+  }
+
+  /**
+   * @return The number of accounts replayed for the first time, whose balance
+   *         from before the ledger was recorded as an opening-balance entry.
+   */
+  public long getOpeningBalancesRecorded() {
+    return openingBalancesRecorded;
+  }
+
+  /**
+   * @return The number of balances that didn't match their ledger (zero when
+   *         balances and ledger already agreed).
+   */
+  public long getBalancesCorrected() {
+    return balancesCorrected;
+  }
+
+  public Duration getElapsed() {
+    return elapsed;
+  }
+
+  @Override
+  public String toString() {
+    return "ReplayReport{" +
+        "accountsReplayed=" + accountsReplayed +
+        ", entriesReplayed=" + entriesReplayed +
+        ", openingBalancesRecorded=" + openingBalancesRecorded +
+        ", balancesCorrected=" + balancesCorrected +
+        ", elapsed=" + elapsed.toMillis() + "ms" +
+        '}';
+  }
+}
@@ -0,0 +1,43 @@
+package com.bankapp.service.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Reads how many bytes the current thread has allocated so far, where the JVM
+ * supports it (HotSpot does).
+ */
+final class AllocationCounter {
+
+  static final AllocationCounter DISABLED = new AllocationCounter(null);
+
+  private final com.sun.management.ThreadMXBean threads;
+
+  private AllocationCounter(com.sun.management.ThreadMXBean threads) {
+    this.threads = threads;
+  }
+
+  /**
+   * @return A counter of the JVM's allocations, or {@link #DISABLED} if the JVM
+   *         can't count them.
+   */
+  static AllocationCounter create() {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean hotSpot = (com.sun.management.ThreadMXBean) threads;
+      if (hotSpot.isThreadAllocatedMemorySupported()) {
+        hotSpot.setThreadAllocatedMemoryEnabled(true);
+        return new AllocationCounter(hotSpot);
+      }
+    }
+    return DISABLED;
+  }
+
+  /**
+   * @return The bytes the current thread has allocated so far, or -1 if
+   *         allocations aren't counted.
+   */
+  long currentThreadBytes() {
+    return threads == null ? -1 : threads.getCurrentThreadAllocatedBytes();
+  }
+}
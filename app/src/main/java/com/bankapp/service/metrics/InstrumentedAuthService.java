@@ -0,0 +1,123 @@
+package com.bankapp.service.metrics;
+
+import com.bankapp.model.Customer;
+import com.bankapp.service.AuthService;
+import com.bankapp.service.exception.AuthException;
+import com.bankapp.service.exception.UserAlreadyExistsException;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An AuthService decorator that records the latency, errors, calls in flight
+ * and allocations of every method (see {@link MethodMetrics}).
+ * <p>
+ * The asynchronous methods are timed until their future completes, so their
+ * latency includes the time spent waiting for a hashing thread; failed logins
+ * show up as errors by exception type (e.g. LoginThrottledException).
+ */
+public class InstrumentedAuthService implements AuthService {
+
+  private static final String COMPONENT = "AuthService";
+
+  private final AuthService delegate;
+
+  private final MethodMetrics login;
+  private final MethodMetrics register;
+  private final MethodMetrics loginAsync;
+  private final MethodMetrics registerAsync;
+
+  /**
+   * @param delegate The service that does the work.
+   * @param registry Where the metrics are kept.
+   */
+  public InstrumentedAuthService(AuthService delegate, MetricsRegistry registry) {
+    this.delegate = delegate;
+    this.login = registry.method(COMPONENT, "login");
+    this.register = registry.method(COMPONENT, "register");
+    this.loginAsync = registry.method(COMPONENT, "loginAsync");
+    this.registerAsync = registry.method(COMPONENT, "registerAsync");
+  }
+
+  @Override
+  public Customer login(String username, String password) throws AuthException {
+    MethodMetrics.Call call = login.start();
+    try {
+      return delegate.login(username, password);
+    } catch (Exception e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public Customer register(String username, String password, String firstName, String lastName, String email)
+      throws UserAlreadyExistsException {
+    MethodMetrics.Call call = register.start();
+    try {
+      return delegate.register(username, password, firstName, lastName, email);
+    } catch (Exception e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public Customer login(String username, String password, String clientId) throws AuthException {
+    MethodMetrics.Call call = login.start();
+    try {
+      return delegate.login(username, password, clientId);
+    } catch (Exception e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public CompletableFuture<Customer> loginAsync(String username, String password, String clientId) {
+    MethodMetrics.Call call = loginAsync.start();
+    CompletableFuture<Customer> future;
+    try {
+      future = delegate.loginAsync(username, password, clientId);
+    } catch (RuntimeException e) {
+      call.failed(e);
+      call.end();
+      throw e;
+    }
+    return call.endWhenDone(future);
+  }
+
+  @Override
+  public CompletableFuture<Customer> loginAsync(String username, String password) {
+    MethodMetrics.Call call = loginAsync.start();
+    CompletableFuture<Customer> future;
+    try {
+      future = delegate.loginAsync(username, password);
+    } catch (RuntimeException e) {
+      call.failed(e);
+      call.end();
+      throw e;
+    }
+    return call.endWhenDone(future);
+  }
+
+  @Override
+  public CompletableFuture<Customer> registerAsync(String username, String password, String firstName,
+      String lastName, String email) {
+    MethodMetrics.Call call = registerAsync.start();
+    CompletableFuture<Customer> future;
+    try {
+      future = delegate.registerAsync(username, password, firstName, lastName, email);
+    } catch (RuntimeException e) {
+      call.failed(e);
+      call.end();
+      throw e;
+    }
+    return call.endWhenDone(future);
+  }
+}
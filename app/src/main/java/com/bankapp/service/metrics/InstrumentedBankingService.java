@@ -0,0 +1,277 @@
+package com.bankapp.service.metrics;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.AccountType;
+import com.bankapp.model.Customer;
+import com.bankapp.model.Transaction;
+import com.bankapp.repository.TransactionCursor;
+import com.bankapp.repository.TransactionPage;
+import com.bankapp.service.BankingService;
+import com.bankapp.service.batch.BatchItemResult;
+import com.bankapp.service.batch.DepositInstruction;
+import com.bankapp.service.batch.TransferInstruction;
+import com.bankapp.service.exception.AccountNotFoundException;
+import com.bankapp.service.exception.InsufficientFundsException;
+import com.bankapp.service.exception.InvalidAmountException;
+import com.bankapp.service.ledger.ReconciliationCheckpoint;
+import com.bankapp.service.ledger.ReconciliationReport;
+import com.bankapp.service.ledger.ReplayReport;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * A BankingService decorator that records the latency, errors, calls in
+ * flight and allocations of every method (see {@link MethodMetrics}).
+ * <p>
+ * A method that returns a stream is timed until the stream is returned, not
+ * until it is consumed.
+ */
+public class InstrumentedBankingService implements BankingService {
+
+  private static final String COMPONENT = "BankingService";
+
+  private final BankingService delegate;
+
+  private final MethodMetrics deposit;
+  private final MethodMetrics withdraw;
+  private final MethodMetrics transfer;
+  private final MethodMetrics transferBatch;
+  private final MethodMetrics depositBatch;
+  private final MethodMetrics getTransactionsForAccount;
+  private final MethodMetrics getTransactionsPage;
+  private final MethodMetrics streamTransactionsForAccount;
+  private final MethodMetrics balanceAsOf;
+  private final MethodMetrics rebuildBalances;
+  private final MethodMetrics reconcile;
+  private final MethodMetrics reconcileIncremental;
+  private final MethodMetrics getAccount;
+  private final MethodMetrics createAccount;
+  private final MethodMetrics getAccountsForCustomer;
+
+  /**
+   * @param delegate The service that does the work.
+   * @param registry Where the metrics are kept.
+   */
+  public InstrumentedBankingService(BankingService delegate, MetricsRegistry registry) {
+    this.delegate = delegate;
+    this.deposit = registry.method(COMPONENT, "deposit");
+    this.withdraw = registry.method(COMPONENT, "withdraw");
+    this.transfer = registry.method(COMPONENT, "transfer");
+    this.transferBatch = registry.method(COMPONENT, "transferBatch");
+    this.depositBatch = registry.method(COMPONENT, "depositBatch");
+    this.getTransactionsForAccount = registry.method(COMPONENT, "getTransactionsForAccount");
+    this.getTransactionsPage = registry.method(COMPONENT, "getTransactionsPage");
+    this.streamTransactionsForAccount = registry.method(COMPONENT, "streamTransactionsForAccount");
+    this.balanceAsOf = registry.method(COMPONENT, "balanceAsOf");
+    this.rebuildBalances = registry.method(COMPONENT, "rebuildBalances");
+    this.reconcile = registry.method(COMPONENT, "reconcile");
+    this.reconcileIncremental = registry.method(COMPONENT, "reconcileIncremental");
+    this.getAccount = registry.method(COMPONENT, "getAccount");
+    this.createAccount = registry.method(COMPONENT, "createAccount");
+    this.getAccountsForCustomer = registry.method(COMPONENT, "getAccountsForCustomer");
+  }
+
+  @Override
+  public Transaction deposit(String toAccountNumber, BigDecimal amount)
+      throws AccountNotFoundException, InvalidAmountException {
+    MethodMetrics.Call call = deposit.start();
+    try {
+      return delegate.deposit(toAccountNumber, amount);
+    } catch (Exception e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public Transaction withdraw(String fromAccountNumber, BigDecimal amount)
+      throws AccountNotFoundException, InsufficientFundsException, InvalidAmountException {
+    MethodMetrics.Call call = withdraw.start();
+    try {
+      return delegate.withdraw(fromAccountNumber, amount);
+    } catch (Exception e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public List<Transaction> transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount)
+      throws AccountNotFoundException, InsufficientFundsException, InvalidAmountException {
+    MethodMetrics.Call call = transfer.start();
+    try {
+      return delegate.transfer(fromAccountNumber, toAccountNumber, amount);
+    } catch (Exception e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public List<BatchItemResult> transferBatch(List<TransferInstruction> instructions) {
+    MethodMetrics.Call call = transferBatch.start();
+    try {
+      return delegate.transferBatch(instructions);
+    } catch (Exception e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public List<BatchItemResult> depositBatch(List<DepositInstruction> instructions) {
+    MethodMetrics.Call call = depositBatch.start();
+    try {
+      return delegate.depositBatch(instructions);
+    } catch (Exception e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public List<Transaction> getTransactionsForAccount(String accountNumber) throws AccountNotFoundException {
+    MethodMetrics.Call call = getTransactionsForAccount.start();
+    try {
+      return delegate.getTransactionsForAccount(accountNumber);
+    } catch (Exception e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public TransactionPage getTransactionsPage(String accountNumber, TransactionCursor after, int pageSize)
+      throws AccountNotFoundException {
+    MethodMetrics.Call call = getTransactionsPage.start();
+    try {
+      return delegate.getTransactionsPage(accountNumber, after, pageSize);
+    } catch (Exception e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public Stream<Transaction> streamTransactionsForAccount(String accountNumber, int pageSize)
+      throws AccountNotFoundException {
+    MethodMetrics.Call call = streamTransactionsForAccount.start();
+    try {
+      return delegate.streamTransactionsForAccount(accountNumber, pageSize);
+    } catch (Exception e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public BigDecimal balanceAsOf(String accountNumber, LocalDateTime time) throws AccountNotFoundException {
+    MethodMetrics.Call call = balanceAsOf.start();
+    try {
+      return delegate.balanceAsOf(accountNumber, time);
+    } catch (Exception e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public ReplayReport rebuildBalances() {
+    MethodMetrics.Call call = rebuildBalances.start();
+    try {
+      return delegate.rebuildBalances();
+    } catch (Exception e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public ReconciliationReport reconcile() {
+    MethodMetrics.Call call = reconcile.start();
+    try {
+      return delegate.reconcile();
+    } catch (Exception e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public ReconciliationReport reconcile(ReconciliationCheckpoint since) {
+    MethodMetrics.Call call = reconcileIncremental.start();
+    try {
+      return delegate.reconcile(since);
+    } catch (Exception e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public Account getAccount(String accountNumber) throws AccountNotFoundException {
+    MethodMetrics.Call call = getAccount.start();
+    try {
+      return delegate.getAccount(accountNumber);
+    } catch (Exception e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public Account createAccount(Customer customer, AccountType type, String accountNumber) {
+    MethodMetrics.Call call = createAccount.start();
+    try {
+      return delegate.createAccount(customer, type, accountNumber);
+    } catch (Exception e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+
+  @Override
+  public Set<Account> getAccountsForCustomer(Long customerId) {
+    MethodMetrics.Call call = getAccountsForCustomer.start();
+    try {
+      return delegate.getAccountsForCustomer(customerId);
+    } catch (Exception e) {
+      call.failed(e);
+      throw e;
+    } finally {
+      call.end();
+    }
+  }
+}
@@ -0,0 +1,169 @@
+package com.bankapp.service.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size, lock-free histogram of latencies in nanoseconds.
+ * <p>
+ * Buckets are log-linear: every power of two is split into 8 equal
+ * sub-buckets, so a percentile is reported to within 12.5% of the true value,
+ * from nanoseconds to centuries, in under 4 KB. Recording is a few arithmetic
+ * operations and one atomic increment, cheap enough for every call on a hot
+ * path.
+ */
+public class LatencyHistogram {
+
+  // Sub-buckets per power of two (must be a power of two itself)
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  private static final int BUCKET_COUNT = indexOf(Long.MAX_VALUE) + 1;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+  /**
+   * Records one sample.
+   *
+   * @param nanos The latency in nanoseconds. Negative values count as zero.
+   */
+  public void record(long nanos) {
+    long value = Math.max(0L, nanos);
+    buckets.incrementAndGet(indexOf(value));
+    count.increment();
+    totalNanos.add(value);
+    maxNanos.accumulate(value);
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  public long getTotalNanos() {
+    return totalNanos.sum();
+  }
+
+  public long getMaxNanos() {
+    return maxNanos.get();
+  }
+
+  /**
+   * @return The mean latency in nanoseconds, or 0 if nothing was recorded.
+   */
+  public double getMeanNanos() {
+    long samples = getCount();
+    return samples == 0 ? 0.0 : (double) getTotalNanos() / samples;
+  }
+
+  /**
+   * @param quantile The quantile, from 0.0 to 1.0 (e.g. 0.99 for the p99).
+   * @return An upper bound on the latency at that quantile, in nanoseconds, or 0
+   *         if nothing was recorded.
+   */
+  public long getPercentileNanos(double quantile) {
+    return percentileNanos(quantile, this);
+  }
+
+  /**
+   * Counts the samples below each of a list of bounds, e.g. for the cumulative
+   * buckets of a Prometheus histogram. A bound that is a power of two (of at
+   * least 8 ns) falls between two buckets, so its count is exact; any other
+   * bound counts only the buckets wholly below it.
+   *
+   * @param boundsNanos The bounds, in ascending order.
+   * @return The number of samples below each bound, followed by the number of
+   *         samples in all. The buckets are read once, so the counts agree.
+   */
+  public long[] getCountsBelow(long[] boundsNanos) {
+    long[] counts = new long[boundsNanos.length + 1];
+    int bound = 0;
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      while (bound < boundsNanos.length && upperBoundOf(i) >= boundsNanos[bound]) {
+        counts[bound++] = seen;
+      }
+      seen += buckets.get(i);
+    }
+    while (bound < boundsNanos.length) {
+      counts[bound++] = seen;
+    }
+    counts[boundsNanos.length] = seen;
+    return counts;
+  }
+
+  /**
+   * @return A one-line summary, e.g. for a log line.
+   */
+  public String summary(TimeUnit unit) {
+    return String.format("count=%d mean=%.3f p50=%.3f p99=%.3f max=%.3f (%s)",
+        getCount(),
+        getMeanNanos() / unit.toNanos(1),
+        (double) getPercentileNanos(0.50) / unit.toNanos(1),
+        (double) getPercentileNanos(0.99) / unit.toNanos(1),
+        (double) getMaxNanos() / unit.toNanos(1),
+        unit.name().toLowerCase());
+  }
+
+  /**
+   * The latency at a quantile of the samples of several histograms together.
+   *
+   * @see #getPercentileNanos(double)
+   */
+  static long percentileNanos(double quantile, LatencyHistogram... histograms) {
+    if (quantile < 0.0 || quantile > 1.0) {
+      throw new IllegalArgumentException("Quantile must be between 0 and 1");
+    }
+
+    // Read the buckets once; the total is taken from them so the two agree
+    long[] counts = new long[BUCKET_COUNT];
+    long samples = 0;
+    long max = 0;
+    for (LatencyHistogram histogram : histograms) {
+      for (int i = 0; i < BUCKET_COUNT; i++) {
+        long count = histogram.buckets.get(i);
+        counts[i] += count;
+        samples += count;
+      }
+      max = Math.max(max, histogram.getMaxNanos());
+    }
+    if (samples == 0) {
+      return 0L;
+    }
+
+    long rank = Math.max(1L, (long) Math.ceil(quantile * samples));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(upperBoundOf(i), max);
+      }
+    }
+    return max;
+  }
+
+  // --- Private Helper Methods ---
+
+  private static int indexOf(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value; // Small values get a bucket each
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  private static long upperBoundOf(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    long subBucket = index % SUB_BUCKETS;
+    long upper = ((SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    return upper < 0 ? Long.MAX_VALUE : upper; // The last bucket overflows
+  }
+}
@@ -0,0 +1,236 @@
+package com.bankapp.service.metrics;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of one method of one component: a latency histogram, error
+ * counts by exception type, the number of calls in flight and the bytes the
+ * calls allocated.
+ * <p>
+ * The latency histogram covers every call since the process started, which
+ * is what Prometheus wants (it takes rates of the buckets itself). The
+ * percentiles shown over JMX cover only the last {@link #RECENT_WINDOW} or
+ * two, so a slowdown shows up in them within minutes however long the
+ * process has run.
+ * <p>
+ * Every call is wrapped like this:
+ *
+ * <pre>
+ * MethodMetrics.Call call = metrics.start();
+ * try {
+ *   return delegate.method(...);
+ * } catch (Exception e) {
+ *   call.failed(e);
+ *   throw e;
+ * } finally {
+ *   call.end();
+ * }
+ * </pre>
+ *
+ * Recording is lock-free: a few adder increments, two clock reads and, when
+ * allocations are tracked, two reads of the thread's allocation counter.
+ */
+public class MethodMetrics implements MethodMetricsMXBean {
+
+  /**
+   * The window of the percentiles shown over JMX.
+   */
+  public static final Duration RECENT_WINDOW = Duration.ofMinutes(1);
+
+  private final String component;
+  private final String method;
+  private final AllocationCounter allocations;
+
+  private final LatencyHistogram latency = new LatencyHistogram();
+  private final RecentLatency recentLatency = new RecentLatency(RECENT_WINDOW);
+  private final LongAdder inFlight = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+  private final Map<String, LongAdder> errorsByType = new ConcurrentHashMap<>();
+  private final LongAdder allocatedBytes = new LongAdder();
+  private final LongAdder allocationSamples = new LongAdder();
+
+  MethodMetrics(String component, String method, AllocationCounter allocations) {
+    this.component = component;
+    this.method = method;
+    this.allocations = allocations;
+  }
+
+  /**
+   * Marks the start of a call.
+   *
+   * @return The call, to be ended exactly once.
+   */
+  public Call start() {
+    inFlight.increment();
+    return new Call(this, System.nanoTime(), allocations.currentThreadBytes());
+  }
+
+  public String getComponent() {
+    return component;
+  }
+
+  public String getMethod() {
+    return method;
+  }
+
+  /**
+   * @return The latencies of the calls that ended, successful or not.
+   */
+  public LatencyHistogram getLatency() {
+    return latency;
+  }
+
+  @Override
+  public long getCount() {
+    return latency.getCount();
+  }
+
+  @Override
+  public long getInFlight() {
+    return inFlight.sum();
+  }
+
+  @Override
+  public long getErrorCount() {
+    return errors.sum();
+  }
+
+  @Override
+  public Map<String, Long> getErrorCounts() {
+    Map<String, Long> counts = new TreeMap<>();
+    errorsByType.forEach((type, count) -> counts.put(type, count.sum()));
+    return counts;
+  }
+
+  @Override
+  public double getMeanMicros() {
+    return latency.getMeanNanos() / 1_000.0;
+  }
+
+  @Override
+  public double getP50Micros() {
+    return micros(recentLatency.getPercentileNanos(0.50));
+  }
+
+  @Override
+  public double getP99Micros() {
+    return micros(recentLatency.getPercentileNanos(0.99));
+  }
+
+  @Override
+  public double getP999Micros() {
+    return micros(recentLatency.getPercentileNanos(0.999));
+  }
+
+  @Override
+  public double getMaxMicros() {
+    return micros(latency.getMaxNanos());
+  }
+
+  @Override
+  public long getAllocatedBytes() {
+    return allocatedBytes.sum();
+  }
+
+  @Override
+  public double getAllocatedBytesPerCall() {
+    long samples = allocationSamples.sum();
+    return samples == 0 ? 0.0 : (double) allocatedBytes.sum() / samples;
+  }
+
+  @Override
+  public String toString() {
+    return component + "." + method + " " + latency.summary(TimeUnit.MICROSECONDS) +
+        " errors=" + getErrorCount() + " inFlight=" + getInFlight();
+  }
+
+  // --- Private Helper Methods ---
+
+  private void recordError(Throwable error) {
+    Throwable cause = error;
+    while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    errors.increment();
+    errorsByType.computeIfAbsent(cause.getClass().getSimpleName(), type -> new LongAdder()).increment();
+  }
+
+  private void record(long nanos, long now) {
+    latency.record(nanos);
+    recentLatency.record(nanos, now);
+  }
+
+  private static double micros(long nanos) {
+    return nanos / 1_000.0;
+  }
+
+  /**
+   * One call being measured.
+   */
+  public static final class Call {
+    private final MethodMetrics metrics;
+    private final long startNanos;
+    private final long startBytes;
+
+    private Call(MethodMetrics metrics, long startNanos, long startBytes) {
+      this.metrics = metrics;
+      this.startNanos = startNanos;
+      this.startBytes = startBytes;
+    }
+
+    /**
+     * Counts the call as failed. It must still be ended.
+     */
+    public void failed(Throwable error) {
+      metrics.recordError(error);
+    }
+
+    /**
+     * Ends the call, on the thread that started it.
+     */
+    public void end() {
+      long now = System.nanoTime();
+      recordAllocations();
+      metrics.record(now - startNanos, now);
+      metrics.inFlight.decrement();
+    }
+
+    /**
+     * Ends the call when the future completes, so its latency includes the time
+     * the work spent queued and running on other threads. Only the bytes
+     * allocated by this thread, up to now, are counted.
+     *
+     * @return The same future.
+     */
+    public <T> CompletableFuture<T> endWhenDone(CompletableFuture<T> future) {
+      recordAllocations();
+      future.whenComplete((result, error) -> {
+        if (error != null) {
+          failed(error);
+        }
+        long now = System.nanoTime();
+        metrics.record(now - startNanos, now);
+        metrics.inFlight.decrement();
+      });
+      return future;
+    }
+
+    private void recordAllocations() {
+      if (startBytes >= 0) {
+        long bytes = metrics.allocations.currentThreadBytes();
+        if (bytes >= 0) {
+          metrics.allocatedBytes.add(bytes - startBytes);
+          metrics.allocationSamples.increment();
+        }
+      }
+    }
+  }
+}
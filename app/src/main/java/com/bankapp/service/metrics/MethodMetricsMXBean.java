@@ -0,0 +1,52 @@
+package com.bankapp.service.metrics;
+
+import java.util.Map;
+
+/**
+ * The JMX view of a {@link MethodMetrics}, registered by
+ * {@link MetricsRegistry#registerMBeans}.
+ */
+public interface MethodMetricsMXBean {
+
+  /**
+   * @return The number of calls that ended.
+   */
+  long getCount();
+
+  /**
+   * @return The number of calls started but not yet ended.
+   */
+  long getInFlight();
+
+  /**
+   * @return The number of calls that failed.
+   */
+  long getErrorCount();
+
+  /**
+   * @return The number of failed calls by simple exception class name.
+   */
+  Map<String, Long> getErrorCounts();
+
+  double getMeanMicros();
+
+  /**
+   * @return The median latency over the last one to two
+   *         {@link MethodMetrics#RECENT_WINDOW}s, as are the other percentiles.
+   */
+  double getP50Micros();
+
+  double getP99Micros();
+
+  double getP999Micros();
+
+  double getMaxMicros();
+
+  /**
+   * @return The bytes allocated by the calling threads during the calls, or 0
+   *         if allocations aren't tracked.
+   */
+  long getAllocatedBytes();
+
+  double getAllocatedBytesPerCall();
+}
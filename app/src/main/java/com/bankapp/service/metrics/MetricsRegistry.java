@@ -0,0 +1,210 @@
+package com.bankapp.service.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the {@link MethodMetrics} of every instrumented component, and
+ * exports them through JMX and in the Prometheus text format.
+ * <p>
+ * The instrumented decorators (e.g. {@code InstrumentedBankingService}) ask
+ * for their metrics once, when they are created; after that, recording a call
+ * doesn't touch the registry.
+ */
+public class MetricsRegistry {
+
+  /**
+   * The JMX domain of the MBeans, e.g.
+   * {@code com.bankapp:type=Metrics,component=BankingService,method=deposit}.
+   */
+  public static final String JMX_DOMAIN = "com.bankapp";
+
+  // The histogram's bucket bounds: the powers of two from about 1 us to 69 s,
+  // which fall between LatencyHistogram's buckets, so the counts are exact
+  private static final long[] BUCKET_BOUNDS_NANOS = new long[27];
+
+  static {
+    for (int i = 0; i < BUCKET_BOUNDS_NANOS.length; i++) {
+      BUCKET_BOUNDS_NANOS[i] = 1L << (10 + i);
+    }
+  }
+
+  private final AllocationCounter allocations;
+  private final Map<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+  private MBeanServer mBeanServer;
+
+  /**
+   * A registry that also counts the bytes each call allocates (if the JVM
+   * supports it).
+   */
+  public MetricsRegistry() {
+    this(true);
+  }
+
+  /**
+   * @param trackAllocations Whether to count the bytes each call allocates.
+   *                         This costs two reads of a per-thread counter per
+   *                         call.
+   */
+  public MetricsRegistry(boolean trackAllocations) {
+    this.allocations = trackAllocations ? AllocationCounter.create() : AllocationCounter.DISABLED;
+  }
+
+  /**
+   * @param component The instrumented component, e.g. "BankingService".
+   * @param method    The method, e.g. "deposit". Overloads that should be told
+   *                  apart need different names.
+   * @return The method's metrics, created on first use.
+   */
+  public synchronized MethodMetrics method(String component, String method) {
+    String key = component + "." + method;
+    MethodMetrics metrics = methods.get(key);
+    if (metrics == null) {
+      metrics = new MethodMetrics(component, method, allocations);
+      methods.put(key, metrics);
+      if (mBeanServer != null) {
+        register(mBeanServer, metrics);
+      }
+    }
+    return metrics;
+  }
+
+  /**
+   * @return Whether the bytes allocated per call are counted.
+   */
+  public boolean isTrackingAllocations() {
+    return allocations != AllocationCounter.DISABLED;
+  }
+
+  /**
+   * @return Every method's metrics, by component and method name.
+   */
+  public List<MethodMetrics> getMethods() {
+    List<MethodMetrics> sorted = new ArrayList<>(methods.values());
+    sorted.sort(Comparator.comparing(MethodMetrics::getComponent).thenComparing(MethodMetrics::getMethod));
+    return sorted;
+  }
+
+  /**
+   * Registers an MXBean per method, now and for methods added later.
+   *
+   * @param server Typically {@code ManagementFactory.getPlatformMBeanServer()}.
+   */
+  public synchronized void registerMBeans(MBeanServer server) {
+    if (mBeanServer != null) {
+      throw new IllegalStateException("MBeans are already registered");
+    }
+    mBeanServer = server;
+    methods.values().forEach(metrics -> register(server, metrics));
+  }
+
+  /**
+   * Writes every metric in the Prometheus text exposition format (version
+   * 0.0.4). Latencies are in seconds, as a histogram of every call since the
+   * start, so quantiles over any window come from
+   * {@code histogram_quantile(0.99, rate(bankapp_call_duration_seconds_bucket[5m]))}.
+   */
+  public void writePrometheus(Appendable out) throws IOException {
+    List<MethodMetrics> all = getMethods();
+
+    // 1. Latency, as a histogram
+    family(out, "bankapp_call_duration_seconds", "histogram", "Latency of calls that ended");
+    for (MethodMetrics metrics : all) {
+      LatencyHistogram latency = metrics.getLatency();
+      long[] counts = latency.getCountsBelow(BUCKET_BOUNDS_NANOS);
+      for (int i = 0; i < BUCKET_BOUNDS_NANOS.length; i++) {
+        sample(out, "bankapp_call_duration_seconds_bucket", metrics, "le",
+            Double.toString(BUCKET_BOUNDS_NANOS[i] / 1e9), counts[i]);
+      }
+      long count = counts[BUCKET_BOUNDS_NANOS.length];
+      sample(out, "bankapp_call_duration_seconds_bucket", metrics, "le", "+Inf", count);
+      sample(out, "bankapp_call_duration_seconds_sum", metrics, null, null, latency.getTotalNanos() / 1e9);
+      sample(out, "bankapp_call_duration_seconds_count", metrics, null, null, count);
+    }
+
+    // 2. Errors, by exception type
+    family(out, "bankapp_call_errors_total", "counter", "Calls that failed, by exception type");
+    for (MethodMetrics metrics : all) {
+      for (Map.Entry<String, Long> errors : metrics.getErrorCounts().entrySet()) {
+        sample(out, "bankapp_call_errors_total", metrics, "exception", errors.getKey(), errors.getValue());
+      }
+    }
+
+    // 3. Calls in flight
+    family(out, "bankapp_calls_in_flight", "gauge", "Calls started but not yet ended");
+    for (MethodMetrics metrics : all) {
+      sample(out, "bankapp_calls_in_flight", metrics, null, null, metrics.getInFlight());
+    }
+
+    // 4. Allocations
+    if (isTrackingAllocations()) {
+      family(out, "bankapp_call_allocated_bytes_total", "counter", "Bytes allocated by the calling thread");
+      for (MethodMetrics metrics : all) {
+        sample(out, "bankapp_call_allocated_bytes_total", metrics, null, null, metrics.getAllocatedBytes());
+      }
+    }
+  }
+
+  /**
+   * @return Every metric in the Prometheus text format.
+   */
+  public String toPrometheus() {
+    StringBuilder text = new StringBuilder();
+    try {
+      writePrometheus(text);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e); // A StringBuilder doesn't throw
+    }
+    return text.toString();
+  }
+
+  // --- Private Helper Methods ---
+
+  private static void register(MBeanServer server, MethodMetrics metrics) {
+    try {
+      ObjectName name = new ObjectName(JMX_DOMAIN + ":type=Metrics,component=" + metrics.getComponent() +
+          ",method=" + metrics.getMethod());
+      server.registerMBean(metrics, name);
+    } catch (InstanceAlreadyExistsException e) {
+      // Another registry in this JVM (e.g. a test's) got there first: keep its MBean
+    } catch (JMException e) {
+      throw new IllegalStateException("Failed to register the MBean of " + metrics.getComponent() + "." +
+          metrics.getMethod(), e);
+    }
+  }
+
+  private static void family(Appendable out, String name, String type, String help) throws IOException {
+    out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+  }
+
+  private static void sample(Appendable out, String name, MethodMetrics metrics, String extraLabel,
+      String extraValue, double value) throws IOException {
+    out.append(name)
+        .append("{component=\"").append(escape(metrics.getComponent()))
+        .append("\",method=\"").append(escape(metrics.getMethod())).append('"');
+    if (extraLabel != null) {
+      out.append(',').append(extraLabel).append("=\"").append(escape(extraValue)).append('"');
+    }
+    out.append("} ");
+    if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+      out.append(Long.toString((long) value)); // Counts without a trailing ".0"
+    } else {
+      out.append(Double.toString(value));
+    }
+    out.append('\n');
+  }
+
+  private static String escape(String labelValue) {
+    return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+}
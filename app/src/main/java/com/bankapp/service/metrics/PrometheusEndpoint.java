@@ -0,0 +1,82 @@
+package com.bankapp.service.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves a {@link MetricsRegistry} at {@code /metrics}, in the Prometheus
+ * text format, for a Prometheus server to scrape.
+ * <p>
+ * Uses the JDK's built-in HTTP server with a single thread: a scrape every few
+ * seconds is all it has to handle.
+ */
+public class PrometheusEndpoint implements AutoCloseable {
+
+  public static final String PATH = "/metrics";
+
+  private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  private final HttpServer server;
+  private final ExecutorService executor;
+
+  private PrometheusEndpoint(HttpServer server, ExecutorService executor) {
+    this.server = server;
+    this.executor = executor;
+  }
+
+  /**
+   * @param registry The metrics to serve.
+   * @param address  Where to listen (port 0 picks a free port).
+   * @return The running endpoint.
+   * @throws IOException if the address can't be bound.
+   */
+  public static PrometheusEndpoint start(MetricsRegistry registry, InetSocketAddress address) throws IOException {
+    HttpServer server = HttpServer.create(address, 0);
+    server.createContext(PATH, exchange -> serve(registry, exchange));
+    ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "prometheus-endpoint");
+      thread.setDaemon(true);
+      return thread;
+    });
+    server.setExecutor(executor);
+    server.start();
+    return new PrometheusEndpoint(server, executor);
+  }
+
+  /**
+   * @return The address the endpoint listens on.
+   */
+  public InetSocketAddress getAddress() {
+    return server.getAddress();
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  // --- Private Helper Methods ---
+
+  private static void serve(MetricsRegistry registry, HttpExchange exchange) throws IOException {
+    try (exchange) {
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        exchange.sendResponseHeaders(405, -1);
+        return;
+      }
+      byte[] body = registry.toPrometheus().getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package com.bankapp.service.metrics;
+
+import java.time.Duration;
+
+/**
+ * The latencies of the last one to two windows, for percentiles that follow
+ * what the method is doing now rather than averaging over the whole life of
+ * the process.
+ * <p>
+ * Samples go into the current window's histogram. Once the window is over it
+ * becomes the previous one, and a fresh histogram takes its place; percentiles
+ * are read from both together, so they never cover less than a full window.
+ * A sample that races with the rotation may land in the window just closed,
+ * which is still read.
+ */
+final class RecentLatency {
+
+  private final long windowNanos;
+
+  private volatile LatencyHistogram current = new LatencyHistogram();
+  private volatile LatencyHistogram previous = new LatencyHistogram();
+  private volatile long currentEndsAt;
+
+  RecentLatency(Duration window) {
+    if (window == null || window.isNegative() || window.isZero()) {
+      throw new IllegalArgumentException("Window must be positive");
+    }
+    this.windowNanos = window.toNanos();
+    this.currentEndsAt = System.nanoTime() + windowNanos;
+  }
+
+  /**
+   * @param nanos The latency in nanoseconds.
+   * @param now   The {@link System#nanoTime()} when the call ended.
+   */
+  void record(long nanos, long now) {
+    if (now - currentEndsAt >= 0) {
+      rotate(now);
+    }
+    current.record(nanos);
+  }
+
+  /**
+   * @param quantile The quantile, from 0.0 to 1.0.
+   * @return An upper bound on the latency at that quantile over the last one
+   *         to two windows, in nanoseconds, or 0 if nothing was recorded.
+   */
+  long getPercentileNanos(double quantile) {
+    if (System.nanoTime() - currentEndsAt >= 0) {
+      rotate(System.nanoTime());
+    }
+    return LatencyHistogram.percentileNanos(quantile, previous, current);
+  }
+
+  // --- Private Helper Methods ---
+
+  private synchronized void rotate(long now) {
+    if (now - currentEndsAt < 0) {
+      return; // Another thread got here first
+    }
+    // After a quiet spell longer than a window, the last one is stale too
+    previous = now - currentEndsAt < windowNanos ? current : new LatencyHistogram();
+    current = new LatencyHistogram();
+    currentEndsAt = now + windowNanos;
+  }
+}
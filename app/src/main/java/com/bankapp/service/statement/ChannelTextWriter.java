@@ -0,0 +1,77 @@
+package com.bankapp.service.statement;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes text as UTF-8 straight into a fixed-size byte buffer, and writes the
+ * buffer to a channel each time it fills up. However much text goes through,
+ * the only memory used is the one buffer.
+ */
+final class ChannelTextWriter {
+
+  private final WritableByteChannel channel;
+  private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+  private final ByteBuffer buffer;
+  private long bytesWritten;
+
+  /**
+   * @param channel    The channel to write to. It is not closed by this writer.
+   * @param bufferSize The size of the byte buffer.
+   */
+  ChannelTextWriter(WritableByteChannel channel, int bufferSize) {
+    this.channel = channel;
+    // Direct: a file channel writes it without copying it first
+    this.buffer = ByteBuffer.allocateDirect(bufferSize);
+  }
+
+  /**
+   * Encodes the text into the buffer, writing the buffer out whenever it is
+   * full. The text may be reused as soon as this returns.
+   */
+  void write(CharSequence text) throws IOException {
+    CharBuffer chars = CharBuffer.wrap(text);
+    while (true) {
+      CoderResult result = encoder.encode(chars, buffer, false);
+      if (result.isOverflow()) {
+        drain();
+      } else if (result.isError()) {
+        result.throwException();
+      } else {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Writes out whatever is still buffered. Call once, after the last text.
+   */
+  void finish() throws IOException {
+    while (encoder.encode(CharBuffer.allocate(0), buffer, true).isOverflow()) {
+      drain();
+    }
+    while (encoder.flush(buffer).isOverflow()) {
+      drain();
+    }
+    drain();
+  }
+
+  long getBytesWritten() {
+    return bytesWritten;
+  }
+
+  // --- Private Helper Methods ---
+
+  private void drain() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      bytesWritten += channel.write(buffer);
+    }
+    buffer.clear();
+  }
+}
@@ -0,0 +1,158 @@
+package com.bankapp.service.statement;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.Transaction;
+import com.bankapp.repository.TransactionCursor;
+import com.bankapp.repository.TransactionPage;
+import com.bankapp.service.BankingService;
+import com.bankapp.service.exception.AccountNotFoundException;
+import com.bankapp.service.exception.StatementChangedException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+
+/**
+ * Exports account statements (see {@link StatementFormat}).
+ * <p>
+ * A statement is streamed: the period's ledger rows are read one page at a
+ * time, newest first, and each row is encoded straight into a fixed-size
+ * buffer that is written to the channel whenever it fills up. Heap use is the
+ * same for ten rows or ten million.
+ * <p>
+ * The opening and closing balances are two running-total lookups, so they are
+ * known before the first row is written. The balance after each row is worked
+ * out on the fly, backwards from the closing balance. Once every row is
+ * written, the rows must take the opening balance to the closing one: if they
+ * don't, an entry of the period was committed in the meantime and the
+ * balances written are off, so a file is written again from scratch (and a
+ * channel, which can't be rewound, fails).
+ */
+public class StatementExporter {
+
+  // Rows read per page
+  static final int PAGE_SIZE = 500;
+
+  // Bytes buffered between writes to the channel
+  static final int BUFFER_SIZE = 64 * 1024;
+
+  // Times a file is written before giving up on a ledger that keeps changing
+  static final int MAX_ATTEMPTS = 3;
+
+  private final BankingService bankingService;
+
+  public StatementExporter(BankingService bankingService) {
+    this.bankingService = bankingService;
+  }
+
+  /**
+   * Writes a statement to a file, replacing it if it exists. If the period's
+   * ledger changes while it is written, it is written again, up to
+   * {@link #MAX_ATTEMPTS} times.
+   *
+   * @see #export(String, LocalDateTime, LocalDateTime, StatementFormat, WritableByteChannel)
+   */
+  public StatementSummary export(String accountNumber, LocalDateTime from, LocalDateTime to, StatementFormat format,
+      Path file) throws AccountNotFoundException, IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      for (int attempt = 1; ; attempt++) {
+        try {
+          return export(accountNumber, from, to, format, channel);
+        } catch (StatementChangedException e) {
+          if (attempt == MAX_ATTEMPTS) {
+            throw e;
+          }
+          channel.truncate(0);
+          channel.position(0);
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes a statement to a channel.
+   *
+   * @param accountNumber The account.
+   * @param from          The start of the period (inclusive).
+   * @param to            The end of the period (inclusive). A time in the
+   *                      future is taken as now.
+   * @param format        The file format.
+   * @param out           The channel to write to. It is left open.
+   * @return The statement's balances and totals.
+   * @throws AccountNotFoundException  if the account does not exist.
+   * @throws IOException               if writing to the channel fails.
+   * @throws StatementChangedException if the period's ledger changed while the
+   *                                   statement was written. What was written
+   *                                   should be thrown away.
+   */
+  public StatementSummary export(String accountNumber, LocalDateTime from, LocalDateTime to, StatementFormat format,
+      WritableByteChannel out) throws AccountNotFoundException, IOException {
+    if (from == null || to == null || from.isAfter(to)) {
+      throw new IllegalArgumentException("Statement period must have a start no later than its end");
+    }
+    if (format == null || out == null) {
+      throw new IllegalArgumentException("Format and channel cannot be null");
+    }
+
+    // 1. The period ends no later than now, so later entries can't slip in after the closing balance
+    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime end = to.isAfter(now) ? now : to;
+    Account account = bankingService.getAccount(accountNumber);
+    BigDecimal closing = bankingService.balanceAsOf(accountNumber, end);
+    BigDecimal opening = from.isAfter(end) ? closing : bankingService.balanceAsOf(accountNumber, from.minusNanos(1));
+
+    ChannelTextWriter writer = new ChannelTextWriter(out, BUFFER_SIZE);
+    StringBuilder text = new StringBuilder(512); // Reused for every row
+    format.header(account, from, end, opening, closing, text);
+    writer.write(text);
+
+    // 2. Stream the rows newest first, starting with the last one at or before the end
+    BigDecimal balance = closing;
+    BigDecimal credits = BigDecimal.ZERO;
+    BigDecimal debits = BigDecimal.ZERO;
+    long rows = 0;
+    TransactionCursor cursor = new TransactionCursor(end, Long.MAX_VALUE);
+    while (cursor != null) {
+      TransactionPage page = bankingService.getTransactionsPage(accountNumber, cursor, PAGE_SIZE);
+      cursor = page.getNextCursor().orElse(null);
+      for (Transaction transaction : page.getTransactions()) {
+        if (transaction.getTimestamp().isBefore(from)) {
+          cursor = null; // Past the start of the period
+          break;
+        }
+        text.setLength(0);
+        format.row(transaction, balance, text);
+        writer.write(text);
+
+        BigDecimal amount = transaction.getAmount();
+        if (amount.signum() < 0) {
+          debits = debits.add(amount);
+        } else {
+          credits = credits.add(amount);
+        }
+        balance = balance.subtract(amount);
+        rows++;
+      }
+    }
+
+    // 3. The rows read must explain the balances in the header
+    if (opening.add(credits).add(debits).compareTo(closing) != 0) {
+      throw new StatementChangedException("The ledger of " + accountNumber + " changed while its statement was " +
+          "written: the rows add up to " + opening.add(credits).add(debits) + ", not " + closing);
+    }
+
+    // 4. Footer, and whatever is still buffered
+    text.setLength(0);
+    format.footer(account, end, closing, text);
+    writer.write(text);
+    writer.finish();
+
+    return new StatementSummary(accountNumber, from, end, opening, closing, credits, debits, rows,
+        writer.getBytesWritten());
+  }
+}
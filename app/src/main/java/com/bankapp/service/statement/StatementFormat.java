@@ -0,0 +1,170 @@
+package com.bankapp.service.statement;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The file formats a statement can be exported in. Each one writes a
+ * statement as a header, one piece per ledger row, and a footer, so rows can
+ * be written as they are read.
+ */
+public enum StatementFormat {
+
+  /**
+   * Comma-separated values: a few "key,value" lines with the period and its
+   * balances, a blank line, then one line per transaction (newest first) with
+   * the balance after it.
+   */
+  CSV {
+    private final DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Override
+    void header(Account account, LocalDateTime from, LocalDateTime to, BigDecimal opening, BigDecimal closing,
+        StringBuilder out) {
+      out.append("Account,").append(account.getAccountNumber()).append("\r\n");
+      out.append("From,").append(dateFormat.format(from)).append("\r\n");
+      out.append("To,").append(dateFormat.format(to)).append("\r\n");
+      out.append("Opening balance,").append(opening.toPlainString()).append("\r\n");
+      out.append("Closing balance,").append(closing.toPlainString()).append("\r\n");
+      out.append("\r\n");
+      out.append("Date,Transaction ID,Type,Description,Amount,Balance\r\n");
+    }
+
+    @Override
+    void row(Transaction transaction, BigDecimal balanceAfter, StringBuilder out) {
+      out.append(dateFormat.format(transaction.getTimestamp())).append(',');
+      out.append(transaction.getId()).append(',');
+      out.append(transaction.getType()).append(',');
+      appendQuoted(transaction.getDescription(), out);
+      out.append(',').append(transaction.getAmount().toPlainString());
+      out.append(',').append(balanceAfter.toPlainString()).append("\r\n");
+    }
+
+    @Override
+    void footer(Account account, LocalDateTime to, BigDecimal closing, StringBuilder out) {
+      // Everything is in the header
+    }
+
+    /**
+     * Quotes a field if it contains a separator, a quote or a line break (RFC 4180).
+     */
+    private void appendQuoted(String value, StringBuilder out) {
+      if (value == null) {
+        return;
+      }
+      boolean quote = false;
+      for (int i = 0; i < value.length() && !quote; i++) {
+        char c = value.charAt(i);
+        quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+      }
+      if (!quote) {
+        out.append(value);
+        return;
+      }
+      out.append('"');
+      for (int i = 0; i < value.length(); i++) {
+        char c = value.charAt(i);
+        if (c == '"') {
+          out.append('"');
+        }
+        out.append(c);
+      }
+      out.append('"');
+    }
+  },
+
+  /**
+   * Open Financial Exchange 2.2 (XML), as imported by personal finance
+   * software. Transfers are marked XFER; the closing balance is the
+   * LEDGERBAL.
+   */
+  OFX {
+    private final DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    @Override
+    void header(Account account, LocalDateTime from, LocalDateTime to, BigDecimal opening, BigDecimal closing,
+        StringBuilder out) {
+      out.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+      out.append("<?OFX OFXHEADER=\"200\" VERSION=\"220\" SECURITY=\"NONE\" OLDFILEUID=\"NONE\""
+          + " NEWFILEUID=\"NONE\"?>\n");
+      out.append("<OFX>\n");
+      out.append("<SIGNONMSGSRSV1><SONRS><STATUS><CODE>0</CODE><SEVERITY>INFO</SEVERITY></STATUS>");
+      out.append("<DTSERVER>").append(dateFormat.format(LocalDateTime.now())).append("</DTSERVER>");
+      out.append("<LANGUAGE>ENG</LANGUAGE></SONRS></SIGNONMSGSRSV1>\n");
+      out.append("<BANKMSGSRSV1><STMTTRNRS><TRNUID>0</TRNUID>");
+      out.append("<STATUS><CODE>0</CODE><SEVERITY>INFO</SEVERITY></STATUS>\n");
+      out.append("<STMTRS><CURDEF>USD</CURDEF>\n");
+      out.append("<BANKACCTFROM><BANKID>BANKAPP</BANKID><ACCTID>");
+      appendEscaped(account.getAccountNumber(), out);
+      out.append("</ACCTID><ACCTTYPE>").append(account.getAccountType()).append("</ACCTTYPE></BANKACCTFROM>\n");
+      out.append("<BANKTRANLIST><DTSTART>").append(dateFormat.format(from)).append("</DTSTART>");
+      out.append("<DTEND>").append(dateFormat.format(to)).append("</DTEND>\n");
+    }
+
+    @Override
+    void row(Transaction transaction, BigDecimal balanceAfter, StringBuilder out) {
+      String type = transaction.getCorrelationId() != null ? "XFER"
+          : transaction.getAmount().signum() < 0 ? "DEBIT" : "CREDIT";
+      out.append("<STMTTRN><TRNTYPE>").append(type).append("</TRNTYPE>");
+      out.append("<DTPOSTED>").append(dateFormat.format(transaction.getTimestamp())).append("</DTPOSTED>");
+      out.append("<TRNAMT>").append(transaction.getAmount().toPlainString()).append("</TRNAMT>");
+      out.append("<FITID>").append(transaction.getId()).append("</FITID>");
+      out.append("<NAME>");
+      appendEscaped(transaction.getDescription(), out);
+      out.append("</NAME></STMTTRN>\n");
+    }
+
+    @Override
+    void footer(Account account, LocalDateTime to, BigDecimal closing, StringBuilder out) {
+      out.append("</BANKTRANLIST>\n");
+      out.append("<LEDGERBAL><BALAMT>").append(closing.toPlainString()).append("</BALAMT>");
+      out.append("<DTASOF>").append(dateFormat.format(to)).append("</DTASOF></LEDGERBAL>\n");
+      out.append("</STMTRS></STMTTRNRS></BANKMSGSRSV1>\n");
+      out.append("</OFX>\n");
+    }
+
+    private void appendEscaped(String value, StringBuilder out) {
+      if (value == null) {
+        return;
+      }
+      for (int i = 0; i < value.length(); i++) {
+        char c = value.charAt(i);
+        switch (c) {
+          case '<':
+            out.append("&lt;");
+            break;
+          case '>':
+            out.append("&gt;");
+            break;
+          case '&':
+            out.append("&amp;");
+            break;
+          default:
+            out.append(c);
+        }
+      }
+    }
+  };
+
+  /**
+   * Writes what comes before the rows.
+   */
+  abstract void header(Account account, LocalDateTime from, LocalDateTime to, BigDecimal opening,
+      BigDecimal closing, StringBuilder out);
+
+  /**
+   * Writes one ledger row.
+   *
+   * @param balanceAfter The account's balance just after this transaction.
+   */
+  abstract void row(Transaction transaction, BigDecimal balanceAfter, StringBuilder out);
+
+  /**
+   * Writes what comes after the rows.
+   */
+  abstract void footer(Account account, LocalDateTime to, BigDecimal closing, StringBuilder out);
+}
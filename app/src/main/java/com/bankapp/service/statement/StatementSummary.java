@@ -0,0 +1,99 @@
+package com.bankapp.service.statement;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The totals of an exported statement.
+ */
+public class StatementSummary {
+
+  private final String accountNumber;
+  private final LocalDateTime from;
+  private final LocalDateTime to;
+  private final BigDecimal openingBalance;
+  private final BigDecimal closingBalance;
+  private final BigDecimal totalCredits;
+  private final BigDecimal totalDebits;
+  private final long rowCount;
+  private final long bytesWritten;
+
+  /**
+   * @param accountNumber  The account.
+   * @param from           The start of the period (inclusive).
+   * @param to             The end of the period (inclusive).
+   * @param openingBalance The balance just before the period.
+   * @param closingBalance The balance at the end of the period.
+   * @param totalCredits   The sum of the positive amounts in the period.
+   * @param totalDebits    The sum of the negative amounts in the period (zero or
+   *                       negative).
+   * @param rowCount       The number of transactions written.
+   * @param bytesWritten   The size of the statement.
+   */
+  public StatementSummary(String accountNumber, LocalDateTime from, LocalDateTime to, BigDecimal openingBalance,
+      BigDecimal closingBalance, BigDecimal totalCredits, BigDecimal totalDebits, long rowCount,
+      long bytesWritten) {
+    this.accountNumber = accountNumber;
+    this.from = from;
+    this.to = to;
+    this.openingBalance = openingBalance;
+    this.closingBalance = closingBalance;
+    this.totalCredits = totalCredits;
+    this.totalDebits = totalDebits;
+    this.rowCount = rowCount;
+    this.bytesWritten = bytesWritten;
+  }
+
+  public String getAccountNumber() {
+    return accountNumber;
+  }
+
+  public LocalDateTime getFrom() {
+    return from;
+  }
+
+  /**
+   * @return The end of the period: the requested end, or the time of the
+   *         export if that was earlier.
+   */
+  public LocalDateTime getTo() {
+    return to;
+  }
+
+  public BigDecimal getOpeningBalance() {
+    return openingBalance;
+  }
+
+  public BigDecimal getClosingBalance() {
+    return closingBalance;
+  }
+
+  public BigDecimal getTotalCredits() {
+    return totalCredits;
+  }
+
+  public BigDecimal getTotalDebits() {
+    return totalDebits;
+  }
+
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  public long getBytesWritten() {
+    return bytesWritten;
+  }
+
+  @Override
+  public String toString() {
+    return "StatementSummary{" +
+        "accountNumber='" + accountNumber + '\'' +
+        ", from=" + from +
+        ", to=" + to +
+        ", openingBalance=" + openingBalance +
+        ", closingBalance=" + closingBalance +
+        ", rowCount=" + rowCount +
+        ", bytesWritten=" + bytesWritten +
+        '}';
+  }
+}
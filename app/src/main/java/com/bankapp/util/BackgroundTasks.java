@@ -0,0 +1,45 @@
+package com.bankapp.util;
+
+import javafx.concurrent.Task;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Runs slow work (service calls, password checks) off the JavaFX application
+ * thread, so the window keeps repainting and responding while it runs.
+ * <p>
+ * The work runs on a virtual thread; the callbacks run back on the FX thread,
+ * where it is safe to touch the UI.
+ */
+public final class BackgroundTasks {
+
+  private static final ExecutorService EXECUTOR =
+      Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ui-task-", 0).factory());
+
+  private BackgroundTasks() {
+  }
+
+  /**
+   * Starts the work in the background.
+   *
+   * @param work      The work, e.g. a service call. Must not touch the UI.
+   * @param onSuccess Called on the FX thread with the result.
+   * @param onFailure Called on the FX thread with whatever the work threw.
+   * @return The running task (e.g. to bind a progress indicator to).
+   */
+  public static <T> Task<T> run(Callable<T> work, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+    Task<T> task = new Task<>() {
+      @Override
+      protected T call() throws Exception {
+        return work.call();
+      }
+    };
+    task.setOnSucceeded(event -> onSuccess.accept(task.getValue()));
+    task.setOnFailed(event -> onFailure.accept(task.getException()));
+    EXECUTOR.execute(task);
+    return task;
+  }
+}
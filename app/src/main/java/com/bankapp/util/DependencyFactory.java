@@ -3,32 +3,212 @@ package com.bankapp.util;
 import com.bankapp.repository.AccountRepository;
 import com.bankapp.repository.CustomerRepository;
 import com.bankapp.repository.TransactionRepository;
+import com.bankapp.repository.UnitOfWork;
+import com.bankapp.repository_impl.cache.CachingAccountRepository;
+import com.bankapp.repository_impl.file.FileStore;
+import com.bankapp.repository_impl.filter.BloomFilteredCustomerRepository;
+import com.bankapp.repository_impl.jpa.JpaAccountRepository;
+import com.bankapp.repository_impl.jpa.JpaCustomerRepository;
+import com.bankapp.repository_impl.jpa.JpaTransactionRepository;
+import com.bankapp.repository_impl.jpa.JpaTransactions;
+import com.bankapp.repository_impl.jpa.JpaUnitOfWork;
+import com.bankapp.repository_impl.metrics.InstrumentedAccountRepository;
+import com.bankapp.repository_impl.metrics.InstrumentedCustomerRepository;
+import com.bankapp.repository_impl.metrics.InstrumentedTransactionRepository;
 import com.bankapp.repository_impl.mock.MockAccountRepository;
 import com.bankapp.repository_impl.mock.MockCustomerRepository;
 import com.bankapp.repository_impl.mock.MockTransactionRepository;
+import com.bankapp.repository_impl.mock.MockUnitOfWork;
+import com.bankapp.service.AsyncBankingService;
 import com.bankapp.service.AuthService;
 import com.bankapp.service.BankingService;
+import com.bankapp.service.impl.AsyncBankingServiceImpl;
 import com.bankapp.service.impl.AuthServiceImpl;
 import com.bankapp.service.impl.BankingServiceImpl;
+import com.bankapp.service.impl.LoginRateLimiter;
+import com.bankapp.service.impl.PasswordHasher;
+import com.bankapp.service.impl.PasswordPolicy;
+import com.bankapp.service.importer.BulkImporter;
+import com.bankapp.service.metrics.InstrumentedAuthService;
+import com.bankapp.service.metrics.InstrumentedBankingService;
+import com.bankapp.service.metrics.MetricsRegistry;
+import com.bankapp.service.metrics.PrometheusEndpoint;
+import com.bankapp.service.statement.StatementExporter;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * A simple Dependency Injection container.
  * It ensures that we use the SAME instance of repositories and services
  * across the entire application, preserving our data in memory.
+ * <p>
+ * The repository backend is chosen with the "bankapp.backend" system property:
+ * "mock" (the default, in memory), "jpa" (Hibernate, configured by
+ * META-INF/persistence.xml) or "file" (an embedded store with a write-ahead
+ * log, in the directory named by "bankapp.data.dir"). With "jpa", up to
+ * "bankapp.accountCache.size" accounts are also cached in memory, and no more
+ * asynchronous operations run at once than there are pooled connections
+ * ("hibernate.connection.pool_size").
+ * <p>
+ * Lookups of unknown usernames and emails are answered from a Bloom filter
+ * (see {@link BloomFilteredCustomerRepository}) when "bankapp.customerFilter"
+ * is "true". That is the default for "mock" and "file", whose store only this
+ * process writes to, but not for "jpa", where customers added by other nodes
+ * would never be found.
+ * <p>
+ * Password hashing is tuned with "bankapp.password.scheme" (the scheme for new
+ * hashes: "bcrypt" or "pbkdf2"), "bankapp.bcrypt.cost" (the BCrypt cost
+ * factor), "bankapp.bcrypt.threads" (hashing threads) and
+ * "bankapp.bcrypt.queue" (hashes allowed to wait before sign-ins are turned
+ * away). "bankapp.login.trackedKeys" sets how many usernames and clients the
+ * login rate limiters track at once (about 20 bytes each, per limiter).
+ * <p>
+ * With "bankapp.balances" set to "ledger", the ledger is the source of truth:
+ * every account balance is rebuilt from it at startup (see
+ * {@link BankingService#rebuildBalances()}; balances from before the ledger
+ * are recorded in it as opening balances, not lost). The default, "stored",
+ * trusts the saved balances.
+ * <p>
+ * The services and repositories are instrumented (per-method latency, errors,
+ * calls in flight and bytes allocated; see {@link MetricsRegistry}) unless
+ * "bankapp.metrics" is "false", and the metrics are registered as MBeans under
+ * {@value MetricsRegistry#JMX_DOMAIN}. "bankapp.metrics.allocations" set to
+ * "false" skips counting allocations, and "bankapp.metrics.port" serves the
+ * metrics to Prometheus on that port. The endpoint has no authentication, so it
+ * listens on the loopback interface only, unless "bankapp.metrics.host" names
+ * the address to bind (e.g. "0.0.0.0" for every interface).
  */
 public class DependencyFactory {
 
+  private static final Logger LOGGER = Logger.getLogger(DependencyFactory.class.getName());
+
+  private static final String BACKEND = System.getProperty("bankapp.backend", "mock");
+
+  // Hibernate's own default for "hibernate.connection.pool_size"
+  private static final int DEFAULT_CONNECTION_POOL_SIZE = 20;
+
+  // Null when instrumentation is turned off
+  private static final MetricsRegistry metrics = createMetrics();
+
   // 1. Create SINGLE instances of the Repositories
-  private static final CustomerRepository customerRepository = new MockCustomerRepository();
-  private static final AccountRepository accountRepository = new MockAccountRepository();
-  private static final TransactionRepository transactionRepository = new MockTransactionRepository();
+  private static final CustomerRepository customerRepository;
+  private static final AccountRepository accountRepository;
+  private static final TransactionRepository transactionRepository;
+  private static final UnitOfWork unitOfWork;
+
+  // How many database connections the backend has (unlimited for the in-memory ones)
+  private static final int connectionPoolSize;
+
+  static {
+    CustomerRepository customers;
+    AccountRepository accounts;
+    TransactionRepository transactions;
+    switch (BACKEND) {
+      case "mock":
+        customers = new MockCustomerRepository();
+        accounts = new MockAccountRepository();
+        transactions = new MockTransactionRepository();
+        unitOfWork = new MockUnitOfWork();
+        connectionPoolSize = Integer.MAX_VALUE;
+        break;
+      case "jpa":
+        EntityManagerFactory entityManagerFactory = Persistence.createEntityManagerFactory("bankapp");
+        connectionPoolSize = Integer.parseInt(String.valueOf(entityManagerFactory.getProperties()
+            .getOrDefault("hibernate.connection.pool_size", DEFAULT_CONNECTION_POOL_SIZE)));
+        JpaTransactions jpa = new JpaTransactions(entityManagerFactory);
+        customers = new JpaCustomerRepository(jpa);
+        // The in-memory backends don't need it, but here a cache saves a round trip per lookup
+        accounts = new CachingAccountRepository(new JpaAccountRepository(jpa),
+            Integer.getInteger("bankapp.accountCache.size", CachingAccountRepository.DEFAULT_MAX_ACCOUNTS));
+        transactions = new JpaTransactionRepository(jpa);
+        unitOfWork = new JpaUnitOfWork(jpa);
+        break;
+      case "file":
+        FileStore store = openFileStore();
+        customers = store.getCustomerRepository();
+        accounts = store.getAccountRepository();
+        transactions = store.getTransactionRepository();
+        unitOfWork = store.getUnitOfWork();
+        connectionPoolSize = Integer.MAX_VALUE;
+        break;
+      default:
+        throw new IllegalStateException("Unknown bankapp.backend: " + BACKEND);
+    }
+    // Lookups of unknown usernames and emails are answered without reaching the store
+    // (only this process writes to the mock and file stores; other nodes write to the database too)
+    boolean filterCustomers = Boolean.parseBoolean(
+        System.getProperty("bankapp.customerFilter", String.valueOf(!"jpa".equals(BACKEND))));
+    if (filterCustomers) {
+      customers = new BloomFilteredCustomerRepository(customers);
+    }
+    if (metrics != null) {
+      customers = new InstrumentedCustomerRepository(customers, metrics);
+      accounts = new InstrumentedAccountRepository(accounts, metrics);
+      transactions = new InstrumentedTransactionRepository(transactions, metrics);
+    }
+    customerRepository = customers;
+    accountRepository = accounts;
+    transactionRepository = transactions;
+  }
+
+  private static final PasswordPolicy passwordPolicy = PasswordPolicy.of(
+      System.getProperty("bankapp.password.scheme", PasswordPolicy.BCRYPT),
+      Integer.getInteger("bankapp.bcrypt.cost", PasswordHasher.DEFAULT_COST));
 
   // 2. Create SINGLE instances of the Services, injecting the repositories
-  private static final AuthService authService = new AuthServiceImpl(customerRepository);
+  private static final AuthService authService = createAuthService();
 
-  private static final BankingService bankingService = new BankingServiceImpl(
+  private static final BankingService bankingService = createBankingService();
+
+  private static final AsyncBankingService asyncBankingService = createAsyncBankingService();
+
+  private static final StatementExporter statementExporter = new StatementExporter(bankingService);
+
+  private static final BulkImporter bulkImporter = new BulkImporter(
+      customerRepository,
       accountRepository,
-      transactionRepository);
+      transactionRepository,
+      unitOfWork,
+      passwordPolicy);
+
+  static {
+    String balances = System.getProperty("bankapp.balances", "stored");
+    switch (balances) {
+      case "stored":
+        break;
+      case "ledger":
+        LOGGER.info("Balances rebuilt from the ledger: " + bankingService.rebuildBalances());
+        break;
+      default:
+        throw new IllegalStateException("Unknown bankapp.balances: " + balances);
+    }
+
+    Integer metricsPort = Integer.getInteger("bankapp.metrics.port");
+    if (metrics != null && metricsPort != null) {
+      // The endpoint has no authentication: only this machine can reach it unless a host is given
+      String metricsHost = System.getProperty("bankapp.metrics.host",
+          InetAddress.getLoopbackAddress().getHostAddress());
+      try {
+        PrometheusEndpoint endpoint = PrometheusEndpoint.start(metrics,
+            new InetSocketAddress(metricsHost, metricsPort));
+        LOGGER.info("Metrics served at http://" + endpoint.getAddress().getHostString() + ":"
+            + endpoint.getAddress().getPort() + PrometheusEndpoint.PATH);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to serve metrics on " + metricsHost + ":" + metricsPort, e);
+      }
+    }
+  }
 
   // 3. Public methods to access these singletons
   public static AuthService getAuthService() {
@@ -39,5 +219,85 @@ public class DependencyFactory {
     return bankingService;
   }
 
+  public static AsyncBankingService getAsyncBankingService() {
+    return asyncBankingService;
+  }
+
+  public static StatementExporter getStatementExporter() {
+    return statementExporter;
+  }
+
+  public static BulkImporter getBulkImporter() {
+    return bulkImporter;
+  }
+
+  /**
+   * @return The metrics of the services and repositories, or null if
+   *         instrumentation is turned off.
+   */
+  public static MetricsRegistry getMetricsRegistry() {
+    return metrics;
+  }
+
   // We might need direct repo access later, but for now services are enough.
+
+  private static MetricsRegistry createMetrics() {
+    if (!Boolean.parseBoolean(System.getProperty("bankapp.metrics", "true"))) {
+      return null;
+    }
+    MetricsRegistry registry = new MetricsRegistry(
+        Boolean.parseBoolean(System.getProperty("bankapp.metrics.allocations", "true")));
+    registry.registerMBeans(ManagementFactory.getPlatformMBeanServer());
+    return registry;
+  }
+
+  private static AuthService createAuthService() {
+    int trackedKeys = Integer.getInteger("bankapp.login.trackedKeys", 1 << 20);
+    AuthService service = new AuthServiceImpl(customerRepository, createPasswordHasher(),
+        new LoginRateLimiter(5, Duration.ofSeconds(12), trackedKeys),
+        new LoginRateLimiter(30, Duration.ofSeconds(1), trackedKeys));
+    return metrics == null ? service : new InstrumentedAuthService(service, metrics);
+  }
+
+  private static BankingService createBankingService() {
+    BankingService service = new BankingServiceImpl(
+        accountRepository,
+        transactionRepository,
+        unitOfWork);
+    return metrics == null ? service : new InstrumentedBankingService(service, metrics);
+  }
+
+  private static AsyncBankingService createAsyncBankingService() {
+    // Each operation holds a connection while it runs: more at once would only queue in the pool
+    return new AsyncBankingServiceImpl(bankingService, Executors.newVirtualThreadPerTaskExecutor(),
+        connectionPoolSize);
+  }
+
+  private static PasswordHasher createPasswordHasher() {
+    int threads = Integer.getInteger("bankapp.bcrypt.threads",
+        Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    return new PasswordHasher(
+        passwordPolicy,
+        threads,
+        Integer.getInteger("bankapp.bcrypt.queue", threads * 32));
+  }
+
+  private static FileStore openFileStore() {
+    String directory = System.getProperty("bankapp.data.dir",
+        Paths.get(System.getProperty("user.home"), ".bankapp", "data").toString());
+    try {
+      FileStore store = FileStore.open(Paths.get(directory));
+      // Let commits already queued reach the log before the JVM exits
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+        try {
+          store.close();
+        } catch (IOException e) {
+          LOGGER.log(Level.WARNING, "Failed to close the data store", e);
+        }
+      }));
+      return store;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to open the data store in " + directory, e);
+    }
+  }
 }
@@ -0,0 +1,18 @@
+package com.bankapp.util;
+
+/**
+ * Implemented by controllers whose view is loaded once and shown many times.
+ * <p>
+ * ViewFactory parses each FXML file once and keeps the view and its
+ * controller, so {@code initialize()} only runs on the first load (possibly on
+ * a background thread, before anyone is logged in). Anything that depends on
+ * the current session, or must be reset between visits, belongs in
+ * {@link #onShow()} instead.
+ */
+public interface ViewController {
+
+  /**
+   * Called on the FX thread every time the view is about to be shown.
+   */
+  void onShow();
+}
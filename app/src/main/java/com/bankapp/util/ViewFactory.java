@@ -7,9 +7,41 @@ import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
 
+/**
+ * Shows the application's views.
+ * <p>
+ * Each view's FXML is parsed only once: {@link #preloadAll()} parses them all
+ * on a background thread at startup, and the loaded view and its controller
+ * are then kept and reused. Showing a view swaps it into the window's scene
+ * and calls its controller's {@link ViewController#onShow()}, so navigating
+ * (including every logout and login) doesn't parse anything again.
+ */
 public class ViewFactory {
 
+  private static final Logger LOGGER = Logger.getLogger(ViewFactory.class.getName());
+
+  // Loaded (or loading) views, shared by every ViewFactory: there is one window
+  private static final Map<ViewType, CompletableFuture<LoadedView>> VIEWS = new ConcurrentHashMap<>();
+
+  private static final ExecutorService PRELOADER = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "view-preloader");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  // From JVM start to the first frame on screen, in milliseconds (-1 until then)
+  private static volatile long startupToFirstFrameMillis = -1;
+
   private final Stage primaryStage;
 
   // Defines the views available in the application
@@ -35,33 +67,116 @@ public class ViewFactory {
     this.primaryStage = primaryStage;
   }
 
+  /**
+   * Starts parsing every view on a background thread, in declaration order (so
+   * the login view is ready first). Views that don't exist yet are skipped.
+   */
+  public static void preloadAll() {
+    for (ViewType viewType : ViewType.values()) {
+      if (resourceOf(viewType) != null) {
+        VIEWS.computeIfAbsent(viewType, type -> CompletableFuture.supplyAsync(() -> load(type), PRELOADER));
+      }
+    }
+  }
+
+  /**
+   * @return The time from JVM start to the first frame of the first view shown,
+   *         in milliseconds, or -1 if nothing has been drawn yet.
+   */
+  public static long getStartupToFirstFrameMillis() {
+    return startupToFirstFrameMillis;
+  }
+
   /**
    * Loads and displays a view.
    *
    * @param viewType The enum representing the view to show.
    */
   public void show(ViewType viewType) {
-    FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/bankapp/controller/" + viewType.getFxmlName()));
-
+    LoadedView view;
     try {
-      Parent root = loader.load();
-      Scene scene = new Scene(root);
+      // Waits only if the view is still being preloaded; loads it now if it wasn't
+      view = VIEWS.computeIfAbsent(viewType, type -> CompletableFuture.completedFuture(load(type))).join();
+    } catch (RuntimeException e) {
+      VIEWS.remove(viewType); // Try again next time
+      e.printStackTrace();
+      AlertUtils.showError("UI Error", "Could not load view: " + viewType.getFxmlName());
+      return;
+    }
 
+    if (view.controller instanceof ViewController) {
+      ((ViewController) view.controller).onShow();
+    }
+
+    // One scene per window; only its root changes
+    Scene scene = primaryStage.getScene();
+    if (scene == null) {
+      scene = new Scene(view.root);
       // Here you could load a CSS file if you wanted:
       // scene.getStylesheets().add(getClass().getResource("/styles/app.css").toExternalForm());
-
+      measureFirstFrame(scene);
       primaryStage.setScene(scene);
-      primaryStage.setTitle("Bank App - " + viewType.name());
-      primaryStage.show();
-      primaryStage.centerOnScreen();
-
-    } catch (IOException e) {
-      e.printStackTrace();
-      AlertUtils.showError("UI Error", "Could not load view: " + viewType.getFxmlName());
+    } else {
+      scene.setRoot(view.root);
     }
+
+    primaryStage.setTitle("Bank App - " + viewType.name());
+    primaryStage.sizeToScene();
+    primaryStage.show();
+    primaryStage.centerOnScreen();
   }
 
   public void closeStage(Stage stage) {
     stage.close();
   }
+
+  // --- Private Helper Methods ---
+
+  private static LoadedView load(ViewType viewType) {
+    URL resource = resourceOf(viewType);
+    if (resource == null) {
+      throw new IllegalStateException("No such view: " + viewType.getFxmlName());
+    }
+    FXMLLoader loader = new FXMLLoader(resource);
+    try {
+      Parent root = loader.load();
+      return new LoadedView(root, loader.getController());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static URL resourceOf(ViewType viewType) {
+    return MainApp.class.getResource("/com/bankapp/controller/" + viewType.getFxmlName());
+  }
+
+  /**
+   * Records how long the application took to draw its first frame (once).
+   */
+  private static void measureFirstFrame(Scene scene) {
+    if (startupToFirstFrameMillis >= 0) {
+      return;
+    }
+    Runnable[] listener = new Runnable[1];
+    listener[0] = () -> {
+      scene.removePostLayoutPulseListener(listener[0]);
+      long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+      startupToFirstFrameMillis = System.currentTimeMillis() - jvmStart;
+      LOGGER.info("Startup to first frame: " + startupToFirstFrameMillis + " ms");
+    };
+    scene.addPostLayoutPulseListener(listener[0]);
+  }
+
+  /**
+   * A parsed view and its controller.
+   */
+  private static final class LoadedView {
+    private final Parent root;
+    private final Object controller;
+
+    private LoadedView(Parent root, Object controller) {
+      this.root = root;
+      this.controller = controller;
+    }
+  }
 }
@@ -0,0 +1,75 @@
+package com.bankapp.repository_impl.cache;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.AccountType;
+import com.bankapp.model.Customer;
+import com.bankapp.repository_impl.mock.MockAccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingAccountRepositoryTest {
+
+  // Counts the lookups that reach the store
+  private final AtomicInteger storeLookups = new AtomicInteger();
+  private MockAccountRepository store;
+  private Customer customer;
+
+  @BeforeEach
+  void setUp() {
+    store = new MockAccountRepository() {
+      @Override
+      public Optional<Account> findByAccountNumber(String accountNumber) {
+        storeLookups.incrementAndGet();
+        return super.findByAccountNumber(accountNumber);
+      }
+
+      @Override
+      public Set<Account> findAllByCustomer(Customer customer) {
+        storeLookups.incrementAndGet();
+        return super.findAllByCustomer(customer);
+      }
+    };
+    customer = new Customer("userA", "hash", "A", "A", "a@a.com");
+    customer.setId(1L);
+  }
+
+  @Test
+  void testLookupsAreServedFromMemoryAndWritesGoThrough() {
+    // --- Arrange ---
+    CachingAccountRepository repository = new CachingAccountRepository(store, 16);
+    store.save(new Account(customer, AccountType.CHECKING, "12345"));
+
+    // --- Act ---
+    // The first lookups load, the repeats are hits
+    repository.findByAccountNumber("12345");
+    repository.findAllByCustomer(customer);
+    repository.findByAccountNumber("12345");
+    repository.findAllByCustomer(customer);
+
+    // A new account and a balance change are written through
+    repository.save(new Account(customer, AccountType.SAVINGS, "67890"));
+    Account checking = repository.findByAccountNumber("12345").orElseThrow();
+    checking.setBalance(new BigDecimal("50.00"));
+    repository.save(checking);
+    Set<Account> dashboard = repository.findAllByCustomer(customer);
+
+    // --- Assert ---
+    assertEquals(2, storeLookups.get());
+    assertEquals(2, repository.getMissCount());
+    assertEquals(4, repository.getHitCount());
+    assertEquals(2, dashboard.size());
+    assertTrue(dashboard.stream().anyMatch(a -> a.getBalance().compareTo(new BigDecimal("50.00")) == 0));
+
+    // Invalidation sends the next lookup back to the store
+    repository.invalidateCustomer(customer);
+    assertEquals(2, repository.findAllByCustomer(customer).size());
+    assertEquals(3, storeLookups.get());
+  }
+}
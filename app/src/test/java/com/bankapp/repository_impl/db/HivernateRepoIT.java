@@ -0,0 +1,226 @@
+package com.bankapp.repository_impl.db;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.AccountType;
+import com.bankapp.model.Customer;
+import com.bankapp.model.Transaction;
+import com.bankapp.model.TransactionType;
+import com.bankapp.repository.AccountRepository;
+import com.bankapp.repository.CustomerRepository;
+import com.bankapp.repository.TransactionRepository;
+import com.bankapp.repository_impl.cache.CachingAccountRepository;
+import com.bankapp.repository_impl.jpa.JpaAccountRepository;
+import com.bankapp.repository_impl.jpa.JpaCustomerRepository;
+import com.bankapp.repository_impl.jpa.JpaTransactionRepository;
+import com.bankapp.repository_impl.jpa.JpaTransactions;
+import com.bankapp.repository_impl.jpa.JpaUnitOfWork;
+import com.bankapp.service.BankingService;
+import com.bankapp.service.impl.BankingServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.Persistence;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the JPA repositories against an embedded H2 database in MySQL mode.
+ */
+class HivernateRepoIT {
+
+  private Map<String, String> properties;
+  private EntityManagerFactory entityManagerFactory;
+  private JpaTransactions transactions;
+  private CustomerRepository customerRepository;
+  private AccountRepository accountRepository;
+  private TransactionRepository transactionRepository;
+
+  private Customer customer;
+  private Account account;
+
+  @BeforeEach
+  void setUp() {
+    // 1. A fresh in-memory database per test, with the same persistence unit as production
+    properties = new HashMap<>();
+    properties.put("javax.persistence.jdbc.driver", "org.h2.Driver");
+    properties.put("javax.persistence.jdbc.url", "jdbc:h2:mem:" + UUID.randomUUID()
+        + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1");
+    properties.put("javax.persistence.jdbc.user", "sa");
+    properties.put("javax.persistence.jdbc.password", "");
+    properties.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+    properties.put("hibernate.hbm2ddl.auto", "create-drop");
+    entityManagerFactory = Persistence.createEntityManagerFactory("bankapp", properties);
+
+    // 2. The JPA repositories, sharing one factory
+    transactions = new JpaTransactions(entityManagerFactory);
+    customerRepository = new JpaCustomerRepository(transactions);
+    accountRepository = new JpaAccountRepository(transactions);
+    transactionRepository = new JpaTransactionRepository(transactions);
+
+    // 3. --- ARRANGE ---
+    customer = customerRepository.save(new Customer("johndoe", "hash", "John", "Doe", "john@example.com"));
+    account = accountRepository.save(new Account(customer, AccountType.CHECKING, "CH-1"));
+  }
+
+  @AfterEach
+  void tearDown() {
+    entityManagerFactory.close();
+  }
+
+  @Test
+  void testFindAccountByNumberLoadsCustomer() {
+    Account found = accountRepository.findByAccountNumber("CH-1").orElseThrow();
+
+    assertEquals(account.getId(), found.getId());
+    // The EntityManager is closed by now, so this only works if the customer was loaded
+    assertEquals("John", found.getCustomer().getFirstName());
+    assertEquals(1, accountRepository.findAllByCustomer(customer).size());
+  }
+
+  @Test
+  void testInsertIfAbsentIsCaseInsensitive() {
+    Customer duplicate = new Customer("JohnDoe", "hash", "Other", "Person", "other@example.com");
+
+    assertTrue(customerRepository.insertIfAbsent(duplicate).isEmpty());
+    assertNull(duplicate.getId());
+    assertTrue(customerRepository.findByEmail("JOHN@example.com").isPresent());
+  }
+
+  @Test
+  void testBulkAppendAndRangeQuery() {
+    // --- Arrange ---
+    // More entries than one JDBC batch
+    LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+    List<Transaction> entries = new ArrayList<>();
+    for (int i = 0; i < 120; i++) {
+      Transaction tx = new Transaction(account, TransactionType.DEPOSIT, BigDecimal.ONE, "Deposit " + i);
+      tx.setTimestamp(start.plusMinutes(i));
+      entries.add(tx);
+    }
+
+    // --- Act ---
+    transactionRepository.saveAll(entries);
+
+    // --- Assert ---
+    List<Transaction> all = transactionRepository.findAllByAccount(account);
+    assertEquals(120, all.size());
+    assertEquals("Deposit 119", all.get(0).getDescription()); // Newest first
+
+    List<Transaction> range = transactionRepository.findAllByAccountAndTimestampBetween(
+        account, start.plusMinutes(10), start.plusMinutes(19));
+    assertEquals(10, range.size());
+  }
+
+  @Test
+  void testRunningTotalsAreBackfilledOnFirstUse() {
+    // --- Arrange ---
+    // Rows written before the running_total column existed
+    LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+    List<Transaction> entries = new ArrayList<>();
+    for (int i = 1; i <= 3; i++) {
+      Transaction tx = new Transaction(account, TransactionType.DEPOSIT, new BigDecimal(i), "Deposit " + i);
+      tx.setTimestamp(start.plusMinutes(i));
+      entries.add(tx);
+    }
+    transactionRepository.saveAll(entries);
+    transactions.inTransaction(entityManager -> entityManager
+        .createQuery("UPDATE Transaction t SET t.runningTotal = NULL")
+        .executeUpdate());
+
+    // --- Act ---
+    // A node started after the migration; its first append is back-dated
+    TransactionRepository migrated = new JpaTransactionRepository(transactions);
+    Transaction backDated = new Transaction(account, TransactionType.DEPOSIT, new BigDecimal("10"), "Back-dated");
+    backDated.setTimestamp(start);
+    migrated.save(backDated);
+
+    // --- Assert ---
+    assertEquals(0, migrated.runningTotal(account).compareTo(new BigDecimal("16")));
+    assertEquals(0, migrated.runningTotalAsOf(account, start.plusMinutes(1)).compareTo(new BigDecimal("11")));
+  }
+
+  @Test
+  void testEqualTimestampsAreOrderedByIdAcrossNodes() {
+    // --- Arrange ---
+    // A second node on the same database: each node draws its own block of IDs
+    Map<String, String> properties = new HashMap<>(this.properties);
+    properties.put("hibernate.hbm2ddl.auto", "none");
+    EntityManagerFactory otherNode = Persistence.createEntityManagerFactory("bankapp", properties);
+    TransactionRepository otherRepository = new JpaTransactionRepository(new JpaTransactions(otherNode));
+    LocalDateTime time = LocalDateTime.of(2024, 1, 1, 12, 0);
+    transactionRepository.save(deposit("1", time.minusMinutes(1))); // This node's block starts first
+
+    // --- Act ---
+    // The other node writes first, but this node's row gets the lower ID
+    Transaction first = otherRepository.save(deposit("10", time));
+    Transaction second = transactionRepository.save(deposit("100", time));
+    otherNode.close();
+
+    // --- Assert ---
+    assertTrue(second.getId() < first.getId());
+    List<Transaction> history = transactionRepository.findAllByAccount(account); // Newest first
+    assertEquals(first.getId(), history.get(0).getId());
+    assertEquals(0, history.get(0).getRunningTotal().compareTo(new BigDecimal("111")));
+    assertEquals(0, history.get(1).getRunningTotal().compareTo(new BigDecimal("101")));
+    assertEquals(0, transactionRepository.runningTotal(account).compareTo(new BigDecimal("111")));
+  }
+
+  @Test
+  void testStaleCachedAccountCannotOverwriteNewerSave() {
+    // --- Arrange ---
+    CachingAccountRepository cached = new CachingAccountRepository(accountRepository);
+    Account copy = cached.findByAccountNumber("CH-1").orElseThrow();
+    copy.setBalance(new BigDecimal("10.00"));
+    cached.save(copy);
+    copy.setBalance(new BigDecimal("20.00"));
+    cached.save(copy); // The copy picked up the version of its first save
+
+    // --- Act ---
+    // Another node updates the account behind the cache's back
+    Account elsewhere = accountRepository.findByAccountNumber("CH-1").orElseThrow();
+    elsewhere.setBalance(new BigDecimal("25.00"));
+    accountRepository.save(elsewhere);
+    copy.setBalance(new BigDecimal("30.00"));
+
+    // --- Assert ---
+    assertThrows(OptimisticLockException.class, () -> cached.save(copy));
+    // The stale copy was dropped: the next lookup sees the other node's write
+    assertEquals(0, cached.findByAccountNumber("CH-1").orElseThrow().getBalance()
+        .compareTo(new BigDecimal("25.00")));
+  }
+
+  @Test
+  void testTransferThroughService() throws Exception {
+    // --- Arrange ---
+    Customer other = customerRepository.save(new Customer("janedoe", "hash", "Jane", "Doe", "jane@example.com"));
+    accountRepository.save(new Account(other, AccountType.CHECKING, "CH-2"));
+    // Each operation commits once, through the unit of work
+    BankingService bankingService = new BankingServiceImpl(accountRepository, transactionRepository,
+        new JpaUnitOfWork(transactions));
+    bankingService.deposit("CH-1", new BigDecimal("100.00"));
+
+    // --- Act ---
+    bankingService.transfer("CH-1", "CH-2", new BigDecimal("40.00"));
+
+    // --- Assert ---
+    assertEquals(0, bankingService.getAccount("CH-1").getBalance().compareTo(new BigDecimal("60.00")));
+    assertEquals(0, bankingService.getAccount("CH-2").getBalance().compareTo(new BigDecimal("40.00")));
+    assertEquals(2, bankingService.getTransactionsForAccount("CH-1").size());
+  }
+
+  private Transaction deposit(String amount, LocalDateTime timestamp) {
+    Transaction tx = new Transaction(account, TransactionType.DEPOSIT, new BigDecimal(amount), "Deposit");
+    tx.setTimestamp(timestamp);
+    return tx;
+  }
+}
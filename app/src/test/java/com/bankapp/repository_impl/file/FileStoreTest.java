@@ -0,0 +1,137 @@
+package com.bankapp.repository_impl.file;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.AccountType;
+import com.bankapp.model.Customer;
+import com.bankapp.model.Transaction;
+import com.bankapp.service.BankingService;
+import com.bankapp.service.impl.BankingServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileStoreTest {
+
+  private Path directory;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    directory = Files.createTempDirectory("bankapp-file-store");
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+    }
+  }
+
+  @Test
+  void testReopenRestoresSnapshotAndLog() throws Exception {
+    // --- Arrange ---
+    try (FileStore store = FileStore.open(directory)) {
+      BankingService bankingService = new BankingServiceImpl(store.getAccountRepository(),
+          store.getTransactionRepository(), store.getUnitOfWork());
+      Customer customer = store.getCustomerRepository()
+          .insertIfAbsent(new Customer("userA", "hash", "A", "A", "a@a.com")).orElseThrow();
+      Account fromAccount = new Account(customer, AccountType.CHECKING, "12345");
+      fromAccount.setBalance(new BigDecimal("100.00"));
+      store.getAccountRepository().save(fromAccount);
+      store.getAccountRepository().save(new Account(customer, AccountType.SAVINGS, "67890"));
+
+      // --- Act ---
+      // One transfer is folded into the snapshot, the other stays in the log
+      bankingService.transfer("12345", "67890", new BigDecimal("30.00"));
+      store.snapshot();
+      bankingService.transfer("12345", "67890", new BigDecimal("20.00"));
+    }
+
+    // --- Assert ---
+    try (FileStore store = FileStore.open(directory)) {
+      BankingService bankingService = new BankingServiceImpl(store.getAccountRepository(),
+          store.getTransactionRepository(), store.getUnitOfWork());
+      Customer customer = store.getCustomerRepository().findByUsername("userA").orElseThrow();
+      assertEquals(2, store.getAccountRepository().findAllByCustomer(customer).size());
+
+      Account fromAccount = store.getAccountRepository().findByAccountNumber("12345").orElseThrow();
+      Account toAccount = store.getAccountRepository().findByAccountNumber("67890").orElseThrow();
+      assertEquals(0, new BigDecimal("50.00").compareTo(fromAccount.getBalance()));
+      assertEquals(0, new BigDecimal("50.00").compareTo(toAccount.getBalance()));
+      assertEquals(customer, toAccount.getCustomer());
+
+      List<Transaction> history = bankingService.getTransactionsForAccount("12345");
+      assertEquals(2, history.size());
+      assertEquals(0, new BigDecimal("-20.00").compareTo(history.get(0).getAmount()));
+
+      // New IDs continue after the reloaded ones
+      Customer second = store.getCustomerRepository()
+          .insertIfAbsent(new Customer("userB", "hash", "B", "B", "b@b.com")).orElseThrow();
+      assertTrue(second.getId() > customer.getId());
+    }
+  }
+
+  @Test
+  void testTornLogTailIsIgnored() throws Exception {
+    // --- Arrange ---
+    try (FileStore store = FileStore.open(directory)) {
+      store.getCustomerRepository().save(new Customer("userA", "hash", "A", "A", "a@a.com"));
+    }
+
+    // --- Act ---
+    // Simulate a crash halfway through writing the next frame
+    Path log;
+    try (Stream<Path> files = Files.list(directory)) {
+      log = files.filter(file -> file.getFileName().toString().startsWith("wal-"))
+          .filter(file -> file.toFile().length() > 0)
+          .findFirst().orElseThrow();
+    }
+    Files.write(log, new byte[] { 0, 0, 0, 100, 1, 2, 3 }, StandardOpenOption.APPEND);
+
+    // --- Assert ---
+    try (FileStore store = FileStore.open(directory)) {
+      assertTrue(store.getCustomerRepository().findByUsername("userA").isPresent());
+      assertEquals(1, store.getCustomerRepository().findAll().size());
+    }
+  }
+
+  @Test
+  void testFailedBackgroundSnapshotIsReported() throws Exception {
+    // --- Arrange ---
+    // A directory where the snapshot's temporary file should go makes every snapshot fail
+    Path blocker = Files.createDirectory(directory.resolve("snapshot.dat.tmp"));
+
+    // --- Act ---
+    try (FileStore store = FileStore.open(directory, 1, true)) { // A snapshot after every commit
+      store.getCustomerRepository().save(new Customer("userA", "hash", "A", "A", "a@a.com"));
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+      while (store.getLastSnapshotFailure().isEmpty() && System.nanoTime() < deadline) {
+        Thread.sleep(10); // The snapshot runs in the background
+      }
+
+      // --- Assert ---
+      assertInstanceOf(IOException.class, store.getLastSnapshotFailure().orElseThrow());
+
+      // The next snapshot that succeeds clears the failure
+      Files.delete(blocker);
+      store.snapshot();
+      assertTrue(store.getLastSnapshotFailure().isEmpty());
+    }
+
+    // Nothing was lost
+    try (FileStore store = FileStore.open(directory)) {
+      assertTrue(store.getCustomerRepository().findByUsername("userA").isPresent());
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package com.bankapp.repository_impl.filter;
+
+import com.bankapp.model.Customer;
+import com.bankapp.repository_impl.mock.MockCustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilteredCustomerRepositoryTest {
+
+  // Counts the lookups that reach the store
+  private final AtomicInteger storeLookups = new AtomicInteger();
+  private MockCustomerRepository store;
+
+  @BeforeEach
+  void setUp() {
+    store = new MockCustomerRepository() {
+      @Override
+      public Optional<Customer> findByUsername(String username) {
+        storeLookups.incrementAndGet();
+        return super.findByUsername(username);
+      }
+
+      @Override
+      public Optional<Customer> findByEmail(String email) {
+        storeLookups.incrementAndGet();
+        return super.findByEmail(email);
+      }
+    };
+  }
+
+  @Test
+  void testUnknownKeysSkipTheStoreAndKnownKeysAreFound() {
+    // --- Arrange ---
+    // One customer exists before the filter is created, one is added through it
+    store.save(new Customer("johndoe", "hash", "John", "Doe", "john@example.com"));
+    BloomFilteredCustomerRepository repository = new BloomFilteredCustomerRepository(store);
+    repository.insertIfAbsent(new Customer("janedoe", "hash", "Jane", "Doe", "jane@example.com"));
+
+    // --- Act ---
+    int misses = 0;
+    for (int i = 0; i < 1000; i++) {
+      if (repository.findByUsername("attacker" + i).isEmpty()) {
+        misses++;
+      }
+    }
+
+    // --- Assert ---
+    assertEquals(1000, misses);
+    // At a 1% false-positive rate, nearly all of the unknown names never reach the store
+    assertTrue(storeLookups.get() < 50, "store lookups: " + storeLookups.get());
+    assertEquals(storeLookups.get(), repository.getFalsePositiveCount());
+
+    // Known keys are always found, whatever their case
+    assertTrue(repository.findByUsername("JohnDoe").isPresent());
+    assertTrue(repository.findByEmail("JANE@example.com").isPresent());
+  }
+
+  @Test
+  void testRepeatedPutsDoNotGrowTheFilter() {
+    // --- Arrange ---
+    BloomFilter filter = new BloomFilter(100, 0.01);
+
+    // --- Act ---
+    // The same 100 keys put again and again, like customers saved on every change
+    for (int round = 0; round < 50; round++) {
+      for (int i = 0; i < 100; i++) {
+        filter.put("user" + i);
+      }
+    }
+
+    // --- Assert ---
+    assertEquals(1, filter.getLayerCount());
+    for (int i = 0; i < 100; i++) {
+      assertTrue(filter.mightContain("user" + i));
+    }
+
+    // New keys still make it grow once it is full
+    for (int i = 100; i < 400; i++) {
+      filter.put("user" + i);
+    }
+    assertTrue(filter.getLayerCount() > 1);
+  }
+}
@@ -4,9 +4,17 @@ import com.bankapp.model.Customer;
 import com.bankapp.repository.CustomerRepository;
 import com.bankapp.repository_impl.mock.MockCustomerRepository;
 import com.bankapp.service.AuthService;
+import com.bankapp.service.exception.AuthException;
+import com.bankapp.service.exception.LoginThrottledException;
+import com.bankapp.service.exception.ServiceBusyException;
 import com.bankapp.service.exception.UserAlreadyExistsException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -62,4 +70,134 @@ class AuthServiceImplTest {
     // 3. (Optional) Check the error message
     assertTrue(exception.getMessage().contains("Username is already taken"));
   }
+
+  @Test
+  void testRegisterUserWithDuplicateEmailIgnoresCase() throws UserAlreadyExistsException {
+    // --- Arrange ---
+    authService.register("johndoe", "password123", "John", "Doe", "john@example.com");
+
+    // --- Act & Assert ---
+    // Same email with different capitalization is still the same email
+    UserAlreadyExistsException exception = assertThrows(UserAlreadyExistsException.class, () -> {
+      authService.register("janedoe", "newpass", "Jane", "Doe", "John@Example.com");
+    });
+
+    assertTrue(exception.getMessage().contains("Email is already taken"));
+    assertTrue(customerRepository.findByUsername("JohnDoe").isPresent());
+  }
+
+  @Test
+  void testLoginIsRejectedWhenHashingQueueIsFull() throws Exception {
+    // --- Arrange ---
+    // An encoder that holds the only hashing thread until released
+    CountDownLatch release = new CountDownLatch(1);
+    PasswordEncoder blockingEncoder = new PasswordEncoder() {
+      @Override
+      public String encode(CharSequence rawPassword) {
+        return "hash:" + rawPassword;
+      }
+
+      @Override
+      public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return encode(rawPassword).equals(encodedPassword);
+      }
+    };
+    PasswordHasher hasher = new PasswordHasher(blockingEncoder, 1, 1);
+    authService = new AuthServiceImpl(customerRepository, hasher);
+    authService.register("johndoe", "password123", "John", "Doe", "john@example.com");
+
+    // --- Act ---
+    // One check runs, one waits, and the third has nowhere to go
+    CompletableFuture<Customer> running = authService.loginAsync("johndoe", "password123");
+    while (hasher.getQueueDepth() > 0) {
+      Thread.onSpinWait(); // Wait for the worker to pick up the first check
+    }
+    CompletableFuture<Customer> queued = authService.loginAsync("johndoe", "password123");
+
+    // --- Assert ---
+    assertThrows(ServiceBusyException.class, () -> authService.login("johndoe", "password123"));
+    assertEquals(1, hasher.getRejectedCount());
+
+    release.countDown();
+    assertEquals("johndoe", running.get().getUsername());
+    assertEquals("johndoe", queued.get().getUsername());
+    hasher.shutdown();
+  }
+
+  @Test
+  void testLoginUpgradesLegacyHashToCurrentPolicy() throws Exception {
+    // --- Arrange ---
+    // Register under an older policy (a lower BCrypt cost)
+    new AuthServiceImpl(customerRepository, new PasswordHasher(8, 1, 8))
+        .register("johndoe", "password123", "John", "Doe", "john@example.com");
+    String legacyHash = customerRepository.findByUsername("johndoe").get().getPasswordHash();
+    AuthServiceImpl upgradingService = new AuthServiceImpl(customerRepository, new PasswordHasher(10, 1, 8));
+    assertEquals(1, upgradingService.countLegacyPasswordHashes());
+
+    // --- Act ---
+    upgradingService.login("johndoe", "password123");
+    long deadline = System.currentTimeMillis() + 5000;
+    while (upgradingService.getUpgradedHashCount() == 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10); // The rehash happens after the login returns
+    }
+
+    // --- Assert ---
+    String newHash = customerRepository.findByUsername("johndoe").get().getPasswordHash();
+    assertNotEquals(legacyHash, newHash);
+    assertEquals(1, upgradingService.getLegacyLoginCount());
+    assertEquals(0, upgradingService.countLegacyPasswordHashes());
+    assertEquals("johndoe", upgradingService.login("johndoe", "password123").getUsername());
+  }
+
+  @Test
+  void testRepeatedLoginsAreThrottledBeforeHashing() throws Exception {
+    // --- Arrange ---
+    PasswordHasher hasher = new PasswordHasher(4, 1, 8);
+    authService = new AuthServiceImpl(customerRepository, hasher,
+        new LoginRateLimiter(3, Duration.ofHours(1), 1024),
+        new LoginRateLimiter(100, Duration.ofHours(1), 1024));
+    authService.register("johndoe", "password123", "John", "Doe", "john@example.com");
+    long hashesBefore = hasher.getHashLatency().getCount();
+
+    // --- Act ---
+    // Three wrong guesses use up the username's attempts (whatever the case of the username)
+    for (String guess : new String[] { "guess1", "guess2", "guess3" }) {
+      assertThrows(AuthException.class, () -> authService.login("JohnDoe", guess, "client-1"));
+    }
+
+    // --- Assert ---
+    // Even the right password is refused now, from any client, without being checked
+    LoginThrottledException exception = assertThrows(LoginThrottledException.class,
+        () -> authService.login("johndoe", "password123", "client-2"));
+    assertTrue(exception.getRetryAfter().toMinutes() > 0);
+    assertEquals(3, hasher.getHashLatency().getCount() - hashesBefore);
+  }
+
+  @Test
+  void testOtherUsernamesCannotResetAThrottledUsername() throws Exception {
+    // --- Arrange ---
+    // Room for four usernames, all in one set
+    authService = new AuthServiceImpl(customerRepository, new PasswordHasher(4, 1, 8),
+        new LoginRateLimiter(3, Duration.ofHours(1), 4),
+        new LoginRateLimiter(1000, Duration.ofHours(1), 1024));
+    authService.register("johndoe", "password123", "John", "Doe", "john@example.com");
+    for (String guess : new String[] { "guess1", "guess2", "guess3" }) {
+      assertThrows(AuthException.class, () -> authService.login("johndoe", guess, "client-1"));
+    }
+
+    // --- Act ---
+    // Enough other usernames to push johndoe's bucket out of a table that evicted it
+    for (int i = 0; i < 10; i++) {
+      String junk = "junk" + i;
+      assertThrows(AuthException.class, () -> authService.login(junk, "password123", "client-1"));
+    }
+
+    // --- Assert ---
+    assertThrows(LoginThrottledException.class, () -> authService.login("johndoe", "password123", "client-1"));
+  }
 }
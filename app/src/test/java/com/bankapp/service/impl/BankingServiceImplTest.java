@@ -4,17 +4,38 @@ import com.bankapp.model.Account;
 import com.bankapp.model.AccountType;
 import com.bankapp.model.Customer;
 import com.bankapp.model.Transaction;
+import com.bankapp.model.TransactionType;
 import com.bankapp.repository.AccountRepository;
+import com.bankapp.repository.TransactionPage;
 import com.bankapp.repository.TransactionRepository;
 import com.bankapp.repository_impl.mock.MockAccountRepository;
 import com.bankapp.repository_impl.mock.MockTransactionRepository;
+import com.bankapp.repository_impl.mock.MockUnitOfWork;
 import com.bankapp.service.BankingService;
+import com.bankapp.service.batch.BatchItemResult;
+import com.bankapp.service.batch.TransferInstruction;
+import com.bankapp.service.exception.BalanceRollbackException;
 import com.bankapp.service.exception.InsufficientFundsException;
+import com.bankapp.service.exception.InvalidAmountException;
+import com.bankapp.service.ledger.ReconciliationReport;
+import com.bankapp.service.ledger.ReplayReport;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -107,4 +128,477 @@ class BankingServiceImplTest {
     assertEquals(0, transactionRepository.findAllByAccount(fromAccount).size());
     assertEquals(0, transactionRepository.findAllByAccount(toAccount).size());
   }
+
+  @Test
+  void testGetAccountsForCustomerById() {
+    // --- Arrange ---
+    // A customer that has been persisted (so it has an ID) with two accounts
+    Customer owner = new Customer("owner", "hash", "O", "O", "o@o.com");
+    owner.setId(42L);
+    accountRepository.save(new Account(owner, AccountType.CHECKING, "CH-1"));
+    accountRepository.save(new Account(owner, AccountType.SAVINGS, "SA-1"));
+
+    // --- Act ---
+    // The service only knows the customer's ID, not the full object
+    Set<Account> accounts = bankingService.getAccountsForCustomer(42L);
+
+    // --- Assert ---
+    assertEquals(2, accounts.size());
+    assertTrue(bankingService.getAccountsForCustomer(99L).isEmpty());
+  }
+
+  @Test
+  void testTransactionHistoryIsNewestFirst() throws Exception {
+    // --- Arrange ---
+    Transaction first = bankingService.deposit("12345", new BigDecimal("10.00"));
+    Transaction second = bankingService.withdraw("12345", new BigDecimal("5.00"));
+
+    // --- Act ---
+    List<Transaction> history = bankingService.getTransactionsForAccount("12345");
+
+    // --- Assert ---
+    assertEquals(List.of(second, first), history);
+  }
+
+  @Test
+  void testTransactionHistoryPagesFollowCursor() throws Exception {
+    // --- Arrange ---
+    List<Transaction> deposits = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      deposits.add(bankingService.deposit("12345", BigDecimal.ONE));
+    }
+
+    // --- Act ---
+    TransactionPage firstPage = bankingService.getTransactionsPage("12345", null, 2);
+    TransactionPage secondPage = bankingService.getTransactionsPage("12345", firstPage.getNextCursor().orElseThrow(), 2);
+    TransactionPage lastPage = bankingService.getTransactionsPage("12345", secondPage.getNextCursor().orElseThrow(), 2);
+    List<Transaction> streamed = bankingService.streamTransactionsForAccount("12345", 2).collect(Collectors.toList());
+
+    // --- Assert ---
+    assertEquals(List.of(deposits.get(4), deposits.get(3)), firstPage.getTransactions());
+    assertEquals(List.of(deposits.get(2), deposits.get(1)), secondPage.getTransactions());
+    assertEquals(List.of(deposits.get(0)), lastPage.getTransactions());
+    assertFalse(lastPage.hasNext());
+    assertEquals(bankingService.getTransactionsForAccount("12345"), streamed);
+  }
+
+  @Test
+  void testBalanceAsOfReplaysRunningTotals() throws Exception {
+    // --- Arrange ---
+    Transaction deposit = bankingService.deposit("12345", new BigDecimal("10.00"));
+    Transaction withdrawal = bankingService.withdraw("12345", new BigDecimal("5.00"));
+
+    // A back-dated entry (e.g. imported history) shifts every later running total
+    Transaction imported = new Transaction(fromAccount, TransactionType.DEPOSIT, new BigDecimal("1.00"), "Import");
+    imported.setTimestamp(deposit.getTimestamp().minusDays(1));
+    transactionRepository.save(imported);
+
+    // --- Act & Assert ---
+    // The balance is $105 and the ledger sums to 1 + 10 - 5 = 6, so $99 predates the ledger
+    assertEquals(0, new BigDecimal("6.00").compareTo(withdrawal.getRunningTotal()));
+    assertEquals(0, new BigDecimal("99.00").compareTo(
+        bankingService.balanceAsOf("12345", imported.getTimestamp().minusSeconds(1))));
+    assertEquals(0, new BigDecimal("100.00").compareTo(bankingService.balanceAsOf("12345", imported.getTimestamp())));
+    assertEquals(0, new BigDecimal("110.00").compareTo(bankingService.balanceAsOf("12345", deposit.getTimestamp())));
+    assertEquals(0, new BigDecimal("105.00").compareTo(
+        bankingService.balanceAsOf("12345", withdrawal.getTimestamp())));
+  }
+
+  @Test
+  void testConcurrentOppositeTransfersKeepTotalBalance() throws Exception {
+    // --- Arrange ---
+    // Many threads move $1 back and forth between the same two accounts
+    int threads = 8;
+    int transfersPerThread = 500;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<?>> futures = new ArrayList<>();
+
+    // --- Act ---
+    for (int t = 0; t < threads; t++) {
+      boolean forward = t % 2 == 0;
+      futures.add(executor.submit(() -> {
+        for (int i = 0; i < transfersPerThread; i++) {
+          try {
+            if (forward) {
+              bankingService.transfer("12345", "67890", BigDecimal.ONE);
+            } else {
+              bankingService.transfer("67890", "12345", BigDecimal.ONE);
+            }
+          } catch (InsufficientFundsException e) {
+            // Fine: one side ran dry for a moment
+          }
+        }
+        return null;
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get(30, TimeUnit.SECONDS); // Would time out on a deadlock
+    }
+    executor.shutdown();
+
+    // --- Assert ---
+    // No money was created or lost, and no balance went negative
+    BigDecimal from = accountRepository.findByAccountNumber("12345").get().getBalance();
+    BigDecimal to = accountRepository.findByAccountNumber("67890").get().getBalance();
+    assertEquals(0, from.add(to).compareTo(new BigDecimal("150.00")));
+    assertTrue(from.signum() >= 0 && to.signum() >= 0);
+  }
+
+  @Test
+  void testLockFreeEngineConcurrentDepositsAndOverdraft() throws Exception {
+    // --- Arrange ---
+    // Same repositories, but balances are updated with CAS instead of locks
+    BankingService lockFreeService = new BankingServiceImpl(
+        accountRepository, transactionRepository, new AtomicBalances());
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Future<?>> futures = new ArrayList<>();
+
+    // --- Act ---
+    // 4 threads x 250 deposits of $0.01 = $10.00
+    for (int t = 0; t < 4; t++) {
+      futures.add(executor.submit(() -> {
+        for (int i = 0; i < 250; i++) {
+          lockFreeService.deposit("12345", new BigDecimal("0.01"));
+        }
+        return null;
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get(30, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    // --- Assert ---
+    // The BigDecimal view reflects every deposit
+    Account account = accountRepository.findByAccountNumber("12345").get();
+    assertEquals(0, account.getBalance().compareTo(new BigDecimal("110.00")));
+
+    // The funds check still applies, and sub-cent amounts are rejected
+    assertThrows(InsufficientFundsException.class,
+        () -> lockFreeService.withdraw("12345", new BigDecimal("110.01")));
+    assertThrows(InvalidAmountException.class,
+        () -> lockFreeService.deposit("12345", new BigDecimal("0.001")));
+  }
+
+  @Test
+  void testLockFreeEngineReseedsBalancesWrittenElsewhere() throws Exception {
+    // --- Arrange ---
+    AtomicBalances balances = new AtomicBalances();
+    BankingService lockFreeService = new BankingServiceImpl(accountRepository, transactionRepository, balances);
+    lockFreeService.deposit("12345", new BigDecimal("10.00")); // The cell now holds 110.00
+    AccountRepository importerAccounts = balances.watch(accountRepository);
+    MockUnitOfWork importerUnitOfWork = new MockUnitOfWork();
+
+    // --- Act ---
+    // Something other than the engine (an import, an admin fix) writes the balance
+    balances.watch(importerUnitOfWork).execute(() -> {
+      Account account = importerAccounts.findByAccountNumber("12345").get();
+      account.setBalance(new BigDecimal("500.00"));
+      return importerAccounts.save(account);
+    });
+    lockFreeService.deposit("12345", new BigDecimal("1.00"));
+
+    // --- Assert ---
+    // The deposit lands on the written balance, not on the stale 110.00
+    assertEquals(0, accountRepository.findByAccountNumber("12345").get().getBalance()
+        .compareTo(new BigDecimal("501.00")));
+  }
+
+  @Test
+  void testTransferBatchReportsFailuresWithoutAborting() {
+    // --- Arrange ---
+    List<TransferInstruction> batch = List.of(
+        new TransferInstruction("12345", "67890", new BigDecimal("60.00")), // OK: 100 -> 40
+        new TransferInstruction("12345", "67890", new BigDecimal("60.00")), // Only 40 left
+        new TransferInstruction("12345", "99999", new BigDecimal("1.00")), // Unknown account
+        new TransferInstruction("67890", "12345", new BigDecimal("10.00"))); // OK
+
+    // --- Act ---
+    List<BatchItemResult> results = bankingService.transferBatch(batch);
+
+    // --- Assert ---
+    assertEquals(BatchItemResult.Status.SUCCESS, results.get(0).getStatus());
+    assertEquals(BatchItemResult.Status.INSUFFICIENT_FUNDS, results.get(1).getStatus());
+    assertEquals(BatchItemResult.Status.ACCOUNT_NOT_FOUND, results.get(2).getStatus());
+    assertEquals(BatchItemResult.Status.SUCCESS, results.get(3).getStatus());
+
+    // Net result: 100 - 60 + 10 = 50 and 50 + 60 - 10 = 100
+    assertEquals(0, fromAccount.getBalance().compareTo(new BigDecimal("50.00")));
+    assertEquals(0, toAccount.getBalance().compareTo(new BigDecimal("100.00")));
+
+    // Only the two successful transfers were written to the ledger
+    assertEquals(2, transactionRepository.findAllByAccount(fromAccount).size());
+    assertEquals(2, transactionRepository.findAllByAccount(toAccount).size());
+  }
+
+  @Test
+  void testBatchReportsNullItemsAndRejectsANullList() {
+    // --- Arrange ---
+    List<TransferInstruction> batch = Arrays.asList(
+        new TransferInstruction("12345", "67890", new BigDecimal("10.00")),
+        null,
+        new TransferInstruction("67890", "12345", new BigDecimal("5.00")));
+
+    // --- Act ---
+    List<BatchItemResult> results = bankingService.transferBatch(batch);
+
+    // --- Assert ---
+    assertEquals(BatchItemResult.Status.SUCCESS, results.get(0).getStatus());
+    assertEquals(BatchItemResult.Status.MISSING_INSTRUCTION, results.get(1).getStatus());
+    assertEquals(1, results.get(1).getIndex());
+    assertEquals(BatchItemResult.Status.SUCCESS, results.get(2).getStatus());
+    assertEquals(0, fromAccount.getBalance().compareTo(new BigDecimal("95.00")));
+    assertThrows(IllegalArgumentException.class, () -> bankingService.transferBatch(null));
+    assertThrows(IllegalArgumentException.class, () -> bankingService.depositBatch(null));
+  }
+
+  @Test
+  void testFailedSaveLeavesNoHalfTransfer() {
+    // --- Arrange ---
+    // A ledger that fails on the second leg (the deposit) of every transfer
+    TransactionRepository failingLedger = new MockTransactionRepository() {
+      @Override
+      public Transaction save(Transaction transaction) {
+        if (transaction.getAmount().signum() > 0) {
+          throw new IllegalStateException("Disk full");
+        }
+        return super.save(transaction);
+      }
+    };
+    BankingService atomicService = new BankingServiceImpl(accountRepository, failingLedger, new MockUnitOfWork());
+
+    // --- Act ---
+    assertThrows(IllegalStateException.class,
+        () -> atomicService.transfer("12345", "67890", new BigDecimal("30.00")));
+
+    // --- Assert ---
+    // Neither balance moved, and the withdrawal leg was not written either
+    assertEquals(0, fromAccount.getBalance().compareTo(new BigDecimal("100.00")));
+    assertEquals(0, toAccount.getBalance().compareTo(new BigDecimal("50.00")));
+    assertEquals(0, failingLedger.findAllByAccount(fromAccount).size());
+  }
+
+  @Test
+  void testLockFreeRollbackNeverOverdrawsSpentCredit() {
+    // --- Arrange ---
+    // A ledger that fails to save the deposit, after a concurrent withdrawal has spent it
+    AtomicBalances balances = new AtomicBalances();
+    BankingService[] lockFreeService = new BankingService[1];
+    TransactionRepository failingLedger = new MockTransactionRepository() {
+      @Override
+      public Transaction save(Transaction transaction) {
+        if (transaction.getType() == TransactionType.DEPOSIT) {
+          try {
+            lockFreeService[0].withdraw("12345", new BigDecimal("120.00")); // 150 -> 30
+          } catch (Exception e) {
+            throw new AssertionError(e);
+          }
+          throw new IllegalStateException("Disk full");
+        }
+        return super.save(transaction);
+      }
+    };
+    lockFreeService[0] = new BankingServiceImpl(accountRepository, failingLedger, balances);
+
+    // --- Act ---
+    BalanceRollbackException e = assertThrows(BalanceRollbackException.class,
+        () -> lockFreeService[0].deposit("12345", new BigDecimal("50.00")));
+
+    // --- Assert ---
+    // The 50.00 can't be taken back from 30.00: the failure says so instead of going negative
+    assertEquals(IllegalStateException.class, e.getSuppressed()[0].getClass());
+    assertEquals(0, fromAccount.getBalance().compareTo(new BigDecimal("30.00")));
+  }
+
+  @Test
+  void testUncommittedAccountNumberIsReserved() throws Exception {
+    // --- Arrange ---
+    Customer customer = fromAccount.getCustomer();
+    MockUnitOfWork unitOfWork = new MockUnitOfWork();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    // --- Act ---
+    // A second thread inserts the same number while the first insert hasn't committed
+    Future<?> duplicate = unitOfWork.execute(() -> {
+      accountRepository.save(new Account(customer, AccountType.SAVINGS, "NEW-1"));
+      Future<?> other = executor.submit(() -> unitOfWork.execute(
+          () -> accountRepository.save(new Account(customer, AccountType.SAVINGS, "NEW-1"))));
+      try {
+        other.get(30, TimeUnit.SECONDS);
+      } catch (Exception ignored) {
+        // Checked below
+      }
+      return other;
+    });
+
+    // A rolled-back insert gives its number back
+    assertThrows(IllegalStateException.class, () -> unitOfWork.execute(() -> {
+      accountRepository.save(new Account(customer, AccountType.SAVINGS, "NEW-2"));
+      throw new IllegalStateException("Disk full");
+    }));
+    accountRepository.save(new Account(customer, AccountType.SAVINGS, "NEW-2"));
+    executor.shutdown();
+
+    // --- Assert ---
+    ExecutionException e = assertThrows(ExecutionException.class, duplicate::get);
+    assertInstanceOf(IllegalArgumentException.class, e.getCause());
+    assertTrue(accountRepository.findByAccountNumber("NEW-1").isPresent());
+    assertTrue(accountRepository.findByAccountNumber("NEW-2").isPresent());
+  }
+
+  @Test
+  void testAsyncServiceRunsThousandsOfOperationsConcurrently() throws Exception {
+    // --- Arrange ---
+    List<CompletableFuture<Transaction>> deposits = new ArrayList<>();
+
+    try (AsyncBankingServiceImpl service = new AsyncBankingServiceImpl(bankingService)) {
+      // --- Act ---
+      // One virtual thread each, all contending for the same account lock
+      for (int i = 0; i < 10_000; i++) {
+        deposits.add(service.deposit("67890", new BigDecimal("1.00")));
+      }
+      CompletableFuture.allOf(deposits.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+      CompletableFuture<Transaction> overdraft = service.withdraw("12345", new BigDecimal("1000.00"));
+
+      // --- Assert ---
+      assertEquals(0, new BigDecimal("10050.00").compareTo(bankingService.getAccount("67890").getBalance()));
+      // A checked exception from the service fails the future
+      ExecutionException exception = assertThrows(ExecutionException.class, overdraft::get);
+      assertInstanceOf(InsufficientFundsException.class, exception.getCause());
+    }
+  }
+
+  @Test
+  void testRebuildBalancesReplaysLedgerAcrossAccounts() throws Exception {
+    // --- Arrange ---
+    // Enough accounts for the replay to be split across workers
+    Customer customer = new Customer("userC", "hash", "C", "C", "c@c.com");
+    for (int i = 0; i < 500; i++) {
+      accountRepository.save(new Account(customer, AccountType.SAVINGS, "R-" + i));
+      bankingService.deposit("R-" + i, new BigDecimal(i + 1));
+      bankingService.withdraw("R-" + i, new BigDecimal("0.50"));
+    }
+    bankingService.transfer("12345", "67890", new BigDecimal("30.00"));
+    LocalDateTime beforeReplay = LocalDateTime.now();
+    BigDecimal openingBalanceAsOf = bankingService.balanceAsOf("12345", beforeReplay);
+
+    // --- Act ---
+    ReplayReport first = bankingService.rebuildBalances();
+
+    // Drift: once the ledger explains every balance, one balance no longer matches it
+    bankingService.getAccount("R-7").setBalance(new BigDecimal("999.00"));
+    ReplayReport second = bankingService.rebuildBalances();
+
+    // --- Assert ---
+    // The first replay keeps the balances the ledger doesn't explain, as opening-balance entries
+    assertEquals(502, first.getAccountsReplayed());
+    assertEquals(1002, first.getEntriesReplayed());
+    assertEquals(502, first.getOpeningBalancesRecorded());
+    assertEquals(0, first.getBalancesCorrected());
+    assertEquals(0, new BigDecimal("70.00").compareTo(bankingService.getAccount("12345").getBalance()));
+    assertEquals(0, new BigDecimal("80.00").compareTo(bankingService.getAccount("67890").getBalance()));
+    Account opened = accountRepository.findByAccountNumber("12345").orElseThrow();
+    assertEquals(0, new BigDecimal("70.00").compareTo(transactionRepository.runningTotal(opened)));
+    assertEquals(0, openingBalanceAsOf.compareTo(bankingService.balanceAsOf("12345", beforeReplay)));
+
+    // The second corrects the drift against the now complete ledger
+    assertEquals(1504, second.getEntriesReplayed());
+    assertEquals(0, second.getOpeningBalancesRecorded());
+    assertEquals(1, second.getBalancesCorrected());
+    assertEquals(0, new BigDecimal("7.50").compareTo(bankingService.getAccount("R-7").getBalance()));
+    assertEquals(0, new BigDecimal("499.50").compareTo(bankingService.getAccount("R-499").getBalance()));
+
+    // A third replay finds nothing left to do
+    ReplayReport third = bankingService.rebuildBalances();
+    assertEquals(0, third.getOpeningBalancesRecorded());
+    assertEquals(0, third.getBalancesCorrected());
+  }
+
+  @Test
+  void testReconcileFindsDriftAndBrokenTransfers() throws Exception {
+    // --- Arrange ---
+    Customer customer = new Customer("userD", "hash", "D", "D", "d@d.com");
+    for (int i = 0; i < 300; i++) {
+      accountRepository.save(new Account(customer, AccountType.CHECKING, "P-" + i));
+      bankingService.deposit("P-" + i, new BigDecimal("100.00"));
+    }
+    for (int i = 0; i < 300; i++) {
+      bankingService.transfer("P-" + i, "P-" + (i + 1) % 300, new BigDecimal("1.00"));
+    }
+    bankingService.rebuildBalances(); // Records the opening balances from setUp in the ledger
+
+    ReconciliationReport baseline = bankingService.reconcile();
+    assertTrue(baseline.isClean(), baseline.toString());
+    assertEquals(302, baseline.getAccountsChecked());
+    assertEquals(900 + 302, baseline.getEntriesChecked()); // An opening-balance entry per account
+
+    // A transfer whose legs don't cancel, a leg with no partner, and a drifted balance
+    UUID broken = UUID.randomUUID();
+    Transaction debit = new Transaction(accountRepository.findByAccountNumber("P-1").get(),
+        TransactionType.WITHDRAWAL, new BigDecimal("-10.00"), "Broken");
+    debit.setCorrelationId(broken);
+    Transaction credit = new Transaction(accountRepository.findByAccountNumber("P-2").get(),
+        TransactionType.DEPOSIT, new BigDecimal("9.00"), "Broken");
+    credit.setCorrelationId(broken);
+    Transaction orphan = new Transaction(accountRepository.findByAccountNumber("P-3").get(),
+        TransactionType.DEPOSIT, new BigDecimal("5.00"), "Orphan");
+    orphan.setCorrelationId(UUID.randomUUID());
+    transactionRepository.saveAll(List.of(debit, credit, orphan));
+    bankingService.getAccount("P-5").setBalance(new BigDecimal("1.00"));
+
+    // --- Act ---
+    ReconciliationReport incremental = bankingService.reconcile(baseline.getCheckpoint());
+    ReconciliationReport next = bankingService.reconcile(incremental.getCheckpoint());
+    ReconciliationReport full = bankingService.reconcile();
+
+    // --- Assert ---
+    // Only the new entries, and the accounts they touched, are checked
+    assertEquals(3, incremental.getEntriesChecked());
+    assertEquals(3, incremental.getBalanceMismatchCount()); // Balances weren't updated with the ledger
+    assertEquals(1, incremental.getTransferMismatchCount());
+    assertEquals(ReconciliationReport.TransferMismatch.Reason.AMOUNTS_DO_NOT_CANCEL,
+        incremental.getTransferMismatches().get(0).getReason());
+    // The orphan leg gets one run to find its partner before it is reported
+    assertEquals(1, incremental.getCheckpoint().getOpenLegs().size());
+
+    assertEquals(0, next.getEntriesChecked());
+    assertEquals(1, next.getTransferMismatchCount());
+    assertEquals(ReconciliationReport.TransferMismatch.Reason.UNPAIRED,
+        next.getTransferMismatches().get(0).getReason());
+    assertEquals(List.of(orphan.getId()), next.getTransferMismatches().get(0).getTransactionIds());
+
+    // A full run finds everything, including the drift no new entry touched
+    assertEquals(4, full.getBalanceMismatchCount());
+    assertTrue(full.getBalanceMismatches().stream().anyMatch(m -> m.getAccountNumber().equals("P-5")));
+    assertEquals(2, full.getTransferMismatchCount());
+  }
+
+  @Test
+  void testIncrementalReconcileChecksEntriesCommittedBelowTheCheckpoint() {
+    // --- Arrange ---
+    bankingService.rebuildBalances();
+    ReconciliationReport baseline = bankingService.reconcile();
+    Transaction late = new Transaction(fromAccount, TransactionType.DEPOSIT, new BigDecimal("5.00"), "Late");
+    Transaction next = new Transaction(toAccount, TransactionType.DEPOSIT, new BigDecimal("7.00"), "Next");
+
+    // --- Act ---
+    // The late entry gets its ID first but commits last, after a run that checked a higher ID
+    ReconciliationReport before = new MockUnitOfWork().execute(() -> {
+      transactionRepository.save(late);
+      return CompletableFuture.supplyAsync(() -> {
+        transactionRepository.save(next);
+        return bankingService.reconcile(baseline.getCheckpoint());
+      }).join();
+    });
+    ReconciliationReport after = bankingService.reconcile(before.getCheckpoint());
+    ReconciliationReport again = bankingService.reconcile(after.getCheckpoint());
+
+    // --- Assert ---
+    assertTrue(late.getId() < before.getCheckpoint().getLastTransactionId());
+    assertEquals(1, before.getEntriesChecked());
+    assertEquals(1, after.getEntriesChecked());
+    assertEquals(1, after.getBalanceMismatchCount()); // The balance wasn't updated with the late entry
+    assertEquals("12345", after.getBalanceMismatches().get(0).getAccountNumber());
+    assertEquals(0, again.getEntriesChecked());
+  }
 }
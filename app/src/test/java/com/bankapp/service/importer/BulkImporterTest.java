@@ -0,0 +1,220 @@
+package com.bankapp.service.importer;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.AccountType;
+import com.bankapp.model.Customer;
+import com.bankapp.model.Transaction;
+import com.bankapp.repository.AccountRepository;
+import com.bankapp.repository.CustomerRepository;
+import com.bankapp.repository.TransactionRepository;
+import com.bankapp.repository.UnitOfWork;
+import com.bankapp.repository_impl.mock.MockAccountRepository;
+import com.bankapp.repository_impl.mock.MockCustomerRepository;
+import com.bankapp.repository_impl.mock.MockTransactionRepository;
+import com.bankapp.repository_impl.mock.MockUnitOfWork;
+import com.bankapp.service.impl.PasswordPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkImporterTest {
+
+  private Path directory;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    directory = Files.createTempDirectory("bankapp-import");
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+    }
+  }
+
+  @Test
+  void testImportsValidRowsAndReportsRejectedLines() throws Exception {
+    // --- Arrange ---
+    CustomerRepository customerRepository = new MockCustomerRepository();
+    AccountRepository accountRepository = new MockAccountRepository();
+    TransactionRepository transactionRepository = new MockTransactionRepository();
+    PasswordPolicy policy = PasswordPolicy.of(PasswordPolicy.BCRYPT, 4);
+    String hash = policy.encode("secret");
+    customerRepository.save(new Customer("existing", hash, "E", "E", "existing@x.com"));
+
+    // Small batches, so that the rows go through several of them
+    BulkImporter importer = new BulkImporter(customerRepository, accountRepository, transactionRepository,
+        new MockUnitOfWork(), policy, 2, 7);
+
+    Path customers = write("customers.csv",
+        "username,passwordHash,firstName,lastName,email",
+        "alice," + hash + ",Alice,A,alice@x.com",
+        "bob,plaintext,Bob,B,bob@x.com",
+        "carol," + hash + ",Carol,C,carol@x.com",
+        "ALICE," + hash + ",Alice,Again,alice2@x.com",
+        "",
+        "existing," + hash + ",E,E,other@x.com");
+    Path accounts = write("accounts.csv",
+        "accountNumber,username,type,openedDate",
+        "IMP-1,alice,CHECKING,2020-01-31",
+        "IMP-2,carol,savings,",
+        "IMP-1,carol,SAVINGS,",
+        "IMP-3,nobody,CHECKING");
+    StringBuilder transactions = new StringBuilder("accountNumber,timestamp,type,amount,description,correlationId\r\n");
+    transactions.append("IMP-1,2020-02-01T09:00:00,DEPOSIT,100.00,\"Salary, \"\"February\"\"\",\r\n");
+    for (int i = 0; i < 50; i++) {
+      transactions.append("IMP-2,2020-02-02T09:00:00,DEPOSIT,1.00,Interest,\r\n");
+    }
+    transactions.append("IMP-1,2020-02-03T09:00:00,WITHDRAWAL,-30.00,Rent,0f8fad5b-d9cb-469f-a165-70867728950e\r\n");
+    transactions.append("IMP-2,2020-02-03T09:00:00,WITHDRAWAL,30.00,Wrong sign,\r\n");
+    transactions.append("IMP-9,2020-02-03T09:00:00,DEPOSIT,5.00,Unknown account,\r\n");
+    Path transactionsFile = directory.resolve("transactions.csv");
+    Files.writeString(transactionsFile, transactions, StandardCharsets.UTF_8);
+
+    // --- Act ---
+    ImportReport customerReport = importer.importCustomers(customers);
+    ImportReport accountReport = importer.importAccounts(accounts);
+    ImportReport transactionReport = importer.importTransactions(transactionsFile);
+
+    // --- Assert ---
+    assertEquals(5, customerReport.getRowsRead());
+    assertEquals(2, customerReport.getRowsImported());
+    assertEquals(List.of(3L, 5L, 7L), lines(customerReport));
+    assertTrue(customerRepository.findByUsername("carol").isPresent());
+
+    assertEquals(2, accountReport.getRowsImported());
+    assertEquals(List.of(4L, 5L), lines(accountReport));
+    Account first = accountRepository.findByAccountNumber("IMP-1").orElseThrow();
+    assertEquals(LocalDate.of(2020, 1, 31), first.getOpenedDate());
+
+    assertEquals(54, transactionReport.getRowsRead());
+    assertEquals(52, transactionReport.getRowsImported());
+    assertEquals(List.of(54L, 55L), lines(transactionReport));
+    assertEquals(2, transactionReport.getRejectedCount());
+    assertEquals(0, new BigDecimal("70.00").compareTo(
+        accountRepository.findByAccountNumber("IMP-1").orElseThrow().getBalance()));
+    assertEquals(0, new BigDecimal("50.00").compareTo(
+        accountRepository.findByAccountNumber("IMP-2").orElseThrow().getBalance()));
+    List<Transaction> ledger = transactionRepository.findAllByAccount(first);
+    assertTrue(ledger.stream().anyMatch(t -> "Salary, \"February\"".equals(t.getDescription())));
+    assertEquals(0, new BigDecimal("70.00").compareTo(transactionRepository.runningTotal(first)));
+  }
+
+  @Test
+  void testLargeFileWithSlowWriterFinishes() throws Exception {
+    // --- Arrange ---
+    AccountRepository accountRepository = new MockAccountRepository();
+    TransactionRepository transactionRepository = new MockTransactionRepository();
+    Customer owner = new Customer("bulk", "hash", "B", "B", "bulk@x.com");
+    accountRepository.save(new Account(owner, AccountType.CHECKING, "BIG-1"));
+    accountRepository.save(new Account(owner, AccountType.CHECKING, "BIG-2"));
+
+    // Every batch takes a while to commit, so the parsers fill the queue and wait on it
+    UnitOfWork slowUnitOfWork = new UnitOfWork() {
+      @Override
+      public <T> T execute(Supplier<T> work) {
+        try {
+          Thread.sleep(1);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return work.get();
+      }
+    };
+    BulkImporter importer = new BulkImporter(new MockCustomerRepository(), accountRepository,
+        transactionRepository, slowUnitOfWork, PasswordPolicy.of(PasswordPolicy.BCRYPT, 4), 2, 100);
+
+    // About 3 MiB, so the file is split into several chunks; one bad row well past the first chunk
+    int rows = 45_000;
+    int badRow = 30_000;
+    Path file = directory.resolve("large.csv");
+    try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      out.write("accountNumber,timestamp,type,amount,description,correlationId\r\n");
+      for (int i = 0; i < rows; i++) {
+        String type = i == badRow ? "BOGUS" : "DEPOSIT";
+        out.write("BIG-" + (i % 2 + 1) + ",2020-02-01T09:00:00," + type + ",1.00,Bulk deposit number " +
+            String.format("%06d", i) + ",\r\n");
+      }
+    }
+    assertTrue(Files.size(file) > 2 * (1 << 20));
+
+    // --- Act ---
+    ImportReport report = assertTimeoutPreemptively(Duration.ofSeconds(60),
+        () -> importer.importTransactions(file));
+
+    // --- Assert ---
+    assertEquals(rows, report.getRowsRead());
+    assertEquals(rows - 1, report.getRowsImported());
+    assertEquals(List.of(badRow + 2L), lines(report)); // Line numbers run on across chunks
+    assertEquals(0, new BigDecimal("22499.00").compareTo(
+        accountRepository.findByAccountNumber("BIG-1").orElseThrow().getBalance()));
+    assertEquals(0, new BigDecimal("22500.00").compareTo(
+        accountRepository.findByAccountNumber("BIG-2").orElseThrow().getBalance()));
+  }
+
+  @Test
+  void testFirstLineWithADuplicateKeyWinsAcrossChunks() throws Exception {
+    // --- Arrange ---
+    CustomerRepository customerRepository = new MockCustomerRepository();
+    AccountRepository accountRepository = new MockAccountRepository();
+    customerRepository.save(new Customer("owner", "hash", "O", "O", "owner@x.com"));
+    BulkImporter importer = new BulkImporter(customerRepository, accountRepository, new MockTransactionRepository(),
+        new MockUnitOfWork(), PasswordPolicy.of(PasswordPolicy.BCRYPT, 4), 2, 500);
+
+    // About 2 MiB, so the file is split in two; the duplicate's first line is deep in the first chunk,
+    // its second near the start of the second chunk, which its parser reaches sooner
+    int rows = 60_000;
+    Path file = directory.resolve("accounts.csv");
+    try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      out.write("accountNumber,username,type,openedDate\n");
+      for (int i = 0; i < rows; i++) {
+        if (i == 25_000) {
+          out.write("DUP,owner,SAVINGS,2020-01-31\n");
+        } else if (i == 35_000) {
+          out.write("DUP,owner,CHECKING,2021-01-31\n");
+        } else {
+          out.write("ACCT-" + String.format("%08d", i) + ",owner,CHECKING,\n");
+        }
+      }
+    }
+
+    // --- Act ---
+    ImportReport report = importer.importAccounts(file);
+
+    // --- Assert ---
+    assertEquals(rows - 1, report.getRowsImported());
+    assertEquals(List.of(35_002L), lines(report));
+    Account duplicate = accountRepository.findByAccountNumber("DUP").orElseThrow();
+    assertEquals(AccountType.SAVINGS, duplicate.getAccountType());
+    assertEquals(LocalDate.of(2020, 1, 31), duplicate.getOpenedDate());
+  }
+
+  // --- Private Helper Methods ---
+
+  private Path write(String name, String... lines) throws IOException {
+    Path file = directory.resolve(name);
+    Files.write(file, List.of(lines), StandardCharsets.UTF_8);
+    return file;
+  }
+
+  private static List<Long> lines(ImportReport report) {
+    return report.getRejectedRows().stream().map(ImportReport.RejectedRow::getLine).collect(Collectors.toList());
+  }
+}
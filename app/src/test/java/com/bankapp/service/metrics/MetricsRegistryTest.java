@@ -0,0 +1,80 @@
+package com.bankapp.service.metrics;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.AccountType;
+import com.bankapp.model.Customer;
+import com.bankapp.repository.AccountRepository;
+import com.bankapp.repository_impl.metrics.InstrumentedAccountRepository;
+import com.bankapp.repository_impl.metrics.InstrumentedTransactionRepository;
+import com.bankapp.repository_impl.mock.MockAccountRepository;
+import com.bankapp.repository_impl.mock.MockTransactionRepository;
+import com.bankapp.service.BankingService;
+import com.bankapp.service.exception.AccountNotFoundException;
+import com.bankapp.service.exception.InsufficientFundsException;
+import com.bankapp.service.impl.BankingServiceImpl;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsRegistryTest {
+
+  @Test
+  void testInstrumentedServiceRecordsCallsErrorsAndExports() throws Exception {
+    // --- Arrange ---
+    MetricsRegistry registry = new MetricsRegistry();
+    MBeanServer mBeanServer = MBeanServerFactory.newMBeanServer();
+    registry.registerMBeans(mBeanServer);
+
+    AccountRepository accounts = new MockAccountRepository();
+    Account account = new Account(new Customer("userM", "hash", "M", "M", "m@m.com"), AccountType.CHECKING, "M-1");
+    account.setBalance(new BigDecimal("10.00"));
+    accounts.save(account);
+    BankingService bankingService = new InstrumentedBankingService(new BankingServiceImpl(
+        new InstrumentedAccountRepository(accounts, registry),
+        new InstrumentedTransactionRepository(new MockTransactionRepository(), registry)), registry);
+
+    // --- Act ---
+    for (int i = 0; i < 5; i++) {
+      bankingService.deposit("M-1", new BigDecimal("1.00"));
+    }
+    assertThrows(InsufficientFundsException.class, () -> bankingService.withdraw("M-1", new BigDecimal("99.00")));
+    assertThrows(AccountNotFoundException.class, () -> bankingService.withdraw("NOPE", new BigDecimal("1.00")));
+    String prometheus = registry.toPrometheus();
+
+    // --- Assert ---
+    MethodMetrics deposit = registry.method("BankingService", "deposit");
+    assertEquals(5, deposit.getCount());
+    assertEquals(0, deposit.getErrorCount());
+    assertEquals(0, deposit.getInFlight());
+    assertTrue(deposit.getP99Micros() >= deposit.getP50Micros());
+
+    MethodMetrics withdraw = registry.method("BankingService", "withdraw");
+    assertEquals(2, withdraw.getCount());
+    assertEquals(Map.of("AccountNotFoundException", 1L, "InsufficientFundsException", 1L),
+        withdraw.getErrorCounts());
+
+    // The repositories under the service are measured too
+    assertTrue(registry.method("AccountRepository", "findByAccountNumber").getCount() >= 7);
+    assertEquals(5, registry.method("TransactionRepository", "save").getCount());
+
+    assertTrue(prometheus.contains("# TYPE bankapp_call_duration_seconds histogram\n"));
+    assertTrue(prometheus.contains("bankapp_call_duration_seconds_bucket{component=\"BankingService\"," +
+        "method=\"deposit\",le=\"+Inf\"} 5\n"));
+    assertTrue(prometheus.contains(
+        "bankapp_call_duration_seconds_count{component=\"BankingService\",method=\"deposit\"} 5\n"));
+    assertTrue(prometheus.contains("bankapp_call_errors_total{component=\"BankingService\",method=\"withdraw\"," +
+        "exception=\"InsufficientFundsException\"} 1\n"));
+    assertTrue(prometheus.contains("bankapp_calls_in_flight{component=\"BankingService\",method=\"deposit\"} 0\n"));
+
+    ObjectName name = new ObjectName(
+        MetricsRegistry.JMX_DOMAIN + ":type=Metrics,component=BankingService,method=withdraw");
+    assertEquals(2L, mBeanServer.getAttribute(name, "Count"));
+    assertEquals(2L, mBeanServer.getAttribute(name, "ErrorCount"));
+  }
+}
@@ -0,0 +1,133 @@
+package com.bankapp.service.statement;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.AccountType;
+import com.bankapp.model.Customer;
+import com.bankapp.model.Transaction;
+import com.bankapp.model.TransactionType;
+import com.bankapp.repository.AccountRepository;
+import com.bankapp.repository.TransactionRepository;
+import com.bankapp.repository_impl.mock.MockAccountRepository;
+import com.bankapp.repository_impl.mock.MockTransactionRepository;
+import com.bankapp.service.BankingService;
+import com.bankapp.service.exception.StatementChangedException;
+import com.bankapp.service.impl.BankingServiceImpl;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementExporterTest {
+
+  @Test
+  void testExportStreamsRowsWithRunningBalances() throws Exception {
+    // --- Arrange ---
+    AccountRepository accountRepository = new MockAccountRepository();
+    BankingService bankingService = new BankingServiceImpl(accountRepository, new MockTransactionRepository());
+    Account account = new Account(new Customer("userS", "hash", "S", "S", "s@s.com"), AccountType.CHECKING, "S-1");
+    account.setBalance(new BigDecimal("100.00")); // Opening balance from before the ledger
+    accountRepository.save(account);
+    LocalDateTime from = LocalDateTime.now().minusDays(1);
+
+    // Enough rows for several pages, and more bytes than the write buffer holds
+    for (int i = 0; i < 2_000; i++) {
+      bankingService.deposit("S-1", new BigDecimal("1.00"));
+    }
+    bankingService.withdraw("S-1", new BigDecimal("5.00"));
+
+    StatementExporter exporter = new StatementExporter(bankingService);
+    ByteArrayOutputStream csv = new ByteArrayOutputStream();
+    ByteArrayOutputStream ofx = new ByteArrayOutputStream();
+
+    // --- Act ---
+    StatementSummary summary = exporter.export("S-1", from, from.plusDays(2), StatementFormat.CSV,
+        Channels.newChannel(csv));
+    exporter.export("S-1", from, from.plusDays(2), StatementFormat.OFX, Channels.newChannel(ofx));
+
+    // --- Assert ---
+    assertEquals(2_001, summary.getRowCount());
+    assertEquals(0, new BigDecimal("100.00").compareTo(summary.getOpeningBalance()));
+    assertEquals(0, new BigDecimal("2095.00").compareTo(summary.getClosingBalance()));
+    assertEquals(0, new BigDecimal("2000.00").compareTo(summary.getTotalCredits()));
+    assertEquals(0, new BigDecimal("-5.00").compareTo(summary.getTotalDebits()));
+    assertEquals(csv.size(), summary.getBytesWritten());
+
+    List<String> lines = Arrays.asList(csv.toString(StandardCharsets.UTF_8).split("\r\n"));
+    assertEquals("Opening balance,100.00", lines.get(3));
+    assertEquals("Closing balance,2095.00", lines.get(4));
+    // Newest first, each with the balance just after it
+    assertTrue(lines.get(7).endsWith(",WITHDRAWAL,Withdrawal,-5.00,2095.00"), lines.get(7));
+    assertTrue(lines.get(8).endsWith(",DEPOSIT,Deposit,1.00,2100.00"), lines.get(8));
+    assertTrue(lines.get(lines.size() - 1).endsWith(",1.00,101.00"), lines.get(lines.size() - 1));
+    assertEquals(7 + 2_001, lines.size());
+
+    String ofxText = ofx.toString(StandardCharsets.UTF_8);
+    assertEquals(2_001, ofxText.split("<STMTTRN>", -1).length - 1);
+    assertTrue(ofxText.contains("<LEDGERBAL><BALAMT>2095.00</BALAMT>"));
+    assertTrue(ofxText.trim().endsWith("</OFX>"));
+  }
+
+  @Test
+  void testExportFailsIfAnEntryOfThePeriodCommitsWhileWriting() throws Exception {
+    // --- Arrange ---
+    AccountRepository accountRepository = new MockAccountRepository();
+    TransactionRepository transactionRepository = new MockTransactionRepository();
+    BankingService bankingService = new BankingServiceImpl(accountRepository, transactionRepository);
+    Account account = new Account(new Customer("userS", "hash", "S", "S", "s@s.com"), AccountType.CHECKING, "S-1");
+    accountRepository.save(account);
+    LocalDateTime from = LocalDateTime.now().minusDays(1);
+    for (int i = 0; i < 2_000; i++) {
+      bankingService.deposit("S-1", new BigDecimal("1.00"));
+    }
+    StatementExporter exporter = new StatementExporter(bankingService);
+
+    // A back-dated entry commits once the first rows have been written, among the rows not read yet
+    ByteArrayOutputStream csv = new ByteArrayOutputStream();
+    WritableByteChannel channel = new WritableByteChannel() {
+      private final WritableByteChannel delegate = Channels.newChannel(csv);
+      private boolean committed;
+
+      @Override
+      public int write(ByteBuffer source) throws IOException {
+        if (!committed) {
+          committed = true;
+          Transaction late = new Transaction(account, TransactionType.DEPOSIT, new BigDecimal("10.00"), "Late");
+          late.setTimestamp(from.plusMinutes(1));
+          transactionRepository.save(late);
+          account.setBalance(account.getBalance().add(late.getAmount()));
+        }
+        return delegate.write(source);
+      }
+
+      @Override
+      public boolean isOpen() {
+        return delegate.isOpen();
+      }
+
+      @Override
+      public void close() throws IOException {
+        delegate.close();
+      }
+    };
+
+    // --- Act ---
+    assertThrows(StatementChangedException.class,
+        () -> exporter.export("S-1", from, from.plusDays(2), StatementFormat.CSV, channel));
+    StatementSummary again = exporter.export("S-1", from, from.plusDays(2), StatementFormat.CSV,
+        Channels.newChannel(new ByteArrayOutputStream()));
+
+    // --- Assert ---
+    assertEquals(2_001, again.getRowCount());
+    assertEquals(0, new BigDecimal("2010.00").compareTo(again.getClosingBalance()));
+  }
+}